@@ -1,6 +1,10 @@
 package com.eazybytes.accounts;
 
+import com.eazybytes.accounts.cache.CacheProperties;
+import com.eazybytes.accounts.client.DownstreamProperties;
 import com.eazybytes.accounts.dto.AccountsContactInfoDto;
+import com.eazybytes.accounts.replica.ReplicaProperties;
+import com.eazybytes.accounts.sharding.ShardingProperties;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
@@ -23,7 +27,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  */
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {AccountsContactInfoDto.class})
+@EnableConfigurationProperties(value = {AccountsContactInfoDto.class, DownstreamProperties.class, ShardingProperties.class,
+		ReplicaProperties.class, CacheProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Accounts Microservice API Documentation",
@@ -0,0 +1,33 @@
+package com.eazybytes.accounts.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Author: ldeepak
+ *
+ * Settings of the two-tier cache of the fetch API, bound from the "cache" prefix.
+ *
+ * @param enabled - When false every fetch goes to the database as before
+ * @param near - In-process tier of every instance
+ * @param shared - Tier shared by all the instances of the service
+ */
+@ConfigurationProperties(prefix = "cache")
+public record CacheProperties(@DefaultValue("true") boolean enabled, @DefaultValue Near near, @DefaultValue Shared shared) {
+
+	/**
+	 * @param maxEntries - Upper bound of entries kept in memory, new entries are not cached while it is full of live entries
+	 * @param ttl - Entries expire after this long, which also bounds the staleness when an invalidation message is lost
+	 */
+	public record Near(@DefaultValue("10000") int maxEntries, @DefaultValue("30s") Duration ttl) {
+	}
+
+	/**
+	 * @param type - "local" for the in-process stand-in (single instance, tests), "redis" for Redis (spring.data.redis.*)
+	 * @param ttl - Entries expire after this long
+	 */
+	public record Shared(@DefaultValue("local") String type, @DefaultValue("10m") Duration ttl) {
+	}
+}
@@ -0,0 +1,32 @@
+package com.eazybytes.accounts.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Actuator endpoint (/actuator/cachetiers) exposing the hit rate of every tier and the invalidation latency of the two-tier caches.
+ */
+@Component
+@Endpoint(id = "cachetiers")
+public class CacheTiersEndpoint {
+
+	private final List<TwoTierCache<?>> caches;
+
+	public CacheTiersEndpoint(List<TwoTierCache<?>> caches) {
+		this.caches = caches;
+	}
+
+	@ReadOperation
+	public Map<String, TwoTierCache.Stats> cacheTiers() {
+		Map<String, TwoTierCache.Stats> stats = new LinkedHashMap<>();
+		caches.forEach(cache -> stats.put(cache.getName(), cache.stats()));
+		return stats;
+	}
+}
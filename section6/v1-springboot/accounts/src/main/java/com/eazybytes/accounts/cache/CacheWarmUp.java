@@ -0,0 +1,77 @@
+package com.eazybytes.accounts.cache;
+
+import com.eazybytes.accounts.dto.CustomerDto;
+import com.eazybytes.accounts.service.IAccountsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ *
+ * Fills the cache with the hot mobile numbers of the last snapshot (HotKeyTracker) before the service takes traffic.
+ * Spring Boot runs the ApplicationRunners before it switches the readiness state to ACCEPTING_TRAFFIC,
+ * so /actuator/health/readiness reports OUT_OF_SERVICE until the warm-up is over and no request lands on a cold cache.
+ *
+ * The mobile numbers are fetched batch-size at a time with the batched queries of fetchAccounts.
+ * No new batch is started once time-budget is spent, a slow or failing database delays the readiness by one batch at most.
+ */
+@Component
+public class CacheWarmUp implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(CacheWarmUp.class);
+
+	private final HotKeyTracker hotKeyTracker;
+	private final TwoTierCache<CustomerDto> customersCache;
+	private final IAccountsService accountsService;
+	private final boolean enabled;
+	private final Duration timeBudget;
+	private final int batchSize;
+
+	public CacheWarmUp(HotKeyTracker hotKeyTracker, TwoTierCache<CustomerDto> customersCache, IAccountsService accountsService,
+					   @Value("${cache.warm-up.enabled:true}") boolean enabled,
+					   @Value("${cache.warm-up.time-budget:20s}") Duration timeBudget,
+					   @Value("${cache.warm-up.batch-size:500}") int batchSize) {
+		this.hotKeyTracker = hotKeyTracker;
+		this.customersCache = customersCache;
+		this.accountsService = accountsService;
+		this.enabled = enabled;
+		this.timeBudget = timeBudget;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!enabled || !customersCache.isEnabled()) {
+			return;
+		}
+		long start = System.nanoTime();
+		List<String> mobileNumbers = hotKeyTracker.restore();
+		if (mobileNumbers.isEmpty()) {
+			return;
+		}
+		long deadline = start + timeBudget.toNanos();
+		int fetched = 0;
+		int cached = 0;
+		boolean failed = false;
+		try {
+			while (fetched < mobileNumbers.size() && System.nanoTime() - deadline < 0) {
+				List<String> batch = mobileNumbers.subList(fetched, Math.min(fetched + batchSize, mobileNumbers.size()));
+				cached += customersCache.warm(batch, accountsService::fetchAccounts);
+				fetched += batch.size();
+			}
+		} catch (RuntimeException ex) {
+			failed = true;
+			log.warn("Cache warm-up stopped after {} of {} mobile numbers", fetched, mobileNumbers.size(), ex);
+		}
+		log.info("Cache warm-up: {} of {} hot mobile numbers fetched, {} cached, in {} ms{}", fetched, mobileNumbers.size(),
+				cached, Duration.ofNanos(System.nanoTime() - start).toMillis(),
+				fetched < mobileNumbers.size() && !failed ? ", time budget spent" : "");
+	}
+}
@@ -0,0 +1,58 @@
+package com.eazybytes.accounts.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Author: ldeepak
+ *
+ * In-process stand-in of the shared tier (cache.shared.type=local), for a single instance and for tests:
+ * two TwoTierCache over the same LocalSharedCache behave like two instances over one Redis.
+ * Messages are delivered synchronously, on the thread publishing them.
+ */
+public class LocalSharedCache implements SharedCache {
+
+	private record Entry(String value, long expiresAtNanos) {
+	}
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+	@Override
+	public String get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+			entries.remove(key, entry);
+			return null;
+		}
+		return entry.value();
+	}
+
+	@Override
+	public void put(String key, String value, Duration ttl) {
+		long now = System.nanoTime();
+		entries.put(key, new Entry(value, now + ttl.toNanos()));
+	}
+
+	@Override
+	public void evict(String key) {
+		entries.remove(key);
+	}
+
+	@Override
+	public void publish(String channel, String message) {
+		subscribers.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+	}
+
+	@Override
+	public void subscribe(String channel, Consumer<String> listener) {
+		subscribers.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(listener);
+	}
+}
@@ -0,0 +1,123 @@
+package com.eazybytes.accounts.client;
+
+/**
+ * Author: ldeepak
+ *
+ * Count based circuit breaker protecting the calls to one downstream service.
+ *
+ * CLOSED: calls flow, the outcome of the last sliding-window-size calls is recorded.
+ *         Once at least minimum-calls are recorded and the failure rate reaches the threshold, the circuit opens.
+ * OPEN: calls are rejected immediately, without waiting on a downstream that is known to be broken.
+ * HALF_OPEN: after open-state-duration a single trial call is let through, its outcome closes or re-opens the circuit.
+ */
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final int failureRateThreshold;
+	private final int minimumCalls;
+	private final long openStateNanos;
+	private final boolean[] outcomes;
+
+	private State state = State.CLOSED;
+	private int nextIndex;
+	private int recordedCalls;
+	private int failedCalls;
+	private long openedAt;
+	private boolean trialCallInFlight;
+	private long notPermittedCalls;
+
+	public CircuitBreaker(int failureRateThreshold, int slidingWindowSize, int minimumCalls, long openStateMillis) {
+		this.failureRateThreshold = failureRateThreshold;
+		this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+		this.openStateNanos = openStateMillis * 1_000_000L;
+		this.outcomes = new boolean[slidingWindowSize];
+	}
+
+	/**
+	 * @return true if a call may be made now. Every permitted call must be followed by onSuccess or onFailure.
+	 */
+	public synchronized boolean tryAcquirePermission() {
+		if (state == State.OPEN) {
+			if (System.nanoTime() - openedAt < openStateNanos) {
+				notPermittedCalls++;
+				return false;
+			}
+			state = State.HALF_OPEN;
+			trialCallInFlight = false;
+		}
+		if (state == State.HALF_OPEN) {
+			if (trialCallInFlight) {
+				notPermittedCalls++;
+				return false;
+			}
+			trialCallInFlight = true;
+		}
+		return true;
+	}
+
+	public synchronized void onSuccess() {
+		if (state == State.HALF_OPEN) {
+			close();
+		} else {
+			record(false);
+		}
+	}
+
+	public synchronized void onFailure() {
+		if (state == State.HALF_OPEN) {
+			open();
+			return;
+		}
+		record(true);
+		if (state == State.CLOSED && recordedCalls >= minimumCalls
+				&& failedCalls * 100 >= failureRateThreshold * recordedCalls) {
+			open();
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public synchronized float getFailureRate() {
+		return recordedCalls < minimumCalls ? -1f : failedCalls * 100f / recordedCalls;
+	}
+
+	public synchronized int getRecordedCalls() {
+		return recordedCalls;
+	}
+
+	public synchronized long getNotPermittedCalls() {
+		return notPermittedCalls;
+	}
+
+	private void record(boolean failed) {
+		if (recordedCalls == outcomes.length) {
+			if (outcomes[nextIndex]) {
+				failedCalls--;
+			}
+		} else {
+			recordedCalls++;
+		}
+		outcomes[nextIndex] = failed;
+		if (failed) {
+			failedCalls++;
+		}
+		nextIndex = (nextIndex + 1) % outcomes.length;
+	}
+
+	private void open() {
+		state = State.OPEN;
+		openedAt = System.nanoTime();
+		trialCallInFlight = false;
+	}
+
+	private void close() {
+		state = State.CLOSED;
+		trialCallInFlight = false;
+		nextIndex = 0;
+		recordedCalls = 0;
+		failedCalls = 0;
+	}
+}
@@ -0,0 +1,229 @@
+package com.eazybytes.accounts.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.java11.instrument.binder.jdk.MicrometerHttpClient;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: ldeepak
+ *
+ * HTTP client for one downstream service, so that a slow or failing downstream cannot tie up the threads of accounts.
+ *
+ * - Its own java.net.http.HttpClient, hence its own connection pool, with a connect timeout and a per request read timeout.
+ * - A bulkhead (semaphore) limiting the concurrent calls, extra calls are rejected instead of queued.
+ * - A circuit breaker rejecting calls while the downstream keeps failing.
+ * - Hedged requests for idempotent fetches: when no answer arrived after hedge-delay a second request is sent,
+ *   the first successful answer wins and the other request is cancelled. This cuts the latency tail caused by a single slow request.
+ * - Every request is observed: a client span carrying the W3C traceparent header to the downstream, and the http.client.requests timer.
+ */
+public class DownstreamClient implements AutoCloseable {
+
+	private final String name;
+	private final DownstreamProperties.Settings settings;
+	private final ObjectMapper objectMapper;
+	private final ObservationRegistry observationRegistry;
+	private final HttpClient httpClient;
+	private final Semaphore bulkhead;
+	private final CircuitBreaker circuitBreaker;
+	private final ScheduledExecutorService hedgeScheduler;
+
+	private final AtomicLong successfulCalls = new AtomicLong();
+	private final AtomicLong failedCalls = new AtomicLong();
+	private final AtomicLong bulkheadRejectedCalls = new AtomicLong();
+	private final AtomicLong hedgedCalls = new AtomicLong();
+
+	public DownstreamClient(String name, DownstreamProperties.Settings settings, ObjectMapper objectMapper,
+							MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+		this.name = name;
+		this.settings = settings;
+		this.objectMapper = objectMapper;
+		this.observationRegistry = observationRegistry;
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(settings.connectTimeout())
+				.build();
+		// The path without the query string keeps the uri tag of the metrics low cardinality
+		this.httpClient = MicrometerHttpClient.instrumentationBuilder(client, meterRegistry)
+				.observationRegistry(observationRegistry)
+				.uriMapper(request -> request.uri().getPath())
+				.build();
+		this.bulkhead = new Semaphore(settings.maxConcurrentCalls());
+		this.circuitBreaker = new CircuitBreaker(settings.failureRateThreshold(), settings.slidingWindowSize(),
+				settings.minimumCalls(), settings.openStateDuration().toMillis());
+		this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name + "-hedge");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Fetches a resource with GET and maps the JSON body to the given type.
+	 *
+	 * @param path - Path and query string, appended to the base URL
+	 * @param responseType - Type of the JSON body
+	 * @return the body, or empty when the downstream answered 404
+	 * @throws DownstreamException when the call is rejected, times out or the downstream answered with an error
+	 */
+	public <T> Optional<T> fetch(String path, Class<T> responseType) {
+		try {
+			return fetchAsync(path, responseType).join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof DownstreamException downstreamException) {
+				throw downstreamException;
+			}
+			throw new DownstreamException(name, ex.getCause());
+		}
+	}
+
+	/**
+	 * Asynchronous variant of fetch, used to call several downstream services in parallel.
+	 */
+	public <T> CompletableFuture<Optional<T>> fetchAsync(String path, Class<T> responseType) {
+		if (!bulkhead.tryAcquire()) {
+			bulkheadRejectedCalls.incrementAndGet();
+			return CompletableFuture.failedFuture(new DownstreamException(name, "too many concurrent calls"));
+		}
+		if (!circuitBreaker.tryAcquirePermission()) {
+			bulkhead.release();
+			return CompletableFuture.failedFuture(new DownstreamException(name, "circuit breaker is open"));
+		}
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create(settings.baseUrl() + path))
+				.timeout(settings.readTimeout())
+				.header("Accept", "application/json")
+				.GET()
+				.build();
+		CompletableFuture<HttpResponse<byte[]>> response = settings.hedgeDelay() == null
+				? httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+				: sendHedged(request);
+
+		return response.handle((httpResponse, ex) -> {
+			bulkhead.release();
+			if (ex != null) {
+				recordFailure();
+				throw new DownstreamException(name, ex instanceof CompletionException ? ex.getCause() : ex);
+			}
+			int status = httpResponse.statusCode();
+			if (status >= 500) {
+				recordFailure();
+				throw new DownstreamException(name, "HTTP " + status);
+			}
+			// 4xx are answers of a healthy downstream, they do not count against the circuit breaker
+			recordSuccess();
+			if (status == 404) {
+				return Optional.empty();
+			}
+			if (status >= 400) {
+				throw new DownstreamException(name, "HTTP " + status);
+			}
+			try {
+				return Optional.of(objectMapper.readValue(httpResponse.body(), responseType));
+			} catch (IOException ioException) {
+				throw new DownstreamException(name, ioException);
+			}
+		});
+	}
+
+	private CompletableFuture<HttpResponse<byte[]>> sendHedged(HttpRequest request) {
+		CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+		List<CompletableFuture<HttpResponse<byte[]>>> attempts = new CopyOnWriteArrayList<>();
+		AtomicInteger outstandingAttempts = new AtomicInteger(1);
+
+		sendAttempt(request, result, attempts, outstandingAttempts);
+		// The hedge is sent from the scheduler thread, it is put back in the observation of the caller
+		// so that both attempts belong to the same trace
+		Observation parent = observationRegistry.getCurrentObservation();
+		Runnable hedgeAttempt = () -> {
+			if (!result.isDone()) {
+				hedgedCalls.incrementAndGet();
+				outstandingAttempts.incrementAndGet();
+				sendAttempt(request, result, attempts, outstandingAttempts);
+			}
+		};
+		ScheduledFuture<?> hedge = hedgeScheduler.schedule(parent == null ? hedgeAttempt : () -> parent.scoped(hedgeAttempt),
+				settings.hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+
+		// The first answer wins, the timer and the slower request are cancelled.
+		// Cancelling the observed future stops waiting for the slower request, its connection is freed at the latest by the read timeout
+		result.whenComplete((httpResponse, ex) -> {
+			hedge.cancel(false);
+			attempts.forEach(attempt -> attempt.cancel(true));
+		});
+		return result;
+	}
+
+	private void sendAttempt(HttpRequest request, CompletableFuture<HttpResponse<byte[]>> result,
+							 List<CompletableFuture<HttpResponse<byte[]>>> attempts, AtomicInteger outstandingAttempts) {
+		CompletableFuture<HttpResponse<byte[]>> attempt = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+		attempts.add(attempt);
+		attempt.whenComplete((httpResponse, ex) -> {
+			boolean successful = ex == null && httpResponse.statusCode() < 500;
+			// A failed attempt only fails the call when no other attempt is still running
+			if (successful || outstandingAttempts.decrementAndGet() == 0) {
+				if (ex != null) {
+					result.completeExceptionally(ex);
+				} else {
+					result.complete(httpResponse);
+				}
+			}
+		});
+		if (result.isDone()) {
+			attempt.cancel(true);
+		}
+	}
+
+	private void recordSuccess() {
+		successfulCalls.incrementAndGet();
+		circuitBreaker.onSuccess();
+	}
+
+	private void recordFailure() {
+		failedCalls.incrementAndGet();
+		circuitBreaker.onFailure();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return point in time view of the client state, exposed through the downstreams actuator endpoint
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(settings.baseUrl(), circuitBreaker.getState().name(), circuitBreaker.getFailureRate(),
+				circuitBreaker.getRecordedCalls(), circuitBreaker.getNotPermittedCalls(),
+				settings.maxConcurrentCalls() - bulkhead.availablePermits(), bulkhead.availablePermits(),
+				bulkheadRejectedCalls.get(), successfulCalls.get(), failedCalls.get(), hedgedCalls.get());
+	}
+
+	@Override
+	public void close() {
+		hedgeScheduler.shutdownNow();
+	}
+
+	public record Snapshot(String baseUrl, String circuitBreakerState, float failureRate, int bufferedCalls,
+						   long notPermittedCalls, int concurrentCalls, int availableConcurrentCalls,
+						   long bulkheadRejectedCalls, long successfulCalls, long failedCalls, long hedgedCalls) {
+	}
+}
@@ -0,0 +1,50 @@
+package com.eazybytes.accounts.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Registry of the DownstreamClient instances, one per entry under downstream.services in the configuration.
+ */
+@Component
+public class DownstreamClients {
+
+	public static final String CARDS = "cards";
+	public static final String LOANS = "loans";
+
+	private final Map<String, DownstreamClient> clients = new LinkedHashMap<>();
+
+	public DownstreamClients(DownstreamProperties downstreamProperties, ObjectMapper objectMapper,
+							 MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+		if (downstreamProperties.services() != null) {
+			downstreamProperties.services().forEach((name, settings) ->
+					clients.put(name, new DownstreamClient(name, settings, objectMapper, meterRegistry, observationRegistry)));
+		}
+	}
+
+	public DownstreamClient get(String name) {
+		DownstreamClient client = clients.get(name);
+		if (client == null) {
+			throw new IllegalStateException("No downstream configured with name " + name);
+		}
+		return client;
+	}
+
+	public Map<String, DownstreamClient> getAll() {
+		return Collections.unmodifiableMap(clients);
+	}
+
+	@PreDestroy
+	public void close() {
+		clients.values().forEach(DownstreamClient::close);
+	}
+}
@@ -0,0 +1,18 @@
+package com.eazybytes.accounts.client;
+
+/**
+ * Author: ldeepak
+ *
+ * Thrown when a downstream service could not be called or answered with an error,
+ * including calls rejected by the circuit breaker or the bulkhead.
+ */
+public class DownstreamException extends RuntimeException {
+
+	public DownstreamException(String downstream, String reason) {
+		super(String.format("Call to %s failed: %s", downstream, reason));
+	}
+
+	public DownstreamException(String downstream, Throwable cause) {
+		super(String.format("Call to %s failed: %s", downstream, cause), cause);
+	}
+}
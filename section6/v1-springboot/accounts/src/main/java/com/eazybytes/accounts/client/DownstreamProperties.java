@@ -0,0 +1,34 @@
+package com.eazybytes.accounts.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Settings of the downstream services called by accounts, bound from the "downstream" prefix.
+ * Every entry of services gets its own HTTP client (and connection pool), timeouts, bulkhead and circuit breaker.
+ *
+ * @param services - Settings keyed by downstream name (cards, loans)
+ */
+@ConfigurationProperties(prefix = "downstream")
+public record DownstreamProperties(Map<String, Settings> services) {
+
+	/**
+	 * @param baseUrl - Base URL of the downstream service
+	 * @param connectTimeout - Maximum time to establish a connection
+	 * @param readTimeout - Maximum time to wait for the response once the request is sent
+	 * @param maxConcurrentCalls - Bulkhead, calls above this limit are rejected instead of queued
+	 * @param failureRateThreshold - Failure rate in percent that opens the circuit
+	 * @param slidingWindowSize - Number of recent calls the failure rate is computed on
+	 * @param minimumCalls - Calls needed in the window before the failure rate is evaluated
+	 * @param openStateDuration - How long the circuit stays open before a trial call
+	 * @param hedgeDelay - Idempotent fetches not answered within this delay are sent a second time, the first answer wins. Disabled when empty
+	 */
+	public record Settings(String baseUrl, Duration connectTimeout, Duration readTimeout, int maxConcurrentCalls,
+						   int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+						   Duration openStateDuration, Duration hedgeDelay) {
+	}
+}
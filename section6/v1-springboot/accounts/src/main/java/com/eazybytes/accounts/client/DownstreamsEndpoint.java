@@ -0,0 +1,31 @@
+package com.eazybytes.accounts.client;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Actuator endpoint (/actuator/downstreams) exposing the circuit breaker, bulkhead and call counters of every downstream client.
+ */
+@Component
+@Endpoint(id = "downstreams")
+public class DownstreamsEndpoint {
+
+	private final DownstreamClients downstreamClients;
+
+	public DownstreamsEndpoint(DownstreamClients downstreamClients) {
+		this.downstreamClients = downstreamClients;
+	}
+
+	@ReadOperation
+	public Map<String, DownstreamClient.Snapshot> downstreams() {
+		Map<String, DownstreamClient.Snapshot> snapshots = new LinkedHashMap<>();
+		downstreamClients.getAll().forEach((name, client) -> snapshots.put(name, client.snapshot()));
+		return snapshots;
+	}
+}
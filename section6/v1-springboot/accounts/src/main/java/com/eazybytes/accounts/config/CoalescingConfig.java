@@ -0,0 +1,25 @@
+package com.eazybytes.accounts.config;
+
+import com.eazybytes.accounts.dto.CustomerDto;
+import com.eazybytes.accounts.service.support.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: ldeepak
+ *
+ * Beans used to coalesce concurrent identical reads in the service layer.
+ */
+@Configuration
+public class CoalescingConfig {
+
+	/**
+	 * Concurrent fetches of the same mobile number share one database load and one mapped CustomerDto.
+	 * The coalescing ratio is published as accounts.fetch.coalescing.leaders / accounts.fetch.coalescing.followers.
+	 */
+	@Bean
+	public RequestCoalescer<String, CustomerDto> fetchAccountCoalescer(MeterRegistry meterRegistry) {
+		return new RequestCoalescer<>("accounts.fetch", meterRegistry);
+	}
+}
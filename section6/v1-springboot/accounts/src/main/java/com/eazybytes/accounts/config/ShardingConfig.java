@@ -0,0 +1,60 @@
+package com.eazybytes.accounts.config;
+
+import com.eazybytes.accounts.sharding.ShardRouter;
+import com.eazybytes.accounts.sharding.ShardRoutingDataSource;
+import com.eazybytes.accounts.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Shared-nothing sharding of the customers and their accounts over the databases listed under sharding.shards.
+ * Replaces the auto-configured spring.datasource by a ShardRoutingDataSource, so JPA and the repositories are unchanged,
+ * the shard is chosen per call by ShardRouter from a consistent hash of the mobile number.
+ * It is behind a LazyConnectionDataSourceProxy, so that a transaction started before the shard is chosen
+ * (the @Transactional(readOnly = true) fetches) only takes its connection at its first statement, from the right shard.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+	/**
+	 * One connection pool per shard (serving or joining), every shard gets the tables of schema.sql.
+	 */
+	@Bean
+	public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties shardingProperties, ShardRouter shardRouter) {
+		Map<String, DataSource> shardDataSources = new LinkedHashMap<>();
+		shardingProperties.shards().forEach((name, shard) -> {
+			HikariDataSource dataSource = DataSourceBuilder.create()
+					.type(HikariDataSource.class)
+					.url(shard.url())
+					.username(shard.username())
+					.password(shard.password())
+					.build();
+			dataSource.setPoolName("shard-" + name);
+			dataSource.setMaximumPoolSize(shard.maxPoolSize());
+			DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+			shardDataSources.put(name, dataSource);
+		});
+		return new ShardRoutingDataSource(shardDataSources, shardRouter.shards().get(0));
+	}
+
+	@Bean
+	@Primary
+	public LazyConnectionDataSourceProxy dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+	}
+}
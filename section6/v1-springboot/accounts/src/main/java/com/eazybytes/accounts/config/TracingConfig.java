@@ -0,0 +1,26 @@
+package com.eazybytes.accounts.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: ldeepak
+ *
+ * Spring Boot configures the tracer (Micrometer Tracing over OpenTelemetry) and the spans of the HTTP server requests on its own.
+ * The OTLP exporter is enabled by management.otlp.tracing.endpoint, without a collector the spans can be logged instead.
+ */
+@Configuration
+public class TracingConfig {
+
+	/**
+	 * Every SpanExporter bean is added to the OpenTelemetry SDK, this one writes the sampled spans as OTLP JSON to the log.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "tracing.log-spans", havingValue = "true")
+	public SpanExporter loggingSpanExporter() {
+		return OtlpJsonLoggingSpanExporter.create();
+	}
+}
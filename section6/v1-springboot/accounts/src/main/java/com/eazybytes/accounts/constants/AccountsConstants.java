@@ -18,6 +18,13 @@ public class AccountsConstants {
 	public static final String  STATUS_417 = "417";
 	public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
 	public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+	public static final String  IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String  API_KEY_HEADER = "X-API-Key";
+	public static final String  APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+	public static final String  STATUS_404 = "404";
+	public static final String  MESSAGE_404 = "No details found for the given mobile number";
+	public static final int  BATCH_FETCH_MAX_SIZE = 1000; // Mobile numbers accepted by one batch fetch request
+	public static final int  BATCH_FETCH_CHUNK_SIZE = 500; // Mobile numbers resolved by one IN (...) query
 	// public static final String  STATUS_500 = "500";
 	// public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
 }
@@ -1,11 +1,17 @@
 package com.eazybytes.accounts.controller;
 
 import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.BatchFetchRequestDto;
+import com.eazybytes.accounts.dto.BatchFetchResultDto;
 import com.eazybytes.accounts.dto.AccountsContactInfoDto;
+import com.eazybytes.accounts.dto.AccountsDto;
 import com.eazybytes.accounts.dto.CustomerDto;
 import com.eazybytes.accounts.dto.ErrorResponseDto;
 import com.eazybytes.accounts.dto.ResponseDto;
+import com.eazybytes.accounts.idempotency.IdempotencyStore;
+import com.eazybytes.accounts.ratelimit.RateLimiter;
 import com.eazybytes.accounts.service.IAccountsService;
+import com.eazybytes.accounts.validation.DigitString;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,7 +20,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,6 +29,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Author: ldeepak
@@ -34,6 +43,7 @@ import org.springframework.web.bind.annotation.*;
 /**
  * @Tag annotation is used to group and describe the API endpoints in the OpenAPI documentation.
  * @RestController indicates that this class is a RESTful controller, and @RequestMapping sets the base path for all endpoints in this controller to "/api" and specifies that they produce JSON responses.
+ * JSON is listed first so it stays the default, internal callers can ask for CBOR or Smile (compact binary JSON) through the Accept header.
  * @Validated enables validation for method parameters in this controller. It is used for validating method parameters, typically primitive types or simple values (like @RequestParam).
  * @Valid is used for validating complex types (objects), such as DTOs passed in the request body (like @RequestBody).
  * @AllArgsConstructor is a Lombok annotation that generates a constructor with parameters for all fields
@@ -43,7 +53,7 @@ import org.springframework.web.bind.annotation.*;
 	description = "REST API for managing customer accounts"
 )
 @RestController
-@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, AccountsConstants.APPLICATION_SMILE_VALUE})
 @Validated
 public class AccountsController {
 
@@ -55,6 +65,10 @@ public class AccountsController {
 	 */
 	private final IAccountsService accountsService;
 
+	private final IdempotencyStore idempotencyStore;
+
+	private final RateLimiter rateLimiter;
+
 	// Approach 1: Using @Value to inject build version from application properties
 	@Value("${build.version}")
 	private String buildVersion;
@@ -68,8 +82,10 @@ public class AccountsController {
 	@Autowired
 	private AccountsContactInfoDto accountsContactInfoDto;
 
-	public AccountsController(IAccountsService accountsService) {
+	public AccountsController(IAccountsService accountsService, IdempotencyStore idempotencyStore, RateLimiter rateLimiter) {
 		this.accountsService = accountsService;
+		this.idempotencyStore = idempotencyStore;
+		this.rateLimiter = rateLimiter;
 	}
 
 	@Operation(
@@ -90,13 +106,22 @@ public class AccountsController {
 			)
 	})
 	@PostMapping("/create")
-	public ResponseEntity<ResponseDto> createAccount(@Valid @RequestBody CustomerDto customerDto) {
+	public ResponseEntity<ResponseDto> createAccount(@Valid @RequestBody CustomerDto customerDto,
+													 @RequestHeader(value = AccountsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+													 String idempotencyKey,
+													 @RequestHeader(value = AccountsConstants.API_KEY_HEADER, required = false)
+													 String apiKey) {
 
-		accountsService.createAccount(customerDto);
+		// A retried request with the same Idempotency-Key gets the first response back instead of creating the customer again
+		return idempotencyStore.execute("create", idempotencyKey, apiKey, customerDto, () -> {
+			// Replays of an idempotent request do not touch the database, so only executed writes consume a token
+			rateLimiter.checkWrite(apiKey, customerDto.getMobileNumber());
+			accountsService.createAccount(customerDto);
 
-		return ResponseEntity
-				.status(HttpStatus.CREATED)
-				.body(new ResponseDto(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
+			return ResponseEntity
+					.status(HttpStatus.CREATED)
+					.body(new ResponseDto(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
+		});
 	}
 
 	@Operation(
@@ -118,15 +143,68 @@ public class AccountsController {
 	})
 	@GetMapping("/fetch")
 	public ResponseEntity<CustomerDto> fetchAccountDetails(@RequestParam
-															   @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-															   String mobileNumber) {
+															   @DigitString(length = 10, message = "Mobile number must be 10 digits")
+															   String mobileNumber,
+														   WebRequest webRequest) {
 		CustomerDto customerDto = accountsService.fetchAccount(mobileNumber);
 
+		// Conditional GET: when the client already holds this version (If-None-Match), answer 304 without serializing the body
+		String eTag = eTagOf(customerDto);
+		if (webRequest.checkNotModified(eTag)) {
+			return ResponseEntity
+					.status(HttpStatus.NOT_MODIFIED)
+					.eTag(eTag)
+					.build();
+		}
+
 		return ResponseEntity
 				.status(HttpStatus.OK)
+				.eTag(eTag)
 				.body(customerDto);
 	}
 
+	/**
+	 * Strong ETag built from the account number and the versions of the customer and account rows.
+	 * The account number is part of it, so that a deleted and re-created customer never matches an old ETag.
+	 */
+	private static String eTagOf(CustomerDto customerDto) {
+		AccountsDto accountsDto = customerDto.getAccountsDto();
+		return "\"" + accountsDto.getAccountNumber() + "-" + customerDto.getVersion() + "-" + accountsDto.getVersion() + "\"";
+	}
+
+	@Operation(
+			summary = "Fetch customer and account details of many mobile numbers",
+			description = "Fetch customer and account details of up to " + AccountsConstants.BATCH_FETCH_MAX_SIZE + " mobile numbers in one request, not found mobile numbers are reported inline with status code 404"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@PostMapping("/fetch/batch")
+	public ResponseEntity<Map<String, BatchFetchResultDto<CustomerDto>>> fetchAccountDetailsBatch(@Valid @RequestBody BatchFetchRequestDto batchFetchRequestDto) {
+		Map<String, CustomerDto> found = accountsService.fetchAccounts(batchFetchRequestDto.getMobileNumbers());
+
+		Map<String, BatchFetchResultDto<CustomerDto>> results = new LinkedHashMap<>();
+		for (String mobileNumber : batchFetchRequestDto.getMobileNumbers()) {
+			CustomerDto customerDto = found.get(mobileNumber);
+			results.put(mobileNumber, customerDto != null
+					? new BatchFetchResultDto<>(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200, customerDto)
+					: new BatchFetchResultDto<>(AccountsConstants.STATUS_404, AccountsConstants.MESSAGE_404, null));
+		}
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(results);
+	}
+
 	@Operation(
 			summary = "Update customer and account details",
 			description = "Update customer and account details with given customer details"
@@ -154,17 +232,24 @@ public class AccountsController {
 			)
 	})
 	@PutMapping("/update")
-	public ResponseEntity<ResponseDto> updateAccountDetails(@Valid @RequestBody CustomerDto customerDto) {
-		boolean isUpdated = accountsService.updateAccount(customerDto);
-		if (isUpdated) {
-			return ResponseEntity
-					.status(HttpStatus.OK)
-					.body(new ResponseDto(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200));
-		} else {
-			return ResponseEntity
-					.status(HttpStatus.EXPECTATION_FAILED)
-					.body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_UPDATE));
-		}
+	public ResponseEntity<ResponseDto> updateAccountDetails(@Valid @RequestBody CustomerDto customerDto,
+															@RequestHeader(value = AccountsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+															String idempotencyKey,
+															@RequestHeader(value = AccountsConstants.API_KEY_HEADER, required = false)
+															String apiKey) {
+		return idempotencyStore.execute("update", idempotencyKey, apiKey, customerDto, () -> {
+			rateLimiter.checkWrite(apiKey, customerDto.getMobileNumber());
+			boolean isUpdated = accountsService.updateAccount(customerDto);
+			if (isUpdated) {
+				return ResponseEntity
+						.status(HttpStatus.OK)
+						.body(new ResponseDto(AccountsConstants.STATUS_200, AccountsConstants.MESSAGE_200));
+			} else {
+				return ResponseEntity
+						.status(HttpStatus.EXPECTATION_FAILED)
+						.body(new ResponseDto(AccountsConstants.STATUS_417, AccountsConstants.MESSAGE_417_UPDATE));
+			}
+		});
 	}
 
 	@Operation(
@@ -195,7 +280,7 @@ public class AccountsController {
 	})
 	@DeleteMapping("/delete")
 	public ResponseEntity<ResponseDto> deleteAccountDetails(@RequestParam
-																@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
+																@DigitString(length = 10, message = "Mobile number must be 10 digits")
 																String mobileNumber) {
 		boolean isDeleted = accountsService.deleteAccount(mobileNumber);
 		if (isDeleted) {
@@ -0,0 +1,68 @@
+package com.eazybytes.accounts.controller;
+
+import com.eazybytes.accounts.dto.CustomerDetailsDto;
+import com.eazybytes.accounts.dto.ErrorResponseDto;
+import com.eazybytes.accounts.service.ICustomersService;
+import com.eazybytes.accounts.validation.DigitString;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Author: ldeepak
+ *  CustomerController is a REST controller that aggregates the details of a customer across accounts, cards and loans.
+ */
+@Tag(
+	name = "Customer API",
+	description = "REST API to fetch the customer details across accounts, cards and loans"
+)
+@RestController
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@Validated
+public class CustomerController {
+
+	private final ICustomersService customersService;
+
+	public CustomerController(ICustomersService customersService) {
+		this.customersService = customersService;
+	}
+
+	@Operation(
+			summary = "Fetch customer details",
+			description = "Retrieve customer, account, card and loan details with given mobile number"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/fetchCustomerDetails")
+	public ResponseEntity<CustomerDetailsDto> fetchCustomerDetails(@RequestParam
+																   @DigitString(length = 10, message = "Mobile number must be 10 digits")
+																   String mobileNumber) {
+		CustomerDetailsDto customerDetailsDto = customersService.fetchCustomerDetails(mobileNumber);
+
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(customerDetailsDto);
+	}
+}
@@ -1,8 +1,10 @@
 package com.eazybytes.accounts.dto;
 
+import com.eazybytes.accounts.validation.DigitString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -27,8 +29,8 @@ public class AccountsDto {
 			description = "Account number of the customer",
 			example = "1234567890"
 	)
-	@NotEmpty(message = "Account Number cannot be null or empty")
-	@Pattern(regexp = "(^$|[0-9]{10})", message = "Account number must be a 10-digit number")
+	@NotNull(message = "Account Number cannot be null")
+	@DigitString(length = 10, message = "Account number must be a 10-digit number")
 	private Long accountNumber;
 
 	@Schema(
@@ -44,4 +46,9 @@ public class AccountsDto {
 	)
 	@NotEmpty(message = "Branch Address cannot be null or empty")
 	private String branchAddress;
+
+	// Version of the account row, only used to build the ETag header and never sent to or accepted from clients
+	@JsonIgnore
+	@Schema(hidden = true)
+	private Long version;
 }
@@ -0,0 +1,53 @@
+package com.eazybytes.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ * Page of the cards of a customer as returned by the cards microservice, the totals cover all the cards.
+ */
+@Data
+@Schema(
+		name = "CardsPage",
+		description = "Schema to hold a page of the cards of a customer, with the totals of all of them"
+)
+public class CardsPageDto {
+
+	@Schema(
+			description = "Cards of the page, oldest first"
+	)
+	private List<CardsDto> cards;
+
+	@Schema(
+			description = "Page number, from 0", example = "0"
+	)
+	private int page;
+
+	@Schema(
+			description = "Number of pages", example = "1"
+	)
+	private int totalPages;
+
+	@Schema(
+			description = "Number of cards of the customer", example = "2"
+	)
+	private int cardCount;
+
+	@Schema(
+			description = "Total limit of all the cards", example = "200000"
+	)
+	private long totalLimit;
+
+	@Schema(
+			description = "Amount used on all the cards", example = "1000"
+	)
+	private long amountUsed;
+
+	@Schema(
+			description = "Amount available on all the cards", example = "199000"
+	)
+	private long availableAmount;
+}
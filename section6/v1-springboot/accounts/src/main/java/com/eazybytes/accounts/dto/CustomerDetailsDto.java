@@ -0,0 +1,49 @@
+package com.eazybytes.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * Author: ldeepak
+ * Customer Details Data Transfer Object (DTO) aggregating the customer, account, card and loan details of a customer.
+ */
+@Data
+@Schema(
+		name = "CustomerDetails",
+		description = "Schema to hold Customer, Account, Cards and Loans information"
+)
+public class CustomerDetailsDto {
+
+	@Schema(
+			description = "Customer Name",
+			example = "John Doe"
+	)
+	private String name;
+
+	@Schema(
+			description = "Customer Email Address",
+			example = "test@example.com"
+	)
+	private String email;
+
+	@Schema(
+			description = "Customer Mobile number",
+			example = "9784319436"
+	)
+	private String mobileNumber;
+
+	@Schema(
+			description = "Customer Account details"
+	)
+	private AccountsDto accountsDto;
+
+	@Schema(
+			description = "First page of the Customer Cards with the totals of all of them, absent when the customer has no card or the cards microservice is unavailable"
+	)
+	private CardsPageDto cardsPageDto;
+
+	@Schema(
+			description = "First page of the Customer Loans with the totals of all of them, absent when the customer has no loan or the loans microservice is unavailable"
+	)
+	private LoansPageDto loansPageDto;
+}
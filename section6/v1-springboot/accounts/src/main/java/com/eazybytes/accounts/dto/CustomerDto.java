@@ -1,9 +1,10 @@
 package com.eazybytes.accounts.dto;
 
+import com.eazybytes.accounts.validation.DigitString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -43,11 +44,16 @@ public class CustomerDto {
 			description = "Customer Mobile number",
 			example = "9784319436"
 	)
-	@Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number must be a 10-digit number")
+	@DigitString(length = 10, message = "Mobile number must be a 10-digit number")
 	private String mobileNumber;
 
 	@Schema(
 			description = "Customer Account details"
 	)
 	private AccountsDto AccountsDto;
+
+	// Version of the customer row, only used to build the ETag header and never sent to or accepted from clients
+	@JsonIgnore
+	@Schema(hidden = true)
+	private Long version;
 }
@@ -0,0 +1,53 @@
+package com.eazybytes.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ * Page of the loans of a customer as returned by the loans microservice, the totals cover all the loans.
+ */
+@Data
+@Schema(
+		name = "LoansPage",
+		description = "Schema to hold a page of the loans of a customer, with the totals of all of them"
+)
+public class LoansPageDto {
+
+	@Schema(
+			description = "Loans of the page, oldest first"
+	)
+	private List<LoansDto> loans;
+
+	@Schema(
+			description = "Page number, from 0", example = "0"
+	)
+	private int page;
+
+	@Schema(
+			description = "Number of pages", example = "1"
+	)
+	private int totalPages;
+
+	@Schema(
+			description = "Number of loans of the customer", example = "2"
+	)
+	private int loanCount;
+
+	@Schema(
+			description = "Total amount of all the loans", example = "200000"
+	)
+	private long totalLoan;
+
+	@Schema(
+			description = "Amount paid on all the loans", example = "1000"
+	)
+	private long amountPaid;
+
+	@Schema(
+			description = "Amount outstanding on all the loans", example = "199000"
+	)
+	private long outstandingAmount;
+}
@@ -5,6 +5,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Author: ldeepak
+ *
+ * A business error reported to the client, the stack trace is not captured as nobody looks at it.
  */
 
 // This annotation tells Spring that when this exception is thrown, the HTTP response should have a 400 Bad Request status.
@@ -12,6 +14,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class CustomerAlreadyExistsException extends RuntimeException {
 
 	public CustomerAlreadyExistsException(String message) {
-		super(message);
+		super(message, null, false, false);
 	}
 }
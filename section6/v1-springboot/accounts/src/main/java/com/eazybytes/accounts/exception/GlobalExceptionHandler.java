@@ -77,6 +77,40 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
 	}
 
+	/**
+	 * Catch RateLimitExceededException exceptions thrown by any controller method and return a structured error response
+	 * with a Retry-After header telling the client when it may try again
+	 */
+	@ExceptionHandler(RateLimitExceededException.class)
+	public ResponseEntity<ErrorResponseDto> handleRateLimitExceededException(RateLimitExceededException exception, WebRequest webRequest) {
+
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				webRequest.getDescription(false), // for api path
+				HttpStatus.TOO_MANY_REQUESTS,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return ResponseEntity
+				.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+				.body(errorResponseDTO);
+	}
+
+	/**
+	 * Catch IdempotencyKeyMismatchException exceptions thrown by any controller method and return a structured error response
+	 */
+	@ExceptionHandler(IdempotencyKeyMismatchException.class)
+	public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException exception, WebRequest webRequest) {
+
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				webRequest.getDescription(false), // for api path
+				HttpStatus.UNPROCESSABLE_ENTITY,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return new ResponseEntity<>(errorResponseDTO, HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
 	/**
 	 * Catch any exception thrown by any controller method and return a structured error response
 	 */
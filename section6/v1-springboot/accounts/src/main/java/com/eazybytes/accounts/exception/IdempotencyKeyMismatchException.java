@@ -0,0 +1,19 @@
+package com.eazybytes.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Author: ldeepak
+ *
+ * An Idempotency-Key reused by a caller with another request, the remembered response belongs to the first one.
+ * A client error, the stack trace is not captured as nobody looks at it.
+ */
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+	public IdempotencyKeyMismatchException(String idempotencyKey){
+		super("Idempotency-Key " + idempotencyKey + " was already used for a different request", null, false, false);
+	}
+
+}
@@ -15,6 +15,7 @@ public class AccountsMapper {
 		accountsDto.setAccountNumber(accounts.getAccountNumber());
 		accountsDto.setAccountType(accounts.getAccountType());
 		accountsDto.setBranchAddress(accounts.getBranchAddress());
+		accountsDto.setVersion(accounts.getVersion());
 		return accountsDto;
 	}
 
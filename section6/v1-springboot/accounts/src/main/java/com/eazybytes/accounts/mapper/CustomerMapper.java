@@ -14,6 +14,7 @@ public class CustomerMapper {
 		customerDto.setName(customer.getName());
 		customerDto.setEmail(customer.getEmail());
 		customerDto.setMobileNumber(customer.getMobileNumber());
+		customerDto.setVersion(customer.getVersion());
 		return customerDto;
 	}
 
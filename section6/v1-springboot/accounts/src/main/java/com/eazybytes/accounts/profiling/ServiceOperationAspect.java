@@ -0,0 +1,73 @@
+package com.eazybytes.accounts.profiling;
+
+import com.eazybytes.accounts.dto.CustomerDto;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Author: ldeepak
+ *
+ * Emits a ServiceOperationEvent around every public method of the service implementations.
+ * While no recording has the event enabled, begin/end/shouldCommit are close to free and nothing else is computed.
+ */
+@Aspect
+@Component
+public class ServiceOperationAspect {
+
+	@Around("execution(public * com.eazybytes.accounts.service.impl..*.*(..))")
+	public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+		ServiceOperationEvent event = new ServiceOperationEvent();
+		if (!event.isEnabled()) {
+			return joinPoint.proceed();
+		}
+		long statementsBefore = StatementCounter.current();
+		event.begin();
+		boolean failed = true;
+		try {
+			Object result = joinPoint.proceed();
+			failed = false;
+			return result;
+		} finally {
+			event.end();
+			// Below the configured threshold the event is dropped before its fields are computed
+			if (event.shouldCommit()) {
+				event.operation = joinPoint.getSignature().getName();
+				event.mobileNumberHash = hash(mobileNumberOf(joinPoint.getArgs()));
+				event.statementCount = StatementCounter.current() - statementsBefore;
+				event.failed = failed;
+				event.commit();
+			}
+		}
+	}
+
+	private static String mobileNumberOf(Object[] args) {
+		for (Object arg : args) {
+			if (arg instanceof String mobileNumber) {
+				return mobileNumber;
+			}
+			if (arg instanceof CustomerDto customerDto) {
+				return customerDto.getMobileNumber();
+			}
+		}
+		return null;
+	}
+
+	static String hash(String mobileNumber) {
+		if (mobileNumber == null) {
+			return null;
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(mobileNumber.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest, 0, 8);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
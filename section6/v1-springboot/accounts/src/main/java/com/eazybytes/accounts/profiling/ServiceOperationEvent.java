@@ -0,0 +1,37 @@
+package com.eazybytes.accounts.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Author: ldeepak
+ *
+ * Java Flight Recorder event emitted for every call of a service operation (createAccount, fetchAccount...).
+ * The duration is recorded by JFR itself between begin() and end().
+ * Open a recording in JDK Mission Control and look for EazyBank > Accounts > Service Operation.
+ */
+@Name("com.eazybytes.accounts.ServiceOperation")
+@Label("Service Operation")
+@Category({"EazyBank", "Accounts"})
+@Description("Call of a method of the accounts service layer")
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Mobile Number Hash")
+	@Description("Truncated SHA-256 of the mobile number, correlates the calls of one customer without recording the number")
+	String mobileNumberHash;
+
+	@Label("Statement Count")
+	@Description("SQL statements prepared by Hibernate during the operation")
+	long statementCount;
+
+	@Label("Failed")
+	boolean failed;
+}
@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -33,6 +35,11 @@ public interface AccountsRepository extends JpaRepository<Accounts, Long> {
 	 */
 	Optional<Accounts> findByCustomerId(Long customerId);
 
+	/**
+	 *  Method to find the accounts of several customers with a single "WHERE customer_id IN (...)" query.
+	 */
+	List<Accounts> findByCustomerIdIn(Collection<Long> customerIds);
+
 	/**
 	 * Method to delete an account by its customer id.
 	 * The @Modifying annotation is used to indicate that the query is an update or delete operation.
@@ -4,6 +4,8 @@ import com.eazybytes.accounts.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,4 +33,10 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 	 *  It is used to avoid NullPointerException and to clearly indicate that a value might be absent. In repository methods, like findByMobileNumber, returning Optional<Customer> signals that the customer may not exist, and forces the caller to handle the possible absence of a value in a safe way.
 	 */
 	Optional<Customer> findByMobileNumber(String mobileNumber);
+
+	/**
+	 *  Method to find all customers for a list of mobile numbers with a single "WHERE mobile_number IN (...)" query.
+	 *  Used by the batch fetch API, callers are expected to chunk very large lists.
+	 */
+	List<Customer> findByMobileNumberIn(Collection<String> mobileNumbers);
 }
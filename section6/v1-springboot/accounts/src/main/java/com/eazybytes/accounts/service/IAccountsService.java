@@ -2,6 +2,9 @@ package com.eazybytes.accounts.service;
 
 import com.eazybytes.accounts.dto.CustomerDto;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Author: ldeepak
  */
@@ -20,6 +23,13 @@ public interface IAccountsService {
 	 */
 	CustomerDto fetchAccount(String mobileNumber);
 
+	/**
+	 *
+	 * @param mobileNumbers
+	 * @return Account details of the customers found, keyed by mobile number. Mobile numbers without a customer are absent.
+	 */
+	Map<String, CustomerDto> fetchAccounts(List<String> mobileNumbers);
+
 	/**
 	 *
 	 * @param customerDto
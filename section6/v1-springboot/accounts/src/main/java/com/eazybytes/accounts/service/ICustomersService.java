@@ -0,0 +1,16 @@
+package com.eazybytes.accounts.service;
+
+import com.eazybytes.accounts.dto.CustomerDetailsDto;
+
+/**
+ * Author: ldeepak
+ */
+public interface ICustomersService {
+
+	/**
+	 *
+	 * @param mobileNumber
+	 * @return Customer, account, card and loan details based on the given mobile number
+	 */
+	CustomerDetailsDto fetchCustomerDetails(String mobileNumber);
+}
@@ -1,5 +1,7 @@
 package com.eazybytes.accounts.service.impl;
 
+import com.eazybytes.accounts.audit.AuditTrail;
+import com.eazybytes.accounts.cache.TwoTierCache;
 import com.eazybytes.accounts.constants.AccountsConstants;
 import com.eazybytes.accounts.dto.AccountsDto;
 import com.eazybytes.accounts.dto.CustomerDto;
@@ -9,15 +11,29 @@ import com.eazybytes.accounts.exception.CustomerAlreadyExistsException;
 import com.eazybytes.accounts.exception.ResourceNotFoundException;
 import com.eazybytes.accounts.mapper.AccountsMapper;
 import com.eazybytes.accounts.mapper.CustomerMapper;
+import com.eazybytes.accounts.membership.MembershipFilter;
+import com.eazybytes.accounts.replica.ReadYourWrites;
 import com.eazybytes.accounts.repository.AccountsRepository;
 import com.eazybytes.accounts.repository.CustomerRepository;
 import com.eazybytes.accounts.service.IAccountsService;
+import com.eazybytes.accounts.service.support.RequestCoalescer;
+import com.eazybytes.accounts.sharding.ShardRouter;
+import io.micrometer.observation.annotation.Observed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Author: ldeepak
@@ -26,9 +42,12 @@ import java.util.Random;
 /**
  * @Service annotation indicates that this class is a service component in the Spring framework.
  * It is a specialization of the @Component annotation and is used to define business logic and services
+ * @Observed creates a span (and a timer) for every public method, as a child of the span of the HTTP request,
+ * so that a trace shows the time spent in the service and, below it, in the JDBC queries.
  */
 @Service
 @AllArgsConstructor
+@Observed(name = "accounts.service")
 public class AccountsServiceImpl implements IAccountsService {
 
 	/**
@@ -42,28 +61,54 @@ public class AccountsServiceImpl implements IAccountsService {
 	 */
 	private AccountsRepository accountsRepository;
 	private CustomerRepository customerRepository;
+	private RequestCoalescer<String, CustomerDto> fetchAccountCoalescer;
+	private AuditTrail auditTrail;
+	private MembershipFilter membershipFilter;
+	private ShardRouter shardRouter;
+	private ReadYourWrites readYourWrites;
+	private TwoTierCache<CustomerDto> customersCache;
+	/**
+	 * The writes run in one transaction per shard, started once the shard is chosen.
+	 * A @Transactional method would keep the connection of the first shard it touched, also for the other shards.
+	 */
+	private TransactionTemplate transactionTemplate;
 
 	/**
 	 * @param customerDto
 	 */
 	@Override
 	public void createAccount(CustomerDto customerDto) {
+		// The customer and its account are stored on the shard owning the mobile number (the only database when not sharded)
+		shardRouter.runOnShardOf(customerDto.getMobileNumber(),
+				() -> transactionTemplate.executeWithoutResult(status -> createAccountOnShard(customerDto)));
+		readYourWrites.recordWrite(customerDto.getMobileNumber());
+	}
+
+	private void createAccountOnShard(CustomerDto customerDto) {
 
 		// From customerDto create a customer entity
 		Customer customer = CustomerMapper.mapToCustomer(customerDto, new Customer());
 
-		// Check if customer with the same mobile number already exists
-		Optional<Customer> optionalCustomer = customerRepository.findByMobileNumber(customerDto.getMobileNumber());
+		// Check if customer with the same mobile number already exists, unless the membership filter knows it does not
+		if (membershipFilter.mightExist(customerDto.getMobileNumber())) {
+			Optional<Customer> optionalCustomer = customerRepository.findByMobileNumber(customerDto.getMobileNumber());
 
-		if (optionalCustomer.isPresent()) {
-			throw new CustomerAlreadyExistsException("Customer with mobile number " + customerDto.getMobileNumber() + " already exists.");
+			if (optionalCustomer.isPresent()) {
+				throw new CustomerAlreadyExistsException("Customer with mobile number " + customerDto.getMobileNumber() + " already exists.");
+			}
 		}
 
 		// Save the customer entity
 		Customer savedCustomer = customerRepository.save(customer);
+		membershipFilter.added(savedCustomer.getMobileNumber());
+		// Nothing is cached for a new customer, the invalidation tells the other instances to add it to their MembershipFilter
+		customersCache.invalidate(savedCustomer.getMobileNumber());
 
 		// After saving the customer, create a new account for the customer
-		accountsRepository.save(createNewAccount(savedCustomer));
+		Accounts savedAccount = accountsRepository.save(createNewAccount(savedCustomer));
+
+		auditTrail.record("Customer", savedCustomer.getCustomerId(), AuditTrail.CREATE, null,
+				toCustomerDto(savedCustomer, savedAccount));
 	}
 
 	/**
@@ -87,12 +132,34 @@ public class AccountsServiceImpl implements IAccountsService {
 	 * @return Account details based on the given mobile number
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public CustomerDto fetchAccount(String mobileNumber) {
+		// Unknown mobile numbers are answered without touching the database
+		if (!membershipFilter.mightExist(mobileNumber)) {
+			throw new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber);
+		}
+		// A customer written moments ago may not be on the read replicas yet, it is read from the primary,
+		// without joining a fetch that may have started before the write
+		if (readYourWrites.isRecentlyWritten(mobileNumber)) {
+			return readYourWrites.onPrimary(() -> shardRouter.callOnShardOf(mobileNumber, () -> loadAccount(mobileNumber)));
+		}
+		// Served by the near cache, then the shared cache. On a miss of both, concurrent fetches of the same mobile number
+		// run the queries once and all receive the same CustomerDto, so callers must treat the returned object as read-only
+		return customersCache.get(mobileNumber, () -> fetchAccountCoalescer.execute(mobileNumber,
+				() -> shardRouter.callOnShardOf(mobileNumber, () -> loadAccount(mobileNumber))));
+	}
+
+	/**
+	 * @param mobileNumber
+	 * @return Account details based on the given mobile number, loaded from the database
+	 */
+	private CustomerDto loadAccount(String mobileNumber) {
 
 		// First find the customer by mobile number
-		Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
-				() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
-		);
+		Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(() -> {
+			membershipFilter.falsePositive();
+			return new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber);
+		});
 
 		// Then find the account by customer id
 		Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
@@ -100,12 +167,64 @@ public class AccountsServiceImpl implements IAccountsService {
 		);
 
 		// Aggregating customer and account details into CustomerDto
+		return toCustomerDto(customer, accounts);
+	}
+
+	private static CustomerDto toCustomerDto(Customer customer, Accounts accounts) {
 		CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
-		AccountsDto accountsDto = AccountsMapper.mapToAccountsDto(accounts, new AccountsDto());
+		if (accounts != null) {
+			customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+		}
+		return customerDto;
+	}
 
-		customerDto.setAccountsDto(accountsDto);
+	/**
+	 * Resolves the mobile numbers in chunks, each chunk costs one query on customer and one on accounts
+	 * instead of two queries per mobile number.
+	 * When sharded, the mobile numbers are grouped by shard and the shards are queried in parallel (scatter-gather).
+	 *
+	 * @param mobileNumbers
+	 * @return Account details of the customers found, keyed by mobile number
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, CustomerDto> fetchAccounts(List<String> mobileNumbers) {
+		List<String> distinctMobileNumbers = new ArrayList<>(new LinkedHashSet<>(mobileNumbers));
+		distinctMobileNumbers.removeIf(mobileNumber -> !membershipFilter.mightExist(mobileNumber));
 
-		return customerDto;
+		Map<String, List<String>> mobileNumbersByShard = shardRouter.groupByShard(distinctMobileNumbers);
+		Map<String, CustomerDto> customerDtos = new HashMap<>();
+		readYourWrites.read(distinctMobileNumbers, () -> shardRouter.scatterGather(mobileNumbersByShard.keySet(),
+				shard -> loadAccounts(mobileNumbersByShard.get(shard)))).forEach(customerDtos::putAll);
+		return customerDtos;
+	}
+
+	private Map<String, CustomerDto> loadAccounts(List<String> distinctMobileNumbers) {
+		Map<String, CustomerDto> customerDtos = new HashMap<>();
+
+		for (int from = 0; from < distinctMobileNumbers.size(); from += AccountsConstants.BATCH_FETCH_CHUNK_SIZE) {
+			List<String> chunk = distinctMobileNumbers.subList(from,
+					Math.min(from + AccountsConstants.BATCH_FETCH_CHUNK_SIZE, distinctMobileNumbers.size()));
+
+			List<Customer> customers = customerRepository.findByMobileNumberIn(chunk);
+			if (customers.isEmpty()) {
+				continue;
+			}
+			Map<Long, Accounts> accountsByCustomerId = accountsRepository
+					.findByCustomerIdIn(customers.stream().map(Customer::getCustomerId).toList())
+					.stream()
+					.collect(Collectors.toMap(Accounts::getCustomerId, Function.identity(), (first, second) -> first));
+
+			for (Customer customer : customers) {
+				Accounts accounts = accountsByCustomerId.get(customer.getCustomerId());
+				if (accounts != null) {
+					CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
+					customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+					customerDtos.put(customer.getMobileNumber(), customerDto);
+				}
+			}
+		}
+		return customerDtos;
 	}
 
 	/**
@@ -114,24 +233,83 @@ public class AccountsServiceImpl implements IAccountsService {
 	 */
 	@Override
 	public boolean updateAccount(CustomerDto customerDto) {
-		boolean isUpdated = false;
 		AccountsDto accountsDto = customerDto.getAccountsDto();
-		if (accountsDto != null ) {
-			Accounts accounts = accountsRepository.findById(accountsDto.getAccountNumber()).orElseThrow(
-					() -> new ResourceNotFoundException("Account", "AccountNumber", accountsDto.getAccountNumber().toString())
-			);
-			Accounts updatedAccount = AccountsMapper.mapToAccounts(accountsDto, accounts);
-			accounts = accountsRepository.save(updatedAccount);
-
-			Long customerId = accounts.getCustomerId();
-			Customer customer = customerRepository.findById(customerId).orElseThrow(
-					() -> new ResourceNotFoundException("Customer", "CustomerID", customerId.toString())
-			);
-			Customer updatedCustomer = CustomerMapper.mapToCustomer(customerDto,customer);
-			customerRepository.save(updatedCustomer);
-			isUpdated = true;
+		if (accountsDto == null) {
+			return false;
 		}
-		return  isUpdated;
+		String shard = shardOfAccount(accountsDto.getAccountNumber());
+		CustomerDto updated = shardRouter.callOn(shard,
+				() -> transactionTemplate.execute(status -> updateAccountOnShard(customerDto, accountsDto)));
+
+		// A new mobile number may belong to another shard, the customer then moves there
+		String newShard = shardRouter.shardFor(updated.getMobileNumber());
+		if (!newShard.equals(shard)) {
+			moveCustomer(updated, shard, newShard);
+		}
+		readYourWrites.recordWrite(updated.getMobileNumber());
+		return true;
+	}
+
+	/**
+	 * @return the shard holding the account, found by asking every shard as the account number is not the sharding key
+	 */
+	private String shardOfAccount(Long accountNumber) {
+		List<String> shards = shardRouter.shards();
+		if (shards.size() == 1) {
+			return shards.get(0);
+		}
+		List<Boolean> found = shardRouter.scatterGather(shards, shard -> accountsRepository.existsById(accountNumber));
+		int index = found.indexOf(Boolean.TRUE);
+		if (index < 0) {
+			throw new ResourceNotFoundException("Account", "AccountNumber", accountNumber.toString());
+		}
+		return shards.get(index);
+	}
+
+	private CustomerDto updateAccountOnShard(CustomerDto customerDto, AccountsDto accountsDto) {
+		Accounts accounts = accountsRepository.findById(accountsDto.getAccountNumber()).orElseThrow(
+				() -> new ResourceNotFoundException("Account", "AccountNumber", accountsDto.getAccountNumber().toString())
+		);
+		Long customerId = accounts.getCustomerId();
+		Customer customer = customerRepository.findById(customerId).orElseThrow(
+				() -> new ResourceNotFoundException("Customer", "CustomerID", customerId.toString())
+		);
+		// The mappers modify the entities in place, so the before state is taken first
+		CustomerDto before = toCustomerDto(customer, accounts);
+
+		Accounts updatedAccount = accountsRepository.save(AccountsMapper.mapToAccounts(accountsDto, accounts));
+		Customer updatedCustomer = customerRepository.save(CustomerMapper.mapToCustomer(customerDto, customer));
+		if (!before.getMobileNumber().equals(updatedCustomer.getMobileNumber())) {
+			membershipFilter.added(updatedCustomer.getMobileNumber());
+			membershipFilter.removed(before.getMobileNumber());
+			readYourWrites.recordWrite(before.getMobileNumber());
+			customersCache.invalidate(before.getMobileNumber());
+		}
+		customersCache.invalidate(updatedCustomer.getMobileNumber());
+
+		CustomerDto after = toCustomerDto(updatedCustomer, updatedAccount);
+		auditTrail.record("Customer", customerId, AuditTrail.UPDATE, before, after);
+		return after;
+	}
+
+	/**
+	 * Copies the customer and its account to the shard owning its new mobile number, then deletes them from the old shard.
+	 * The shards do not share a transaction: if the delete fails the customer is left on both, the resharding cleanup reports it.
+	 */
+	private void moveCustomer(CustomerDto customerDto, String fromShard, String toShard) {
+		shardRouter.callOn(toShard, () -> transactionTemplate.execute(status -> {
+			Customer movedCustomer = customerRepository.save(CustomerMapper.mapToCustomer(customerDto, new Customer()));
+			Accounts movedAccount = AccountsMapper.mapToAccounts(customerDto.getAccountsDto(), new Accounts());
+			movedAccount.setCustomerId(movedCustomer.getCustomerId());
+			return accountsRepository.save(movedAccount);
+		}));
+		shardRouter.callOn(fromShard, () -> transactionTemplate.execute(status -> {
+			customerRepository.findByMobileNumber(customerDto.getMobileNumber()).ifPresent(customer -> {
+				accountsRepository.deleteByCustomerId(customer.getCustomerId());
+				customerRepository.deleteById(customer.getCustomerId());
+			});
+			return null;
+		}));
 	}
 
 	/**
@@ -140,11 +318,23 @@ public class AccountsServiceImpl implements IAccountsService {
 	 */
 	@Override
 	public boolean deleteAccount(String mobileNumber) {
+		boolean deleted = shardRouter.callOnShardOf(mobileNumber,
+				() -> transactionTemplate.execute(status -> deleteAccountOnShard(mobileNumber)));
+		readYourWrites.recordWrite(mobileNumber);
+		return deleted;
+	}
+
+	private boolean deleteAccountOnShard(String mobileNumber) {
 		Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
 				() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
 		);
+		CustomerDto before = toCustomerDto(customer, accountsRepository.findByCustomerId(customer.getCustomerId()).orElse(null));
 		accountsRepository.deleteByCustomerId(customer.getCustomerId());
 		customerRepository.deleteById(customer.getCustomerId());
+		membershipFilter.removed(mobileNumber);
+		customersCache.invalidate(mobileNumber);
+
+		auditTrail.record("Customer", customer.getCustomerId(), AuditTrail.DELETE, before, null);
 		return true;
 	}
 
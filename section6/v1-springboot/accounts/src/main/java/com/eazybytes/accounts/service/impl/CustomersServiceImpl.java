@@ -0,0 +1,74 @@
+package com.eazybytes.accounts.service.impl;
+
+import com.eazybytes.accounts.client.DownstreamClients;
+import com.eazybytes.accounts.client.DownstreamException;
+import com.eazybytes.accounts.dto.CardsPageDto;
+import com.eazybytes.accounts.dto.CustomerDetailsDto;
+import com.eazybytes.accounts.dto.CustomerDto;
+import com.eazybytes.accounts.dto.LoansPageDto;
+import com.eazybytes.accounts.service.IAccountsService;
+import com.eazybytes.accounts.service.ICustomersService;
+import io.micrometer.observation.annotation.Observed;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Author: ldeepak
+ */
+@Service
+@AllArgsConstructor
+@Observed(name = "customers.service")
+public class CustomersServiceImpl implements ICustomersService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomersServiceImpl.class);
+
+	private IAccountsService accountsService;
+	private DownstreamClients downstreamClients;
+
+	/**
+	 * Cards and loans are called in parallel while the account is read locally.
+	 * Each of them answers with the first page of the products of the customer and the totals of all of them.
+	 * A failing or slow downstream only removes its part from the response, the timeouts, bulkheads and circuit breakers
+	 * of the DownstreamClient make sure it never blocks the request for long.
+	 *
+	 * @param mobileNumber
+	 * @return Customer, account, card and loan details based on the given mobile number
+	 */
+	@Override
+	public CustomerDetailsDto fetchCustomerDetails(String mobileNumber) {
+		String path = "/api/fetch?mobileNumber=" + mobileNumber;
+		CompletableFuture<Optional<CardsPageDto>> cards = downstreamClients.get(DownstreamClients.CARDS)
+				.fetchAsync(path, CardsPageDto.class);
+		CompletableFuture<Optional<LoansPageDto>> loans = downstreamClients.get(DownstreamClients.LOANS)
+				.fetchAsync(path, LoansPageDto.class);
+
+		CustomerDto customerDto = accountsService.fetchAccount(mobileNumber);
+
+		CustomerDetailsDto customerDetailsDto = new CustomerDetailsDto();
+		customerDetailsDto.setName(customerDto.getName());
+		customerDetailsDto.setEmail(customerDto.getEmail());
+		customerDetailsDto.setMobileNumber(customerDto.getMobileNumber());
+		customerDetailsDto.setAccountsDto(customerDto.getAccountsDto());
+		customerDetailsDto.setCardsPageDto(joinOrNull(cards, DownstreamClients.CARDS));
+		customerDetailsDto.setLoansPageDto(joinOrNull(loans, DownstreamClients.LOANS));
+		return customerDetailsDto;
+	}
+
+	private static <T> T joinOrNull(CompletableFuture<Optional<T>> future, String downstream) {
+		try {
+			return future.join().orElse(null);
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof DownstreamException) {
+				logger.warn("Customer details returned without {} details: {}", downstream, ex.getCause().getMessage());
+				return null;
+			}
+			throw ex;
+		}
+	}
+}
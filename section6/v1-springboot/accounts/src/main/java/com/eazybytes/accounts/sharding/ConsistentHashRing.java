@@ -0,0 +1,81 @@
+package com.eazybytes.accounts.sharding;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Author: ldeepak
+ *
+ * Consistent hash ring of shard names. Every shard is placed on the ring at virtualNodes points,
+ * a key belongs to the first shard point found clockwise from the hash of the key.
+ * Adding a shard to N shards only moves about 1/(N+1) of the keys, all of them to the new shard.
+ * Immutable, hence safe to share between threads.
+ */
+public class ConsistentHashRing {
+
+	private final NavigableMap<Long, String> ring = new TreeMap<>();
+	private final List<String> shards;
+
+	public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+		if (shards.isEmpty()) {
+			throw new IllegalArgumentException("A hash ring needs at least one shard");
+		}
+		this.shards = List.copyOf(shards);
+		for (String shard : this.shards) {
+			for (int i = 0; i < virtualNodes; i++) {
+				ring.put(hash(shard + "#" + i), shard);
+			}
+		}
+	}
+
+	/**
+	 * @return the shard owning the key
+	 */
+	public String shardFor(String key) {
+		Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+		// Past the last point the ring wraps around to the first one
+		return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+	}
+
+	public List<String> getShards() {
+		return shards;
+	}
+
+	/**
+	 * @return share of the hash space owned by the shard, between 0 and 1
+	 */
+	public double ownership(String shard) {
+		if (shards.size() == 1) {
+			return shards.contains(shard) ? 1 : 0;
+		}
+		double owned = 0;
+		long previous = ring.lastKey();
+		for (Map.Entry<Long, String> entry : ring.entrySet()) {
+			if (entry.getValue().equals(shard)) {
+				// A point owns the keys between the previous point (wrapping around for the first one) and itself
+				long distance = entry.getKey() - previous;
+				owned += (double) (distance >>> 1) * 2 + (distance & 1);
+			}
+			previous = entry.getKey();
+		}
+		return owned / Math.pow(2, 64);
+	}
+
+	// FNV-1a over the characters, finished with the MurmurHash3 mix so that the points are spread over the whole ring
+	static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,250 @@
+package com.eazybytes.accounts.sharding;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Author: ldeepak
+ *
+ * Online resharding of the customers and their accounts, run through the resharding actuator endpoint.
+ *
+ * Adding a shard:
+ * 1. Add it to sharding.shards with joining: true and restart. It gets the tables but no requests.
+ * 2. copy(shard): the customers the new shard owns on the target ring (all shards) are copied from their current shard
+ *    and verified, while the service keeps serving from the current shards. A copy can be repeated any time,
+ *    customers that are already identical on the new shard are skipped, so repeating it catches up the latest writes.
+ * 3. Set joining: false and restart, the new shard now serves its share of the customers.
+ * 4. cleanup(): every shard deletes the customers it no longer owns, but only those identical on their new shard.
+ *    A customer written between the last copy and the restart is reported as mismatched and kept for a manual check.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class Resharder {
+
+	private static final Logger log = LoggerFactory.getLogger(Resharder.class);
+
+	private static final int MAX_REPORTED_MISMATCHES = 100;
+
+	private static final String SELECT_CUSTOMERS = "SELECT c.customer_id, c.name, c.email, c.mobile_number, c.version, "
+			+ "c.created_at, c.created_by, c.updated_at, c.updated_by, a.account_number, a.account_type, a.branch_address, "
+			+ "a.version, a.created_at, a.created_by, a.updated_at, a.updated_by "
+			+ "FROM customer c LEFT JOIN accounts a ON a.customer_id = c.customer_id";
+	private static final String SELECT_CUSTOMER = SELECT_CUSTOMERS + " WHERE c.mobile_number = ?";
+	private static final String INSERT_CUSTOMER = "INSERT INTO customer "
+			+ "(name, email, mobile_number, version, created_at, created_by, updated_at, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_ACCOUNT = "INSERT INTO accounts (customer_id, account_number, account_type, branch_address, "
+			+ "version, created_at, created_by, updated_at, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final Map<String, JdbcTemplate> jdbcTemplates = new LinkedHashMap<>();
+	private final Map<String, TransactionTemplate> transactionTemplates = new LinkedHashMap<>();
+	private final ShardRouter shardRouter;
+
+	public Resharder(ShardRoutingDataSource dataSource, ShardRouter shardRouter) {
+		dataSource.getShardDataSources().forEach((shard, shardDataSource) -> {
+			jdbcTemplates.put(shard, new JdbcTemplate(shardDataSource));
+			transactionTemplates.put(shard, new TransactionTemplate(new DataSourceTransactionManager(shardDataSource)));
+		});
+		this.shardRouter = shardRouter;
+	}
+
+	/**
+	 * @return per shard: serving or joining, number of customers, and share of the hash space on the serving and target rings
+	 */
+	public Map<String, Map<String, Object>> layout() {
+		Map<String, Map<String, Object>> layout = new LinkedHashMap<>();
+		jdbcTemplates.forEach((shard, jdbcTemplate) -> {
+			Map<String, Object> details = new LinkedHashMap<>();
+			details.put("serving", shardRouter.shards().contains(shard));
+			details.put("customers", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Long.class));
+			details.put("servingOwnership", shardRouter.getServingRing().ownership(shard));
+			details.put("targetOwnership", shardRouter.getTargetRing().ownership(shard));
+			layout.put(shard, details);
+		});
+		return layout;
+	}
+
+	/**
+	 * Copies to the joining shard the customers it owns on the target ring, and verifies the copies.
+	 */
+	public ReshardingReport copy(String targetShard) {
+		if (!jdbcTemplates.containsKey(targetShard)) {
+			throw new IllegalArgumentException("Unknown shard " + targetShard);
+		}
+		if (shardRouter.shards().contains(targetShard)) {
+			throw new IllegalArgumentException("Shard " + targetShard + " is already serving, copy only fills joining shards");
+		}
+		ReshardingReport report = new ReshardingReport("copy", targetShard);
+		for (String sourceShard : shardRouter.shards()) {
+			jdbcTemplates.get(sourceShard).query(SELECT_CUSTOMERS, resultSet -> {
+				CustomerRow row = CustomerRow.from(resultSet);
+				if (!targetShard.equals(shardRouter.getTargetRing().shardFor(row.mobileNumber()))) {
+					return;
+				}
+				report.scanned++;
+				Optional<CustomerRow> existing = find(targetShard, row.mobileNumber());
+				if (existing.isPresent() && existing.get().sameContent(row)) {
+					report.unchanged++;
+					return;
+				}
+				replace(targetShard, existing, row);
+				report.copied++;
+				if (find(targetShard, row.mobileNumber()).filter(row::sameContent).isPresent()) {
+					report.verified++;
+				} else {
+					report.mismatch(row.mobileNumber());
+				}
+			});
+		}
+		log.info("Resharding copy to {}: {}", targetShard, report);
+		return report;
+	}
+
+	/**
+	 * Deletes from every serving shard the customers owned by another shard, once verified identical on that shard.
+	 */
+	public ReshardingReport cleanup() {
+		ReshardingReport report = new ReshardingReport("cleanup", null);
+		for (String shard : shardRouter.shards()) {
+			List<CustomerRow> moved = new ArrayList<>();
+			jdbcTemplates.get(shard).query(SELECT_CUSTOMERS, resultSet -> {
+				CustomerRow row = CustomerRow.from(resultSet);
+				if (!shard.equals(shardRouter.shardFor(row.mobileNumber()))) {
+					moved.add(row);
+				}
+			});
+			for (CustomerRow row : moved) {
+				report.scanned++;
+				String owner = shardRouter.shardFor(row.mobileNumber());
+				if (find(owner, row.mobileNumber()).filter(row::sameContent).isPresent()) {
+					report.verified++;
+					transactionTemplates.get(shard).executeWithoutResult(status -> delete(shard, row.customerId()));
+					report.deleted++;
+				} else {
+					report.mismatch(row.mobileNumber());
+				}
+			}
+		}
+		log.info("Resharding cleanup: {}", report);
+		return report;
+	}
+
+	private Optional<CustomerRow> find(String shard, String mobileNumber) {
+		return jdbcTemplates.get(shard).query(SELECT_CUSTOMER, (resultSet, rowNum) -> CustomerRow.from(resultSet), mobileNumber)
+				.stream().findFirst();
+	}
+
+	// The customer gets a new customer_id on the target shard, the identity columns of the shards are independent
+	private void replace(String shard, Optional<CustomerRow> existing, CustomerRow row) {
+		JdbcTemplate jdbcTemplate = jdbcTemplates.get(shard);
+		transactionTemplates.get(shard).executeWithoutResult(status -> {
+			existing.ifPresent(customer -> delete(shard, customer.customerId()));
+			KeyHolder keyHolder = new GeneratedKeyHolder();
+			jdbcTemplate.update(connection -> {
+				PreparedStatement statement = connection.prepareStatement(INSERT_CUSTOMER, new String[] {"customer_id"});
+				statement.setString(1, row.name());
+				statement.setString(2, row.email());
+				statement.setString(3, row.mobileNumber());
+				statement.setObject(4, row.version());
+				statement.setObject(5, row.createdAt());
+				statement.setString(6, row.createdBy());
+				statement.setObject(7, row.updatedAt());
+				statement.setString(8, row.updatedBy());
+				return statement;
+			}, keyHolder);
+			if (row.accountNumber() != null) {
+				jdbcTemplate.update(INSERT_ACCOUNT, keyHolder.getKey().longValue(), row.accountNumber(), row.accountType(),
+						row.branchAddress(), row.accountVersion(), row.accountCreatedAt(), row.accountCreatedBy(),
+						row.accountUpdatedAt(), row.accountUpdatedBy());
+			}
+		});
+	}
+
+	private void delete(String shard, long customerId) {
+		JdbcTemplate jdbcTemplate = jdbcTemplates.get(shard);
+		jdbcTemplate.update("DELETE FROM accounts WHERE customer_id = ?", customerId);
+		jdbcTemplate.update("DELETE FROM customer WHERE customer_id = ?", customerId);
+	}
+
+	/**
+	 * A customer and its account as stored on one shard.
+	 */
+	record CustomerRow(long customerId, String name, String email, String mobileNumber, Object version,
+					   Object createdAt, String createdBy, Object updatedAt, String updatedBy,
+					   Long accountNumber, String accountType, String branchAddress, Object accountVersion,
+					   Object accountCreatedAt, String accountCreatedBy, Object accountUpdatedAt, String accountUpdatedBy) {
+
+		static CustomerRow from(ResultSet resultSet) throws SQLException {
+			long accountNumber = resultSet.getLong(10);
+			return new CustomerRow(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+					resultSet.getString(4), resultSet.getObject(5), resultSet.getObject(6), resultSet.getString(7),
+					resultSet.getObject(8), resultSet.getString(9), resultSet.wasNull() ? null : accountNumber,
+					resultSet.getString(11), resultSet.getString(12), resultSet.getObject(13), resultSet.getObject(14),
+					resultSet.getString(15), resultSet.getObject(16), resultSet.getString(17));
+		}
+
+		// Everything but the customer_id, which differs between shards
+		boolean sameContent(CustomerRow other) {
+			return Objects.equals(name, other.name) && Objects.equals(email, other.email)
+					&& Objects.equals(mobileNumber, other.mobileNumber) && Objects.equals(version, other.version)
+					&& Objects.equals(createdAt, other.createdAt) && Objects.equals(createdBy, other.createdBy)
+					&& Objects.equals(updatedAt, other.updatedAt) && Objects.equals(updatedBy, other.updatedBy)
+					&& Objects.equals(accountNumber, other.accountNumber) && Objects.equals(accountType, other.accountType)
+					&& Objects.equals(branchAddress, other.branchAddress) && Objects.equals(accountVersion, other.accountVersion)
+					&& Objects.equals(accountCreatedAt, other.accountCreatedAt) && Objects.equals(accountCreatedBy, other.accountCreatedBy)
+					&& Objects.equals(accountUpdatedAt, other.accountUpdatedAt) && Objects.equals(accountUpdatedBy, other.accountUpdatedBy);
+		}
+	}
+
+	/**
+	 * Outcome of a copy or cleanup run, returned by the resharding endpoint.
+	 */
+	@Getter
+	public static class ReshardingReport {
+
+		private final String operation;
+		private final String shard;
+		private long scanned;
+		private long copied;
+		private long unchanged;
+		private long verified;
+		private long deleted;
+		private long mismatches;
+		private final List<String> mismatchedMobileNumbers = new ArrayList<>();
+
+		ReshardingReport(String operation, String shard) {
+			this.operation = operation;
+			this.shard = shard;
+		}
+
+		void mismatch(String mobileNumber) {
+			mismatches++;
+			if (mismatchedMobileNumbers.size() < MAX_REPORTED_MISMATCHES) {
+				mismatchedMobileNumbers.add(mobileNumber);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "scanned=" + scanned + ", copied=" + copied + ", unchanged=" + unchanged + ", verified=" + verified
+					+ ", deleted=" + deleted + ", mismatches=" + mismatches;
+		}
+	}
+}
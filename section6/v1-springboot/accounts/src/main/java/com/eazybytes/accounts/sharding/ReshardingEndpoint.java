@@ -0,0 +1,57 @@
+package com.eazybytes.accounts.sharding;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Actuator endpoint (/actuator/resharding) of the online resharding tool, see Resharder for the procedure.
+ * - GET shows every shard with its number of customers and its share of the serving and target rings.
+ * - POST {"operation": "copy", "shard": "shard2"} copies and verifies the customers of the joining shard2.
+ * - POST {"operation": "cleanup"} deletes the customers verified on their new shard from their old one.
+ * The POST moves and deletes customers, it is not exposed over HTTP by default: add it to management.endpoints.web.exposure.include
+ * only along with a management.server.port that is not reachable from outside, or run it over JMX.
+ */
+@Component
+@Endpoint(id = "resharding")
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ReshardingEndpoint {
+
+	private final Resharder resharder;
+
+	public ReshardingEndpoint(Resharder resharder) {
+		this.resharder = resharder;
+	}
+
+	@ReadOperation
+	public Map<String, Map<String, Object>> layout() {
+		return resharder.layout();
+	}
+
+	@WriteOperation
+	public Resharder.ReshardingReport reshard(String operation, @Nullable String shard) {
+		try {
+			return switch (operation) {
+				case "copy" -> {
+					if (shard == null) {
+						throw new IllegalArgumentException("copy needs the joining shard");
+					}
+					yield resharder.copy(shard);
+				}
+				case "cleanup" -> resharder.cleanup();
+				default -> throw new IllegalArgumentException("Unknown operation " + operation + ", expected copy or cleanup");
+			};
+		} catch (IllegalArgumentException ex) {
+			// Answered with 400 Bad Request
+			throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.accounts.sharding;
+
+/**
+ * Author: ldeepak
+ *
+ * Shard of the current thread, read by ShardRoutingDataSource when a connection is requested.
+ * Set through ShardRouter, which also restores the previous value.
+ */
+public final class ShardContext {
+
+	private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	/**
+	 * @return the shard of the current thread, null outside of ShardRouter calls
+	 */
+	public static String current() {
+		return CURRENT_SHARD.get();
+	}
+
+	static void set(String shard) {
+		if (shard == null) {
+			CURRENT_SHARD.remove();
+		} else {
+			CURRENT_SHARD.set(shard);
+		}
+	}
+}
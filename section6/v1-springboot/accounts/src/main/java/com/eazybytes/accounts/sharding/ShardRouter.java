@@ -0,0 +1,168 @@
+package com.eazybytes.accounts.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Author: ldeepak
+ *
+ * Routes the work of the service layer to the shard owning a mobile number, or to all shards (scatter-gather).
+ * Shards are picked with a consistent hash ring over the serving shards, a joining shard is only on the target ring
+ * used by the resharding tool.
+ *
+ * When sharding is disabled there is a single shard and every call simply runs on the calling thread,
+ * so the service layer does not need to know whether the data is sharded.
+ */
+@Component
+public class ShardRouter {
+
+	public static final String SINGLE_SHARD = "default";
+
+	private final boolean enabled;
+	private final ConsistentHashRing servingRing;
+	private final ConsistentHashRing targetRing;
+	private final ExecutorService scatterExecutor;
+
+	public ShardRouter(ShardingProperties shardingProperties) {
+		this.enabled = shardingProperties.enabled();
+		if (!enabled) {
+			this.servingRing = new ConsistentHashRing(List.of(SINGLE_SHARD), 1);
+			this.targetRing = servingRing;
+			this.scatterExecutor = null;
+			return;
+		}
+		if (shardingProperties.shards() == null || shardingProperties.shards().isEmpty()) {
+			throw new IllegalStateException("sharding.enabled is true but no sharding.shards are configured");
+		}
+		List<String> serving = new ArrayList<>();
+		shardingProperties.shards().forEach((name, shard) -> {
+			if (!shard.joining()) {
+				serving.add(name);
+			}
+		});
+		this.servingRing = new ConsistentHashRing(serving, shardingProperties.virtualNodes());
+		this.targetRing = new ConsistentHashRing(shardingProperties.shards().keySet(), shardingProperties.virtualNodes());
+		this.scatterExecutor = Executors.newFixedThreadPool(shardingProperties.shards().size(), runnable -> {
+			Thread thread = new Thread(runnable, "shard-scatter");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the shards serving requests, the first one is the default shard
+	 */
+	public List<String> shards() {
+		return servingRing.getShards();
+	}
+
+	public String shardFor(String mobileNumber) {
+		return servingRing.shardFor(mobileNumber);
+	}
+
+	ConsistentHashRing getServingRing() {
+		return servingRing;
+	}
+
+	ConsistentHashRing getTargetRing() {
+		return targetRing;
+	}
+
+	/**
+	 * Runs the action with the connections of the given shard.
+	 */
+	public <T> T callOn(String shard, Supplier<T> action) {
+		if (!enabled) {
+			return action.get();
+		}
+		String previous = ShardContext.current();
+		ShardContext.set(shard);
+		try {
+			return action.get();
+		} finally {
+			ShardContext.set(previous);
+		}
+	}
+
+	/**
+	 * Runs the action with the connections of the shard owning the mobile number.
+	 */
+	public <T> T callOnShardOf(String mobileNumber, Supplier<T> action) {
+		return callOn(shardFor(mobileNumber), action);
+	}
+
+	public void runOnShardOf(String mobileNumber, Runnable action) {
+		callOnShardOf(mobileNumber, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * @return the mobile numbers grouped by owning shard
+	 */
+	public Map<String, List<String>> groupByShard(Collection<String> mobileNumbers) {
+		Map<String, List<String>> mobileNumbersByShard = new LinkedHashMap<>();
+		for (String mobileNumber : mobileNumbers) {
+			mobileNumbersByShard.computeIfAbsent(shardFor(mobileNumber), shard -> new ArrayList<>()).add(mobileNumber);
+		}
+		return mobileNumbersByShard;
+	}
+
+	/**
+	 * Scatter-gather: runs the query on every given shard in parallel and returns the results in the order of the shards.
+	 * The first failure is rethrown once all the shards answered.
+	 */
+	public <T> List<T> scatterGather(Collection<String> shards, Function<String, T> query) {
+		if (!enabled || shards.size() == 1) {
+			List<T> results = new ArrayList<>();
+			for (String shard : shards) {
+				results.add(callOn(shard, () -> query.apply(shard)));
+			}
+			return results;
+		}
+		List<CompletableFuture<T>> futures = new ArrayList<>();
+		for (String shard : shards) {
+			futures.add(CompletableFuture.supplyAsync(() -> callOn(shard, () -> query.apply(shard)), scatterExecutor));
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw ex;
+		}
+		return futures.stream().map(CompletableFuture::join).toList();
+	}
+
+	/**
+	 * Scatter-gather over all the serving shards.
+	 */
+	public <T> List<T> scatterGather(Function<String, T> query) {
+		return scatterGather(shards(), query);
+	}
+
+	@PreDestroy
+	void stop() {
+		if (scatterExecutor != null) {
+			scatterExecutor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.eazybytes.accounts.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * DataSource handing out connections of the shard set in ShardContext. JPA, the repositories and JdbcTemplate use it
+ * as their only DataSource. Without a shard in the context the default shard is used, which also holds the tables
+ * that are not sharded (idempotency_record, audit_trail).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	private final Map<String, DataSource> shardDataSources;
+
+	public ShardRoutingDataSource(Map<String, DataSource> shardDataSources, String defaultShard) {
+		this.shardDataSources = Map.copyOf(shardDataSources);
+		setTargetDataSources(new LinkedHashMap<>(shardDataSources));
+		setDefaultTargetDataSource(shardDataSources.get(defaultShard));
+		// An unknown shard is a bug, it must not silently end up on the default shard
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ShardContext.current();
+	}
+
+	/**
+	 * @return the DataSource of every shard, keyed by shard name, used by the resharding tool
+	 */
+	public Map<String, DataSource> getShardDataSources() {
+		return shardDataSources;
+	}
+
+	/**
+	 * Closes the connection pools of the shards when the application stops.
+	 */
+	@Override
+	public void close() throws Exception {
+		for (DataSource dataSource : shardDataSources.values()) {
+			if (dataSource instanceof AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.eazybytes.accounts.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Settings of the customer sharding, bound from the "sharding" prefix.
+ *
+ * @param enabled - When false accounts uses the single spring.datasource as before
+ * @param virtualNodes - Points of every shard on the hash ring, more points spread the customers more evenly
+ * @param shards - Shard databases keyed by shard name, in the order of the configuration. The first one is the default shard
+ */
+@ConfigurationProperties(prefix = "sharding")
+public record ShardingProperties(@DefaultValue("false") boolean enabled, @DefaultValue("128") int virtualNodes,
+								 Map<String, Shard> shards) {
+
+	/**
+	 * @param url - JDBC URL of the shard database
+	 * @param username - Database user
+	 * @param password - Database password
+	 * @param maxPoolSize - Connections of the pool of this shard
+	 * @param joining - A joining shard is on the target ring of the resharding tool but does not serve requests yet
+	 */
+	public record Shard(String url, String username, @DefaultValue("") String password,
+						@DefaultValue("10") int maxPoolSize, @DefaultValue("false") boolean joining) {
+	}
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.accounts.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Author: ldeepak
+ *
+ * Validates @DigitString on numbers such as the account number: the value must have exactly length digits.
+ */
+public class DigitLongValidator implements ConstraintValidator<DigitString, Long> {
+
+	private long min;
+	private long max;
+
+	@Override
+	public void initialize(DigitString digitString) {
+		long upperBound = 1;
+		for (int i = 0; i < digitString.length(); i++) {
+			upperBound *= 10;
+		}
+		this.min = upperBound / 10;
+		this.max = upperBound - 1;
+	}
+
+	@Override
+	public boolean isValid(Long value, ConstraintValidatorContext context) {
+		return value == null || (value >= min && value <= max);
+	}
+}
@@ -0,0 +1,37 @@
+package com.eazybytes.accounts.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Author: ldeepak
+ *
+ * The annotated value must consist of exactly length ASCII digits, the same as @Pattern(regexp = "(^$|[0-9]{length})").
+ * null is valid (combine with @NotEmpty / @NotNull), the empty string is valid unless allowEmpty is false.
+ *
+ * It replaces @Pattern on mobile, account, card and loan numbers: the regex is matched on every request
+ * and allocates a Matcher each time, while this is a plain loop over the characters without any allocation.
+ * Also applicable to a Long, which must then have exactly length digits.
+ */
+@Documented
+@Constraint(validatedBy = {DigitStringValidator.class, DigitLongValidator.class})
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE_USE, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DigitString {
+
+	int length();
+
+	boolean allowEmpty() default true;
+
+	String message() default "must be {length} digits";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+}
@@ -3,6 +3,7 @@ CREATE TABLE IF NOT EXISTS `customer` (
   `name` varchar(100) NOT NULL,
   `email` varchar(100) NOT NULL,
   `mobile_number` varchar(20) NOT NULL,
+  `version` int NOT NULL DEFAULT 0,
   `created_at` date NOT NULL,
   `created_by` varchar(20) NOT NULL,
   `updated_at` date DEFAULT NULL,
@@ -14,8 +15,29 @@ CREATE TABLE IF NOT EXISTS `accounts` (
    `account_number` int AUTO_INCREMENT  PRIMARY KEY,
   `account_type` varchar(100) NOT NULL,
   `branch_address` varchar(200) NOT NULL,
+  `version` int NOT NULL DEFAULT 0,
   `created_at` date NOT NULL,
    `created_by` varchar(20) NOT NULL,
    `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL
+);
+
+CREATE TABLE IF NOT EXISTS `idempotency_record` (
+  `idempotency_key` varchar(300) PRIMARY KEY,
+  `request_hash` char(64) NOT NULL,
+  `http_status` int NOT NULL,
+  `status_code` varchar(10) NOT NULL,
+  `status_msg` varchar(200) NOT NULL,
+  `created_at` timestamp NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS `audit_trail` (
+  `audit_id` bigint AUTO_INCREMENT PRIMARY KEY,
+  `entity_type` varchar(50) NOT NULL,
+  `entity_id` varchar(50) NOT NULL,
+  `action` varchar(10) NOT NULL,
+  `changed_by` varchar(20) DEFAULT NULL,
+  `changed_at` timestamp NOT NULL,
+  `before_state` clob DEFAULT NULL,
+  `after_state` clob DEFAULT NULL
 );
\ No newline at end of file
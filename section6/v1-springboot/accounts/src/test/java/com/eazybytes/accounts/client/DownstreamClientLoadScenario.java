@@ -0,0 +1,145 @@
+package com.eazybytes.accounts.client;
+
+import com.eazybytes.accounts.dto.CardsDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: ldeepak
+ *
+ * Tail latency of the callers of a DownstreamClient, with and without its protections, against a local stub of cards:
+ * - slow-tail: 2% of the requests are answered after 500ms, the others right away.
+ * - outage: every request is answered after 3 seconds, longer than the read timeout.
+ * The protected clients use the settings of downstream.services.cards in application.yml.
+ * The calls arrive at a fixed RATE for DURATION (open loop, a slow downstream does not slow the arrivals down, like real users),
+ * the latency of every call is recorded, failed calls included.
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.accounts.client.DownstreamClientLoadScenario
+ */
+public class DownstreamClientLoadScenario {
+
+	private static final String CARD_JSON = "{\"mobileNumber\":\"4354437687\",\"cardNumber\":\"100646930341\","
+			+ "\"cardType\":\"Credit Card\",\"totalLimit\":100000,\"amountUsed\":1000,\"availableAmount\":99000}";
+	private static final int RATE = 200;
+	private static final long DURATION_MILLIS = 10_000;
+	private static final Duration READ_TIMEOUT = Duration.ofSeconds(1);
+
+	private static volatile double slowShare;
+	private static volatile long slowDelayMillis;
+
+	public static void main(String[] args) throws Exception {
+		// Without it the stub answers after the 40ms of the delayed ACK, headers and body are written separately
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		ExecutorService stubExecutor = Executors.newCachedThreadPool();
+		HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		stub.createContext("/api/fetch", DownstreamClientLoadScenario::handle);
+		stub.setExecutor(stubExecutor);
+		stub.start();
+		String baseUrl = "http://localhost:" + stub.getAddress().getPort();
+		try {
+			System.out.printf("%d calls/s, %d ms per run, read timeout %d ms%n", RATE, DURATION_MILLIS, READ_TIMEOUT.toMillis());
+			System.out.printf("%-10s %-24s %7s %8s %9s %9s %9s %9s %9s%n", "scenario", "client", "calls", "failed", "hedged",
+					"p50 ms", "p99 ms", "p99.9 ms", "max ms");
+			// Warms the client and the stub up, not printed
+			slowShare = 0;
+			run("warm-up", "plain", settings(baseUrl, 10_000, 101, null), false);
+			for (String scenario : List.of("slow-tail", "outage")) {
+				slowShare = scenario.equals("slow-tail") ? 0.02 : 1;
+				slowDelayMillis = scenario.equals("slow-tail") ? 500 : 3000;
+				// No bulkhead (more permits than calls in flight), a circuit breaker that never opens, no hedging
+				run(scenario, "plain", settings(baseUrl, 10_000, 101, null), true);
+				run(scenario, "bulkhead+breaker", settings(baseUrl, 50, 50, null), true);
+				run(scenario, "bulkhead+breaker+hedge", settings(baseUrl, 50, 50, Duration.ofMillis(200)), true);
+			}
+		} finally {
+			stub.stop(0);
+			stubExecutor.shutdownNow();
+		}
+	}
+
+	private static DownstreamProperties.Settings settings(String baseUrl, int maxConcurrentCalls, int failureRateThreshold,
+														  Duration hedgeDelay) {
+		return new DownstreamProperties.Settings(baseUrl, Duration.ofMillis(500), READ_TIMEOUT, maxConcurrentCalls,
+				failureRateThreshold, 20, 10, Duration.ofSeconds(10), hedgeDelay);
+	}
+
+	private static void run(String scenario, String name, DownstreamProperties.Settings settings, boolean print)
+			throws InterruptedException {
+		AtomicLong failed = new AtomicLong();
+		Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+		long hedged;
+		try (DownstreamClient client = new DownstreamClient("cards", settings, new ObjectMapper(), new SimpleMeterRegistry(),
+				ObservationRegistry.NOOP)) {
+			int calls = (int) (RATE * DURATION_MILLIS / 1000);
+			CountDownLatch completed = new CountDownLatch(calls);
+			ScheduledExecutorService arrivals = Executors.newSingleThreadScheduledExecutor();
+			AtomicLong sent = new AtomicLong();
+			arrivals.scheduleAtFixedRate(() -> {
+				if (sent.incrementAndGet() > calls) {
+					return;
+				}
+				long start = System.nanoTime();
+				client.fetchAsync("/api/fetch?mobileNumber=4354437687", CardsDto.class).whenComplete((cards, ex) -> {
+					if (ex != null) {
+						failed.incrementAndGet();
+					}
+					latencies.add(System.nanoTime() - start);
+					completed.countDown();
+				});
+			}, 0, 1_000_000 / RATE, TimeUnit.MICROSECONDS);
+			completed.await(DURATION_MILLIS + 60_000, TimeUnit.MILLISECONDS);
+			arrivals.shutdownNow();
+			hedged = client.snapshot().hedgedCalls();
+		}
+		if (!print) {
+			return;
+		}
+		long[] all = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		System.out.printf("%-10s %-24s %7d %7.1f%% %9d %9.1f %9.1f %9.1f %9.1f%n", scenario, name, all.length,
+				100.0 * failed.get() / all.length, hedged, percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999),
+				all[all.length - 1] / 1e6);
+	}
+
+	private static double percentile(long[] sorted, double quantile) {
+		return sorted[(int) Math.ceil(sorted.length * quantile) - 1] / 1e6;
+	}
+
+	private static void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (ThreadLocalRandom.current().nextDouble() < slowShare) {
+				TimeUnit.MILLISECONDS.sleep(slowDelayMillis);
+			}
+			byte[] body = CARD_JSON.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (IOException ex) {
+			// The client gave up on this request (read timeout, cancelled hedge)
+		} finally {
+			exchange.close();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.eazybytes.accounts.client;
+
+import com.eazybytes.accounts.dto.CardsDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ *
+ * Runs the DownstreamClient against a local fault injecting stub of the cards microservice,
+ * which holds back or fails chosen requests. Held requests are only answered once the test releases them,
+ * so the tests assert on which requests were answered, never on elapsed time.
+ */
+class DownstreamClientTests {
+
+	private static final String CARD_JSON = "{\"mobileNumber\":\"4354437687\",\"cardNumber\":\"100646930341\","
+			+ "\"cardType\":\"Credit Card\",\"totalLimit\":100000,\"amountUsed\":1000,\"availableAmount\":99000}";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicInteger requests = new AtomicInteger();
+	// Numbers of the requests the stub has answered, in the order of the answers
+	private final List<Integer> answered = new CopyOnWriteArrayList<>();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ExecutorService stubExecutor;
+	private HttpServer stub;
+
+	// Fault injected for the n-th request (starting at 1) received by the stub
+	private volatile FaultInjection faultInjection = requestNumber -> new Fault(false, 200);
+
+	@BeforeEach
+	void startStub() throws IOException {
+		stubExecutor = Executors.newCachedThreadPool();
+		stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		stub.createContext("/api/fetch", this::handle);
+		stub.setExecutor(stubExecutor);
+		stub.start();
+	}
+
+	@AfterEach
+	void stopStub() {
+		release.countDown();
+		stub.stop(0);
+		stubExecutor.shutdownNow();
+	}
+
+	@Test
+	void readTimeoutBoundsTheWaitOnASlowDownstream() {
+		faultInjection = requestNumber -> new Fault(true, 200);
+		try (DownstreamClient client = client(Duration.ofMillis(300), null)) {
+			assertThrows(DownstreamException.class, () -> client.fetch("/api/fetch?mobileNumber=4354437687", CardsDto.class));
+			assertEquals(List.of(), answered, "The call should give up before the downstream answers");
+		}
+	}
+
+	@Test
+	void circuitOpensAfterRepeatedFailuresAndStopsCallingTheDownstream() {
+		faultInjection = requestNumber -> new Fault(false, 500);
+		try (DownstreamClient client = client(Duration.ofMillis(1500), null)) {
+			for (int i = 0; i < 5; i++) {
+				assertThrows(DownstreamException.class, () -> client.fetch("/api/fetch?mobileNumber=4354437687", CardsDto.class));
+			}
+			assertEquals("OPEN", client.snapshot().circuitBreakerState());
+
+			assertThrows(DownstreamException.class, () -> client.fetch("/api/fetch?mobileNumber=4354437687", CardsDto.class));
+			assertEquals(5, requests.get(), "An open circuit must not call the downstream");
+			assertEquals(1, client.snapshot().notPermittedCalls());
+		}
+	}
+
+	@Test
+	void notFoundIsEmptyAndDoesNotOpenTheCircuit() {
+		faultInjection = requestNumber -> new Fault(false, 404);
+		try (DownstreamClient client = client(Duration.ofMillis(1500), null)) {
+			for (int i = 0; i < 10; i++) {
+				assertEquals(Optional.empty(), client.fetch("/api/fetch?mobileNumber=4354437687", CardsDto.class));
+			}
+			assertEquals("CLOSED", client.snapshot().circuitBreakerState());
+		}
+	}
+
+	@Test
+	void hedgeIsAnsweredWhileThePrimaryRequestIsStuck() {
+		// The first request is held until the end of the test, the hedge is answered right away
+		faultInjection = requestNumber -> new Fault(requestNumber == 1, 200);
+		try (DownstreamClient client = client(Duration.ofSeconds(30), Duration.ofMillis(50))) {
+			assertTrue(client.fetch("/api/fetch?mobileNumber=4354437687", CardsDto.class).isPresent());
+			assertEquals(1, client.snapshot().hedgedCalls());
+			assertEquals(List.of(2), answered, "The answer should come from the hedge, the primary request is still held");
+		}
+	}
+
+	@Test
+	void noHedgeIsSentWhenThePrimaryRequestAnswers() {
+		try (DownstreamClient client = client(Duration.ofSeconds(30), Duration.ofSeconds(30))) {
+			for (int i = 0; i < 10; i++) {
+				assertTrue(client.fetch("/api/fetch?mobileNumber=4354437687", CardsDto.class).isPresent());
+			}
+			assertEquals(0, client.snapshot().hedgedCalls());
+			assertEquals(10, requests.get());
+		}
+	}
+
+	private DownstreamClient client(Duration readTimeout, Duration hedgeDelay) {
+		DownstreamProperties.Settings settings = new DownstreamProperties.Settings(
+				"http://localhost:" + stub.getAddress().getPort(), Duration.ofMillis(500), readTimeout,
+				20, 50, 10, 5, Duration.ofSeconds(10), hedgeDelay);
+		return new DownstreamClient("cards", settings, objectMapper, new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		int requestNumber = requests.incrementAndGet();
+		Fault fault = faultInjection.faultFor(requestNumber);
+		try {
+			// Bounded wait, a test that forgets to release does not hang the build
+			if (fault.held() && !release.await(1, TimeUnit.MINUTES)) {
+				return;
+			}
+			// Recorded before the answer is sent, so that it is visible once the client has the response
+			answered.add(requestNumber);
+			byte[] body = fault.status() == 200 ? CARD_JSON.getBytes(StandardCharsets.UTF_8) : new byte[0];
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(fault.status(), body.length == 0 ? -1 : body.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(body);
+			}
+		} catch (InterruptedException | IOException ex) {
+			// The client gave up on this request (timeout or cancelled hedge)
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private record Fault(boolean held, int status) {
+	}
+
+	@FunctionalInterface
+	private interface FaultInjection {
+		Fault faultFor(int requestNumber);
+	}
+}
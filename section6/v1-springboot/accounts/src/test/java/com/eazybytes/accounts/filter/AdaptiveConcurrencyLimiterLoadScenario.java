@@ -0,0 +1,96 @@
+package com.eazybytes.accounts.filter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * Load scenario of the AdaptiveConcurrencyLimiter, past the saturation of the service it protects: clients hammer a simulated
+ * service which can only work on CAPACITY requests at a time (think of a connection pool), every request taking SERVICE_TIME.
+ * Each load is run without limiter (limit pinned above the number of clients, every request queues for the service)
+ * and with the limiter, and reports the goodput: requests answered within the SLO per second.
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.accounts.filter.AdaptiveConcurrencyLimiterLoadScenario
+ */
+public class AdaptiveConcurrencyLimiterLoadScenario {
+
+	private static final int CAPACITY = 8;
+	private static final long SERVICE_TIME_MILLIS = 5;
+	private static final long SLO_MILLIS = 50;
+	private static final long DURATION_MILLIS = 5000;
+	private static final int[] CLIENTS = {8, 32, 128, 256};
+	private static final Duration PROBE_INTERVAL = Duration.ofSeconds(30);
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.printf("capacity %d, service time %d ms, SLO %d ms, %d ms per run%n", CAPACITY, SERVICE_TIME_MILLIS, SLO_MILLIS,
+				DURATION_MILLIS);
+		System.out.printf("%-8s %-8s %12s %12s %10s %10s %10s%n", "clients", "limiter", "goodput/s", "answered/s", "p99 ms", "shed",
+				"limit");
+		for (int clients : CLIENTS) {
+			print(clients, "off", run(clients, new AdaptiveConcurrencyLimiter(10_000, 10_000, 10_000, 0.9, 0.9, 0.5, PROBE_INTERVAL)));
+			print(clients, "on", run(clients, new AdaptiveConcurrencyLimiter(20, 4, 200, 0.9, 0.9, 0.5, PROBE_INTERVAL)));
+		}
+	}
+
+	private static void print(int clients, String limiter, Result result) {
+		System.out.printf("%-8d %-8s %12d %12d %10d %10d %10d%n", clients, limiter, result.goodput(), result.answered(),
+				result.p99Millis(), result.shed(), result.finalLimit());
+	}
+
+	private static Result run(int clientCount, AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+		Semaphore service = new Semaphore(CAPACITY, true);
+		ExecutorService clients = Executors.newFixedThreadPool(clientCount);
+		List<List<Long>> latencies = new ArrayList<>();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+
+		for (int i = 0; i < clientCount; i++) {
+			List<Long> clientLatencies = new ArrayList<>();
+			latencies.add(clientLatencies);
+			clients.execute(() -> {
+				while (System.nanoTime() < deadline) {
+					if (!limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ)) {
+						// Retry-After, scaled down to the service time
+						sleep(SERVICE_TIME_MILLIS);
+						continue;
+					}
+					long start = System.nanoTime();
+					service.acquireUninterruptibly();
+					try {
+						sleep(SERVICE_TIME_MILLIS);
+					} finally {
+						service.release();
+					}
+					long rtt = System.nanoTime() - start;
+					limiter.onComplete(rtt, false);
+					clientLatencies.add(rtt);
+				}
+			});
+		}
+		clients.shutdown();
+		clients.awaitTermination(DURATION_MILLIS + 60_000, TimeUnit.MILLISECONDS);
+
+		long[] all = latencies.stream().flatMap(List::stream).mapToLong(Long::longValue).sorted().toArray();
+		long withinSlo = Arrays.stream(all).filter(rtt -> rtt <= TimeUnit.MILLISECONDS.toNanos(SLO_MILLIS)).count();
+		long p99 = all.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(all[(int) Math.ceil(all.length * 0.99) - 1]);
+		return new Result(withinSlo * 1000 / DURATION_MILLIS, all.length * 1000L / DURATION_MILLIS, p99, limiter.getRejected(),
+				limiter.getLimit());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			TimeUnit.MILLISECONDS.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private record Result(long goodput, long answered, long p99Millis, long shed, int finalLimit) {
+	}
+}
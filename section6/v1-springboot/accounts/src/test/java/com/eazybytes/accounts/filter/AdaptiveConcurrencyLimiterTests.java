@@ -0,0 +1,95 @@
+package com.eazybytes.accounts.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ *
+ * Drives the AdaptiveConcurrencyLimiter with chosen response times instead of a real load, so that the resulting
+ * limit is known exactly. The probe interval is long enough for minRtt never to be forgotten during a test.
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final Duration PROBE_INTERVAL = Duration.ofMinutes(10);
+	private static final long MIN_RTT = TimeUnit.MILLISECONDS.toNanos(5);
+
+	@Test
+	void requestsAboveTheLimitAreShed() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 4, 200, 0.9, 0.9, 0.5, PROBE_INTERVAL);
+		for (int i = 0; i < 8; i++) {
+			assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+		}
+		assertFalse(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+		assertEquals(1, limiter.getRejected());
+
+		limiter.onComplete(MIN_RTT, false);
+		assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+	}
+
+	@Test
+	void limitGrowsWhileResponseTimesStayAtTheMinimum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.9, 0.9, 0.5, PROBE_INTERVAL);
+
+		// The first answer sets minRtt, the next ones show no queue and grow the limit by one
+		// as long as at least half of it is in use: 19 to 13 requests in flight
+		completeFullWave(limiter, MIN_RTT);
+
+		assertEquals(27, limiter.getLimit());
+	}
+
+	@Test
+	void limitBacksOffWhenResponseTimesShowAQueue() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.9, 0.9, 0.5, PROBE_INTERVAL);
+		complete(limiter, MIN_RTT);
+
+		// Ten times minRtt: queue = 20 * (1 - 1/10) = 18, above 6 * log10(20), the limit is multiplied by 0.9
+		complete(limiter, 10 * MIN_RTT);
+
+		assertEquals(18, limiter.getLimit());
+	}
+
+	@Test
+	void failuresBackOffDownToTheMinimum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.9, 0.9, 0.5, PROBE_INTERVAL);
+		for (int i = 0; i < 50; i++) {
+			assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+			limiter.onComplete(MIN_RTT, true);
+		}
+
+		assertEquals(4, limiter.getLimit());
+	}
+
+	@Test
+	void bulkRequestsAreShedBeforeReads() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 10, 0.9, 0.9, 0.5, PROBE_INTERVAL);
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+		}
+		assertFalse(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.BULK));
+		assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.WRITE));
+		assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+	}
+
+	private static void complete(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+		assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+		limiter.onComplete(rttNanos, false);
+	}
+
+	// Fills the whole limit with requests, then completes them one after the other
+	private static void completeFullWave(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+		int requests = limiter.getLimit();
+		for (int i = 0; i < requests; i++) {
+			assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+		}
+		for (int i = 0; i < requests; i++) {
+			limiter.onComplete(rttNanos, false);
+		}
+	}
+}
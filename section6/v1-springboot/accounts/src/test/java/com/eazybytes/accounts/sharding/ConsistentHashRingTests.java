@@ -0,0 +1,57 @@
+package com.eazybytes.accounts.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class ConsistentHashRingTests {
+
+	private static final int CUSTOMERS = 100_000;
+
+	@Test
+	void customersAreSpreadEvenly() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("shard0", "shard1", "shard2", "shard3"), 128);
+		Map<String, Integer> customersPerShard = new HashMap<>();
+		for (int i = 0; i < CUSTOMERS; i++) {
+			customersPerShard.merge(ring.shardFor(mobileNumber(i)), 1, Integer::sum);
+		}
+
+		double ownership = 0;
+		for (String shard : ring.getShards()) {
+			int customers = customersPerShard.get(shard);
+			assertTrue(Math.abs(customers - CUSTOMERS / 4) < CUSTOMERS / 4 * 0.2, shard + " has " + customers + " customers");
+			ownership += ring.ownership(shard);
+		}
+		assertEquals(1, ownership, 1e-9);
+	}
+
+	@Test
+	void addingAShardOnlyMovesCustomersToIt() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("shard0", "shard1", "shard2"), 128);
+		ConsistentHashRing grownRing = new ConsistentHashRing(List.of("shard0", "shard1", "shard2", "shard3"), 128);
+
+		int moved = 0;
+		for (int i = 0; i < CUSTOMERS; i++) {
+			String before = ring.shardFor(mobileNumber(i));
+			String after = grownRing.shardFor(mobileNumber(i));
+			if (!before.equals(after)) {
+				assertEquals("shard3", after);
+				moved++;
+			}
+		}
+
+		assertTrue(Math.abs(moved - CUSTOMERS / 4) < CUSTOMERS / 4 * 0.2, "moved " + moved + " customers");
+	}
+
+	private static String mobileNumber(int i) {
+		return Long.toString(4_000_000_000L + i * 13L);
+	}
+}
@@ -1,8 +1,9 @@
 package com.eazybytes.cards.dto;
 
+import com.eazybytes.cards.validation.DigitString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
@@ -17,14 +18,14 @@ import lombok.Data;
 public class CardsDto {
 
 	@NotEmpty(message = "Mobile Number can not be a null or empty")
-	@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile Number must be 10 digits")
+	@DigitString(length = 10, message = "Mobile Number must be 10 digits")
 	@Schema(
 			description = "Mobile Number of Customer", example = "4354437687"
 	)
 	private String mobileNumber;
 
 	@NotEmpty(message = "Card Number can not be a null or empty")
-	@Pattern(regexp="(^$|[0-9]{12})",message = "CardNumber must be 12 digits")
+	@DigitString(length = 12, message = "CardNumber must be 12 digits")
 	@Schema(
 			description = "Card Number of the customer", example = "100646930341"
 	)
@@ -54,4 +55,8 @@ public class CardsDto {
 	)
 	private int availableAmount;
 
+	// Version of the card row, only used to build the ETag header and never sent to or accepted from clients
+	@JsonIgnore
+	@Schema(hidden = true)
+	private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.eazybytes.cards.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "CardsPage",
+		description = "Schema to hold a page of the cards of a customer, with the totals of all of them"
+)
+public class CardsPageDto {
+
+	@Schema(
+			description = "Mobile Number of Customer", example = "4354437687"
+	)
+	private String mobileNumber;
+
+	@Schema(
+			description = "Cards of the page, oldest first"
+	)
+	private List<CardsDto> cards;
+
+	@Schema(
+			description = "Page number, from 0", example = "0"
+	)
+	private int page;
+
+	@Schema(
+			description = "Page size", example = "20"
+	)
+	private int size;
+
+	@Schema(
+			description = "Number of pages", example = "1"
+	)
+	private int totalPages;
+
+	@Schema(
+			description = "Number of cards of the customer, on all the pages", example = "2"
+	)
+	private int cardCount;
+
+	@Schema(
+			description = "Total limit of all the cards, on all the pages", example = "200000"
+	)
+	private long totalLimit;
+
+	@Schema(
+			description = "Amount used on all the cards, on all the pages", example = "1000"
+	)
+	private long amountUsed;
+
+	@Schema(
+			description = "Amount available on all the cards, on all the pages", example = "199000"
+	)
+	private long availableAmount;
+
+	// Page, size and checksum of the numbers and versions of all the cards, only used to build the ETag header
+	@JsonIgnore
+	@Schema(hidden = true)
+	private String version;
+}
@@ -0,0 +1,45 @@
+package com.eazybytes.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ *
+ * All the cards of a mobile number with their totals, loaded by one query.
+ * It is the value of the cards cache and the details of a batch fetch entry, the fetch API cuts its pages from it.
+ */
+@Data
+@Schema(
+		name = "CustomerCards",
+		description = "Schema to hold all the cards of a customer and their totals"
+)
+public class CustomerCardsDto {
+
+	@Schema(
+			description = "Mobile Number of Customer", example = "4354437687"
+	)
+	private String mobileNumber;
+
+	@Schema(
+			description = "Cards of the customer, oldest first"
+	)
+	private List<CardsDto> cards;
+
+	@Schema(
+			description = "Total limit of all the cards", example = "200000"
+	)
+	private long totalLimit;
+
+	@Schema(
+			description = "Amount used on all the cards", example = "1000"
+	)
+	private long amountUsed;
+
+	@Schema(
+			description = "Amount available on all the cards", example = "199000"
+	)
+	private long availableAmount;
+}
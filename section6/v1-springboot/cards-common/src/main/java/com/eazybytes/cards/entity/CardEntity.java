@@ -0,0 +1,39 @@
+package com.eazybytes.cards.entity;
+
+/**
+ * Author: ldeepak
+ *
+ * The columns of a card read and written by CardsMapper, implemented (through Lombok) by the JPA entity of cards
+ * and by the R2DBC entity of cards-reactive.
+ */
+public interface CardEntity {
+
+	String getMobileNumber();
+
+	void setMobileNumber(String mobileNumber);
+
+	String getCardNumber();
+
+	void setCardNumber(String cardNumber);
+
+	String getCardType();
+
+	void setCardType(String cardType);
+
+	int getTotalLimit();
+
+	void setTotalLimit(int totalLimit);
+
+	int getAmountUsed();
+
+	void setAmountUsed(int amountUsed);
+
+	int getAvailableAmount();
+
+	void setAvailableAmount(int availableAmount);
+
+	/**
+	 * @return the optimistic locking version, null until the card is saved
+	 */
+	Long getVersion();
+}
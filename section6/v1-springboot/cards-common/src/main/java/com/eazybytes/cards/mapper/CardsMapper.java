@@ -0,0 +1,80 @@
+package com.eazybytes.cards.mapper;
+
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsPageDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.entity.CardEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Author: ldeepak
+ *
+ * Maps the JPA entity of cards and the R2DBC entity of cards-reactive alike, through CardEntity.
+ */
+public class CardsMapper {
+
+	public static CardsDto mapToCardsDto(CardEntity cards, CardsDto cardsDto) {
+		cardsDto.setCardNumber(cards.getCardNumber());
+		cardsDto.setCardType(cards.getCardType());
+		cardsDto.setMobileNumber(cards.getMobileNumber());
+		cardsDto.setTotalLimit(cards.getTotalLimit());
+		cardsDto.setAvailableAmount(cards.getAvailableAmount());
+		cardsDto.setAmountUsed(cards.getAmountUsed());
+		cardsDto.setVersion(cards.getVersion());
+		return cardsDto;
+	}
+
+	public static <T extends CardEntity> T mapToCards(CardsDto cardsDto, T cards) {
+		cards.setCardNumber(cardsDto.getCardNumber());
+		cards.setCardType(cardsDto.getCardType());
+		cards.setMobileNumber(cardsDto.getMobileNumber());
+		cards.setTotalLimit(cardsDto.getTotalLimit());
+		cards.setAvailableAmount(cardsDto.getAvailableAmount());
+		cards.setAmountUsed(cardsDto.getAmountUsed());
+		return cards;
+	}
+
+	public static CustomerCardsDto mapToCustomerCardsDto(String mobileNumber, List<? extends CardEntity> cards) {
+		CustomerCardsDto customerCardsDto = new CustomerCardsDto();
+		List<CardsDto> cardsDtos = new ArrayList<>(cards.size());
+		for (CardEntity card : cards) {
+			cardsDtos.add(mapToCardsDto(card, new CardsDto()));
+			customerCardsDto.setTotalLimit(customerCardsDto.getTotalLimit() + card.getTotalLimit());
+			customerCardsDto.setAmountUsed(customerCardsDto.getAmountUsed() + card.getAmountUsed());
+			customerCardsDto.setAvailableAmount(customerCardsDto.getAvailableAmount() + card.getAvailableAmount());
+		}
+		customerCardsDto.setMobileNumber(mobileNumber);
+		customerCardsDto.setCards(cardsDtos);
+		return customerCardsDto;
+	}
+
+	/**
+	 * @param page - Page number from 0, a page after the last one has no cards
+	 */
+	public static CardsPageDto mapToCardsPageDto(CustomerCardsDto customerCardsDto, int page, int size) {
+		List<CardsDto> cards = customerCardsDto.getCards();
+		int from = (int) Math.min((long) page * size, cards.size());
+		CRC32 checksum = new CRC32();
+		for (CardsDto card : cards) {
+			checksum.update((card.getCardNumber() + "-" + card.getVersion() + ";").getBytes(StandardCharsets.US_ASCII));
+		}
+		CardsPageDto cardsPageDto = new CardsPageDto();
+		cardsPageDto.setMobileNumber(customerCardsDto.getMobileNumber());
+		cardsPageDto.setCards(List.copyOf(cards.subList(from, Math.min(from + size, cards.size()))));
+		cardsPageDto.setPage(page);
+		cardsPageDto.setSize(size);
+		cardsPageDto.setTotalPages((cards.size() + size - 1) / size);
+		cardsPageDto.setCardCount(cards.size());
+		cardsPageDto.setTotalLimit(customerCardsDto.getTotalLimit());
+		cardsPageDto.setAmountUsed(customerCardsDto.getAmountUsed());
+		cardsPageDto.setAvailableAmount(customerCardsDto.getAvailableAmount());
+		// The page and size are part of it, two pages of the same cards are different representations
+		cardsPageDto.setVersion(page + "-" + size + "-" + cards.size() + "-" + Long.toHexString(checksum.getValue()));
+		return cardsPageDto;
+	}
+
+}
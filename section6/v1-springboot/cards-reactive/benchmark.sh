@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Throughput and memory of the servlet cards (port 9000) and cards-reactive (port 9001) microservices
+# under 10k concurrent connections, both serving GET /api/fetch for the same card.
+#
+# Needs lsof, both services started with the same JVM options (mvn spring-boot:run in cards and cards-reactive),
+# and a file descriptor limit above 2 x CONNECTIONS (ulimit -n 65536).
+# The load is generated by wrk when it is installed, by the JDK-only ../load/HttpLoad.java otherwise.
+# The resident memory and the thread count of each service are sampled in the middle of its run.
+# The numbers of the last run are kept in benchmark-results.txt.
+set -euo pipefail
+
+CONNECTIONS=${CONNECTIONS:-10000}
+DURATION_SECONDS=${DURATION_SECONDS:-60}
+WARMUP_SECONDS=${WARMUP_SECONDS:-20}
+THREADS=${THREADS:-8}
+MOBILE_NUMBER=4354437687
+LOAD_DRIVER="$(dirname "$0")/../load/HttpLoad.java"
+
+for port in 9000 9001; do
+  pid=$(lsof -t -i :"$port" -s TCP:LISTEN)
+  curl -s -o /dev/null -X POST "http://localhost:$port/api/create?mobileNumber=$MOBILE_NUMBER"
+  url="http://localhost:$port/api/fetch?mobileNumber=$MOBILE_NUMBER"
+  echo "== port $port, pid $pid, $CONNECTIONS connections for ${DURATION_SECONDS}s"
+  if command -v wrk > /dev/null; then
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"${WARMUP_SECONDS}s" "$url" > /dev/null
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"${DURATION_SECONDS}s" --latency "$url" &
+  else
+    java "$LOAD_DRIVER" "$url" "$CONNECTIONS" "$DURATION_SECONDS" "$WARMUP_SECONDS" &
+  fi
+  load_pid=$!
+  sleep $((WARMUP_SECONDS + DURATION_SECONDS / 2))
+  echo "resident memory: $(ps -o rss= -p "$pid" | tr -d ' ') KB, threads: $(ps -o nlwp= -p "$pid" | tr -d ' ')"
+  wait "$load_pid"
+done
@@ -0,0 +1,55 @@
+package com.eazybytes.cards;
+
+import com.eazybytes.cards.dto.CardsContactInfoDto;
+import io.swagger.v3.oas.annotations.ExternalDocumentation;
+import io.swagger.v3.oas.annotations.OpenAPIDefinition;
+import io.swagger.v3.oas.annotations.info.Contact;
+import io.swagger.v3.oas.annotations.info.Info;
+import io.swagger.v3.oas.annotations.info.License;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+
+/**
+ * Author: ldeepak
+ *
+ * Non-blocking variant of the cards microservice: same /api contract, served by WebFlux on Netty,
+ * and the cards table read and written with R2DBC instead of JPA/JDBC.
+ * A request never holds a thread while it waits for the database, so a few event loop threads serve many concurrent connections.
+ */
+
+/**
+ * @EnableR2dbcAuditing is the R2DBC counterpart of @EnableJpaAuditing, it populates the @CreatedDate, @CreatedBy,
+ * @LastModifiedDate and @LastModifiedBy fields. modifyOnCreate = false leaves updated_at and updated_by empty on insert, as with JPA.
+ */
+@SpringBootApplication
+@EnableR2dbcAuditing(auditorAwareRef = "auditAwareImpl", modifyOnCreate = false)
+@EnableConfigurationProperties(value = {CardsContactInfoDto.class})
+@OpenAPIDefinition(
+		info = @Info(
+				title = "Cards Reactive Microservice API Documentation",
+				version = "1.0",
+				description = "API documentation for the non-blocking Cards Microservice",
+				contact = @Contact(
+						name = "Deepak Laxkar",
+						email = "deepaklaxkar11@gmail.com",
+						url = "www.google.com"
+				),
+				license = @License(
+						name = "Apache 2.0",
+						url = "http://www.apache.org/licenses/LICENSE-2.0.html"
+				)
+		),
+		externalDocs = @ExternalDocumentation(
+				description = "Cards Microservice Wiki Documentation",
+				url = "www.google.com"
+		)
+)
+public class CardsReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(CardsReactiveApplication.class, args);
+	}
+
+}
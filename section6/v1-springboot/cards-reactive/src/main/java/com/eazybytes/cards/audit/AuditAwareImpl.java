@@ -0,0 +1,23 @@
+package com.eazybytes.cards.audit;
+
+import org.springframework.data.domain.ReactiveAuditorAware;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Author: ldeepak
+ */
+@Component("auditAwareImpl")
+public class AuditAwareImpl implements ReactiveAuditorAware<String> {
+
+	/**
+	 * Returns the current auditor of the application.
+	 *
+	 * @return the current auditor.
+	 */
+	@Override
+	public Mono<String> getCurrentAuditor() {
+		return Mono.just("CARDS_MS");
+	}
+
+}
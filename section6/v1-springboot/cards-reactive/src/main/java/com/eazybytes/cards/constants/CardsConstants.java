@@ -0,0 +1,24 @@
+package com.eazybytes.cards.constants;
+
+/**
+ * Author: ldeepak
+ */
+public final class CardsConstants {
+
+	private CardsConstants() {
+		// restrict instantiation
+	}
+
+	public static final String  CREDIT_CARD = "Credit Card";
+	public static final int  NEW_CARD_LIMIT = 1_00_000;
+	public static final int  FETCH_PAGE_DEFAULT_SIZE = 20;
+	public static final int  FETCH_PAGE_MAX_SIZE = 100;
+	public static final String  STATUS_201 = "201";
+	public static final String  MESSAGE_201 = "Card created successfully";
+	public static final String  STATUS_200 = "200";
+	public static final String  MESSAGE_200 = "Request processed successfully";
+	public static final String  STATUS_417 = "417";
+	public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
+	public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+
+}
@@ -0,0 +1,290 @@
+package com.eazybytes.cards.controller;
+
+import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CardsContactInfoDto;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsPageDto;
+import com.eazybytes.cards.dto.ErrorResponseDto;
+import com.eazybytes.cards.dto.ResponseDto;
+import com.eazybytes.cards.mapper.CardsMapper;
+import com.eazybytes.cards.service.ICardsService;
+import com.eazybytes.cards.validation.DigitString;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Author: ldeepak
+ *
+ * Same /api contract as the servlet CardsController: paths, parameters, validation, status codes and bodies,
+ * including the ETag of the fetch API. Every handler returns a Mono, the response is written when the service completes.
+ */
+@Tag(
+		name = "CRUD REST APIs for Cards in EazyBank",
+		description = "CRUD REST APIs in EazyBank to CREATE, UPDATE, FETCH AND DELETE card details"
+)
+@RestController
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@Validated
+public class CardsController {
+
+	private final ICardsService iCardsService;
+
+	public CardsController(ICardsService iCardsService) {
+		this.iCardsService = iCardsService;
+	}
+
+	@Value("${build.version}")
+	private String buildVersion;
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired
+	private CardsContactInfoDto cardsContactInfoDto;
+
+	@Operation(
+			summary = "Create Card REST API",
+			description = "REST API to create new Card inside EazyBank"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "201",
+					description = "HTTP Status CREATED"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	}
+	)
+	@PostMapping("/create")
+	public Mono<ResponseEntity<ResponseDto>> createCard(@Valid @RequestParam
+														@DigitString(length = 10, message = "Mobile number must be 10 digits")
+														String mobileNumber) {
+		return iCardsService.createCard(mobileNumber)
+				.thenReturn(ResponseEntity
+						.status(HttpStatus.CREATED)
+						.body(new ResponseDto(CardsConstants.STATUS_201, CardsConstants.MESSAGE_201)));
+	}
+
+	@Operation(
+			summary = "Fetch Card Details REST API",
+			description = "REST API to fetch a page of the cards of a mobile number, with the totals of all of them"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/fetch")
+	public Mono<ResponseEntity<CardsPageDto>> fetchCardDetails(@RequestParam
+															   @DigitString(length = 10, message = "Mobile number must be 10 digits")
+															   String mobileNumber,
+															   @RequestParam(defaultValue = "0")
+															   @PositiveOrZero(message = "page should be equal or greater than zero")
+															   int page,
+															   @RequestParam(defaultValue = "" + CardsConstants.FETCH_PAGE_DEFAULT_SIZE)
+															   @Min(value = 1, message = "size should be greater than zero")
+															   @Max(value = CardsConstants.FETCH_PAGE_MAX_SIZE, message = "size should be at most " + CardsConstants.FETCH_PAGE_MAX_SIZE)
+															   int size,
+															   ServerWebExchange exchange) {
+		return iCardsService.fetchCards(mobileNumber).map(customerCardsDto -> {
+			CardsPageDto cardsPageDto = CardsMapper.mapToCardsPageDto(customerCardsDto, page, size);
+			// Conditional GET: when the client already holds this version (If-None-Match), answer 304 without serializing the body
+			String eTag = eTagOf(cardsPageDto);
+			if (exchange.checkNotModified(eTag)) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<CardsPageDto>build();
+			}
+			return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(cardsPageDto);
+		});
+	}
+
+	/**
+	 * Strong ETag built from the numbers and versions of all the cards of the mobile number, the totals depend on all of them.
+	 */
+	private static String eTagOf(CardsPageDto cardsPageDto) {
+		return "\"" + cardsPageDto.getVersion() + "\"";
+	}
+
+	@Operation(
+			summary = "Update Card Details REST API",
+			description = "REST API to update card details based on a card number"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "417",
+					description = "Expectation Failed"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@PutMapping("/update")
+	public Mono<ResponseEntity<ResponseDto>> updateCardDetails(@Valid @RequestBody CardsDto cardsDto) {
+		return iCardsService.updateCard(cardsDto).map(isUpdated -> {
+			if(isUpdated) {
+				return ResponseEntity
+						.status(HttpStatus.OK)
+						.body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+			}else{
+				return ResponseEntity
+						.status(HttpStatus.EXPECTATION_FAILED)
+						.body(new ResponseDto(CardsConstants.STATUS_417, CardsConstants.MESSAGE_417_UPDATE));
+			}
+		});
+	}
+
+	@Operation(
+			summary = "Delete Card Details REST API",
+			description = "REST API to delete a card of a mobile number, or all of its cards when no card number is given"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "417",
+					description = "Expectation Failed"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@DeleteMapping("/delete")
+	public Mono<ResponseEntity<ResponseDto>> deleteCardDetails(@RequestParam
+															   @DigitString(length = 10, message = "Mobile number must be 10 digits")
+															   String mobileNumber,
+															   @RequestParam(required = false)
+															   @DigitString(length = 12, message = "CardNumber must be 12 digits")
+															   String cardNumber) {
+		return iCardsService.deleteCard(mobileNumber, cardNumber).map(isDeleted -> {
+			if(isDeleted) {
+				return ResponseEntity
+						.status(HttpStatus.OK)
+						.body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+			}else{
+				return ResponseEntity
+						.status(HttpStatus.EXPECTATION_FAILED)
+						.body(new ResponseDto(CardsConstants.STATUS_417, CardsConstants.MESSAGE_417_DELETE));
+			}
+		});
+	}
+
+	@Operation(
+			summary = "Get Build information",
+			description = "Get Build information that is deployed into cards microservice"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	}
+	)
+	@GetMapping("/build-info")
+	public ResponseEntity<String> getBuildInfo() {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(buildVersion);
+	}
+
+	@Operation(
+			summary = "Get Java version",
+			description = "Get Java versions details that is installed into cards microservice"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	}
+	)
+	@GetMapping("/java-version")
+	public ResponseEntity<String> getJavaVersion() {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(environment.getProperty("JAVA_HOME"));
+	}
+
+	@Operation(
+			summary = "Get Contact Info",
+			description = "Contact Info details that can be reached out in case of any issues"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	}
+	)
+	@GetMapping("/contact-info")
+	public ResponseEntity<CardsContactInfoDto> getContactInfo() {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(cardsContactInfoDto);
+	}
+
+}
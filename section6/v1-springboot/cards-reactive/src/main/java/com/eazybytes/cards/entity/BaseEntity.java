@@ -0,0 +1,44 @@
+package com.eazybytes.cards.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+
+import java.time.LocalDateTime;
+
+/**
+ * Author: ldeepak
+ *
+ * Audit columns shared by the tables, as in the JPA BaseEntity of the cards microservice.
+ * R2DBC has no JPA mapping, these are the Spring Data annotations populated by @EnableR2dbcAuditing.
+ * Every column is written on update, the created columns keep their values because an update always starts from the loaded row.
+ */
+@Getter
+@Setter
+@ToString
+public class BaseEntity {
+
+	@CreatedDate
+	private LocalDateTime createdAt;
+
+	@CreatedBy
+	private String createdBy;
+
+	@LastModifiedDate
+	private LocalDateTime updatedAt;
+
+	@LastModifiedBy
+	private String updatedBy;
+
+	/**
+	 *  @Version: Optimistic locking version, incremented on every update of the row.
+	 *  An update of a row changed meanwhile fails with OptimisticLockingFailureException. It is also used to build the ETag.
+	 */
+	@Version
+	private Long version;
+}
@@ -0,0 +1,35 @@
+package com.eazybytes.cards.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Author: ldeepak
+ *
+ * The fields are mapped to the snake_case columns of the cards table (mobileNumber to mobile_number).
+ */
+@Table("cards")
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class Cards extends BaseEntity implements CardEntity {
+
+	@Id
+	private Long cardId;
+
+	private String mobileNumber;
+
+	private String cardNumber;
+
+	private String cardType;
+
+	private int totalLimit;
+
+	private int amountUsed;
+
+	private int availableAmount;
+
+}
@@ -0,0 +1,75 @@
+package com.eazybytes.cards.exceptions;
+
+import com.eazybytes.cards.dto.ErrorResponseDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * WebFlux counterpart of the GlobalExceptionHandler of the cards microservice, with the same error bodies.
+ * A WebExchangeBindException is what MethodArgumentNotValidException is to Spring MVC: an invalid @Valid @RequestBody.
+ */
+@ControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+	@Override
+	protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+			WebExchangeBindException ex, HttpHeaders headers, HttpStatusCode status, ServerWebExchange exchange) {
+		Map<String, String> validationErrors = new HashMap<>();
+		List<ObjectError> validationErrorList = ex.getBindingResult().getAllErrors();
+
+		validationErrorList.forEach((error) -> {
+			String fieldName = ((FieldError) error).getField();
+			String validationMsg = error.getDefaultMessage();
+			validationErrors.put(fieldName, validationMsg);
+		});
+		return Mono.just(new ResponseEntity<>(validationErrors, HttpStatus.BAD_REQUEST));
+	}
+
+	@ExceptionHandler(Exception.class)
+	public ResponseEntity<ErrorResponseDto> handleGlobalException(Exception exception,
+																  ServerWebExchange exchange) {
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				apiPath(exchange),
+				HttpStatus.INTERNAL_SERVER_ERROR,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+				.body(errorResponseDTO);
+	}
+
+	@ExceptionHandler(ResourceNotFoundException.class)
+	public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(ResourceNotFoundException exception,
+																			ServerWebExchange exchange) {
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				apiPath(exchange),
+				HttpStatus.NOT_FOUND,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
+	}
+
+	// Same format as WebRequest.getDescription(false) of Spring MVC
+	private static String apiPath(ServerWebExchange exchange) {
+		return "uri=" + exchange.getRequest().getPath().value();
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.eazybytes.cards.repository;
+
+import com.eazybytes.cards.entity.Cards;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Author: ldeepak
+ *
+ * Reactive counterpart of the JPA CardsRepository: the queries are derived from the method names the same way,
+ * but return a Mono that completes when the row arrives instead of blocking the calling thread.
+ */
+@Repository
+public interface CardsRepository extends ReactiveCrudRepository<Cards, Long> {
+
+	// Served by the (mobile_number, card_id) index of schema.sql
+	Flux<Cards> findByMobileNumberOrderByCardIdAsc(String mobileNumber);
+
+	Mono<Cards> findByCardNumber(String cardNumber);
+
+}
@@ -0,0 +1,43 @@
+package com.eazybytes.cards.service;
+
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Author: ldeepak
+ *
+ * The operations of the cards service, returning a Mono completing once the database answered.
+ * Errors (ResourceNotFoundException) are signalled through the Mono.
+ */
+public interface ICardsService {
+
+	/**
+	 *
+	 * @param mobileNumber - Mobile Number of the Customer, who may already hold other cards
+	 */
+	Mono<Void> createCard(String mobileNumber);
+
+	/**
+	 *
+	 * @param mobileNumber - Input mobile Number
+	 *  @return All the cards of the given mobileNumber with their totals
+	 */
+	Mono<CustomerCardsDto> fetchCards(String mobileNumber);
+
+	/**
+	 *
+	 * @param cardsDto - CardsDto Object
+	 * @return boolean indicating if the update of card details is successful or not
+	 */
+	Mono<Boolean> updateCard(CardsDto cardsDto);
+
+	/**
+	 *
+	 * @param mobileNumber - Input Mobile Number
+	 * @param cardNumber - Card to delete, all the cards of the mobile number when null
+	 * @return boolean indicating if the delete of card details is successful or not
+	 */
+	Mono<Boolean> deleteCard(String mobileNumber, String cardNumber);
+
+}
@@ -0,0 +1,107 @@
+package com.eazybytes.cards.service.impl;
+
+import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.entity.Cards;
+import com.eazybytes.cards.exceptions.ResourceNotFoundException;
+import com.eazybytes.cards.mapper.CardsMapper;
+import com.eazybytes.cards.repository.CardsRepository;
+import com.eazybytes.cards.service.ICardsService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Author: ldeepak
+ *
+ * Same rules as the servlet CardsServiceImpl, written as Mono pipelines: nothing here blocks,
+ * each step runs when the previous database call completes.
+ * @Transactional works on the Mono with the R2DBC transaction manager, the transaction spans the whole pipeline.
+ */
+@Service
+@AllArgsConstructor
+public class CardsServiceImpl implements ICardsService {
+
+	private CardsRepository cardsRepository;
+
+	/**
+	 * A customer may hold any number of cards, every call opens a new one.
+	 *
+	 * @param mobileNumber - Mobile Number of the Customer
+	 */
+	@Override
+	@Transactional
+	public Mono<Void> createCard(String mobileNumber) {
+		return cardsRepository.save(createNewCard(mobileNumber)).then();
+	}
+
+	/**
+	 * @param mobileNumber - Mobile Number of the Customer
+	 * @return the new card details
+	 */
+	private Cards createNewCard(String mobileNumber) {
+		Cards newCard = new Cards();
+		long randomCardNumber = 100000000000L + ThreadLocalRandom.current().nextInt(900000000);
+		newCard.setCardNumber(Long.toString(randomCardNumber));
+		newCard.setMobileNumber(mobileNumber);
+		newCard.setCardType(CardsConstants.CREDIT_CARD);
+		newCard.setTotalLimit(CardsConstants.NEW_CARD_LIMIT);
+		newCard.setAmountUsed(0);
+		newCard.setAvailableAmount(CardsConstants.NEW_CARD_LIMIT);
+		return newCard;
+	}
+
+	/**
+	 *
+	 * @param mobileNumber - Input mobile Number
+	 * @return All the cards of the given mobileNumber with their totals
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Mono<CustomerCardsDto> fetchCards(String mobileNumber) {
+		// One indexed query returns every card of the customer, however many there are
+		return cardsRepository.findByMobileNumberOrderByCardIdAsc(mobileNumber)
+				.collectList()
+				.filter(cards -> !cards.isEmpty())
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)))
+				.map(cards -> CardsMapper.mapToCustomerCardsDto(mobileNumber, cards));
+	}
+
+	/**
+	 *
+	 * @param cardsDto - CardsDto Object
+	 * @return boolean indicating if the update of card details is successful or not
+	 */
+	@Override
+	@Transactional
+	public Mono<Boolean> updateCard(CardsDto cardsDto) {
+		return cardsRepository.findByCardNumber(cardsDto.getCardNumber())
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Card", "CardNumber", cardsDto.getCardNumber())))
+				.flatMap(cards -> cardsRepository.save(CardsMapper.mapToCards(cardsDto, cards)))
+				.thenReturn(true);
+	}
+
+	/**
+	 * @param mobileNumber - Input MobileNumber
+	 * @param cardNumber - Card to delete, all the cards of the mobile number when null
+	 * @return boolean indicating if the delete of card details is successful or not
+	 */
+	@Override
+	@Transactional
+	public Mono<Boolean> deleteCard(String mobileNumber, String cardNumber) {
+		return cardsRepository.findByMobileNumberOrderByCardIdAsc(mobileNumber)
+				.filter(cards -> cardNumber == null || cards.getCardNumber().equals(cardNumber))
+				.collectList()
+				.filter(cards -> !cards.isEmpty())
+				.switchIfEmpty(Mono.error(() -> cardNumber == null
+						? new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
+						: new ResourceNotFoundException("Card", "CardNumber", cardNumber)))
+				.flatMap(cards -> cardsRepository.deleteAllById(cards.stream().map(Cards::getCardId).toList()))
+				.thenReturn(true);
+	}
+
+}
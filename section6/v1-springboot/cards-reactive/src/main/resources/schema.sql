@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS `cards` (
+  `card_id` int NOT NULL AUTO_INCREMENT,
+  `mobile_number` varchar(15) NOT NULL,
+  `card_number` varchar(100) NOT NULL,
+  `card_type` varchar(100) NOT NULL,
+  `total_limit` int NOT NULL,
+  `amount_used` int NOT NULL,
+  `available_amount` int NOT NULL,
+  `version` int NOT NULL DEFAULT 0,
+  `created_at` timestamp NOT NULL,
+  `created_by` varchar(20) NOT NULL,
+  `updated_at` timestamp DEFAULT NULL,
+  `updated_by` varchar(20) DEFAULT NULL,
+  PRIMARY KEY (`card_id`)
+);
+
+-- A customer holds any number of cards, all of them are read with one range scan of this index, oldest first
+CREATE INDEX IF NOT EXISTS `idx_cards_mobile_number` ON `cards` (`mobile_number`, `card_id`);
@@ -0,0 +1,13 @@
+package com.eazybytes.cards;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class CardsReactiveApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
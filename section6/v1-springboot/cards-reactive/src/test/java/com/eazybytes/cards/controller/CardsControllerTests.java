@@ -0,0 +1,84 @@
+package com.eazybytes.cards.controller;
+
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsPageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Author: ldeepak
+ *
+ * The /api contract of the servlet cards microservice, end to end through WebFlux, R2DBC and H2.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+class CardsControllerTests {
+
+	private static final String MOBILE_NUMBER = "4354437687";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void createFetchUpdateDelete() {
+		webTestClient.post().uri("/api/create?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isCreated()
+				.expectBody().jsonPath("$.statusCode").isEqualTo("201");
+		webTestClient.post().uri("/api/create?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isCreated();
+
+		CardsPageDto page = webTestClient.get().uri("/api/fetch?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isOk()
+				.expectBody(CardsPageDto.class).returnResult().getResponseBody();
+		assertNotNull(page);
+		assertEquals(2, page.getCardCount());
+		String eTag = webTestClient.get().uri("/api/fetch?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectBody().returnResult().getResponseHeaders().getETag();
+		webTestClient.get().uri("/api/fetch?mobileNumber={mobileNumber}", MOBILE_NUMBER)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+				.expectStatus().isNotModified();
+
+		CardsDto card = page.getCards().get(0);
+		card.setAmountUsed(1000);
+		card.setAvailableAmount(card.getTotalLimit() - 1000);
+		webTestClient.put().uri("/api/update").bodyValue(card).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.statusCode").isEqualTo("200");
+		String updatedETag = webTestClient.get().uri("/api/fetch?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.cards[0].amountUsed").isEqualTo(1000)
+				.jsonPath("$.amountUsed").isEqualTo(1000)
+				.returnResult().getResponseHeaders().getETag();
+		assertNotEquals(eTag, updatedETag);
+
+		webTestClient.delete().uri("/api/delete?mobileNumber={mobileNumber}&cardNumber={cardNumber}", MOBILE_NUMBER, card.getCardNumber())
+				.exchange()
+				.expectStatus().isOk();
+		webTestClient.get().uri("/api/fetch?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.cardCount").isEqualTo(1);
+		webTestClient.delete().uri("/api/delete?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isOk();
+		webTestClient.get().uri("/api/fetch?mobileNumber={mobileNumber}", MOBILE_NUMBER).exchange()
+				.expectStatus().isNotFound()
+				.expectBody().jsonPath("$.apiPath").isEqualTo("uri=/api/fetch");
+	}
+
+	@Test
+	void invalidCardIsRejected() {
+		CardsDto card = new CardsDto();
+		card.setMobileNumber("43544376");
+		webTestClient.put().uri("/api/update").bodyValue(card).exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.mobileNumber").isEqualTo("Mobile Number must be 10 digits");
+	}
+}
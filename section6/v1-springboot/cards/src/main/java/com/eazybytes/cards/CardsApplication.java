@@ -1,6 +1,8 @@
 package com.eazybytes.cards;
 
+import com.eazybytes.cards.cache.CacheProperties;
 import com.eazybytes.cards.dto.CardsContactInfoDto;
+import com.eazybytes.cards.replica.ReplicaProperties;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
@@ -21,7 +23,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  */
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {CardsContactInfoDto.class})
+@EnableConfigurationProperties(value = {CardsContactInfoDto.class, ReplicaProperties.class, CacheProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Cards Microservice API Documentation",
@@ -0,0 +1,159 @@
+package com.eazybytes.cards.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: ldeepak
+ *
+ * Ranks the mobile numbers fetched through the cache by recent access and snapshots the hottest ones to local disk,
+ * so that the next start of the service can warm its cache up with them (CacheWarmUp).
+ */
+
+/**
+ * - Every access increments the counter of its mobile number. At most max-tracked mobile numbers are counted,
+ *   new ones are ignored while the map is full.
+ * - Every snapshot-interval the snapshot-size hottest mobile numbers are written to snapshot-file, hottest first,
+ *   then every counter is halved and the counters down to zero are dropped: the ranking favors the recent accesses.
+ * - The file is written to a temporary file first and moved over the previous snapshot, a crash never leaves half a snapshot.
+ * - A last snapshot is taken on shutdown.
+ */
+@Component
+public class HotKeyTracker {
+
+	private static final Logger log = LoggerFactory.getLogger(HotKeyTracker.class);
+
+	private final int maxTracked;
+	private final int snapshotSize;
+	private final Path snapshotFile;
+	private final Duration snapshotInterval;
+	private final ScheduledExecutorService snapshotScheduler;
+	private final Map<String, AtomicLong> accesses = new ConcurrentHashMap<>();
+
+	public HotKeyTracker(MeterRegistry meterRegistry,
+						 @Value("${cache.hot-keys.max-tracked:100000}") int maxTracked,
+						 @Value("${cache.hot-keys.snapshot-size:10000}") int snapshotSize,
+						 @Value("${cache.hot-keys.snapshot-file:cache/hot-keys.txt}") Path snapshotFile,
+						 @Value("${cache.hot-keys.snapshot-interval:1m}") Duration snapshotInterval) {
+		this.maxTracked = maxTracked;
+		this.snapshotSize = snapshotSize;
+		this.snapshotFile = snapshotFile;
+		this.snapshotInterval = snapshotInterval;
+		this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "hot-keys-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Gauge.builder("cache.hot.keys.tracked", accesses, Map::size).register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		long intervalNanos = snapshotInterval.toNanos();
+		snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	void stop() {
+		snapshotScheduler.shutdownNow();
+		snapshotQuietly();
+	}
+
+	public void recordAccess(String mobileNumber) {
+		AtomicLong counter = accesses.get(mobileNumber);
+		if (counter == null) {
+			if (accesses.size() >= maxTracked) {
+				return;
+			}
+			counter = accesses.computeIfAbsent(mobileNumber, key -> new AtomicLong());
+		}
+		counter.incrementAndGet();
+	}
+
+	/**
+	 * @return the tracked mobile numbers, most accessed first
+	 */
+	public List<String> hottest(int limit) {
+		return accesses.entrySet().stream()
+				.map(entry -> Map.entry(entry.getKey(), entry.getValue().get()))
+				.sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+				.limit(limit)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	/**
+	 * Writes the hottest mobile numbers to the snapshot file, then halves every counter.
+	 * Nothing is written while nothing is tracked, the previous snapshot is kept.
+	 */
+	void snapshot() throws IOException {
+		List<String> hottest = hottest(snapshotSize);
+		if (hottest.isEmpty()) {
+			return;
+		}
+		Path directory = snapshotFile.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporaryFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+		Files.write(temporaryFile, hottest, StandardCharsets.UTF_8);
+		Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		accesses.values().forEach(counter -> counter.updateAndGet(count -> count / 2));
+		accesses.values().removeIf(counter -> counter.get() == 0);
+	}
+
+	private void snapshotQuietly() {
+		try {
+			snapshot();
+		} catch (IOException | RuntimeException ex) {
+			log.warn("Hot keys snapshot not written to {}", snapshotFile, ex);
+		}
+	}
+
+	/**
+	 * Reads the last snapshot and seeds the counters with it, in rank order, so that the ranking survives a restart.
+	 *
+	 * @return the mobile numbers of the last snapshot, hottest first, empty if there is none
+	 */
+	public List<String> restore() {
+		if (!Files.isRegularFile(snapshotFile)) {
+			return List.of();
+		}
+		List<String> mobileNumbers;
+		try {
+			mobileNumbers = Files.readAllLines(snapshotFile, StandardCharsets.UTF_8).stream()
+					.map(String::trim)
+					.filter(line -> !line.isEmpty())
+					.limit(snapshotSize)
+					.toList();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		for (int rank = 0; rank < mobileNumbers.size(); rank++) {
+			long weight = mobileNumbers.size() - rank;
+			accesses.computeIfAbsent(mobileNumbers.get(rank), key -> new AtomicLong()).addAndGet(weight);
+		}
+		return mobileNumbers;
+	}
+}
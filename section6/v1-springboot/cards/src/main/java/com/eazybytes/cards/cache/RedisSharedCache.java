@@ -0,0 +1,53 @@
+package com.eazybytes.cards.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Author: ldeepak
+ *
+ * Shared tier on Redis (cache.shared.type=redis): GET / SET with expiry / DEL for the values,
+ * PUBLISH / SUBSCRIBE for the invalidation messages.
+ */
+public class RedisSharedCache implements SharedCache {
+
+	private final StringRedisTemplate redisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+
+	public RedisSharedCache(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+		this.redisTemplate = redisTemplate;
+		this.listenerContainer = listenerContainer;
+	}
+
+	@Override
+	public String get(String key) {
+		return redisTemplate.opsForValue().get(key);
+	}
+
+	@Override
+	public void put(String key, String value, Duration ttl) {
+		redisTemplate.opsForValue().set(key, value, ttl);
+	}
+
+	@Override
+	public void evict(String key) {
+		redisTemplate.delete(key);
+	}
+
+	@Override
+	public void publish(String channel, String message) {
+		redisTemplate.convertAndSend(channel, message);
+	}
+
+	@Override
+	public void subscribe(String channel, Consumer<String> listener) {
+		listenerContainer.addMessageListener(
+				(message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+				new ChannelTopic(channel));
+	}
+}
@@ -0,0 +1,29 @@
+package com.eazybytes.cards.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Author: ldeepak
+ *
+ * Remote tier of the TwoTierCache: a key/value store with expiry and a publish/subscribe channel, shared by all the instances.
+ * Values are JSON strings, so that an instance never shares objects with the callers of another one.
+ */
+public interface SharedCache {
+
+	/**
+	 * @return the value of the key, null when absent or expired
+	 */
+	String get(String key);
+
+	void put(String key, String value, Duration ttl);
+
+	void evict(String key);
+
+	/**
+	 * Sends the message to the subscribers of the channel on every instance, including this one.
+	 */
+	void publish(String channel, String message);
+
+	void subscribe(String channel, Consumer<String> listener);
+}
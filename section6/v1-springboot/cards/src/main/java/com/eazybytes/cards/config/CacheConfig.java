@@ -0,0 +1,66 @@
+package com.eazybytes.cards.config;
+
+import com.eazybytes.cards.cache.CacheProperties;
+import com.eazybytes.cards.cache.HotKeyTracker;
+import com.eazybytes.cards.cache.LocalSharedCache;
+import com.eazybytes.cards.cache.RedisSharedCache;
+import com.eazybytes.cards.cache.SharedCache;
+import com.eazybytes.cards.cache.TwoTierCache;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.membership.MembershipFilter;
+import com.eazybytes.cards.replica.ReadYourWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Author: ldeepak
+ *
+ * Two-tier cache of the fetch API, its shared tier is chosen by cache.shared.type.
+ */
+@Configuration
+public class CacheConfig {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "cache.shared", name = "type", havingValue = "local", matchIfMissing = true)
+	public SharedCache localSharedCache() {
+		return new LocalSharedCache();
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "cache.shared", name = "type", havingValue = "redis")
+	public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+		RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+		listenerContainer.setConnectionFactory(redisConnectionFactory);
+		return listenerContainer;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "cache.shared", name = "type", havingValue = "redis")
+	public SharedCache redisSharedCache(StringRedisTemplate redisTemplate, RedisMessageListenerContainer cacheInvalidationListenerContainer) {
+		return new RedisSharedCache(redisTemplate, cacheInvalidationListenerContainer);
+	}
+
+	/**
+	 * All the cards of a mobile number, published as cards.cache.*.
+	 * A card changed on another instance may also be behind on the replicas: it is read from the primary for a while, as after a local write.
+	 * A card created on another instance is added to the MembershipFilter, which would otherwise answer 404 for it until its next rebuild here.
+	 * Every fetch is counted by the HotKeyTracker, whose snapshot warms the cache up at the next start.
+	 */
+	@Bean
+	public TwoTierCache<CustomerCardsDto> cardsCache(CacheProperties cacheProperties, SharedCache sharedCache, ObjectMapper objectMapper,
+											 MeterRegistry meterRegistry, ReadYourWrites readYourWrites,
+											 MembershipFilter membershipFilter, HotKeyTracker hotKeyTracker) {
+		TwoTierCache<CustomerCardsDto> cardsCache = new TwoTierCache<>("cards", CustomerCardsDto.class, cacheProperties, sharedCache,
+				objectMapper, meterRegistry);
+		cardsCache.onRemoteInvalidation(readYourWrites::recordWrite);
+		cardsCache.onRemoteInvalidation(membershipFilter::added);
+		cardsCache.onAccess(hotKeyTracker::recordAccess);
+		return cardsCache;
+	}
+}
@@ -0,0 +1,25 @@
+package com.eazybytes.cards.config;
+
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.service.support.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: ldeepak
+ *
+ * Beans used to coalesce concurrent identical reads in the service layer.
+ */
+@Configuration
+public class CoalescingConfig {
+
+	/**
+	 * Concurrent fetches of the same mobile number share one database load and one mapped CustomerCardsDto.
+	 * The coalescing ratio is published as cards.fetch.coalescing.leaders / cards.fetch.coalescing.followers.
+	 */
+	@Bean
+	public RequestCoalescer<String, CustomerCardsDto> fetchCardCoalescer(MeterRegistry meterRegistry) {
+		return new RequestCoalescer<>("cards.fetch", meterRegistry);
+	}
+}
@@ -0,0 +1,193 @@
+package com.eazybytes.cards.controller;
+
+import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CardBalanceDto;
+import com.eazybytes.cards.dto.CardTransactionPageDto;
+import com.eazybytes.cards.dto.CardTransactionRequestDto;
+import com.eazybytes.cards.dto.ErrorResponseDto;
+import com.eazybytes.cards.dto.ResponseDto;
+import com.eazybytes.cards.idempotency.IdempotencyStore;
+import com.eazybytes.cards.service.ICardTransactionsService;
+import com.eazybytes.cards.validation.DigitString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Author: ldeepak
+ */
+@Tag(
+		name = "Card transaction REST APIs in EazyBank",
+		description = "REST APIs in EazyBank to RECORD card transactions and FETCH the transaction history and balance of a card"
+)
+@RestController
+@RequestMapping(path = "/api/cards", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, CardsConstants.APPLICATION_SMILE_VALUE})
+@Validated
+public class CardTransactionsController {
+
+	private final ICardTransactionsService iCardTransactionsService;
+
+	private final IdempotencyStore idempotencyStore;
+
+	private final ObjectMapper objectMapper;
+
+	public CardTransactionsController(ICardTransactionsService iCardTransactionsService, IdempotencyStore idempotencyStore,
+									  ObjectMapper objectMapper) {
+		this.iCardTransactionsService = iCardTransactionsService;
+		this.idempotencyStore = idempotencyStore;
+		this.objectMapper = objectMapper;
+	}
+
+	@Operation(
+			summary = "Record Card Transaction REST API",
+			description = "REST API to record an authorization, capture, refund or payment of a card"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "201",
+					description = "HTTP Status CREATED"
+			),
+			@ApiResponse(
+					responseCode = "400",
+					description = "HTTP Status Bad Request, e.g. an authorization above the available amount",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	}
+	)
+	@PostMapping("/transactions")
+	public ResponseEntity<ResponseDto> recordTransaction(@Valid @RequestBody CardTransactionRequestDto request,
+														 @RequestHeader(value = CardsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+														 String idempotencyKey,
+														 @RequestHeader(value = CardsConstants.API_KEY_HEADER, required = false)
+														 String apiKey) {
+		// A retried payment must not be recorded twice, clients should always send an Idempotency-Key here
+		return idempotencyStore.execute("transaction", idempotencyKey, apiKey, request, () -> {
+			iCardTransactionsService.recordTransaction(request);
+			return ResponseEntity
+					.status(HttpStatus.CREATED)
+					.body(new ResponseDto(CardsConstants.STATUS_201, CardsConstants.MESSAGE_201_TRANSACTION));
+		});
+	}
+
+	@Operation(
+			summary = "Fetch Card Transactions REST API",
+			description = "REST API to fetch the transaction history of a card, one page at a time. "
+					+ "Pass the nextAfterSequence of a page as afterSequence to get the next one."
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/transactions")
+	public ResponseEntity<CardTransactionPageDto> fetchTransactions(@RequestParam
+																	@DigitString(length = 12, message = "CardNumber must be 12 digits")
+																	String cardNumber,
+																	@RequestParam(defaultValue = "0")
+																	@PositiveOrZero(message = "afterSequence should be equal or greater than zero")
+																	long afterSequence,
+																	@RequestParam(defaultValue = "" + CardsConstants.TRANSACTIONS_PAGE_DEFAULT_SIZE)
+																	@Min(value = 1, message = "limit should be greater than zero")
+																	@Max(value = CardsConstants.TRANSACTIONS_PAGE_MAX_SIZE, message = "limit should be at most " + CardsConstants.TRANSACTIONS_PAGE_MAX_SIZE)
+																	int limit) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(iCardTransactionsService.fetchTransactions(cardNumber, afterSequence, limit));
+	}
+
+	@Operation(
+			summary = "Stream Card Transactions REST API",
+			description = "REST API to stream the whole transaction history of a card as newline delimited JSON (Accept: application/x-ndjson)"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			)
+	})
+	@GetMapping(path = "/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamTransactions(@RequestParam
+																	@DigitString(length = 12, message = "CardNumber must be 12 digits")
+																	String cardNumber,
+																	@RequestParam(defaultValue = "0")
+																	@PositiveOrZero(message = "afterSequence should be equal or greater than zero")
+																	long afterSequence) {
+		// Each transaction is written as soon as its row is read, the history is never held in memory
+		StreamingResponseBody body = outputStream -> {
+			try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+				iCardTransactionsService.streamTransactions(cardNumber, afterSequence, transaction -> {
+					try {
+						writer.write(transaction);
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+			}
+		};
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+
+	@Operation(
+			summary = "Fetch Card Balance REST API",
+			description = "REST API to fetch the balance of a card after its last transaction"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/balance")
+	public ResponseEntity<CardBalanceDto> fetchBalance(@RequestParam
+													   @DigitString(length = 12, message = "CardNumber must be 12 digits")
+													   String cardNumber) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(iCardTransactionsService.fetchBalance(cardNumber));
+	}
+}
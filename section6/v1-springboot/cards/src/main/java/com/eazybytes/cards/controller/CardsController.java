@@ -1,11 +1,20 @@
 package com.eazybytes.cards.controller;
 
 import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.BatchFetchRequestDto;
+import com.eazybytes.cards.dto.BatchFetchResultDto;
 import com.eazybytes.cards.dto.CardsContactInfoDto;
 import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsPageDto;
+import com.eazybytes.cards.dto.CardsStatsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
 import com.eazybytes.cards.dto.ErrorResponseDto;
 import com.eazybytes.cards.dto.ResponseDto;
+import com.eazybytes.cards.idempotency.IdempotencyStore;
+import com.eazybytes.cards.mapper.CardsMapper;
+import com.eazybytes.cards.ratelimit.RateLimiter;
 import com.eazybytes.cards.service.ICardsService;
+import com.eazybytes.cards.validation.DigitString;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,7 +22,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +34,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Author: ldeepak
@@ -32,14 +47,20 @@ import org.springframework.web.bind.annotation.*;
 		description = "CRUD REST APIs in EazyBank to CREATE, UPDATE, FETCH AND DELETE card details"
 )
 @RestController
-@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, CardsConstants.APPLICATION_SMILE_VALUE})
 @Validated
 public class CardsController {
 
 	private final ICardsService iCardsService;
 
-	public CardsController(ICardsService iCardsService) {
+	private final IdempotencyStore idempotencyStore;
+
+	private final RateLimiter rateLimiter;
+
+	public CardsController(ICardsService iCardsService, IdempotencyStore idempotencyStore, RateLimiter rateLimiter) {
 		this.iCardsService = iCardsService;
+		this.idempotencyStore = idempotencyStore;
+		this.rateLimiter = rateLimiter;
 	}
 
 	@Value("${build.version}")
@@ -71,17 +92,25 @@ public class CardsController {
 	)
 	@PostMapping("/create")
 	public ResponseEntity<ResponseDto> createCard(@Valid @RequestParam
-												  @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-												  String mobileNumber) {
-		iCardsService.createCard(mobileNumber);
-		return ResponseEntity
-				.status(HttpStatus.CREATED)
-				.body(new ResponseDto(CardsConstants.STATUS_201, CardsConstants.MESSAGE_201));
+												  @DigitString(length = 10, message = "Mobile number must be 10 digits")
+												  String mobileNumber,
+												  @RequestHeader(value = CardsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+												  String idempotencyKey,
+												  @RequestHeader(value = CardsConstants.API_KEY_HEADER, required = false)
+												  String apiKey) {
+		return idempotencyStore.execute("create", idempotencyKey, apiKey, mobileNumber, () -> {
+			// Replays of an idempotent request do not touch the database, so only executed writes consume a token
+			rateLimiter.checkWrite(apiKey, mobileNumber);
+			iCardsService.createCard(mobileNumber);
+			return ResponseEntity
+					.status(HttpStatus.CREATED)
+					.body(new ResponseDto(CardsConstants.STATUS_201, CardsConstants.MESSAGE_201));
+		});
 	}
 
 	@Operation(
 			summary = "Fetch Card Details REST API",
-			description = "REST API to fetch card details based on a mobile number"
+			description = "REST API to fetch a page of the cards of a mobile number, with the totals of all of them"
 	)
 	@ApiResponses({
 			@ApiResponse(
@@ -97,11 +126,65 @@ public class CardsController {
 			)
 	})
 	@GetMapping("/fetch")
-	public ResponseEntity<CardsDto> fetchCardDetails(@RequestParam
-													 @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-													 String mobileNumber) {
-		CardsDto cardsDto = iCardsService.fetchCard(mobileNumber);
-		return ResponseEntity.status(HttpStatus.OK).body(cardsDto);
+	public ResponseEntity<CardsPageDto> fetchCardDetails(@RequestParam
+														 @DigitString(length = 10, message = "Mobile number must be 10 digits")
+														 String mobileNumber,
+														 @RequestParam(defaultValue = "0")
+														 @PositiveOrZero(message = "page should be equal or greater than zero")
+														 int page,
+														 @RequestParam(defaultValue = "" + CardsConstants.FETCH_PAGE_DEFAULT_SIZE)
+														 @Min(value = 1, message = "size should be greater than zero")
+														 @Max(value = CardsConstants.FETCH_PAGE_MAX_SIZE, message = "size should be at most " + CardsConstants.FETCH_PAGE_MAX_SIZE)
+														 int size,
+														 WebRequest webRequest) {
+		// Every page is cut from the same cached list of all the cards, so the totals never cost another query
+		CardsPageDto cardsPageDto = CardsMapper.mapToCardsPageDto(iCardsService.fetchCards(mobileNumber), page, size);
+		// Conditional GET: when the client already holds this version (If-None-Match), answer 304 without serializing the body
+		String eTag = eTagOf(cardsPageDto);
+		if (webRequest.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(cardsPageDto);
+	}
+
+	/**
+	 * Strong ETag built from the numbers and versions of all the cards of the mobile number, the totals depend on all of them.
+	 */
+	private static String eTagOf(CardsPageDto cardsPageDto) {
+		return "\"" + cardsPageDto.getVersion() + "\"";
+	}
+
+	@Operation(
+			summary = "Fetch card details of many mobile numbers",
+			description = "Fetch all the cards of up to " + CardsConstants.BATCH_FETCH_MAX_SIZE + " mobile numbers in one request, not found mobile numbers are reported inline with status code 404"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@PostMapping("/fetch/batch")
+	public ResponseEntity<Map<String, BatchFetchResultDto<CustomerCardsDto>>> fetchCardDetailsBatch(@Valid @RequestBody BatchFetchRequestDto batchFetchRequestDto) {
+		Map<String, CustomerCardsDto> found = iCardsService.fetchCards(batchFetchRequestDto.getMobileNumbers());
+
+		Map<String, BatchFetchResultDto<CustomerCardsDto>> results = new LinkedHashMap<>();
+		for (String mobileNumber : batchFetchRequestDto.getMobileNumbers()) {
+			CustomerCardsDto customerCardsDto = found.get(mobileNumber);
+			results.put(mobileNumber, customerCardsDto != null
+					? new BatchFetchResultDto<>(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200, customerCardsDto)
+					: new BatchFetchResultDto<>(CardsConstants.STATUS_404, CardsConstants.MESSAGE_404, null));
+		}
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(results);
 	}
 
 	@Operation(
@@ -126,22 +209,29 @@ public class CardsController {
 			)
 	})
 	@PutMapping("/update")
-	public ResponseEntity<ResponseDto> updateCardDetails(@Valid @RequestBody CardsDto cardsDto) {
-		boolean isUpdated = iCardsService.updateCard(cardsDto);
-		if(isUpdated) {
-			return ResponseEntity
-					.status(HttpStatus.OK)
-					.body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
-		}else{
-			return ResponseEntity
-					.status(HttpStatus.EXPECTATION_FAILED)
-					.body(new ResponseDto(CardsConstants.STATUS_417, CardsConstants.MESSAGE_417_UPDATE));
-		}
+	public ResponseEntity<ResponseDto> updateCardDetails(@Valid @RequestBody CardsDto cardsDto,
+														 @RequestHeader(value = CardsConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+														 String idempotencyKey,
+														 @RequestHeader(value = CardsConstants.API_KEY_HEADER, required = false)
+														 String apiKey) {
+		return idempotencyStore.execute("update", idempotencyKey, apiKey, cardsDto, () -> {
+			rateLimiter.checkWrite(apiKey, cardsDto.getMobileNumber());
+			boolean isUpdated = iCardsService.updateCard(cardsDto);
+			if(isUpdated) {
+				return ResponseEntity
+						.status(HttpStatus.OK)
+						.body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+			}else{
+				return ResponseEntity
+						.status(HttpStatus.EXPECTATION_FAILED)
+						.body(new ResponseDto(CardsConstants.STATUS_417, CardsConstants.MESSAGE_417_UPDATE));
+			}
+		});
 	}
 
 	@Operation(
 			summary = "Delete Card Details REST API",
-			description = "REST API to delete Card details based on a mobile number"
+			description = "REST API to delete a card of a mobile number, or all of its cards when no card number is given"
 	)
 	@ApiResponses({
 			@ApiResponse(
@@ -162,9 +252,12 @@ public class CardsController {
 	})
 	@DeleteMapping("/delete")
 	public ResponseEntity<ResponseDto> deleteCardDetails(@RequestParam
-														 @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-														 String mobileNumber) {
-		boolean isDeleted = iCardsService.deleteCard(mobileNumber);
+														 @DigitString(length = 10, message = "Mobile number must be 10 digits")
+														 String mobileNumber,
+														 @RequestParam(required = false)
+														 @DigitString(length = 12, message = "CardNumber must be 12 digits")
+														 String cardNumber) {
+		boolean isDeleted = iCardsService.deleteCard(mobileNumber, cardNumber);
 		if(isDeleted) {
 			return ResponseEntity
 					.status(HttpStatus.OK)
@@ -176,6 +269,30 @@ public class CardsController {
 		}
 	}
 
+	@Operation(
+			summary = "Fetch Card Statistics REST API",
+			description = "REST API to fetch the total limits, utilization and available amount distributions of the cards per card type"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/cards/stats")
+	public ResponseEntity<CardsStatsDto> fetchCardStats() {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(iCardsService.fetchStats());
+	}
+
 	@Operation(
 			summary = "Get Build information",
 			description = "Get Build information that is deployed into cards microservice"
@@ -0,0 +1,29 @@
+package com.eazybytes.cards.dto;
+
+import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.validation.DigitString;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "BatchFetchRequest",
+		description = "Schema to hold the mobile numbers of a batch fetch"
+)
+public class BatchFetchRequestDto {
+
+	@Schema(
+			description = "Mobile numbers to look up, at most " + CardsConstants.BATCH_FETCH_MAX_SIZE + " per request",
+			example = "[\"4354437687\"]"
+	)
+	@NotEmpty(message = "Mobile numbers cannot be null or empty")
+	@Size(max = CardsConstants.BATCH_FETCH_MAX_SIZE, message = "At most " + CardsConstants.BATCH_FETCH_MAX_SIZE + " mobile numbers can be fetched in one request")
+	private List<@DigitString(length = 10, message = "Mobile number must be 10 digits") String> mobileNumbers;
+}
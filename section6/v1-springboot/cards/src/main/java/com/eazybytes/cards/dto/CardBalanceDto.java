@@ -0,0 +1,47 @@
+package com.eazybytes.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@Schema(
+		name = "CardBalance",
+		description = "Schema to hold the balance of a card after its last transaction"
+)
+public class CardBalanceDto {
+
+	@Schema(
+			description = "Card Number of the customer", example = "100646930341"
+	)
+	private String cardNumber;
+
+	@Schema(
+			description = "Sequence number of the last transaction of the card, 0 before the first one", example = "42"
+	)
+	private long sequenceNumber;
+
+	@Schema(
+			description = "Total amount limit available against a card", example = "100000"
+	)
+	private int totalLimit;
+
+	@Schema(
+			description = "Amount held by authorizations not captured yet", example = "500"
+	)
+	private int authorizedAmount;
+
+	@Schema(
+			description = "Total amount used by a Customer", example = "1000"
+	)
+	private int amountUsed;
+
+	@Schema(
+			description = "Total available amount against a card", example = "98500"
+	)
+	private int availableAmount;
+}
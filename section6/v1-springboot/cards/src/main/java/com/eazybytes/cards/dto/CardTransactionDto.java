@@ -0,0 +1,48 @@
+package com.eazybytes.cards.dto;
+
+import com.eazybytes.cards.ledger.CardTransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "CardTransaction",
+		description = "Schema to hold a recorded card transaction"
+)
+public class CardTransactionDto {
+
+	@Schema(
+			description = "Card Number of the customer", example = "100646930341"
+	)
+	private String cardNumber;
+
+	@Schema(
+			description = "Position of the transaction in the history of the card, starting at 1", example = "42"
+	)
+	private long sequenceNumber;
+
+	@Schema(
+			description = "Type of the transaction", example = "CAPTURE"
+	)
+	private CardTransactionType transactionType;
+
+	@Schema(
+			description = "Amount of the transaction", example = "1000"
+	)
+	private int amount;
+
+	@Schema(
+			description = "Time the transaction was recorded"
+	)
+	private LocalDateTime createdAt;
+
+	@Schema(
+			description = "Who recorded the transaction", example = "CARDS_MS"
+	)
+	private String createdBy;
+}
@@ -0,0 +1,29 @@
+package com.eazybytes.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@Schema(
+		name = "CardTransactionPage",
+		description = "Schema to hold a page of the transaction history of a card"
+)
+public class CardTransactionPageDto {
+
+	@Schema(
+			description = "Transactions of the page, oldest first"
+	)
+	private List<CardTransactionDto> transactions;
+
+	@Schema(
+			description = "afterSequence of the next page, absent on the last page", example = "100"
+	)
+	private Long nextAfterSequence;
+}
@@ -0,0 +1,39 @@
+package com.eazybytes.cards.dto;
+
+import com.eazybytes.cards.ledger.CardTransactionType;
+import com.eazybytes.cards.validation.DigitString;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "CardTransactionRequest",
+		description = "Schema to hold a new card transaction"
+)
+public class CardTransactionRequestDto {
+
+	@NotEmpty(message = "Card Number can not be a null or empty")
+	@DigitString(length = 12, message = "CardNumber must be 12 digits")
+	@Schema(
+			description = "Card Number of the customer", example = "100646930341"
+	)
+	private String cardNumber;
+
+	@NotNull(message = "Transaction type can not be null")
+	@Schema(
+			description = "Type of the transaction", example = "AUTHORIZATION"
+	)
+	private CardTransactionType transactionType;
+
+	@Positive(message = "Amount should be greater than zero")
+	@Schema(
+			description = "Amount of the transaction", example = "1000"
+	)
+	private int amount;
+}
@@ -0,0 +1,58 @@
+package com.eazybytes.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@Schema(
+		name = "CardTypeStats",
+		description = "Schema to hold the statistics of the cards of one card type"
+)
+public class CardTypeStatsDto {
+
+	@Schema(
+			description = "Number of cards", example = "1200"
+	)
+	private long cards;
+
+	@Schema(
+			description = "Sum of the total limits", example = "120000000"
+	)
+	private long totalLimit;
+
+	@Schema(
+			description = "Sum of the amounts used", example = "30000000"
+	)
+	private long amountUsed;
+
+	@Schema(
+			description = "Sum of the available amounts", example = "90000000"
+	)
+	private long availableAmount;
+
+	@Schema(
+			description = "Amount used over total limit", example = "0.25"
+	)
+	private double utilization;
+
+	@Schema(
+			description = "Number of cards per utilization range of the card"
+	)
+	private List<Bucket> utilizationBuckets;
+
+	@Schema(
+			description = "Number of cards per available amount range of the card"
+	)
+	private List<Bucket> availableAmountBuckets;
+
+	@Schema(name = "CardTypeStatsBucket")
+	public record Bucket(String range, long cards) {
+	}
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@Schema(
+		name = "CardsStats",
+		description = "Schema to hold the limits, utilization and available amounts of the cards per card type"
+)
+public class CardsStatsDto {
+
+	@Schema(
+			description = "Statistics keyed by card type"
+	)
+	private Map<String, CardTypeStatsDto> cardTypes;
+
+	@Schema(
+			description = "Last time the statistics were rebuilt from the cards table, they are kept up to date with every write in between"
+	)
+	private LocalDateTime rebuiltAt;
+}
@@ -15,7 +15,7 @@ import lombok.*;
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
-public class Cards extends BaseEntity {
+public class Cards extends BaseEntity implements CardEntity {
 
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,16 +0,0 @@
-package com.eazybytes.cards.exceptions;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
-/**
- * Author: ldeepak
- */
-@ResponseStatus(value = HttpStatus.BAD_REQUEST)
-public class CardAlreadyExistsException extends RuntimeException {
-
-	public CardAlreadyExistsException(String message){
-		super(message);
-	}
-
-}
\ No newline at end of file
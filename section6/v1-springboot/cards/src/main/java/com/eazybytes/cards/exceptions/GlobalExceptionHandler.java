@@ -63,9 +63,9 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
 	}
 
-	@ExceptionHandler(CardAlreadyExistsException.class)
-	public ResponseEntity<ErrorResponseDto> handleCardAlreadyExistsException(CardAlreadyExistsException exception,
-																			 WebRequest webRequest){
+	@ExceptionHandler(TransactionRejectedException.class)
+	public ResponseEntity<ErrorResponseDto> handleTransactionRejectedException(TransactionRejectedException exception,
+																			   WebRequest webRequest){
 		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
 				webRequest.getDescription(false),
 				HttpStatus.BAD_REQUEST,
@@ -75,4 +75,30 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
 	}
 
-}
\ No newline at end of file
+	@ExceptionHandler(RateLimitExceededException.class)
+	public ResponseEntity<ErrorResponseDto> handleRateLimitExceededException(RateLimitExceededException exception,
+																			 WebRequest webRequest){
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				webRequest.getDescription(false),
+				HttpStatus.TOO_MANY_REQUESTS,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+				.body(errorResponseDTO);
+	}
+
+	@ExceptionHandler(IdempotencyKeyMismatchException.class)
+	public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException exception,
+																				  WebRequest webRequest){
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				webRequest.getDescription(false),
+				HttpStatus.UNPROCESSABLE_ENTITY,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return new ResponseEntity<>(errorResponseDTO, HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.eazybytes.cards.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Author: ldeepak
+ *
+ * A card transaction the balance of the card does not allow, e.g. an authorization above the available amount.
+ * A business error reported to the client, the stack trace is not captured as nobody looks at it.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class TransactionRejectedException extends RuntimeException {
+
+	public TransactionRejectedException(String message){
+		super(message, null, false, false);
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.eazybytes.cards.filter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: ldeepak
+ *
+ * Adaptive concurrency limiter, modelled after the Vegas algorithm of Netflix concurrency-limits.
+ *
+ * The limit is the number of requests allowed to be processed at the same time. After every request it is adjusted:
+ * - minRtt is the response time of the service without load, the lowest one seen since the last probe.
+ * - Little's law gives the number of requests waiting in a queue somewhere in the service (Tomcat, Hikari pool, DB):
+ *   queue = limit * (1 - minRtt / rtt). No waiting means that rtt == minRtt.
+ * - While the queue is short the limit grows by one (additive increase), once the queue gets long
+ *   or a request fails the limit shrinks by backoff-ratio (multiplicative decrease).
+ * - minRtt is forgotten every probe-interval, so that the limit follows a service which became slower for good
+ *   (new version, bigger tables...).
+ *
+ * Requests above the limit are rejected right away instead of waiting in the Tomcat queue, which keeps the latency of the
+ * accepted requests stable. Reads may use the whole limit, writes and bulk operations only a share of it,
+ * so they are the first ones shed when the service saturates.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	public enum Priority { READ, WRITE, BULK }
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final double writeShare;
+	private final double bulkShare;
+	private final long probeIntervalNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong rejected = new AtomicLong();
+
+	private volatile double limit;
+	private long minRttNanos;
+	private long nextProbeNanos;
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+									  double writeShare, double bulkShare, Duration probeInterval) {
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.backoffRatio = backoffRatio;
+		this.writeShare = writeShare;
+		this.bulkShare = bulkShare;
+		this.probeIntervalNanos = probeInterval.toNanos();
+		this.nextProbeNanos = System.nanoTime() + probeIntervalNanos;
+	}
+
+	/**
+	 * @return true if the request may be processed, in which case onComplete must be called once it finished
+	 */
+	public boolean tryAcquire(Priority priority) {
+		int allowed = allowedFor(priority);
+		while (true) {
+			int current = inFlight.get();
+			if (current >= allowed) {
+				rejected.incrementAndGet();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @param rttNanos - Time spent processing the request
+	 * @param failed - true if the request failed, which is taken as a sign of overload
+	 */
+	public void onComplete(long rttNanos, boolean failed) {
+		int inFlightBefore = inFlight.getAndDecrement();
+		update(Math.max(rttNanos, 1), failed, inFlightBefore);
+	}
+
+	private synchronized void update(long rttNanos, boolean failed, int inFlightBefore) {
+		double currentLimit = limit;
+		if (failed) {
+			limit = Math.max(minLimit, currentLimit * backoffRatio);
+			return;
+		}
+		long now = System.nanoTime();
+		if (minRttNanos == 0 || rttNanos < minRttNanos || now - nextProbeNanos > 0) {
+			minRttNanos = rttNanos;
+			nextProbeNanos = now + probeIntervalNanos;
+			return;
+		}
+
+		double queue = currentLimit * (1 - (double) minRttNanos / rttNanos);
+		// Allowed queue grows slowly with the limit, a large service tolerates a few more waiting requests
+		double log = Math.max(1, Math.log10(currentLimit));
+		if (queue > 6 * log) {
+			limit = Math.max(minLimit, currentLimit * backoffRatio);
+		} else if (queue < 3 * log && inFlightBefore >= currentLimit / 2) {
+			// Only grow when the limit is actually used, otherwise there is no evidence it can be sustained
+			limit = Math.min(maxLimit, currentLimit + 1);
+		}
+	}
+
+	private int allowedFor(Priority priority) {
+		double currentLimit = limit;
+		return switch (priority) {
+			case READ -> (int) currentLimit;
+			case WRITE -> Math.max(1, (int) (currentLimit * writeShare));
+			case BULK -> Math.max(1, (int) (currentLimit * bulkShare));
+		};
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejected() {
+		return rejected.get();
+	}
+}
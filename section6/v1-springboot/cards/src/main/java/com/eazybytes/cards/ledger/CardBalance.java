@@ -0,0 +1,65 @@
+package com.eazybytes.cards.ledger;
+
+import com.eazybytes.cards.exceptions.TransactionRejectedException;
+
+/**
+ * Author: ldeepak
+ *
+ * Balance of a card after its transaction number sequenceNumber (0 is the opening balance, before any transaction).
+ * The available amount is not kept, it depends on the total limit of the card which may change.
+ *
+ * @param sequenceNumber - Number of the last transaction applied
+ * @param authorizedAmount - Amount held by authorizations not captured yet
+ * @param amountUsed - Amount captured and not refunded or paid yet
+ */
+public record CardBalance(long sequenceNumber, int authorizedAmount, int amountUsed) {
+
+	public static CardBalance opening(int amountUsed) {
+		return new CardBalance(0, 0, amountUsed);
+	}
+
+	public int availableAmount(int totalLimit) {
+		return totalLimit - amountUsed - authorizedAmount;
+	}
+
+	/**
+	 * Checks a new transaction against this balance.
+	 *
+	 * @return the balance after the transaction
+	 * @throws TransactionRejectedException when the transaction is not possible with this balance
+	 */
+	public CardBalance apply(CardTransactionType type, int amount, int totalLimit) {
+		switch (type) {
+			case AUTHORIZATION -> {
+				if (amount > availableAmount(totalLimit)) {
+					throw new TransactionRejectedException("Authorization of " + amount + " exceeds the available amount "
+							+ availableAmount(totalLimit));
+				}
+			}
+			case CAPTURE -> {
+				if (amount > authorizedAmount) {
+					throw new TransactionRejectedException("Capture of " + amount + " exceeds the authorized amount " + authorizedAmount);
+				}
+			}
+			case REFUND, PAYMENT -> {
+				if (amount > amountUsed) {
+					throw new TransactionRejectedException(type + " of " + amount + " exceeds the amount used " + amountUsed);
+				}
+			}
+		}
+		return replay(type, amount);
+	}
+
+	/**
+	 * Applies a transaction already recorded, without checking it again.
+	 *
+	 * @return the balance after the transaction
+	 */
+	public CardBalance replay(CardTransactionType type, int amount) {
+		return switch (type) {
+			case AUTHORIZATION -> new CardBalance(sequenceNumber + 1, authorizedAmount + amount, amountUsed);
+			case CAPTURE -> new CardBalance(sequenceNumber + 1, authorizedAmount - amount, amountUsed + amount);
+			case REFUND, PAYMENT -> new CardBalance(sequenceNumber + 1, authorizedAmount, amountUsed - amount);
+		};
+	}
+}
@@ -0,0 +1,149 @@
+package com.eazybytes.cards.ledger;
+
+import com.eazybytes.cards.dto.CardTransactionDto;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Author: ldeepak
+ *
+ * Storage of the card transactions, plain JDBC over three tables:
+ * - card_transaction: the transactions, only ever inserted. Numbered per card (1, 2, 3, ...), the primary key
+ *   (card_number, sequence_number) makes two concurrent appends of the same number fail instead of forking the history.
+ * - card_balance: the projection, balance of each card after its last transaction, updated together with each append.
+ * - card_balance_snapshot: the balance of a card every few transactions, so a lost projection row is rebuilt
+ *   from the latest snapshot and the few transactions after it instead of the whole history.
+ *
+ * The amount_used and available_amount columns of the cards table follow the projection (updateCardAmounts),
+ * the fetch and stats APIs read them.
+ *
+ * The callers own the transaction, an append and the update of the projection commit together.
+ */
+@Component
+public class CardLedger {
+
+	private static final String SELECT_TRANSACTIONS_SQL = "SELECT card_number, sequence_number, transaction_type, amount, created_at, created_by "
+			+ "FROM card_transaction WHERE card_number = ? AND sequence_number > ? ORDER BY sequence_number";
+
+	private static final RowMapper<CardTransactionDto> TRANSACTION_ROW_MAPPER = (resultSet, rowNum) -> {
+		CardTransactionDto transaction = new CardTransactionDto();
+		transaction.setCardNumber(resultSet.getString("card_number"));
+		transaction.setSequenceNumber(resultSet.getLong("sequence_number"));
+		transaction.setTransactionType(CardTransactionType.valueOf(resultSet.getString("transaction_type")));
+		transaction.setAmount(resultSet.getInt("amount"));
+		transaction.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
+		transaction.setCreatedBy(resultSet.getString("created_by"));
+		return transaction;
+	};
+
+	private static final RowMapper<CardBalance> BALANCE_ROW_MAPPER = (resultSet, rowNum) -> new CardBalance(
+			resultSet.getLong("sequence_number"), resultSet.getInt("authorized_amount"), resultSet.getInt("amount_used"));
+
+	// Rows fetched per round trip while streaming, the driver does not hold the whole history in memory
+	private static final int STREAM_FETCH_SIZE = 500;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public CardLedger(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Reads the projected balance of a card and locks its row until the end of the transaction,
+	 * so the transactions of one card are appended one at a time.
+	 */
+	public Optional<CardBalance> lockBalance(String cardNumber) {
+		return jdbcTemplate.query("SELECT sequence_number, authorized_amount, amount_used FROM card_balance WHERE card_number = ? FOR UPDATE",
+				BALANCE_ROW_MAPPER, cardNumber).stream().findFirst();
+	}
+
+	public Optional<CardBalance> findBalance(String cardNumber) {
+		return jdbcTemplate.query("SELECT sequence_number, authorized_amount, amount_used FROM card_balance WHERE card_number = ?",
+				BALANCE_ROW_MAPPER, cardNumber).stream().findFirst();
+	}
+
+	/**
+	 * @throws DuplicateKeyException when another transaction created the projection row of the card first
+	 */
+	public void insertBalance(String cardNumber, CardBalance balance) {
+		jdbcTemplate.update("INSERT INTO card_balance (card_number, sequence_number, authorized_amount, amount_used, updated_at) "
+						+ "VALUES (?, ?, ?, ?, ?)", cardNumber, balance.sequenceNumber(), balance.authorizedAmount(),
+				balance.amountUsed(), Timestamp.valueOf(LocalDateTime.now()));
+	}
+
+	public void updateBalance(String cardNumber, CardBalance balance) {
+		jdbcTemplate.update("UPDATE card_balance SET sequence_number = ?, authorized_amount = ?, amount_used = ?, updated_at = ? "
+						+ "WHERE card_number = ?", balance.sequenceNumber(), balance.authorizedAmount(), balance.amountUsed(),
+				Timestamp.valueOf(LocalDateTime.now()), cardNumber);
+	}
+
+	/**
+	 * Copies a balance to the cards row of the card. The version is incremented like a JPA update does,
+	 * so the ETags of the fetch API change.
+	 */
+	public void updateCardAmounts(String cardNumber, CardBalance balance, int totalLimit, String updatedBy) {
+		jdbcTemplate.update("UPDATE cards SET amount_used = ?, available_amount = ?, version = version + 1, updated_at = ?, updated_by = ? "
+						+ "WHERE card_number = ?", balance.amountUsed(), balance.availableAmount(totalLimit),
+				Timestamp.valueOf(LocalDateTime.now()), updatedBy, cardNumber);
+	}
+
+	public void append(CardTransactionDto transaction) {
+		jdbcTemplate.update("INSERT INTO card_transaction (card_number, sequence_number, transaction_type, amount, created_at, created_by) "
+						+ "VALUES (?, ?, ?, ?, ?, ?)", transaction.getCardNumber(), transaction.getSequenceNumber(),
+				transaction.getTransactionType().name(), transaction.getAmount(), Timestamp.valueOf(transaction.getCreatedAt()),
+				transaction.getCreatedBy());
+	}
+
+	/**
+	 * Saves the balance of a card as of its transaction balance.sequenceNumber().
+	 * A snapshot already saved for that transaction holds the same balance, so it is kept.
+	 */
+	public void saveSnapshot(String cardNumber, CardBalance balance) {
+		try {
+			jdbcTemplate.update("INSERT INTO card_balance_snapshot (card_number, sequence_number, authorized_amount, amount_used, created_at) "
+							+ "VALUES (?, ?, ?, ?, ?)", cardNumber, balance.sequenceNumber(), balance.authorizedAmount(),
+					balance.amountUsed(), Timestamp.valueOf(LocalDateTime.now()));
+		} catch (DuplicateKeyException ex) {
+			// Saved concurrently by the first transaction of the card
+		}
+	}
+
+	public Optional<CardBalance> latestSnapshot(String cardNumber) {
+		return jdbcTemplate.query("SELECT sequence_number, authorized_amount, amount_used FROM card_balance_snapshot "
+						+ "WHERE card_number = ? ORDER BY sequence_number DESC LIMIT 1", BALANCE_ROW_MAPPER, cardNumber)
+				.stream().findFirst();
+	}
+
+	/**
+	 * Keyset pagination: the primary key index goes straight to the first transaction after afterSequence,
+	 * a page costs the same at the end of a long history as at its start (unlike OFFSET).
+	 *
+	 * @return at most limit transactions of the card numbered above afterSequence, in order
+	 */
+	public List<CardTransactionDto> findTransactions(String cardNumber, long afterSequence, int limit) {
+		return jdbcTemplate.query(SELECT_TRANSACTIONS_SQL + " LIMIT ?", TRANSACTION_ROW_MAPPER, cardNumber, afterSequence, limit);
+	}
+
+	/**
+	 * Hands every transaction of the card numbered above afterSequence to the consumer, in order, as the rows are read.
+	 */
+	public void streamTransactions(String cardNumber, long afterSequence, Consumer<CardTransactionDto> consumer) {
+		jdbcTemplate.query(connection -> {
+			var statement = connection.prepareStatement(SELECT_TRANSACTIONS_SQL);
+			statement.setFetchSize(STREAM_FETCH_SIZE);
+			statement.setString(1, cardNumber);
+			statement.setLong(2, afterSequence);
+			return statement;
+		}, resultSet -> {
+			consumer.accept(TRANSACTION_ROW_MAPPER.mapRow(resultSet, resultSet.getRow()));
+		});
+	}
+}
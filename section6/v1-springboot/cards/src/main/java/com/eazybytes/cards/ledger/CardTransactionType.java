@@ -0,0 +1,29 @@
+package com.eazybytes.cards.ledger;
+
+/**
+ * Author: ldeepak
+ *
+ * Kinds of card transactions recorded in the ledger.
+ */
+public enum CardTransactionType {
+
+	/**
+	 * Holds the amount against the limit of the card until it is captured
+	 */
+	AUTHORIZATION,
+
+	/**
+	 * Turns an authorized amount into an amount used
+	 */
+	CAPTURE,
+
+	/**
+	 * Gives an amount used back, e.g. for a returned purchase
+	 */
+	REFUND,
+
+	/**
+	 * Repays an amount used
+	 */
+	PAYMENT
+}
@@ -0,0 +1,79 @@
+package com.eazybytes.cards.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Author: ldeepak
+ *
+ * Actuator endpoint (/actuator/jfr) downloading the last minutes of the continuous recording as a .jfr file,
+ * e.g. GET /actuator/jfr?window=10m, to be opened with JDK Mission Control or the jfr tool.
+ * A recording shows the internals of the JVM, it is not exposed over HTTP by default:
+ * add it to management.endpoints.web.exposure.include only along with a management.server.port that is not reachable from outside.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+	private static final Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+
+	private final ContinuousRecording continuousRecording;
+
+	public JfrEndpoint(ContinuousRecording continuousRecording) {
+		this.continuousRecording = continuousRecording;
+	}
+
+	@ReadOperation(produces = "application/octet-stream")
+	public WebEndpointResponse<Resource> recording(@Nullable Duration window) throws IOException {
+		Optional<Path> file = continuousRecording.dump(window != null ? window : DEFAULT_WINDOW);
+		if (file.isEmpty()) {
+			return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+		}
+		return new WebEndpointResponse<>(new TemporaryFileSystemResource(file.get()));
+	}
+
+	/**
+	 * The dump is a temporary file, it is deleted once it has been sent to the client.
+	 */
+	private static final class TemporaryFileSystemResource extends FileSystemResource {
+
+		private final Path path;
+
+		private TemporaryFileSystemResource(Path path) {
+			super(path);
+			this.path = path;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return new FilterInputStream(super.getInputStream()) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						Files.deleteIfExists(path);
+					}
+				}
+			};
+		}
+
+		@Override
+		public String getFilename() {
+			return "cards.jfr";
+		}
+	}
+}
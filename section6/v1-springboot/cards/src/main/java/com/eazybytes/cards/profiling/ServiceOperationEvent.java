@@ -0,0 +1,37 @@
+package com.eazybytes.cards.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Author: ldeepak
+ *
+ * Java Flight Recorder event emitted for every call of a service operation (createCard, fetchCards...).
+ * The duration is recorded by JFR itself between begin() and end().
+ * Open a recording in JDK Mission Control and look for EazyBank > Cards > Service Operation.
+ */
+@Name("com.eazybytes.cards.ServiceOperation")
+@Label("Service Operation")
+@Category({"EazyBank", "Cards"})
+@Description("Call of a method of the cards service layer")
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Mobile Number Hash")
+	@Description("Truncated SHA-256 of the mobile number, correlates the calls of one customer without recording the number")
+	String mobileNumberHash;
+
+	@Label("Statement Count")
+	@Description("SQL statements prepared by Hibernate during the operation")
+	long statementCount;
+
+	@Label("Failed")
+	boolean failed;
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.cards.profiling;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Author: ldeepak
+ *
+ * Hibernate StatementInspector counting the SQL statements prepared by the current thread.
+ * It is registered through spring.jpa.properties.hibernate.session_factory.statement_inspector and leaves the SQL untouched.
+ *
+ * The counter only ever grows, an operation reads it before and after and records the difference,
+ * which also works for nested operations.
+ */
+public class StatementCounter implements StatementInspector {
+
+	private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.get()[0]++;
+		return sql;
+	}
+
+	/**
+	 * @return number of statements prepared by the current thread so far
+	 */
+	public static long current() {
+		return STATEMENTS.get()[0];
+	}
+}
@@ -0,0 +1,121 @@
+package com.eazybytes.cards.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: ldeepak
+ *
+ * In-memory store of token buckets, one per key (API key, mobile number...).
+ *
+ * Every bucket holds at most burst tokens and is refilled with permitsPerSecond tokens per second.
+ * It is implemented in its GCRA form (generic cell rate algorithm): instead of a token count and a refill timestamp,
+ * a bucket keeps a single long, the theoretical arrival time (tat) of the next request.
+ * - Every accepted request pushes tat one emission interval (1s / permitsPerSecond) further.
+ * - A request is accepted while tat is less than burst emission intervals ahead of now.
+ * Both checks fit in a single compareAndSet, so a bucket needs no lock.
+ *
+ * The buckets live in a ConcurrentHashMap, which already stripes its writes per hash bin, and reads of an existing bucket are lock free.
+ * The store is bounded by maxEntries: once full, idle buckets (tat in the past, so they are full anyway) are swept out,
+ * which loses no state. Keys which still do not fit share one overflow bucket, so an attacker cycling through
+ * random keys cannot grow the map nor escape the limit.
+ */
+public class TokenBucketStore {
+
+	private final long emissionIntervalNanos;
+	private final long burstToleranceNanos;
+	private final int maxEntries;
+
+	private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+	private final AtomicLong overflowBucket;
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+
+	public TokenBucketStore(double permitsPerSecond, int burst, int maxEntries) {
+		this.emissionIntervalNanos = (long) (Duration.ofSeconds(1).toNanos() / permitsPerSecond);
+		this.burstToleranceNanos = emissionIntervalNanos * burst;
+		this.maxEntries = maxEntries;
+		// Same start as a keyed bucket, nanoTime has an arbitrary origin so 0 would be a random point in time
+		this.overflowBucket = new AtomicLong(System.nanoTime() - burstToleranceNanos);
+	}
+
+	/**
+	 * Takes one token from the bucket of the given key.
+	 *
+	 * @param key - Identifies the client, e.g. the API key
+	 * @return 0 if a token was taken, otherwise the nanoseconds to wait before the next token is available
+	 */
+	public long tryAcquire(String key) {
+		return tryAcquire(bucketOf(key), System.nanoTime());
+	}
+
+	/**
+	 * Same check as tryAcquire, without taking the token.
+	 *
+	 * @param key - Identifies the client, e.g. the API key
+	 * @return 0 if a token is available, otherwise the nanoseconds to wait before the next token is available
+	 */
+	public long waitNanos(String key) {
+		AtomicLong bucket = buckets.get(key);
+		if (bucket == null) {
+			// A new key starts with a full bucket, unless it would end up in the overflow bucket
+			if (buckets.size() < maxEntries) {
+				return 0;
+			}
+			bucket = overflowBucket;
+		}
+		long now = System.nanoTime();
+		return Math.max(0, Math.max(bucket.get(), now) + emissionIntervalNanos - now - burstToleranceNanos);
+	}
+
+	private long tryAcquire(AtomicLong bucket, long now) {
+		while (true) {
+			long tat = bucket.get();
+			// A bucket untouched for a while is full, its tat is not allowed to lag behind now
+			long newTat = Math.max(tat, now) + emissionIntervalNanos;
+			long waitNanos = newTat - now - burstToleranceNanos;
+			if (waitNanos > 0) {
+				return waitNanos;
+			}
+			if (bucket.compareAndSet(tat, newTat)) {
+				return 0;
+			}
+		}
+	}
+
+	private AtomicLong bucketOf(String key) {
+		AtomicLong bucket = buckets.get(key);
+		if (bucket != null) {
+			return bucket;
+		}
+		if (buckets.size() >= maxEntries) {
+			evictIdle();
+			if (buckets.size() >= maxEntries) {
+				return overflowBucket;
+			}
+		}
+		// Starting in the past gives a new key its full burst right away
+		return buckets.computeIfAbsent(key, newKey -> new AtomicLong(System.nanoTime() - burstToleranceNanos));
+	}
+
+	/**
+	 * Removes the buckets whose tat is in the past, they are full and behave exactly like a new bucket.
+	 * Only one thread sweeps at a time, the others go on with the overflow bucket meanwhile.
+	 */
+	void evictIdle() {
+		if (!sweeping.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long now = System.nanoTime();
+			buckets.entrySet().removeIf(entry -> entry.getValue().get() - now < 0);
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	public int size() {
+		return buckets.size();
+	}
+}
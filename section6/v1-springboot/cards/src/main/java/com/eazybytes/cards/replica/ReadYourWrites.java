@@ -0,0 +1,85 @@
+package com.eazybytes.cards.replica;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Author: ldeepak
+ *
+ * Read-your-writes on top of lagging replicas: for read-your-writes-window after a write of a mobile number,
+ * the reads of that mobile number go to the primary, so a client always sees its own changes.
+ * The other reads keep going to the replicas.
+ *
+ * The writes are remembered in memory by this instance. Behind a load balancer that does not route a mobile number
+ * to the same instance, a read following a write on another instance may still be served by a lagging replica.
+ */
+@Component
+public class ReadYourWrites {
+
+	private static final int MAX_ENTRIES = 100_000;
+
+	private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+	private final boolean enabled;
+	private final long windowNanos;
+	private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+	public ReadYourWrites(ReplicaProperties replicaProperties) {
+		this.enabled = replicaProperties.enabled();
+		this.windowNanos = replicaProperties.readYourWritesWindow().toNanos();
+	}
+
+	/**
+	 * @return true when the current thread must not read from a replica, read by ReplicaRoutingDataSource
+	 */
+	public static boolean isPrimaryRequired() {
+		return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+	}
+
+	/**
+	 * To be called after a write of the mobile number.
+	 */
+	public void recordWrite(String mobileNumber) {
+		if (!enabled || mobileNumber == null) {
+			return;
+		}
+		long now = System.nanoTime();
+		lastWrites.put(mobileNumber, now);
+		if (lastWrites.size() > MAX_ENTRIES) {
+			lastWrites.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+		}
+	}
+
+	public boolean isRecentlyWritten(String mobileNumber) {
+		Long writtenAt = lastWrites.get(mobileNumber);
+		return writtenAt != null && System.nanoTime() - writtenAt <= windowNanos;
+	}
+
+	/**
+	 * Runs the read on the primary if one of the mobile numbers was recently written, on a replica otherwise.
+	 */
+	public <T> T read(Collection<String> mobileNumbers, Supplier<T> read) {
+		if (!lastWrites.isEmpty() && mobileNumbers.stream().anyMatch(this::isRecentlyWritten)) {
+			return onPrimary(read);
+		}
+		return read.get();
+	}
+
+	/**
+	 * Runs the read on the primary. The connection is only taken by the first query,
+	 * so this must wrap the queries and not the @Transactional method.
+	 */
+	public <T> T onPrimary(Supplier<T> read) {
+		Boolean previous = PRIMARY_REQUIRED.get();
+		PRIMARY_REQUIRED.set(Boolean.TRUE);
+		try {
+			return read.get();
+		} finally {
+			PRIMARY_REQUIRED.set(previous);
+		}
+	}
+}
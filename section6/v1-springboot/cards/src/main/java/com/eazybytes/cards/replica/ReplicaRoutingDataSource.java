@@ -0,0 +1,166 @@
+package com.eazybytes.cards.replica;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Author: ldeepak
+ *
+ * Connections of the read-only transactions, used by ReplicaConfig as the read-only DataSource of the
+ * LazyConnectionDataSourceProxy in front of the primary.
+ *
+ * - Every connection comes from the replica with the least outstanding (borrowed, not yet closed) connections,
+ *   so a slow replica, whose connections stay out longer, gets fewer of the reads. Ties rotate over the replicas.
+ * - When ReadYourWrites requires it (the mobile number was written recently) the connection comes from the primary.
+ * - When the replica cannot give a connection the read goes to the primary instead of failing.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<>();
+	private final AtomicInteger nextReplica = new AtomicInteger();
+	private final LongAdder readYourWritesReads = new LongAdder();
+	private final LongAdder fallbackReads = new LongAdder();
+
+	public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources) {
+		if (replicaDataSources == null || replicaDataSources.isEmpty()) {
+			throw new IllegalStateException("read-replicas.enabled is true but no read-replicas.replicas are configured");
+		}
+		this.primary = primary;
+		replicaDataSources.forEach((name, dataSource) -> replicas.add(new Replica(name, dataSource)));
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (ReadYourWrites.isPrimaryRequired()) {
+			readYourWritesReads.increment();
+			return primary.getConnection();
+		}
+		Replica replica = leastOutstanding();
+		replica.outstanding.incrementAndGet();
+		try {
+			Connection connection = replica.dataSource.getConnection();
+			replica.reads.increment();
+			return replica.track(connection);
+		} catch (SQLException | RuntimeException ex) {
+			replica.outstanding.decrementAndGet();
+			fallbackReads.increment();
+			log.warn("No connection from replica {}, reading from the primary: {}", replica.name, ex.getMessage());
+			return primary.getConnection();
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new UnsupportedOperationException("The replicas use the credentials of their configuration");
+	}
+
+	private Replica leastOutstanding() {
+		int size = replicas.size();
+		int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+		Replica least = replicas.get(start);
+		for (int i = 1; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			if (replica.outstanding.get() < least.outstanding.get()) {
+				least = replica;
+			}
+		}
+		return least;
+	}
+
+	/**
+	 * @return the DataSource of every replica, keyed by replica name
+	 */
+	public Map<String, DataSource> getReplicaDataSources() {
+		Map<String, DataSource> replicaDataSources = new LinkedHashMap<>();
+		replicas.forEach(replica -> replicaDataSources.put(replica.name, replica.dataSource));
+		return replicaDataSources;
+	}
+
+	int getOutstanding(String name) {
+		return replicas.stream().filter(replica -> replica.name.equals(name)).findFirst()
+				.map(replica -> replica.outstanding.get()).orElse(0);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		for (Replica replica : replicas) {
+			Gauge.builder("datasource.replica.outstanding", replica.outstanding, AtomicInteger::get)
+					.tag("replica", replica.name).register(meterRegistry);
+			FunctionCounter.builder("datasource.replica.reads", replica.reads, LongAdder::sum)
+					.tag("target", replica.name).register(meterRegistry);
+		}
+		FunctionCounter.builder("datasource.replica.reads", readYourWritesReads, LongAdder::sum)
+				.tag("target", "primary_read_your_writes").register(meterRegistry);
+		FunctionCounter.builder("datasource.replica.reads", fallbackReads, LongAdder::sum)
+				.tag("target", "primary_fallback").register(meterRegistry);
+	}
+
+	@Override
+	public void close() throws Exception {
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+
+	private static final class Replica {
+
+		private final String name;
+		private final DataSource dataSource;
+		private final AtomicInteger outstanding = new AtomicInteger();
+		private final LongAdder reads = new LongAdder();
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		// The connection is outstanding until its first close()
+		private Connection track(Connection connection) {
+			AtomicBoolean closed = new AtomicBoolean();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+					(proxy, method, args) -> {
+						switch (method.getName()) {
+							case "equals":
+								return proxy == args[0];
+							case "hashCode":
+								return System.identityHashCode(proxy);
+							case "close":
+								if (closed.compareAndSet(false, true)) {
+									outstanding.decrementAndGet();
+								}
+								break;
+							default:
+								break;
+						}
+						try {
+							return method.invoke(connection, args);
+						} catch (InvocationTargetException ex) {
+							throw ex.getCause();
+						}
+					});
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.eazybytes.cards.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * Asynchronous replication with lag, for local testing of the read replicas with H2 which cannot replicate.
+ * Every interval the tables are copied from the primary, and each copy replaces the tables of the replicas
+ * delay later. The replicas are thus always about delay behind the primary, like lagging real replicas.
+ *
+ * Whole tables are copied, this is only meant for the small local databases.
+ */
+@Component
+@ConditionalOnExpression("${read-replicas.enabled:false} and ${read-replicas.simulated-replication.enabled:false}")
+public class ReplicationSimulator {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicationSimulator.class);
+
+	private final JdbcTemplate primary;
+	private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+	private final Map<String, TransactionTemplate> replicaTransactions = new LinkedHashMap<>();
+	private final List<String> tables;
+	private final Duration interval;
+	private final Duration delay;
+	private final ScheduledExecutorService replicationScheduler;
+
+	public ReplicationSimulator(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+								ReplicaRoutingDataSource replicaDataSource, ReplicaProperties replicaProperties) {
+		ReplicaProperties.SimulatedReplication settings = replicaProperties.simulatedReplication();
+		this.primary = new JdbcTemplate(primaryDataSource);
+		replicaDataSource.getReplicaDataSources().forEach((name, dataSource) -> {
+			replicas.put(name, new JdbcTemplate(dataSource));
+			replicaTransactions.put(name, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+		});
+		this.tables = settings.tables() == null ? Collections.emptyList() : settings.tables();
+		this.interval = settings.interval();
+		this.delay = settings.delay();
+		this.replicationScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "replication-simulator");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PostConstruct
+	void start() {
+		log.info("Simulating the replication of {} to the replicas {} with a lag of {}", tables, replicas.keySet(), delay);
+		replicationScheduler.scheduleWithFixedDelay(this::replicate, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	private void replicate() {
+		try {
+			List<TableCopy> copies = new ArrayList<>();
+			for (String table : tables) {
+				copies.add(copy(table));
+			}
+			replicationScheduler.schedule(() -> apply(copies), delay.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (RuntimeException ex) {
+			log.warn("Simulated replication could not copy the primary", ex);
+		}
+	}
+
+	private TableCopy copy(String table) {
+		List<String> columns = new ArrayList<>();
+		List<Object[]> rows = new ArrayList<>();
+		primary.query("SELECT * FROM " + table, resultSet -> {
+			ResultSetMetaData metaData = resultSet.getMetaData();
+			if (columns.isEmpty()) {
+				for (int i = 1; i <= metaData.getColumnCount(); i++) {
+					columns.add(metaData.getColumnName(i));
+				}
+			}
+			Object[] row = new Object[columns.size()];
+			for (int i = 0; i < row.length; i++) {
+				row[i] = resultSet.getObject(i + 1);
+			}
+			rows.add(row);
+		});
+		return new TableCopy(table, columns, rows);
+	}
+
+	private void apply(List<TableCopy> copies) {
+		replicas.forEach((name, replica) -> {
+			try {
+				replicaTransactions.get(name).executeWithoutResult(status -> {
+					for (TableCopy copy : copies) {
+						replica.update("DELETE FROM " + copy.table());
+						if (!copy.rows().isEmpty()) {
+							replica.batchUpdate(copy.insertSql(), copy.rows());
+						}
+					}
+				});
+			} catch (RuntimeException ex) {
+				log.warn("Simulated replication could not update replica {}", name, ex);
+			}
+		});
+	}
+
+	@PreDestroy
+	void stop() {
+		replicationScheduler.shutdownNow();
+	}
+
+	private record TableCopy(String table, List<String> columns, List<Object[]> rows) {
+
+		String insertSql() {
+			return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+					+ String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+		}
+	}
+}
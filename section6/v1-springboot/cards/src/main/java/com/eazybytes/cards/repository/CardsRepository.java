@@ -4,6 +4,8 @@ import com.eazybytes.cards.entity.Cards;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,7 +14,12 @@ import java.util.Optional;
 @Repository
 public interface CardsRepository extends JpaRepository<Cards, Long> {
 
-	Optional<Cards> findByMobileNumber(String mobileNumber);
+	// Both served by the (mobile_number, card_id) index of schema.sql
+	List<Cards> findByMobileNumberOrderByCardIdAsc(String mobileNumber);
+
+	List<Cards> findByMobileNumberInOrderByCardIdAsc(Collection<String> mobileNumbers);
+
+	boolean existsByMobileNumber(String mobileNumber);
 
 	Optional<Cards> findByCardNumber(String cardNumber);
 
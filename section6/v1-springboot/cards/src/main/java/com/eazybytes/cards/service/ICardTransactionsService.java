@@ -0,0 +1,45 @@
+package com.eazybytes.cards.service;
+
+import com.eazybytes.cards.dto.CardBalanceDto;
+import com.eazybytes.cards.dto.CardTransactionDto;
+import com.eazybytes.cards.dto.CardTransactionPageDto;
+import com.eazybytes.cards.dto.CardTransactionRequestDto;
+
+import java.util.function.Consumer;
+
+/**
+ * Author: ldeepak
+ */
+public interface ICardTransactionsService {
+
+	/**
+	 *
+	 * @param request - Card number, type and amount of the transaction
+	 * @return the recorded transaction, with its sequence number
+	 */
+	CardTransactionDto recordTransaction(CardTransactionRequestDto request);
+
+	/**
+	 *
+	 * @param cardNumber - Input card Number
+	 * @return Balance of the card after its last transaction
+	 */
+	CardBalanceDto fetchBalance(String cardNumber);
+
+	/**
+	 *
+	 * @param cardNumber - Input card Number
+	 * @param afterSequence - Sequence number of the last transaction already read, 0 for the first page
+	 * @param limit - Maximum number of transactions returned
+	 * @return the next transactions of the card, oldest first
+	 */
+	CardTransactionPageDto fetchTransactions(String cardNumber, long afterSequence, int limit);
+
+	/**
+	 *
+	 * @param cardNumber - Input card Number
+	 * @param afterSequence - Sequence number of the last transaction already read, 0 for the whole history
+	 * @param consumer - Receives the transactions of the card, oldest first, as they are read
+	 */
+	void streamTransactions(String cardNumber, long afterSequence, Consumer<CardTransactionDto> consumer);
+}
@@ -1,6 +1,11 @@
 package com.eazybytes.cards.service;
 
 import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsStatsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Author: ldeepak
@@ -9,16 +14,23 @@ public interface ICardsService {
 
 	/**
 	 *
-	 * @param mobileNumber - Mobile Number of the Customer
+	 * @param mobileNumber - Mobile Number of the Customer, who may already hold other cards
 	 */
 	void createCard(String mobileNumber);
 
 	/**
 	 *
 	 * @param mobileNumber - Input mobile Number
-	 *  @return Card Details based on a given mobileNumber
+	 *  @return All the cards of the given mobileNumber with their totals
+	 */
+	CustomerCardsDto fetchCards(String mobileNumber);
+
+	/**
+	 *
+	 * @param mobileNumbers - Input mobile Numbers
+	 * @return All the cards of each mobileNumber with their totals, mobile numbers without a card are absent
 	 */
-	CardsDto fetchCard(String mobileNumber);
+	Map<String, CustomerCardsDto> fetchCards(List<String> mobileNumbers);
 
 	/**
 	 *
@@ -30,8 +42,14 @@ public interface ICardsService {
 	/**
 	 *
 	 * @param mobileNumber - Input Mobile Number
+	 * @param cardNumber - Card to delete, all the cards of the mobile number when null
 	 * @return boolean indicating if the delete of card details is successful or not
 	 */
-	boolean deleteCard(String mobileNumber);
+	boolean deleteCard(String mobileNumber, String cardNumber);
 
+	/**
+	 *
+	 * @return Limits, utilization and available amounts of the cards per card type
+	 */
+	CardsStatsDto fetchStats();
 }
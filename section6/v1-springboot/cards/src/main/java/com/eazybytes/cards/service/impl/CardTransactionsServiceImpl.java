@@ -0,0 +1,201 @@
+package com.eazybytes.cards.service.impl;
+
+import com.eazybytes.cards.dto.CardBalanceDto;
+import com.eazybytes.cards.dto.CardTransactionDto;
+import com.eazybytes.cards.dto.CardTransactionPageDto;
+import com.eazybytes.cards.dto.CardTransactionRequestDto;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.cache.TwoTierCache;
+import com.eazybytes.cards.entity.Cards;
+import com.eazybytes.cards.exceptions.ResourceNotFoundException;
+import com.eazybytes.cards.ledger.CardBalance;
+import com.eazybytes.cards.ledger.CardLedger;
+import com.eazybytes.cards.mapper.CardsMapper;
+import com.eazybytes.cards.replica.ReadYourWrites;
+import com.eazybytes.cards.repository.CardsRepository;
+import com.eazybytes.cards.service.ICardTransactionsService;
+import com.eazybytes.cards.stats.CardStatistics;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Author: ldeepak
+ *
+ * Card transactions are event sourced: the card_transaction table is the history, the balances are derived from it.
+ * Recording a transaction checks it against the projected balance, appends it and moves the projection forward,
+ * in one database transaction. Every snapshotEvery transactions the balance is also saved as a snapshot,
+ * so rebuilding the balance of a card never replays more than snapshotEvery transactions.
+ *
+ * The amountUsed/availableAmount columns of the cards table give the opening balance of a card when its first transaction
+ * is recorded, then they are updated with the projection in the same database transaction, so /api/fetch and
+ * /api/cards/stats show the balance after the last transaction.
+ */
+@Service
+@Observed(name = "cards.transactions")
+public class CardTransactionsServiceImpl implements ICardTransactionsService {
+
+	private final CardsRepository cardsRepository;
+
+	private final CardLedger cardLedger;
+
+	private final AuditorAware<String> auditorAware;
+
+	private final TwoTierCache<CustomerCardsDto> cardsCache;
+
+	private final ReadYourWrites readYourWrites;
+
+	private final CardStatistics cardStatistics;
+
+	private final int snapshotEvery;
+
+	public CardTransactionsServiceImpl(CardsRepository cardsRepository, CardLedger cardLedger, AuditorAware<String> auditorAware,
+									   TwoTierCache<CustomerCardsDto> cardsCache, ReadYourWrites readYourWrites,
+									   CardStatistics cardStatistics, @Value("${ledger.snapshot-every:100}") int snapshotEvery) {
+		this.cardsRepository = cardsRepository;
+		this.cardLedger = cardLedger;
+		this.auditorAware = auditorAware;
+		this.cardsCache = cardsCache;
+		this.readYourWrites = readYourWrites;
+		this.cardStatistics = cardStatistics;
+		this.snapshotEvery = snapshotEvery;
+	}
+
+	/**
+	 * @param request - Card number, type and amount of the transaction
+	 * @return the recorded transaction, with its sequence number
+	 */
+	@Override
+	@Transactional
+	public CardTransactionDto recordTransaction(CardTransactionRequestDto request) {
+		Cards cards = findCard(request.getCardNumber());
+		CardBalance balance = lockBalance(cards);
+		CardBalance newBalance = balance.apply(request.getTransactionType(), request.getAmount(), cards.getTotalLimit());
+
+		CardTransactionDto transaction = new CardTransactionDto();
+		transaction.setCardNumber(cards.getCardNumber());
+		transaction.setSequenceNumber(newBalance.sequenceNumber());
+		transaction.setTransactionType(request.getTransactionType());
+		transaction.setAmount(request.getAmount());
+		transaction.setCreatedAt(LocalDateTime.now());
+		transaction.setCreatedBy(auditorAware.getCurrentAuditor().orElse(null));
+		cardLedger.append(transaction);
+		cardLedger.updateBalance(cards.getCardNumber(), newBalance);
+		if (newBalance.sequenceNumber() % snapshotEvery == 0) {
+			cardLedger.saveSnapshot(cards.getCardNumber(), newBalance);
+		}
+		updateCardAmounts(cards, balance, newBalance, transaction.getCreatedBy());
+		return transaction;
+	}
+
+	/**
+	 * Moves the cards row of the card from balance to newBalance, with the cache and the statistics.
+	 * The amounts before are those of the locked balance: the entity was read before the lock,
+	 * a transaction of the same card committed in between is not in it.
+	 */
+	private void updateCardAmounts(Cards cards, CardBalance balance, CardBalance newBalance, String updatedBy) {
+		cardLedger.updateCardAmounts(cards.getCardNumber(), newBalance, cards.getTotalLimit(), updatedBy);
+		CardsDto before = CardsMapper.mapToCardsDto(cards, new CardsDto());
+		before.setAmountUsed(balance.amountUsed());
+		before.setAvailableAmount(balance.availableAmount(cards.getTotalLimit()));
+		CardsDto after = CardsMapper.mapToCardsDto(cards, new CardsDto());
+		after.setAmountUsed(newBalance.amountUsed());
+		after.setAvailableAmount(newBalance.availableAmount(cards.getTotalLimit()));
+		cardStatistics.updated(before, after);
+		readYourWrites.recordWrite(cards.getMobileNumber());
+		cardsCache.invalidate(cards.getMobileNumber());
+	}
+
+	/**
+	 * Locks the projected balance of the card. A card without a projection row gets one, built by rebuild().
+	 */
+	private CardBalance lockBalance(Cards cards) {
+		return cardLedger.lockBalance(cards.getCardNumber()).orElseGet(() -> {
+			try {
+				cardLedger.insertBalance(cards.getCardNumber(), rebuild(cards, true));
+			} catch (DuplicateKeyException ex) {
+				// Created concurrently by another transaction, the lock below waits for it to commit
+			}
+			return cardLedger.lockBalance(cards.getCardNumber()).orElseThrow();
+		});
+	}
+
+	/**
+	 * Balance of the card from its latest snapshot and the transactions recorded after it.
+	 * The first time, the opening balance comes from the cards table and is saved as snapshot 0.
+	 *
+	 * @param saveOpening - Save the opening balance as a snapshot, false in read-only transactions
+	 */
+	private CardBalance rebuild(Cards cards, boolean saveOpening) {
+		CardBalance balance = cardLedger.latestSnapshot(cards.getCardNumber()).orElse(null);
+		if (balance == null) {
+			balance = CardBalance.opening(cards.getAmountUsed());
+			if (saveOpening) {
+				cardLedger.saveSnapshot(cards.getCardNumber(), balance);
+			}
+		}
+		CardBalance[] replayed = {balance};
+		cardLedger.streamTransactions(cards.getCardNumber(), balance.sequenceNumber(),
+				transaction -> replayed[0] = replayed[0].replay(transaction.getTransactionType(), transaction.getAmount()));
+		return replayed[0];
+	}
+
+	/**
+	 * @param cardNumber - Input card Number
+	 * @return Balance of the card after its last transaction
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CardBalanceDto fetchBalance(String cardNumber) {
+		Cards cards = findCard(cardNumber);
+		CardBalance balance = cardLedger.findBalance(cardNumber).orElseGet(() -> rebuild(cards, false));
+		return new CardBalanceDto(cardNumber, balance.sequenceNumber(), cards.getTotalLimit(), balance.authorizedAmount(),
+				balance.amountUsed(), balance.availableAmount(cards.getTotalLimit()));
+	}
+
+	/**
+	 * @param cardNumber - Input card Number
+	 * @param afterSequence - Sequence number of the last transaction already read, 0 for the first page
+	 * @param limit - Maximum number of transactions returned
+	 * @return the next transactions of the card, oldest first
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CardTransactionPageDto fetchTransactions(String cardNumber, long afterSequence, int limit) {
+		// One row more than the page tells whether there is a next page
+		List<CardTransactionDto> transactions = cardLedger.findTransactions(cardNumber, afterSequence, limit + 1);
+		if (transactions.isEmpty() && afterSequence == 0) {
+			findCard(cardNumber);
+		}
+		if (transactions.size() <= limit) {
+			return new CardTransactionPageDto(transactions, null);
+		}
+		List<CardTransactionDto> page = transactions.subList(0, limit);
+		return new CardTransactionPageDto(page, page.get(limit - 1).getSequenceNumber());
+	}
+
+	/**
+	 * @param cardNumber - Input card Number
+	 * @param afterSequence - Sequence number of the last transaction already read, 0 for the whole history
+	 * @param consumer - Receives the transactions of the card, oldest first, as they are read
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void streamTransactions(String cardNumber, long afterSequence, Consumer<CardTransactionDto> consumer) {
+		cardLedger.streamTransactions(cardNumber, afterSequence, consumer);
+	}
+
+	private Cards findCard(String cardNumber) {
+		return cardsRepository.findByCardNumber(cardNumber).orElseThrow(
+				() -> new ResourceNotFoundException("Card", "CardNumber", cardNumber)
+		);
+	}
+}
@@ -1,17 +1,30 @@
 package com.eazybytes.cards.service.impl;
 
+import com.eazybytes.cards.audit.AuditTrail;
+import com.eazybytes.cards.cache.TwoTierCache;
 import com.eazybytes.cards.constants.CardsConstants;
 import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsStatsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
 import com.eazybytes.cards.entity.Cards;
-import com.eazybytes.cards.exceptions.CardAlreadyExistsException;
 import com.eazybytes.cards.exceptions.ResourceNotFoundException;
 import com.eazybytes.cards.mapper.CardsMapper;
+import com.eazybytes.cards.membership.MembershipFilter;
+import com.eazybytes.cards.replica.ReadYourWrites;
 import com.eazybytes.cards.repository.CardsRepository;
 import com.eazybytes.cards.service.ICardsService;
+import com.eazybytes.cards.service.support.RequestCoalescer;
+import com.eazybytes.cards.stats.CardStatistics;
+import io.micrometer.observation.annotation.Observed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -19,20 +32,38 @@ import java.util.Random;
  */
 @Service
 @AllArgsConstructor
+@Observed(name = "cards.service")
 public class CardsServiceImpl implements ICardsService {
 
 	private CardsRepository cardsRepository;
 
+	private RequestCoalescer<String, CustomerCardsDto> fetchCardCoalescer;
+
+	private AuditTrail auditTrail;
+
+	private MembershipFilter membershipFilter;
+
+	private ReadYourWrites readYourWrites;
+
+	private TwoTierCache<CustomerCardsDto> cardsCache;
+
+	private CardStatistics cardStatistics;
+
 	/**
+	 * A customer may hold any number of cards, every call opens a new one.
+	 *
 	 * @param mobileNumber - Mobile Number of the Customer
 	 */
 	@Override
+	@Transactional
 	public void createCard(String mobileNumber) {
-		Optional<Cards> optionalCards= cardsRepository.findByMobileNumber(mobileNumber);
-		if(optionalCards.isPresent()){
-			throw new CardAlreadyExistsException("Card already registered with given mobileNumber "+mobileNumber);
-		}
-		cardsRepository.save(createNewCard(mobileNumber));
+		Cards savedCards = cardsRepository.save(createNewCard(mobileNumber));
+		membershipFilter.added(mobileNumber);
+		readYourWrites.recordWrite(mobileNumber);
+		cardsCache.invalidate(mobileNumber);
+		CardsDto created = CardsMapper.mapToCardsDto(savedCards, new CardsDto());
+		cardStatistics.added(created);
+		auditTrail.record("Cards", savedCards.getCardId(), AuditTrail.CREATE, null, created);
 	}
 
 	/**
@@ -54,14 +85,61 @@ public class CardsServiceImpl implements ICardsService {
 	/**
 	 *
 	 * @param mobileNumber - Input mobile Number
-	 * @return Card Details based on a given mobileNumber
+	 * @return All the cards of the given mobileNumber with their totals
 	 */
 	@Override
-	public CardsDto fetchCard(String mobileNumber) {
-		Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
-				() -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
-		);
-		return CardsMapper.mapToCardsDto(cards, new CardsDto());
+	@Transactional(readOnly = true)
+	public CustomerCardsDto fetchCards(String mobileNumber) {
+		if (!membershipFilter.mightExist(mobileNumber)) {
+			throw new ResourceNotFoundException("Card", "mobileNumber", mobileNumber);
+		}
+		// A card written moments ago may not be on the replicas yet, it is read from the primary,
+		// without joining a fetch that may have started before the write
+		if (readYourWrites.isRecentlyWritten(mobileNumber)) {
+			return readYourWrites.onPrimary(() -> loadCard(mobileNumber));
+		}
+		// Served by the near cache, then the shared cache. On a miss of both, concurrent fetches of the same mobile number
+		// share one query and one CustomerCardsDto, callers must not modify it
+		return cardsCache.get(mobileNumber, () -> fetchCardCoalescer.execute(mobileNumber, () -> loadCard(mobileNumber)));
+	}
+
+	// One indexed query returns every card of the customer, however many there are
+	private CustomerCardsDto loadCard(String mobileNumber) {
+		List<Cards> cards = cardsRepository.findByMobileNumberOrderByCardIdAsc(mobileNumber);
+		if (cards.isEmpty()) {
+			membershipFilter.falsePositive();
+			throw new ResourceNotFoundException("Card", "mobileNumber", mobileNumber);
+		}
+		return CardsMapper.mapToCustomerCardsDto(mobileNumber, cards);
+	}
+
+	/**
+	 * Resolves the mobile numbers in chunks with one "WHERE mobile_number IN (...)" query per chunk.
+	 *
+	 * @param mobileNumbers - Input mobile Numbers
+	 * @return All the cards of each mobileNumber with their totals, keyed by mobileNumber
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, CustomerCardsDto> fetchCards(List<String> mobileNumbers) {
+		List<String> distinctMobileNumbers = new ArrayList<>(new LinkedHashSet<>(mobileNumbers));
+		distinctMobileNumbers.removeIf(mobileNumber -> !membershipFilter.mightExist(mobileNumber));
+		return readYourWrites.read(distinctMobileNumbers, () -> loadCards(distinctMobileNumbers));
+	}
+
+	private Map<String, CustomerCardsDto> loadCards(List<String> distinctMobileNumbers) {
+		Map<String, List<Cards>> cardsByMobileNumber = new HashMap<>();
+		for (int from = 0; from < distinctMobileNumbers.size(); from += CardsConstants.BATCH_FETCH_CHUNK_SIZE) {
+			List<String> chunk = distinctMobileNumbers.subList(from,
+					Math.min(from + CardsConstants.BATCH_FETCH_CHUNK_SIZE, distinctMobileNumbers.size()));
+			for (Cards cards : cardsRepository.findByMobileNumberInOrderByCardIdAsc(chunk)) {
+				cardsByMobileNumber.computeIfAbsent(cards.getMobileNumber(), mobileNumber -> new ArrayList<>()).add(cards);
+			}
+		}
+		Map<String, CustomerCardsDto> customerCardsDtos = new HashMap<>();
+		cardsByMobileNumber.forEach((mobileNumber, cards) ->
+				customerCardsDtos.put(mobileNumber, CardsMapper.mapToCustomerCardsDto(mobileNumber, cards)));
+		return customerCardsDtos;
 	}
 
 	/**
@@ -70,26 +148,69 @@ public class CardsServiceImpl implements ICardsService {
 	 * @return boolean indicating if the update of card details is successful or not
 	 */
 	@Override
+	@Transactional
 	public boolean updateCard(CardsDto cardsDto) {
 		Cards cards = cardsRepository.findByCardNumber(cardsDto.getCardNumber()).orElseThrow(
 				() -> new ResourceNotFoundException("Card", "CardNumber", cardsDto.getCardNumber()));
+		// The mapper modifies the entity in place, so the before state is taken first
+		CardsDto before = CardsMapper.mapToCardsDto(cards, new CardsDto());
 		CardsMapper.mapToCards(cardsDto, cards);
-		cardsRepository.save(cards);
+		Cards updatedCards = cardsRepository.save(cards);
+		if (!before.getMobileNumber().equals(updatedCards.getMobileNumber())) {
+			membershipFilter.added(updatedCards.getMobileNumber());
+			// The previous customer may still hold other cards
+			if (!cardsRepository.existsByMobileNumber(before.getMobileNumber())) {
+				membershipFilter.removed(before.getMobileNumber());
+			}
+			readYourWrites.recordWrite(before.getMobileNumber());
+			cardsCache.invalidate(before.getMobileNumber());
+		}
+		readYourWrites.recordWrite(updatedCards.getMobileNumber());
+		cardsCache.invalidate(updatedCards.getMobileNumber());
+		CardsDto after = CardsMapper.mapToCardsDto(updatedCards, new CardsDto());
+		cardStatistics.updated(before, after);
+		auditTrail.record("Cards", updatedCards.getCardId(), AuditTrail.UPDATE, before, after);
 		return  true;
 	}
 
 	/**
 	 * @param mobileNumber - Input MobileNumber
+	 * @param cardNumber - Card to delete, all the cards of the mobile number when null
 	 * @return boolean indicating if the delete of card details is successful or not
 	 */
 	@Override
-	public boolean deleteCard(String mobileNumber) {
-		Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
-				() -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
-		);
-		cardsRepository.deleteById(cards.getCardId());
+	@Transactional
+	public boolean deleteCard(String mobileNumber, String cardNumber) {
+		List<Cards> cards = cardsRepository.findByMobileNumberOrderByCardIdAsc(mobileNumber);
+		List<Cards> deletedCards = cardNumber == null ? cards
+				: cards.stream().filter(card -> card.getCardNumber().equals(cardNumber)).toList();
+		if (deletedCards.isEmpty()) {
+			throw cardNumber == null ? new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
+					: new ResourceNotFoundException("Card", "CardNumber", cardNumber);
+		}
+		// One DELETE statement, whatever the number of cards
+		cardsRepository.deleteAllInBatch(deletedCards);
+		if (deletedCards.size() == cards.size()) {
+			membershipFilter.removed(mobileNumber);
+		}
+		readYourWrites.recordWrite(mobileNumber);
+		cardsCache.invalidate(mobileNumber);
+		for (Cards card : deletedCards) {
+			CardsDto deleted = CardsMapper.mapToCardsDto(card, new CardsDto());
+			cardStatistics.removed(deleted);
+			auditTrail.record("Cards", card.getCardId(), AuditTrail.DELETE, deleted, null);
+		}
 		return true;
 	}
 
+	/**
+	 * Answered from the in-memory aggregates, no query.
+	 *
+	 * @return Limits, utilization and available amounts of the cards per card type
+	 */
+	@Override
+	public CardsStatsDto fetchStats() {
+		return cardStatistics.snapshot();
+	}
 
 }
@@ -0,0 +1,36 @@
+package com.eazybytes.cards.statement;
+
+import java.time.YearMonth;
+
+/**
+ * Author: ldeepak
+ *
+ * Statement of a card for one billing cycle (a calendar month).
+ *
+ * @param closingBalance - Amount used at the end of the cycle
+ * @param purchases - Amounts captured during the cycle
+ * @param refunds - Amounts refunded during the cycle
+ * @param payments - Amounts paid during the cycle
+ * @param interest - Interest of the cycle on the closing balance
+ * @param minimumDue - Least amount to pay by the next cycle, interest included
+ */
+public record CardStatement(String cardNumber, YearMonth cycle, int closingBalance, int purchases, int refunds, int payments,
+							int interest, int minimumDue) {
+
+	public static CardStatement of(String cardNumber, YearMonth cycle, int closingBalance, int purchases, int refunds, int payments,
+								   StatementTerms terms) {
+		int interest = (int) Math.round(Math.max(closingBalance, 0) * terms.annualInterestRate() / 12);
+		int totalDue = Math.max(closingBalance, 0) + interest;
+		int minimumDue = Math.min(totalDue,
+				Math.max(terms.minimumDueFloor(), (int) Math.round(closingBalance * terms.minimumDuePercent()) + interest));
+		return new CardStatement(cardNumber, cycle, closingBalance, purchases, refunds, payments, interest, minimumDue);
+	}
+
+	/**
+	 * @return the statement as a CSV line, in the column order of StatementRun.CSV_HEADER
+	 */
+	public String toCsvLine() {
+		return cardNumber + ',' + cycle + ',' + closingBalance + ',' + purchases + ',' + refunds + ',' + payments + ','
+				+ interest + ',' + minimumDue + '\n';
+	}
+}
@@ -0,0 +1,296 @@
+package com.eazybytes.cards.statement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Author: ldeepak
+ *
+ * Monthly billing run: one statement per card for a cycle, saved to card_statement and rendered to gzipped CSV files.
+ *
+ * - The cards are split into chunks of chunk-size consecutive card ids starting at a multiple of chunk-size,
+ *   so a chunk covers the same cards in every run of a cycle, whatever the cards created or deleted since.
+ *   The chunks are processed in parallel by a pool of threads (one per core by default). Chunks share nothing, so the run scales with the cores
+ *   as long as the database keeps up: keep the connection pool at least as large as the pool of threads.
+ * - A chunk is one query aggregating the transactions of its cards in the database, one JDBC batch insert of the statements
+ *   and one file, statements/<cycle>/part-<first card id>.csv.gz, written through a FileChannel and a buffered GZIP stream.
+ * - The statements and the statement_run_chunk row of a chunk commit together, after its file is written.
+ *   A restarted run of the same cycle skips the finished chunks and redoes the others, overwriting their files.
+ *   Only the chunks finished with the same chunk-size are skipped, a chunk of another size does not cover the same cards.
+ *   A redone chunk first deletes the statements of its cards for the cycle, so it never fails on a statement
+ *   saved by an earlier run (e.g. one run with another chunk-size).
+ */
+@Component
+public class StatementRun {
+
+	private static final Logger log = LoggerFactory.getLogger(StatementRun.class);
+
+	static final String CSV_HEADER = "card_number,cycle,closing_balance,purchases,refunds,payments,interest,minimum_due\n";
+
+	// closing_balance: the amount used now (the projection of the ledger if the card has transactions),
+	// minus what the transactions recorded after the end of the cycle added to it
+	private static final String CHUNK_SQL = "SELECT c.card_number, COALESCE(b.amount_used, c.amount_used) AS amount_used, "
+			+ "SUM(CASE WHEN t.created_at < ? AND t.transaction_type = 'CAPTURE' THEN t.amount ELSE 0 END) AS purchases, "
+			+ "SUM(CASE WHEN t.created_at < ? AND t.transaction_type = 'REFUND' THEN t.amount ELSE 0 END) AS refunds, "
+			+ "SUM(CASE WHEN t.created_at < ? AND t.transaction_type = 'PAYMENT' THEN t.amount ELSE 0 END) AS payments, "
+			+ "SUM(CASE WHEN t.created_at >= ? AND t.transaction_type = 'CAPTURE' THEN t.amount "
+			+ "WHEN t.created_at >= ? AND t.transaction_type IN ('REFUND', 'PAYMENT') THEN -t.amount ELSE 0 END) AS used_after_cycle "
+			+ "FROM cards c LEFT JOIN card_balance b ON b.card_number = c.card_number "
+			+ "LEFT JOIN card_transaction t ON t.card_number = c.card_number AND t.created_at >= ? "
+			+ "WHERE c.card_id >= ? AND c.card_id < ? "
+			+ "GROUP BY c.card_id, c.card_number, b.amount_used, c.amount_used ORDER BY c.card_id";
+
+	private static final String DELETE_SQL = "DELETE FROM card_statement WHERE cycle = ? "
+			+ "AND card_number IN (SELECT card_number FROM cards WHERE card_id >= ? AND card_id < ?)";
+
+	private static final String INSERT_SQL = "INSERT INTO card_statement "
+			+ "(card_number, cycle, closing_balance, purchases, refunds, payments, interest, minimum_due, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final StatementTerms terms;
+	private final int chunkSize;
+	private final int threads;
+	private final Path outputDirectory;
+	private final int fileBufferSize;
+	private final Counter statementsWritten;
+	private final Timer chunkTimer;
+
+	private ExecutorService coordinator;
+	private ExecutorService workers;
+	private volatile Progress current;
+
+	public StatementRun(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+						@Value("${statements.annual-interest-rate:0.36}") double annualInterestRate,
+						@Value("${statements.minimum-due-percent:0.05}") double minimumDuePercent,
+						@Value("${statements.minimum-due-floor:200}") int minimumDueFloor,
+						@Value("${statements.chunk-size:5000}") int chunkSize,
+						@Value("${statements.threads:0}") int threads,
+						@Value("${statements.output-dir:statements}") String outputDirectory,
+						@Value("${statements.file-buffer-size:65536}") int fileBufferSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.terms = new StatementTerms(annualInterestRate, minimumDuePercent, minimumDueFloor);
+		this.chunkSize = chunkSize;
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.outputDirectory = Path.of(outputDirectory).toAbsolutePath();
+		this.fileBufferSize = fileBufferSize;
+		this.statementsWritten = Counter.builder("statements.written").register(meterRegistry);
+		this.chunkTimer = Timer.builder("statements.chunk.duration").register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		coordinator = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "statement-run");
+			thread.setDaemon(true);
+			return thread;
+		});
+		AtomicInteger workerCount = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "statement-worker-" + workerCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts the billing run of a cycle in the background, unless a run is already in progress.
+	 *
+	 * @return the status of the started run, or of the run in progress
+	 */
+	public synchronized StatementRunStatus start(YearMonth cycle) {
+		Progress running = current;
+		if (running != null && running.finishedAt == null) {
+			return running.status();
+		}
+		Progress progress = new Progress(cycle);
+		current = progress;
+		coordinator.execute(() -> run(progress));
+		return progress.status();
+	}
+
+	public StatementRunStatus status() {
+		Progress progress = current;
+		return progress == null ? StatementRunStatus.IDLE : progress.status();
+	}
+
+	private void run(Progress progress) {
+		String cycle = progress.cycle.toString();
+		try {
+			Long minCardId = jdbcTemplate.queryForObject("SELECT MIN(card_id) FROM cards", Long.class);
+			Long maxCardId = jdbcTemplate.queryForObject("SELECT MAX(card_id) FROM cards", Long.class);
+			Set<Long> finished = new HashSet<>(jdbcTemplate.queryForList(
+					"SELECT first_card_id FROM statement_run_chunk WHERE cycle = ? AND chunk_size = ?", Long.class, cycle, chunkSize));
+			List<CompletableFuture<Void>> chunks = new ArrayList<>();
+			if (minCardId != null) {
+				Files.createDirectories(outputDirectory.resolve(cycle));
+				// Chunk boundaries do not depend on MIN(card_id), which changes when the first cards are deleted
+				for (long firstCardId = Math.floorDiv(minCardId, chunkSize) * (long) chunkSize; firstCardId <= maxCardId;
+					 firstCardId += chunkSize) {
+					progress.totalChunks.incrementAndGet();
+					if (finished.contains(firstCardId)) {
+						progress.skippedChunks.incrementAndGet();
+						continue;
+					}
+					long chunkStart = firstCardId;
+					chunks.add(CompletableFuture.runAsync(() -> runChunk(progress, chunkStart), workers)
+							.exceptionally(ex -> {
+								log.error("Statements of cycle {} from card id {} failed", cycle, chunkStart, ex);
+								progress.failedChunks.incrementAndGet();
+								return null;
+							}));
+				}
+			}
+			CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+		} catch (IOException | RuntimeException ex) {
+			log.error("Statement run of cycle {} failed", cycle, ex);
+			progress.failedChunks.incrementAndGet();
+		}
+		progress.finishedAt = LocalDateTime.now();
+		log.info("Statement run of cycle {} finished: {}", cycle, progress.status());
+	}
+
+	private void runChunk(Progress progress, long firstCardId) {
+		chunkTimer.record(() -> {
+			List<CardStatement> statements = statementsOf(progress.cycle, firstCardId);
+			Path file = outputDirectory.resolve(progress.cycle.toString()).resolve("part-" + firstCardId + ".csv.gz");
+			transactionTemplate.executeWithoutResult(status -> {
+				jdbcTemplate.update(DELETE_SQL, progress.cycle.toString(), firstCardId, firstCardId + chunkSize);
+				insert(statements);
+				// A row left by a run with another chunk-size may start at the same card id
+				jdbcTemplate.update("DELETE FROM statement_run_chunk WHERE cycle = ? AND first_card_id = ?", progress.cycle.toString(), firstCardId);
+				jdbcTemplate.update("INSERT INTO statement_run_chunk (cycle, first_card_id, chunk_size, statement_count, completed_at) "
+								+ "VALUES (?, ?, ?, ?, ?)", progress.cycle.toString(), firstCardId, chunkSize, statements.size(),
+						Timestamp.valueOf(LocalDateTime.now()));
+				// Written before the commit: a finished chunk always has its file, a file without its chunk row is rewritten
+				render(statements, file);
+			});
+			progress.completedChunks.incrementAndGet();
+			progress.statements.addAndGet(statements.size());
+			statementsWritten.increment(statements.size());
+		});
+	}
+
+	private List<CardStatement> statementsOf(YearMonth cycle, long firstCardId) {
+		Timestamp cycleStart = Timestamp.valueOf(cycle.atDay(1).atStartOfDay());
+		Timestamp cycleEnd = Timestamp.valueOf(cycle.plusMonths(1).atDay(1).atStartOfDay());
+		return jdbcTemplate.query(CHUNK_SQL, (resultSet, rowNum) -> CardStatement.of(
+						resultSet.getString("card_number"), cycle,
+						resultSet.getInt("amount_used") - resultSet.getInt("used_after_cycle"),
+						resultSet.getInt("purchases"), resultSet.getInt("refunds"), resultSet.getInt("payments"), terms),
+				cycleEnd, cycleEnd, cycleEnd, cycleEnd, cycleEnd, cycleStart, firstCardId, firstCardId + chunkSize);
+	}
+
+	private void insert(List<CardStatement> statements) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.batchUpdate(INSERT_SQL, statements, statements.size(), (preparedStatement, statement) -> {
+			preparedStatement.setString(1, statement.cardNumber());
+			preparedStatement.setString(2, statement.cycle().toString());
+			preparedStatement.setInt(3, statement.closingBalance());
+			preparedStatement.setInt(4, statement.purchases());
+			preparedStatement.setInt(5, statement.refunds());
+			preparedStatement.setInt(6, statement.payments());
+			preparedStatement.setInt(7, statement.interest());
+			preparedStatement.setInt(8, statement.minimumDue());
+			preparedStatement.setTimestamp(9, now);
+		});
+	}
+
+	/**
+	 * Writes the statements to a temporary file moved over the partition file once complete,
+	 * a reader never sees a partial file.
+	 */
+	private void render(List<CardStatement> statements, Path file) {
+		Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			try (OutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), fileBufferSize)) {
+				// The GZIP stream compresses fileBufferSize bytes at a time, the lines are batched up to that size too
+				ByteBuffer lines = ByteBuffer.allocate(fileBufferSize);
+				write(gzip, lines, CSV_HEADER);
+				for (CardStatement statement : statements) {
+					write(gzip, lines, statement.toCsvLine());
+				}
+				gzip.write(lines.array(), 0, lines.position());
+			}
+			Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not write " + file, ex);
+		}
+	}
+
+	private static void write(OutputStream out, ByteBuffer buffer, String line) throws IOException {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > buffer.remaining()) {
+			out.write(buffer.array(), 0, buffer.position());
+			buffer.clear();
+		}
+		buffer.put(bytes);
+	}
+
+	@PreDestroy
+	void stop() throws InterruptedException {
+		coordinator.shutdownNow();
+		workers.shutdownNow();
+		workers.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	private static final class Progress {
+
+		private final YearMonth cycle;
+		private final LocalDateTime startedAt = LocalDateTime.now();
+		private final AtomicInteger totalChunks = new AtomicInteger();
+		private final AtomicInteger completedChunks = new AtomicInteger();
+		private final AtomicInteger skippedChunks = new AtomicInteger();
+		private final AtomicInteger failedChunks = new AtomicInteger();
+		private final AtomicLong statements = new AtomicLong();
+		private volatile LocalDateTime finishedAt;
+
+		private Progress(YearMonth cycle) {
+			this.cycle = cycle;
+		}
+
+		private StatementRunStatus status() {
+			String state = finishedAt == null ? "RUNNING" : failedChunks.get() > 0 ? "FAILED" : "COMPLETED";
+			return new StatementRunStatus(cycle.toString(), state, totalChunks.get(), completedChunks.get(), skippedChunks.get(),
+					failedChunks.get(), statements.get(), startedAt, finishedAt);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.eazybytes.cards.statement;
+
+import java.time.LocalDateTime;
+
+/**
+ * Author: ldeepak
+ *
+ * Progress of the current or last billing run, as reported by /actuator/statements.
+ *
+ * @param state - IDLE, RUNNING, COMPLETED or FAILED (some chunks failed, start the run again to retry them)
+ * @param skippedChunks - Chunks finished by an earlier run of the same cycle
+ */
+public record StatementRunStatus(String cycle, String state, int totalChunks, int completedChunks, int skippedChunks,
+								 int failedChunks, long statements, LocalDateTime startedAt, LocalDateTime finishedAt) {
+
+	static final StatementRunStatus IDLE = new StatementRunStatus(null, "IDLE", 0, 0, 0, 0, 0, null, null);
+}
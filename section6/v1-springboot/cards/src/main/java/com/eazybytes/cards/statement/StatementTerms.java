@@ -0,0 +1,13 @@
+package com.eazybytes.cards.statement;
+
+/**
+ * Author: ldeepak
+ *
+ * Pricing of the statements.
+ *
+ * @param annualInterestRate - Interest charged per year on the closing balance, e.g. 0.36 for 36%, a twelfth per cycle
+ * @param minimumDuePercent - Share of the closing balance due by the next cycle, e.g. 0.05 for 5%
+ * @param minimumDueFloor - Lowest minimum due, unless the whole balance is lower
+ */
+public record StatementTerms(double annualInterestRate, double minimumDuePercent, int minimumDueFloor) {
+}
@@ -0,0 +1,39 @@
+package com.eazybytes.cards.statement;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Author: ldeepak
+ *
+ * Actuator endpoint (/actuator/statements) of the billing run:
+ * POST with {"cycle": "2026-09"} starts the run of a cycle (the previous month by default), GET reports its progress.
+ * POST the same cycle again after a failure or a restart to finish the chunks left.
+ * The POST starts a run over every card, it is not exposed over HTTP by default: add it to management.endpoints.web.exposure.include
+ * only along with a management.server.port that is not reachable from outside, or run it over JMX.
+ */
+@Component
+@Endpoint(id = "statements")
+public class StatementsEndpoint {
+
+	private final StatementRun statementRun;
+
+	public StatementsEndpoint(StatementRun statementRun) {
+		this.statementRun = statementRun;
+	}
+
+	@ReadOperation
+	public StatementRunStatus status() {
+		return statementRun.status();
+	}
+
+	@WriteOperation
+	public StatementRunStatus start(@Nullable String cycle) {
+		return statementRun.start(cycle != null ? YearMonth.parse(cycle) : YearMonth.now().minusMonths(1));
+	}
+}
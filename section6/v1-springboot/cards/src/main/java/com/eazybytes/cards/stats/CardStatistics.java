@@ -0,0 +1,166 @@
+package com.eazybytes.cards.stats;
+
+import com.eazybytes.cards.dto.CardTypeStatsDto;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsStatsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * Live totals and distributions of the cards per card type, for the risk dashboards (/api/cards/stats).
+ * A GROUP BY over the cards table on every refresh would compete with the OLTP traffic, so the aggregates are kept in memory
+ * and moved by every create, update and delete. Reading them costs the same whatever the number of cards.
+ *
+ * - The aggregates are built from the cards table in the background at startup, and rebuilt every rebuild-interval.
+ *   With several instances each one only sees its own writes, the rebuild brings in the writes of the others.
+ * - Changes are applied after their transaction commits, a rolled back update leaves the aggregates alone.
+ * - During a rebuild the changes go to both the current and the new aggregates, like the MembershipFilter does,
+ *   so the new aggregates miss none of the writes committed while the table is scanned.
+ *   A change applied while the scan runs may already be in what the scan read, it is then applied twice until the next rebuild:
+ *   a created card counted twice, an update moving its totals twice, and a deleted card subtracted twice
+ *   (the scan no longer reads it, and the delete is subtracted from the new aggregates too).
+ */
+@Component
+public class CardStatistics {
+
+	private static final Logger log = LoggerFactory.getLogger(CardStatistics.class);
+
+	private static final String CARDS_SQL = "SELECT card_type, total_limit, amount_used, available_amount FROM cards";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Duration rebuildInterval;
+	private final ScheduledExecutorService rebuildScheduler;
+	private final Counter rebuilds;
+
+	private volatile Map<String, CardTypeStatistics> current = new ConcurrentHashMap<>();
+	private volatile Map<String, CardTypeStatistics> building;
+	private volatile LocalDateTime rebuiltAt;
+
+	public CardStatistics(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+						  @Value("${card-stats.rebuild-interval:10m}") Duration rebuildInterval) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.rebuildInterval = rebuildInterval;
+		this.rebuildScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "card-stats-rebuild");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.rebuilds = Counter.builder("card.stats.rebuilds").register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		rebuildScheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildInterval.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * To be called when a card was created.
+	 */
+	public void added(CardsDto card) {
+		afterCommit(() -> apply(card, 1));
+	}
+
+	/**
+	 * To be called when a card was updated, with its state before and after the update.
+	 */
+	public void updated(CardsDto before, CardsDto after) {
+		afterCommit(() -> {
+			apply(before, -1);
+			apply(after, 1);
+		});
+	}
+
+	/**
+	 * To be called when a card was deleted.
+	 */
+	public void removed(CardsDto card) {
+		afterCommit(() -> apply(card, -1));
+	}
+
+	/**
+	 * @return the aggregates per card type, empty until the first build completed
+	 */
+	public CardsStatsDto snapshot() {
+		Map<String, CardTypeStatsDto> cardTypes = new TreeMap<>();
+		current.forEach((cardType, statistics) -> {
+			if (!statistics.isEmpty()) {
+				cardTypes.put(cardType, statistics.toDto());
+			}
+		});
+		return new CardsStatsDto(cardTypes, rebuiltAt);
+	}
+
+	private void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+
+	private void apply(CardsDto card, int sign) {
+		// building before current, as MembershipFilter.added() does: rebuild() sets building before the scan and clears it
+		// after the swap, so a change that did not see building either committed before the scan or sees the new current
+		Map<String, CardTypeStatistics> next = building;
+		Map<String, CardTypeStatistics> live = current;
+		add(live, card.getCardType(), card.getTotalLimit(), card.getAmountUsed(), card.getAvailableAmount(), sign);
+		if (next != null && next != live) {
+			add(next, card.getCardType(), card.getTotalLimit(), card.getAmountUsed(), card.getAvailableAmount(), sign);
+		}
+	}
+
+	private static void add(Map<String, CardTypeStatistics> statistics, String cardType, int totalLimit, int amountUsed,
+							int availableAmount, int sign) {
+		statistics.computeIfAbsent(cardType, type -> new CardTypeStatistics()).add(totalLimit, amountUsed, availableAmount, sign);
+	}
+
+	private void rebuild() {
+		try {
+			long started = System.nanoTime();
+			Map<String, CardTypeStatistics> next = new ConcurrentHashMap<>();
+			building = next;
+			jdbcTemplate.query(CARDS_SQL, resultSet -> {
+				add(next, resultSet.getString("card_type"), resultSet.getInt("total_limit"), resultSet.getInt("amount_used"),
+						resultSet.getInt("available_amount"), 1);
+			});
+			current = next;
+			building = null;
+			rebuiltAt = LocalDateTime.now();
+			rebuilds.increment();
+			log.info("Card statistics rebuilt in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+		} catch (RuntimeException ex) {
+			building = null;
+			log.warn("Could not rebuild the card statistics", ex);
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		rebuildScheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,83 @@
+package com.eazybytes.cards.stats;
+
+import com.eazybytes.cards.dto.CardTypeStatsDto;
+import com.eazybytes.cards.dto.CardTypeStatsDto.Bucket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Author: ldeepak
+ *
+ * Running totals and histograms of the cards of one card type. Lock-free: LongAdder for the totals,
+ * which spreads concurrent increments over several cells, and AtomicLongArray for the bucket counts.
+ * A card is added with sign 1 and removed with sign -1, an update is a removal of the before state and an addition of the after state.
+ */
+class CardTypeStatistics {
+
+	// Utilization (amountUsed / totalLimit) buckets of 10%, the last one also holds the cards over their limit
+	static final int UTILIZATION_BUCKETS = 10;
+
+	// Upper bounds (exclusive) of the availableAmount buckets, the last bucket is unbounded
+	static final int[] AVAILABLE_AMOUNT_BOUNDS = {1, 1_000, 5_000, 10_000, 25_000, 50_000, 1_00_000};
+
+	private final LongAdder cards = new LongAdder();
+	private final LongAdder totalLimit = new LongAdder();
+	private final LongAdder amountUsed = new LongAdder();
+	private final LongAdder availableAmount = new LongAdder();
+	private final AtomicLongArray utilizationBuckets = new AtomicLongArray(UTILIZATION_BUCKETS);
+	private final AtomicLongArray availableAmountBuckets = new AtomicLongArray(AVAILABLE_AMOUNT_BOUNDS.length + 1);
+
+	void add(int cardTotalLimit, int cardAmountUsed, int cardAvailableAmount, int sign) {
+		cards.add(sign);
+		totalLimit.add((long) sign * cardTotalLimit);
+		amountUsed.add((long) sign * cardAmountUsed);
+		availableAmount.add((long) sign * cardAvailableAmount);
+		utilizationBuckets.addAndGet(utilizationBucket(cardTotalLimit, cardAmountUsed), sign);
+		availableAmountBuckets.addAndGet(availableAmountBucket(cardAvailableAmount), sign);
+	}
+
+	static int utilizationBucket(int cardTotalLimit, int cardAmountUsed) {
+		if (cardTotalLimit <= 0 || cardAmountUsed <= 0) {
+			return 0;
+		}
+		return (int) Math.min(UTILIZATION_BUCKETS - 1, (long) cardAmountUsed * UTILIZATION_BUCKETS / cardTotalLimit);
+	}
+
+	static int availableAmountBucket(int cardAvailableAmount) {
+		for (int bucket = 0; bucket < AVAILABLE_AMOUNT_BOUNDS.length; bucket++) {
+			if (cardAvailableAmount < AVAILABLE_AMOUNT_BOUNDS[bucket]) {
+				return bucket;
+			}
+		}
+		return AVAILABLE_AMOUNT_BOUNDS.length;
+	}
+
+	boolean isEmpty() {
+		return cards.sum() == 0;
+	}
+
+	/**
+	 * Reads the counters one by one, under concurrent updates the figures may be one write apart from each other.
+	 */
+	CardTypeStatsDto toDto() {
+		long limits = totalLimit.sum();
+		long used = amountUsed.sum();
+		List<Bucket> utilization = new ArrayList<>(UTILIZATION_BUCKETS);
+		for (int bucket = 0; bucket < UTILIZATION_BUCKETS; bucket++) {
+			String range = bucket == UTILIZATION_BUCKETS - 1 ? "90%+" : bucket * 10 + "-" + (bucket + 1) * 10 + "%";
+			utilization.add(new Bucket(range, utilizationBuckets.get(bucket)));
+		}
+		List<Bucket> available = new ArrayList<>(AVAILABLE_AMOUNT_BOUNDS.length + 1);
+		for (int bucket = 0; bucket <= AVAILABLE_AMOUNT_BOUNDS.length; bucket++) {
+			String range = bucket == 0 ? "<" + AVAILABLE_AMOUNT_BOUNDS[0]
+					: bucket == AVAILABLE_AMOUNT_BOUNDS.length ? AVAILABLE_AMOUNT_BOUNDS[bucket - 1] + "+"
+					: AVAILABLE_AMOUNT_BOUNDS[bucket - 1] + "-" + AVAILABLE_AMOUNT_BOUNDS[bucket];
+			available.add(new Bucket(range, availableAmountBuckets.get(bucket)));
+		}
+		return new CardTypeStatsDto(cards.sum(), limits, used, availableAmount.sum(), limits == 0 ? 0 : (double) used / limits,
+				utilization, available);
+	}
+}
@@ -6,9 +6,89 @@ CREATE TABLE IF NOT EXISTS `cards` (
   `total_limit` int NOT NULL,
   `amount_used` int NOT NULL,
   `available_amount` int NOT NULL,
+  `version` int NOT NULL DEFAULT 0,
   `created_at` date NOT NULL,
   `created_by` varchar(20) NOT NULL,
   `updated_at` date DEFAULT NULL,
   `updated_by` varchar(20) DEFAULT NULL,
   PRIMARY KEY (`card_id`)
-);
\ No newline at end of file
+);
+
+-- A customer holds any number of cards, all of them are read with one range scan of this index, oldest first
+CREATE INDEX IF NOT EXISTS `idx_cards_mobile_number` ON `cards` (`mobile_number`, `card_id`);
+
+CREATE TABLE IF NOT EXISTS `idempotency_record` (
+  `idempotency_key` varchar(300) NOT NULL,
+  `request_hash` char(64) NOT NULL,
+  `http_status` int NOT NULL,
+  `status_code` varchar(10) NOT NULL,
+  `status_msg` varchar(200) NOT NULL,
+  `created_at` timestamp NOT NULL,
+  PRIMARY KEY (`idempotency_key`)
+);
+
+CREATE TABLE IF NOT EXISTS `audit_trail` (
+  `audit_id` bigint AUTO_INCREMENT PRIMARY KEY,
+  `entity_type` varchar(50) NOT NULL,
+  `entity_id` varchar(50) NOT NULL,
+  `action` varchar(10) NOT NULL,
+  `changed_by` varchar(20) DEFAULT NULL,
+  `changed_at` timestamp NOT NULL,
+  `before_state` clob DEFAULT NULL,
+  `after_state` clob DEFAULT NULL
+);
+
+-- Append-only log of the card transactions, numbered per card from 1 without gaps
+CREATE TABLE IF NOT EXISTS `card_transaction` (
+  `card_number` varchar(100) NOT NULL,
+  `sequence_number` bigint NOT NULL,
+  `transaction_type` varchar(20) NOT NULL,
+  `amount` int NOT NULL,
+  `created_at` timestamp NOT NULL,
+  `created_by` varchar(20) DEFAULT NULL,
+  PRIMARY KEY (`card_number`, `sequence_number`)
+);
+
+-- Balance of every card after its last transaction, updated with each transaction
+CREATE TABLE IF NOT EXISTS `card_balance` (
+  `card_number` varchar(100) NOT NULL,
+  `sequence_number` bigint NOT NULL,
+  `authorized_amount` int NOT NULL,
+  `amount_used` int NOT NULL,
+  `updated_at` timestamp NOT NULL,
+  PRIMARY KEY (`card_number`)
+);
+
+-- Balance of a card every ledger.snapshot-every transactions, the starting point of a rebuild of card_balance
+CREATE TABLE IF NOT EXISTS `card_balance_snapshot` (
+  `card_number` varchar(100) NOT NULL,
+  `sequence_number` bigint NOT NULL,
+  `authorized_amount` int NOT NULL,
+  `amount_used` int NOT NULL,
+  `created_at` timestamp NOT NULL,
+  PRIMARY KEY (`card_number`, `sequence_number`)
+);
+
+-- Statements of the billing runs, one per card and cycle (yyyy-MM)
+CREATE TABLE IF NOT EXISTS `card_statement` (
+  `card_number` varchar(100) NOT NULL,
+  `cycle` varchar(7) NOT NULL,
+  `closing_balance` int NOT NULL,
+  `purchases` int NOT NULL,
+  `refunds` int NOT NULL,
+  `payments` int NOT NULL,
+  `interest` int NOT NULL,
+  `minimum_due` int NOT NULL,
+  `created_at` timestamp NOT NULL,
+  PRIMARY KEY (`card_number`, `cycle`)
+);
+
+-- Chunks of cards a billing run has finished, committed with their statements, a restarted run skips them
+CREATE TABLE IF NOT EXISTS `statement_run_chunk` (
+  `cycle` varchar(7) NOT NULL,
+  `first_card_id` bigint NOT NULL,
+  `chunk_size` int NOT NULL,
+  `statement_count` int NOT NULL,
+  `completed_at` timestamp NOT NULL,
+  PRIMARY KEY (`cycle`, `first_card_id`)
+);
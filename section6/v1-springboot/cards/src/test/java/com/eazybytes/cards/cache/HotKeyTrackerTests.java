@@ -0,0 +1,47 @@
+package com.eazybytes.cards.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ */
+class HotKeyTrackerTests {
+
+	@Test
+	void snapshotKeepsTheHottestMobileNumbersAcrossARestart() throws Exception {
+		Path snapshotFile = Files.createTempDirectory("hot-keys").resolve("cards-hot-keys.txt");
+		HotKeyTracker beforeRestart = newTracker(snapshotFile);
+		access(beforeRestart, "1111111111", 1);
+		access(beforeRestart, "2222222222", 5);
+		access(beforeRestart, "3333333333", 3);
+
+		beforeRestart.snapshot();
+
+		assertEquals(List.of("2222222222", "3333333333"), Files.readAllLines(snapshotFile));
+		// Counters are halved after the snapshot, the mobile number fetched once is no longer tracked
+		assertEquals(List.of("2222222222", "3333333333"), beforeRestart.hottest(10));
+
+		HotKeyTracker afterRestart = newTracker(snapshotFile);
+		assertEquals(List.of("2222222222", "3333333333"), afterRestart.restore());
+		access(afterRestart, "3333333333", 2);
+		assertEquals(List.of("3333333333", "2222222222"), afterRestart.hottest(10));
+	}
+
+	private static void access(HotKeyTracker hotKeyTracker, String mobileNumber, int times) {
+		for (int i = 0; i < times; i++) {
+			hotKeyTracker.recordAccess(mobileNumber);
+		}
+	}
+
+	private static HotKeyTracker newTracker(Path snapshotFile) {
+		return new HotKeyTracker(new SimpleMeterRegistry(), 100, 2, snapshotFile, Duration.ofMinutes(1));
+	}
+}
@@ -0,0 +1,113 @@
+package com.eazybytes.cards.controller;
+
+import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.service.ICardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Author: ldeepak
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CardsControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ICardsService cardsService;
+
+	@Test
+	void fetchAnswersNotModifiedUntilTheCardsChange() throws Exception {
+		cardsService.createCard("7000000271");
+		CardsDto card = cardsService.fetchCards("7000000271").getCards().get(0);
+
+		String eTag = mockMvc.perform(get("/api/fetch").param("mobileNumber", "7000000271"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andExpect(jsonPath("$.cards", hasSize(1)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/fetch").param("mobileNumber", "7000000271").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, eTag))
+				.andExpect(content().string(""));
+		// Another page of the same cards is another representation
+		mockMvc.perform(get("/api/fetch").param("mobileNumber", "7000000271").param("size", "10")
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+
+		mockMvc.perform(put("/api/update").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"mobileNumber\":\"7000000271\",\"cardNumber\":\"" + card.getCardNumber()
+								+ "\",\"cardType\":\"" + card.getCardType() + "\",\"totalLimit\":" + card.getTotalLimit()
+								+ ",\"amountUsed\":500,\"availableAmount\":" + (card.getTotalLimit() - 500) + "}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/fetch").param("mobileNumber", "7000000271").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+				.andExpect(jsonPath("$.amountUsed").value(500));
+	}
+
+	@Test
+	void batchFetchReportsNotFoundInline() throws Exception {
+		cardsService.createCard("7000000291");
+		cardsService.createCard("7000000291");
+		cardsService.createCard("7000000292");
+
+		mockMvc.perform(post("/api/fetch/batch").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"mobileNumbers\":[\"7000000291\",\"7000000299\",\"7000000291\",\"7000000292\"]}"))
+				.andExpect(status().isOk())
+				// One entry per distinct mobile number, in the order of the request
+				.andExpect(jsonPath("$.*", hasSize(3)))
+				.andExpect(jsonPath("$['7000000291'].statusCode").value(CardsConstants.STATUS_200))
+				.andExpect(jsonPath("$['7000000291'].details.cards", hasSize(2)))
+				.andExpect(jsonPath("$['7000000299'].statusCode").value(CardsConstants.STATUS_404))
+				.andExpect(jsonPath("$['7000000299'].statusMsg").value(CardsConstants.MESSAGE_404))
+				.andExpect(jsonPath("$['7000000299'].details").doesNotExist())
+				.andExpect(jsonPath("$['7000000292'].statusCode").value(CardsConstants.STATUS_200))
+				.andExpect(jsonPath("$['7000000292'].details.cards", hasSize(1)));
+	}
+
+	@Test
+	void batchFetchFindsCardsInEveryChunk() throws Exception {
+		List<String> mobileNumbers = new ArrayList<>();
+		for (int i = 0; i < CardsConstants.BATCH_FETCH_MAX_SIZE; i++) {
+			mobileNumbers.add("\"" + (7100000000L + i) + "\"");
+		}
+		// One card in the first chunk, one in the last
+		String first = "7100000000";
+		String last = String.valueOf(7100000000L + CardsConstants.BATCH_FETCH_MAX_SIZE - 1);
+		cardsService.createCard(first);
+		cardsService.createCard(last);
+
+		mockMvc.perform(post("/api/fetch/batch").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"mobileNumbers\":" + mobileNumbers + "}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.*", hasSize(CardsConstants.BATCH_FETCH_MAX_SIZE)))
+				.andExpect(jsonPath("$['" + first + "'].statusCode").value(CardsConstants.STATUS_200))
+				.andExpect(jsonPath("$['7100000001'].statusCode").value(CardsConstants.STATUS_404))
+				.andExpect(jsonPath("$['" + last + "'].statusCode").value(CardsConstants.STATUS_200));
+	}
+}
@@ -0,0 +1,80 @@
+package com.eazybytes.cards.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * JMH benchmark of CardsDto serialization in JSON, CBOR and Smile. The payload size of each encoding is reported
+ * as the payloadBytes secondary result.
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.cards.dto.CardsDtoSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardsDtoSerializationBenchmark {
+
+	@Param({"json", "cbor", "smile"})
+	private String format;
+
+	private ObjectMapper mapper;
+	private CardsDto cardsDto;
+	private byte[] payload;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		mapper = switch (format) {
+			case "cbor" -> new CBORMapper();
+			case "smile" -> new SmileMapper();
+			default -> new ObjectMapper();
+		};
+		cardsDto = CardsDtoSerializationTests.sampleCard();
+		payload = mapper.writeValueAsBytes(cardsDto);
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PayloadSize {
+		public long payloadBytes;
+	}
+
+	@Benchmark
+	public byte[] serialize(PayloadSize payloadSize) throws Exception {
+		byte[] bytes = mapper.writeValueAsBytes(cardsDto);
+		payloadSize.payloadBytes = bytes.length;
+		return bytes;
+	}
+
+	@Benchmark
+	public CardsDto deserialize() throws Exception {
+		return mapper.readValue(payload, CardsDto.class);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CardsDtoSerializationBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,48 @@
+package com.eazybytes.cards.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ *
+ * CardsDto round trips through JSON, CBOR and Smile, the encodings offered by the controllers through content negotiation.
+ * Sizes and speeds are compared by CardsDtoSerializationBenchmark.
+ */
+class CardsDtoSerializationTests {
+
+	@Test
+	void jsonRoundTrip() throws Exception {
+		assertRoundTrip(new ObjectMapper());
+	}
+
+	@Test
+	void cborRoundTrip() throws Exception {
+		assertRoundTrip(new CBORMapper());
+	}
+
+	@Test
+	void smileRoundTrip() throws Exception {
+		assertRoundTrip(new SmileMapper());
+	}
+
+	private static void assertRoundTrip(ObjectMapper mapper) throws Exception {
+		CardsDto cardsDto = sampleCard();
+		assertEquals(cardsDto, mapper.readValue(mapper.writeValueAsBytes(cardsDto), CardsDto.class));
+	}
+
+	static CardsDto sampleCard() {
+		CardsDto cardsDto = new CardsDto();
+		cardsDto.setMobileNumber("4354437687");
+		cardsDto.setCardNumber("100646930341");
+		cardsDto.setCardType("Credit Card");
+		cardsDto.setTotalLimit(100000);
+		cardsDto.setAmountUsed(1000);
+		cardsDto.setAvailableAmount(99000);
+		return cardsDto;
+	}
+}
@@ -0,0 +1,65 @@
+package com.eazybytes.cards.idempotency;
+
+import com.eazybytes.cards.dto.ResponseDto;
+import com.eazybytes.cards.exceptions.IdempotencyKeyMismatchException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Author: ldeepak
+ */
+class IdempotencyStoreTests {
+
+	private final IdempotencyStore idempotencyStore = new IdempotencyStore(null, null, new ObjectMapper(), 100, Duration.ofHours(1), false);
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@Test
+	void sameRequestIsReplayed() {
+		execute("key-1", "api-key-a", "4354437687");
+		ResponseEntity<ResponseDto> replayed = execute("key-1", "api-key-a", "4354437687");
+
+		assertEquals(1, executions.get());
+		assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+		assertEquals("true", replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+	}
+
+	@Test
+	void keyReusedWithAnotherRequestIsRejected() {
+		execute("key-1", "api-key-a", "4354437687");
+
+		assertThrows(IdempotencyKeyMismatchException.class, () -> execute("key-1", "api-key-a", "9999999999"));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void sameKeyOfAnotherCallerIsIndependent() {
+		ResponseEntity<ResponseDto> first = execute("key-1", "api-key-a", "4354437687");
+		ResponseEntity<ResponseDto> otherCaller = execute("key-1", "api-key-b", "9999999999");
+		ResponseEntity<ResponseDto> withoutApiKey = execute("key-1", null, "4354437687");
+
+		assertEquals(3, executions.get());
+		assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+		assertNull(otherCaller.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+		assertNull(withoutApiKey.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+		// Each caller still gets its own response replayed
+		assertEquals("true", execute("key-1", "api-key-b", "9999999999").getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+		assertThrows(IdempotencyKeyMismatchException.class, () -> execute("key-1", "api-key-b", "4354437687"));
+		assertEquals(3, executions.get());
+	}
+
+	private ResponseEntity<ResponseDto> execute(String idempotencyKey, String apiKey, String mobileNumber) {
+		return idempotencyStore.execute("create", idempotencyKey, apiKey, mobileNumber, () -> {
+			executions.incrementAndGet();
+			return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseDto("201", "Card created successfully"));
+		});
+	}
+}
@@ -0,0 +1,36 @@
+package com.eazybytes.cards.ledger;
+
+import com.eazybytes.cards.exceptions.TransactionRejectedException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Author: ldeepak
+ */
+class CardBalanceTests {
+
+	@Test
+	void transactionsMoveTheAmountsAndTheSequenceNumber() {
+		CardBalance balance = CardBalance.opening(1000)
+				.apply(CardTransactionType.AUTHORIZATION, 500, 10000)
+				.apply(CardTransactionType.CAPTURE, 300, 10000)
+				.apply(CardTransactionType.REFUND, 100, 10000)
+				.apply(CardTransactionType.PAYMENT, 200, 10000);
+
+		assertEquals(new CardBalance(4, 200, 1000), balance);
+		assertEquals(8800, balance.availableAmount(10000));
+	}
+
+	@Test
+	void transactionsTheBalanceDoesNotAllowAreRejected() {
+		CardBalance balance = new CardBalance(7, 500, 1000);
+
+		assertThrows(TransactionRejectedException.class, () -> balance.apply(CardTransactionType.AUTHORIZATION, 8501, 10000));
+		assertThrows(TransactionRejectedException.class, () -> balance.apply(CardTransactionType.CAPTURE, 501, 10000));
+		assertThrows(TransactionRejectedException.class, () -> balance.apply(CardTransactionType.PAYMENT, 1001, 10000));
+		// Replaying a recorded transaction does not check it again, the limit may have been lowered since
+		assertEquals(new CardBalance(8, 9001, 1000), balance.replay(CardTransactionType.AUTHORIZATION, 8501));
+	}
+}
@@ -0,0 +1,81 @@
+package com.eazybytes.cards.mapper;
+
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CardsPageDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.entity.Cards;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class CardsMapperTests {
+
+	private static final String MOBILE_NUMBER = "4354437687";
+
+	@Test
+	void pagesCarryTheTotalsOfAllTheCards() {
+		CustomerCardsDto customerCards = CardsMapper.mapToCustomerCardsDto(MOBILE_NUMBER, cards(5));
+
+		CardsPageDto secondPage = CardsMapper.mapToCardsPageDto(customerCards, 1, 2);
+		CardsPageDto lastPage = CardsMapper.mapToCardsPageDto(customerCards, 2, 2);
+		CardsPageDto afterLastPage = CardsMapper.mapToCardsPageDto(customerCards, 3, 2);
+
+		assertEquals(List.of("100000000002", "100000000003"),
+				secondPage.getCards().stream().map(CardsDto::getCardNumber).toList());
+		assertEquals(1, lastPage.getCards().size());
+		assertTrue(afterLastPage.getCards().isEmpty());
+		assertEquals(3, secondPage.getTotalPages());
+		assertEquals(5, secondPage.getCardCount());
+		assertEquals(500000, secondPage.getTotalLimit());
+		assertEquals(1000, secondPage.getAmountUsed());
+		assertEquals(499000, secondPage.getAvailableAmount());
+	}
+
+	@Test
+	void versionChangesWithAnyCard() {
+		List<Cards> cards = cards(3);
+		String before = CardsMapper.mapToCardsPageDto(CardsMapper.mapToCustomerCardsDto(MOBILE_NUMBER, cards), 0, 1).getVersion();
+
+		// A change of a card outside of the page still changes the totals of the page
+		cards.get(2).setVersion(1L);
+		String after = CardsMapper.mapToCardsPageDto(CardsMapper.mapToCustomerCardsDto(MOBILE_NUMBER, cards), 0, 1).getVersion();
+
+		assertNotEquals(before, after);
+	}
+
+	@Test
+	void versionDiffersBetweenPages() {
+		CustomerCardsDto customerCards = CardsMapper.mapToCustomerCardsDto(MOBILE_NUMBER, cards(5));
+
+		String firstPage = CardsMapper.mapToCardsPageDto(customerCards, 0, 2).getVersion();
+
+		assertNotEquals(firstPage, CardsMapper.mapToCardsPageDto(customerCards, 1, 2).getVersion());
+		assertNotEquals(firstPage, CardsMapper.mapToCardsPageDto(customerCards, 0, 3).getVersion());
+		assertEquals(firstPage, CardsMapper.mapToCardsPageDto(customerCards, 0, 2).getVersion());
+	}
+
+	private static List<Cards> cards(int count) {
+		List<Cards> cards = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Cards card = new Cards();
+			card.setCardId((long) i);
+			card.setMobileNumber(MOBILE_NUMBER);
+			card.setCardNumber(Long.toString(100000000000L + i));
+			card.setCardType("Credit Card");
+			card.setTotalLimit(100000);
+			card.setAmountUsed(i * 100);
+			card.setAvailableAmount(100000 - i * 100);
+			card.setVersion(0L);
+			cards.add(card);
+		}
+		return cards;
+	}
+}
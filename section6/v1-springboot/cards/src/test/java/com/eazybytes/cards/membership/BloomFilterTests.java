@@ -0,0 +1,52 @@
+package com.eazybytes.cards.membership;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class BloomFilterTests {
+
+	private static final int ENTRIES = 100_000;
+
+	@Test
+	void neverForgetsAnEntryAndKeepsTheFalsePositiveRate() {
+		BloomFilter filter = BloomFilter.create(ENTRIES, 0.01, 16 * 1024 * 1024);
+		for (int i = 0; i < ENTRIES; i++) {
+			filter.put(mobileNumber(i));
+		}
+		for (int i = 0; i < ENTRIES; i++) {
+			assertTrue(filter.mightContain(mobileNumber(i)));
+		}
+
+		assertTrue(measuredFalsePositiveRate(filter) < 0.015);
+	}
+
+	@Test
+	void memoryBudgetWinsOverTheFalsePositiveRate() {
+		BloomFilter filter = BloomFilter.create(ENTRIES, 0.0001, 64 * 1024);
+		assertEquals(64 * 1024 * 8, filter.getBitCount());
+		for (int i = 0; i < ENTRIES; i++) {
+			filter.put(mobileNumber(i));
+		}
+		assertTrue(filter.expectedFalsePositiveRate() > 0.0001);
+		assertTrue(Math.abs(measuredFalsePositiveRate(filter) - filter.expectedFalsePositiveRate()) < 0.02);
+	}
+
+	private static double measuredFalsePositiveRate(BloomFilter filter) {
+		int falsePositives = 0;
+		for (int i = ENTRIES; i < 2 * ENTRIES; i++) {
+			if (filter.mightContain(mobileNumber(i))) {
+				falsePositives++;
+			}
+		}
+		return (double) falsePositives / ENTRIES;
+	}
+
+	private static String mobileNumber(int i) {
+		return Long.toString(4_000_000_000L + i * 7L);
+	}
+}
@@ -0,0 +1,71 @@
+package com.eazybytes.cards.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class ContinuousRecordingTests {
+
+	private final ContinuousRecording continuousRecording =
+			new ContinuousRecording(Duration.ofMinutes(30), 100, Duration.ZERO);
+
+	@BeforeEach
+	void start() throws Exception {
+		continuousRecording.start();
+	}
+
+	@AfterEach
+	void stop() {
+		continuousRecording.stop();
+	}
+
+	@Test
+	void dumpHoldsTheServiceOperationsOfTheWindow() throws Exception {
+		ServiceOperationEvent event = new ServiceOperationEvent();
+		event.begin();
+		event.operation = "fetchCards";
+		event.statementCount = 1;
+		event.commit();
+
+		List<RecordedEvent> events = events(continuousRecording.dump(Duration.ofMinutes(1)).orElseThrow());
+
+		List<RecordedEvent> operations = events.stream()
+				.filter(recorded -> recorded.getEventType().getName().equals("com.eazybytes.cards.ServiceOperation")).toList();
+		assertEquals(1, operations.size());
+		assertEquals("fetchCards", operations.get(0).getString("operation"));
+		assertEquals(1, operations.get(0).getLong("statementCount"));
+	}
+
+	@Test
+	void dumpHoldsNoEnvironmentNorSystemProperties() throws Exception {
+		List<RecordedEvent> events = events(continuousRecording.dump(Duration.ofMinutes(1)).orElseThrow());
+
+		Set<String> sensitive = Set.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation",
+				"jdk.SystemProcess");
+		assertTrue(events.stream().noneMatch(recorded -> sensitive.contains(recorded.getEventType().getName())));
+		// The other events recorded at the start of a chunk by the default settings are still there
+		assertTrue(events.stream().anyMatch(recorded -> recorded.getEventType().getName().equals("jdk.OSInformation")));
+	}
+
+	private static List<RecordedEvent> events(Path file) throws Exception {
+		try {
+			return RecordingFile.readAllEvents(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.eazybytes.cards.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Author: ldeepak
+ */
+class JfrEndpointTests {
+
+	private final ContinuousRecording continuousRecording = mock(ContinuousRecording.class);
+	private final JfrEndpoint jfrEndpoint = new JfrEndpoint(continuousRecording);
+
+	@Test
+	void recordingIsSentAndThenDeleted() throws IOException {
+		Path file = Files.createTempFile("cards-", ".jfr");
+		Files.write(file, new byte[] {1, 2, 3});
+		when(continuousRecording.dump(Duration.ofMinutes(10))).thenReturn(Optional.of(file));
+
+		WebEndpointResponse<Resource> response = jfrEndpoint.recording(Duration.ofMinutes(10));
+
+		assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+		assertEquals("cards.jfr", response.getBody().getFilename());
+		try (InputStream stream = response.getBody().getInputStream()) {
+			assertArrayEquals(new byte[] {1, 2, 3}, stream.readAllBytes());
+		}
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	void windowDefaultsToFiveMinutes() throws IOException {
+		when(continuousRecording.dump(Duration.ofMinutes(5))).thenReturn(Optional.empty());
+
+		WebEndpointResponse<Resource> response = jfrEndpoint.recording(null);
+
+		verify(continuousRecording).dump(Duration.ofMinutes(5));
+		assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, response.getStatus());
+		assertNull(response.getBody());
+	}
+}
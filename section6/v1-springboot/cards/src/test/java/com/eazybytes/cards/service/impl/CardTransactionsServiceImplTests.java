@@ -0,0 +1,63 @@
+package com.eazybytes.cards.service.impl;
+
+import com.eazybytes.cards.dto.CardTransactionRequestDto;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.ledger.CardTransactionType;
+import com.eazybytes.cards.service.ICardTransactionsService;
+import com.eazybytes.cards.service.ICardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ *
+ * Checks that the cards row, which the fetch API reads, follows the balance of the recorded transactions.
+ */
+@SpringBootTest
+class CardTransactionsServiceImplTests {
+
+	private static final String MOBILE_NUMBER = "7000000451";
+
+	@Autowired
+	private ICardsService cardsService;
+
+	@Autowired
+	private ICardTransactionsService cardTransactionsService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void cardsRowFollowsTheTransactions() {
+		cardsService.createCard(MOBILE_NUMBER);
+		// Cached before the transactions, the cached entry must not be served after them
+		CardsDto card = cardsService.fetchCards(MOBILE_NUMBER).getCards().get(0);
+		int version = version(card.getCardNumber());
+
+		cardTransactionsService.recordTransaction(request(card.getCardNumber(), CardTransactionType.AUTHORIZATION, 1000));
+		cardTransactionsService.recordTransaction(request(card.getCardNumber(), CardTransactionType.CAPTURE, 600));
+
+		CustomerCardsDto fetched = cardsService.fetchCards(MOBILE_NUMBER);
+		assertEquals(card.getAmountUsed() + 600, fetched.getCards().get(0).getAmountUsed());
+		assertEquals(card.getAvailableAmount() - 1000, fetched.getCards().get(0).getAvailableAmount());
+		assertEquals(card.getAmountUsed() + 600, fetched.getAmountUsed());
+		assertEquals(version + 2, version(card.getCardNumber()));
+	}
+
+	private int version(String cardNumber) {
+		return jdbcTemplate.queryForObject("SELECT version FROM cards WHERE card_number = ?", Integer.class, cardNumber);
+	}
+
+	private static CardTransactionRequestDto request(String cardNumber, CardTransactionType type, int amount) {
+		CardTransactionRequestDto request = new CardTransactionRequestDto();
+		request.setCardNumber(cardNumber);
+		request.setTransactionType(type);
+		request.setAmount(amount);
+		return request;
+	}
+}
@@ -0,0 +1,164 @@
+package com.eazybytes.cards.service.impl;
+
+import com.eazybytes.cards.audit.AuditTrail;
+import com.eazybytes.cards.cache.CacheProperties;
+import com.eazybytes.cards.cache.LocalSharedCache;
+import com.eazybytes.cards.cache.TwoTierCache;
+import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CustomerCardsDto;
+import com.eazybytes.cards.entity.Cards;
+import com.eazybytes.cards.membership.MembershipFilter;
+import com.eazybytes.cards.replica.ReadYourWrites;
+import com.eazybytes.cards.repository.CardsRepository;
+import com.eazybytes.cards.service.support.RequestCoalescer;
+import com.eazybytes.cards.stats.CardStatistics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Author: ldeepak
+ */
+class CardsServiceImplTests {
+
+	private static final String MOBILE_NUMBER = "4354437687";
+	private static final int CONCURRENT_REQUESTS = 1000;
+
+	@Test
+	void concurrentIdenticalFetchesRunExactlyOneQuery() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		CardsRepository cardsRepository = mock(CardsRepository.class);
+		CountDownLatch releaseQuery = new CountDownLatch(1);
+		when(cardsRepository.findByMobileNumberOrderByCardIdAsc(MOBILE_NUMBER)).thenAnswer(invocation -> {
+			releaseQuery.await();
+			return List.of(card());
+		});
+		MembershipFilter membershipFilter = mock(MembershipFilter.class);
+		when(membershipFilter.mightExist(MOBILE_NUMBER)).thenReturn(true);
+		CardsServiceImpl cardsService = new CardsServiceImpl(cardsRepository,
+				new RequestCoalescer<>("cards.fetch", meterRegistry), mock(AuditTrail.class), membershipFilter, mock(ReadYourWrites.class),
+				new TwoTierCache<>("cards", CustomerCardsDto.class, cacheProperties(), new LocalSharedCache(), new ObjectMapper(), meterRegistry),
+				mock(CardStatistics.class));
+
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+		try {
+			List<Future<CustomerCardsDto>> results = new ArrayList<>();
+			for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+				results.add(executor.submit(() -> cardsService.fetchCards(MOBILE_NUMBER)));
+			}
+
+			// Keep the first query blocked until every other request has joined it
+			Counter followers = meterRegistry.get("cards.fetch.coalescing.followers").counter();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			while (followers.count() < CONCURRENT_REQUESTS - 1 && System.nanoTime() < deadline) {
+				Thread.sleep(1);
+			}
+			releaseQuery.countDown();
+
+			CustomerCardsDto first = results.get(0).get(30, TimeUnit.SECONDS);
+			for (Future<CustomerCardsDto> result : results) {
+				assertSame(first, result.get(30, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(cardsRepository, times(1)).findByMobileNumberOrderByCardIdAsc(MOBILE_NUMBER);
+		assertEquals(1, meterRegistry.get("cards.fetch.coalescing.leaders").counter().count());
+		assertEquals(CONCURRENT_REQUESTS - 1, meterRegistry.get("cards.fetch.coalescing.followers").counter().count());
+	}
+
+	@Test
+	void batchFetchQueriesDistinctMobileNumbersOneChunkAtATime() {
+		CardsRepository cardsRepository = mock(CardsRepository.class);
+		when(cardsRepository.findByMobileNumberInOrderByCardIdAsc(anyList())).thenReturn(List.of());
+		List<String> distinctMobileNumbers = new ArrayList<>();
+		for (int i = 0; i < 2 * CardsConstants.BATCH_FETCH_CHUNK_SIZE + 200; i++) {
+			distinctMobileNumbers.add(String.valueOf(7000000000L + i));
+		}
+		List<String> mobileNumbers = new ArrayList<>(distinctMobileNumbers);
+		// Every mobile number of the first chunk once more, and the last one twice more
+		mobileNumbers.addAll(distinctMobileNumbers.subList(0, CardsConstants.BATCH_FETCH_CHUNK_SIZE));
+		mobileNumbers.add(distinctMobileNumbers.get(distinctMobileNumbers.size() - 1));
+		mobileNumbers.add(distinctMobileNumbers.get(distinctMobileNumbers.size() - 1));
+
+		batchFetchService(cardsRepository).fetchCards(mobileNumbers);
+
+		ArgumentCaptor<List<String>> chunks = ArgumentCaptor.forClass(List.class);
+		verify(cardsRepository, times(3)).findByMobileNumberInOrderByCardIdAsc(chunks.capture());
+		assertEquals(List.of(CardsConstants.BATCH_FETCH_CHUNK_SIZE, CardsConstants.BATCH_FETCH_CHUNK_SIZE, 200),
+				chunks.getAllValues().stream().map(List::size).toList());
+		// Each mobile number is queried once, in the order of the request
+		assertEquals(distinctMobileNumbers, chunks.getAllValues().stream().flatMap(List::stream).toList());
+	}
+
+	@Test
+	void batchFetchReturnsTheHitsOnly() {
+		CardsRepository cardsRepository = mock(CardsRepository.class);
+		Cards otherCard = card();
+		otherCard.setCardId(2L);
+		otherCard.setCardNumber("100646930342");
+		when(cardsRepository.findByMobileNumberInOrderByCardIdAsc(anyList())).thenReturn(List.of(card(), otherCard));
+
+		Map<String, CustomerCardsDto> found = batchFetchService(cardsRepository)
+				.fetchCards(List.of(MOBILE_NUMBER, "9999999999", MOBILE_NUMBER));
+
+		assertEquals(Set.of(MOBILE_NUMBER), found.keySet());
+		assertEquals(2, found.get(MOBILE_NUMBER).getCards().size());
+		assertEquals(200000, found.get(MOBILE_NUMBER).getTotalLimit());
+	}
+
+	private static CardsServiceImpl batchFetchService(CardsRepository cardsRepository) {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MembershipFilter membershipFilter = mock(MembershipFilter.class);
+		when(membershipFilter.mightExist(anyString())).thenReturn(true);
+		ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+		when(readYourWrites.read(anyCollection(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+		return new CardsServiceImpl(cardsRepository,
+				new RequestCoalescer<>("cards.fetch", meterRegistry), mock(AuditTrail.class), membershipFilter, readYourWrites,
+				new TwoTierCache<>("cards", CustomerCardsDto.class, cacheProperties(), new LocalSharedCache(), new ObjectMapper(), meterRegistry),
+				mock(CardStatistics.class));
+	}
+
+	private static CacheProperties cacheProperties() {
+		return new CacheProperties(true, new CacheProperties.Near(10000, Duration.ofSeconds(30)),
+				new CacheProperties.Shared("local", Duration.ofMinutes(10)));
+	}
+
+	private static Cards card() {
+		Cards cards = new Cards();
+		cards.setCardId(1L);
+		cards.setMobileNumber(MOBILE_NUMBER);
+		cards.setCardNumber("100646930341");
+		cards.setCardType("Credit Card");
+		cards.setTotalLimit(100000);
+		cards.setAmountUsed(1000);
+		cards.setAvailableAmount(99000);
+		return cards;
+	}
+}
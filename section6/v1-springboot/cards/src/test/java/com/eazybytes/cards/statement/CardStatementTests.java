@@ -0,0 +1,31 @@
+package com.eazybytes.cards.statement;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ */
+class CardStatementTests {
+
+	private static final StatementTerms TERMS = new StatementTerms(0.36, 0.05, 200);
+
+	@Test
+	void interestAndMinimumDueFollowTheClosingBalance() {
+		CardStatement statement = CardStatement.of("100646930341", YearMonth.of(2026, 9), 10000, 12000, 500, 1500, TERMS);
+
+		assertEquals(300, statement.interest());
+		assertEquals(800, statement.minimumDue());
+		assertEquals("100646930341,2026-09,10000,12000,500,1500,300,800\n", statement.toCsvLine());
+	}
+
+	@Test
+	void minimumDueIsNeverAboveTheBalance() {
+		assertEquals(200, CardStatement.of("100646930341", YearMonth.of(2026, 9), 1000, 0, 0, 0, TERMS).minimumDue());
+		assertEquals(103, CardStatement.of("100646930341", YearMonth.of(2026, 9), 100, 0, 0, 0, TERMS).minimumDue());
+		assertEquals(0, CardStatement.of("100646930341", YearMonth.of(2026, 9), 0, 0, 0, 0, TERMS).minimumDue());
+	}
+}
@@ -0,0 +1,95 @@
+package com.eazybytes.cards.statement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ *
+ * Sized billing run against the target of 1M cards in 5 minutes: CARDS cards in an in-memory H2 with the schema
+ * of the application, every TRANSACTION_EVERY-th card with a capture and a payment in the cycle and a capture after it.
+ * Prints the seeding time, the run time and the status.
+ * Not a test (surefire only runs the *Tests classes), run it with (arguments: cards, chunk-size, threads):
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.cards.statement.StatementRunLoadScenario -Dexec.args="1000000 5000 0"
+ */
+public class StatementRunLoadScenario {
+
+	private static final YearMonth CYCLE = YearMonth.of(2026, 9);
+	private static final int TRANSACTION_EVERY = 10;
+	private static final int SEED_BATCH = 10_000;
+
+	public static void main(String[] args) throws Exception {
+		int cards = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("schema.sql").build();
+		Path outputDirectory = Files.createTempDirectory("statements");
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+			long seedStart = System.nanoTime();
+			seed(jdbcTemplate, cards);
+			System.out.printf("seeded %d cards in %d ms%n", cards, (System.nanoTime() - seedStart) / 1_000_000);
+
+			StatementRun statementRun = new StatementRun(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)),
+					new SimpleMeterRegistry(), 0.36, 0.05, 200, chunkSize, threads, outputDirectory.toString(), 65536);
+			statementRun.start();
+			long runStart = System.nanoTime();
+			statementRun.start(CYCLE);
+			while (statementRun.status().finishedAt() == null) {
+				Thread.sleep(100);
+			}
+			long runMillis = (System.nanoTime() - runStart) / 1_000_000;
+			statementRun.stop();
+			StatementRunStatus status = statementRun.status();
+			System.out.printf("chunk-size %d, %d threads: %s, %d chunks, %d statements in %d ms (%d statements/s)%n", chunkSize,
+					threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), status.state(), status.totalChunks(),
+					status.statements(), runMillis, status.statements() * 1000 / Math.max(runMillis, 1));
+		} finally {
+			database.shutdown();
+			try (var files = Files.walk(outputDirectory)) {
+				files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	private static void seed(JdbcTemplate jdbcTemplate, int cards) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		Timestamp inCycle = Timestamp.valueOf(CYCLE.atDay(10).atStartOfDay());
+		Timestamp afterCycle = Timestamp.valueOf(CYCLE.plusMonths(1).atDay(3).atStartOfDay());
+		for (int from = 1; from <= cards; from += SEED_BATCH) {
+			List<Object[]> cardRows = new ArrayList<>();
+			List<Object[]> transactionRows = new ArrayList<>();
+			List<Object[]> balanceRows = new ArrayList<>();
+			for (int cardId = from; cardId < from + SEED_BATCH && cardId <= cards; cardId++) {
+				String cardNumber = String.valueOf(100000000000L + cardId);
+				cardRows.add(new Object[] {cardId, String.valueOf(7000000000L + cardId), cardNumber, now});
+				if (cardId % TRANSACTION_EVERY == 0) {
+					transactionRows.add(new Object[] {cardNumber, 1, "CAPTURE", 3000, inCycle});
+					transactionRows.add(new Object[] {cardNumber, 2, "PAYMENT", 1000, inCycle});
+					transactionRows.add(new Object[] {cardNumber, 3, "CAPTURE", 500, afterCycle});
+					balanceRows.add(new Object[] {cardNumber, 3, 2500, now});
+				}
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO cards (card_id, mobile_number, card_number, card_type, total_limit, amount_used, "
+					+ "available_amount, created_at, created_by) VALUES (?, ?, ?, 'Credit Card', 100000, 0, 100000, ?, 'seed')", cardRows);
+			jdbcTemplate.batchUpdate("INSERT INTO card_transaction (card_number, sequence_number, transaction_type, amount, created_at) "
+					+ "VALUES (?, ?, ?, ?, ?)", transactionRows);
+			jdbcTemplate.batchUpdate("INSERT INTO card_balance (card_number, sequence_number, authorized_amount, amount_used, updated_at) "
+					+ "VALUES (?, ?, 0, ?, ?)", balanceRows);
+		}
+	}
+}
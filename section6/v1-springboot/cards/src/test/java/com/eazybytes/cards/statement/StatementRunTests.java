@@ -0,0 +1,181 @@
+package com.eazybytes.cards.statement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ *
+ * Billing runs over an in-memory H2 with the schema of the application, 25 cards with the ids 1 to 25.
+ */
+class StatementRunTests {
+
+	private static final YearMonth CYCLE = YearMonth.of(2026, 9);
+	private static final int CARDS = 25;
+
+	@TempDir
+	private Path outputDirectory;
+
+	private EmbeddedDatabase database;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createCards() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("schema.sql").build();
+		jdbcTemplate = new JdbcTemplate(database);
+		for (int cardId = 1; cardId <= CARDS; cardId++) {
+			jdbcTemplate.update("INSERT INTO cards (card_id, mobile_number, card_number, card_type, total_limit, amount_used, "
+							+ "available_amount, created_at, created_by) VALUES (?, ?, ?, 'Credit Card', 100000, ?, ?, ?, 'test')",
+					cardId, String.valueOf(7000000000L + cardId), String.valueOf(100000000000L + cardId), cardId * 100,
+					100000 - cardId * 100, Timestamp.valueOf(LocalDateTime.now()));
+		}
+	}
+
+	@AfterEach
+	void shutdown() {
+		database.shutdown();
+	}
+
+	@Test
+	void restartSkipsTheFinishedChunks() throws Exception {
+		// A run that stopped after the chunk of the cards 10 to 19: its row, statements and file are there
+		run(10);
+		jdbcTemplate.update("DELETE FROM statement_run_chunk WHERE first_card_id <> 10");
+		jdbcTemplate.update("DELETE FROM card_statement WHERE card_number NOT IN "
+				+ "(SELECT card_number FROM cards WHERE card_id >= 10 AND card_id < 20)");
+		Files.delete(part(0));
+		Files.delete(part(20));
+		Files.setLastModifiedTime(part(10), FileTime.fromMillis(0));
+		Timestamp finishedAt = jdbcTemplate.queryForObject("SELECT MAX(created_at) FROM card_statement", Timestamp.class);
+
+		StatementRunStatus status = run(10);
+
+		assertEquals("COMPLETED", status.state());
+		assertEquals(3, status.totalChunks());
+		assertEquals(1, status.skippedChunks());
+		assertEquals(2, status.completedChunks());
+		assertEquals(15, status.statements());
+		assertStatementsOfEveryCardOnce();
+		// The finished chunk is neither inserted nor rendered again
+		assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card_statement WHERE created_at <= ?",
+				Integer.class, finishedAt));
+		assertEquals(FileTime.fromMillis(0), Files.getLastModifiedTime(part(10)));
+		assertEquals(List.of(part(0), part(10), part(20)), parts());
+		assertEquals(9, lines(part(0)).size() - 1);
+		assertEquals(10, lines(part(10)).size() - 1);
+		assertEquals(6, lines(part(20)).size() - 1);
+	}
+
+	@Test
+	void chunksStayTheSameWhenTheLowestCardsAreDeleted() throws Exception {
+		run(10);
+		jdbcTemplate.update("DELETE FROM cards WHERE card_id <= 12");
+		jdbcTemplate.update("DELETE FROM statement_run_chunk WHERE first_card_id = 20");
+
+		StatementRunStatus status = run(10);
+
+		// The chunks still start at 10 and 20, not at the lowest card id left (13)
+		assertEquals("COMPLETED", status.state());
+		assertEquals(2, status.totalChunks());
+		assertEquals(1, status.skippedChunks());
+		assertEquals(1, status.completedChunks());
+		assertEquals(6, status.statements());
+		assertEquals(List.of(part(0), part(10), part(20)), parts());
+		assertEquals(CARDS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card_statement", Integer.class));
+	}
+
+	@Test
+	void anotherChunkSizeRedoesTheWholeCycle() throws Exception {
+		// A run with a chunk-size of 5 that stopped after its first chunk, the cards 1 to 4
+		run(5);
+		jdbcTemplate.update("DELETE FROM statement_run_chunk WHERE first_card_id <> 0");
+		jdbcTemplate.update("DELETE FROM card_statement WHERE card_number NOT IN (SELECT card_number FROM cards WHERE card_id < 5)");
+
+		// The chunk 0 of 10 cards is not the chunk 0 of 5 cards, skipping it would leave the cards 5 to 9 without statement
+		StatementRunStatus status = run(10);
+
+		assertEquals("COMPLETED", status.state());
+		assertEquals(0, status.skippedChunks());
+		assertEquals(3, status.completedChunks());
+		assertStatementsOfEveryCardOnce();
+
+		// Chunks of 7 cards start inside the chunks of 10, they replace the statements saved by the run above
+		status = run(7);
+
+		assertEquals("COMPLETED", status.state());
+		assertEquals(4, status.totalChunks());
+		assertEquals(0, status.skippedChunks());
+		assertEquals(CARDS, status.statements());
+		assertStatementsOfEveryCardOnce();
+	}
+
+	private StatementRunStatus run(int chunkSize) throws InterruptedException {
+		StatementRun statementRun = new StatementRun(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)),
+				new SimpleMeterRegistry(), 0.36, 0.05, 200, chunkSize, 2, outputDirectory.toString(), 4096);
+		statementRun.start();
+		try {
+			statementRun.start(CYCLE);
+			long deadline = System.nanoTime() + 30_000_000_000L;
+			while (statementRun.status().finishedAt() == null && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			return statementRun.status();
+		} finally {
+			statementRun.stop();
+		}
+	}
+
+	private void assertStatementsOfEveryCardOnce() {
+		assertEquals(CARDS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card_statement WHERE cycle = ?", Integer.class,
+				CYCLE.toString()));
+		assertEquals(CARDS, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT card_number) FROM card_statement", Integer.class));
+	}
+
+	private Path part(long firstCardId) {
+		return outputDirectory.resolve(CYCLE.toString()).resolve("part-" + firstCardId + ".csv.gz");
+	}
+
+	private List<Path> parts() throws IOException {
+		try (Stream<Path> files = Files.list(outputDirectory.resolve(CYCLE.toString()))) {
+			return files.sorted((a, b) -> Long.compare(firstCardId(a), firstCardId(b))).toList();
+		}
+	}
+
+	private static long firstCardId(Path part) {
+		String name = part.getFileName().toString();
+		return Long.parseLong(name.substring("part-".length(), name.indexOf('.')));
+	}
+
+	private static List<String> lines(Path part) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(part)),
+				StandardCharsets.UTF_8))) {
+			return reader.lines().toList();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.eazybytes.cards.stats;
+
+import com.eazybytes.cards.dto.CardTypeStatsDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ */
+class CardTypeStatisticsTests {
+
+	@Test
+	void updateMovesTheCardBetweenBuckets() {
+		CardTypeStatistics statistics = new CardTypeStatistics();
+		statistics.add(100000, 0, 100000, 1);
+		statistics.add(100000, 25000, 75000, 1);
+		// Update of the second card: removal of the before state, addition of the after state
+		statistics.add(100000, 25000, 75000, -1);
+		statistics.add(100000, 95000, 5000, 1);
+
+		CardTypeStatsDto stats = statistics.toDto();
+
+		assertEquals(2, stats.getCards());
+		assertEquals(200000, stats.getTotalLimit());
+		assertEquals(95000, stats.getAmountUsed());
+		assertEquals(0.475, stats.getUtilization(), 1e-9);
+		assertEquals(1, stats.getUtilizationBuckets().get(0).cards());
+		assertEquals(0, stats.getUtilizationBuckets().get(2).cards());
+		assertEquals(new CardTypeStatsDto.Bucket("90%+", 1), stats.getUtilizationBuckets().get(9));
+		assertEquals(new CardTypeStatsDto.Bucket("5000-10000", 1), stats.getAvailableAmountBuckets().get(3));
+		assertEquals(new CardTypeStatsDto.Bucket("100000+", 1), stats.getAvailableAmountBuckets().get(7));
+	}
+}
@@ -0,0 +1,55 @@
+package com.eazybytes.cards.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Author: ldeepak
+ *
+ * JMH benchmark of the @DigitString character loop against the former @Pattern(regexp = "(^$|[0-9]{10})"),
+ * matched the way Hibernate Validator matches @Pattern (a new Matcher per check).
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.cards.validation.DigitStringValidatorBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DigitStringValidatorBenchmark {
+
+	private static final Pattern MOBILE_NUMBER = Pattern.compile("(^$|[0-9]{10})");
+
+	// A valid mobile number, and one rejected on its last character
+	@Param({"4354437687", "435443768a"})
+	private String value;
+
+	@Benchmark
+	public boolean regex() {
+		return MOBILE_NUMBER.matcher(value).matches();
+	}
+
+	@Benchmark
+	public boolean loop() {
+		return DigitStringValidator.isDigits(value, 10, true);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(DigitStringValidatorBenchmark.class.getSimpleName()).build()).run();
+	}
+}
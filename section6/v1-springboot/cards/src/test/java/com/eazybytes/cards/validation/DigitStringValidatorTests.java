@@ -0,0 +1,30 @@
+package com.eazybytes.cards.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ *
+ * Checks that @DigitString accepts exactly what the former @Pattern(regexp = "(^$|[0-9]{10})") accepted.
+ * The cost per check of both is compared by DigitStringValidatorBenchmark.
+ */
+class DigitStringValidatorTests {
+
+	private static final Pattern MOBILE_NUMBER = Pattern.compile("(^$|[0-9]{10})");
+	private static final List<String> SAMPLES = List.of("", "4354437687", "435443768", "43544376871", "43544376a7",
+			"435443768 ", "-435443768", "\uff14354437687", "0000000000");
+
+	@Test
+	void acceptsTheSameValuesAsTheRegex() {
+		for (String sample : SAMPLES) {
+			assertEquals(MOBILE_NUMBER.matcher(sample).matches(), DigitStringValidator.isDigits(sample, 10, true), sample);
+		}
+		assertTrue(new DigitStringValidator().isValid(null, null));
+	}
+}
@@ -0,0 +1,120 @@
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Author: ldeepak
+ *
+ * Closed-loop HTTP load driver needing only a JDK, for the load scripts of the microservices when wrk is not installed.
+ * Each of the connections sends its next request as soon as the previous one answered, for warmup then duration seconds,
+ * only the requests sent after the warmup are reported: throughput, goodput (2xx answers) and latency percentiles.
+ *
+ * Run with: java HttpLoad.java url [connections] [durationSeconds] [warmupSeconds] [timeoutMillis] [Header:value ...]
+ * A url starting with POST: is sent as an empty POST, e.g. POST:http://localhost:9000/api/create?mobileNumber=4354437687
+ */
+public class HttpLoad {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: java HttpLoad.java url [connections] [durationSeconds] [warmupSeconds] [timeoutMillis] [Header:value ...]");
+			System.exit(2);
+		}
+		boolean post = args[0].startsWith("POST:");
+		URI uri = URI.create(post ? args[0].substring(5) : args[0]);
+		int connections = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		int timeoutMillis = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(timeoutMillis));
+		for (int i = 5; i < args.length; i++) {
+			int colon = args[i].indexOf(':');
+			builder.header(args[i].substring(0, colon), args[i].substring(colon + 1));
+		}
+		HttpRequest request = (post ? builder.POST(HttpRequest.BodyPublishers.noBody()) : builder.GET()).build();
+
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofMillis(timeoutMillis))
+				.executor(Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors())))
+				.build();
+
+		long start = System.nanoTime();
+		long measureFrom = start + Duration.ofSeconds(warmupSeconds).toNanos();
+		long end = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+		Recorder recorder = new Recorder();
+		CountDownLatch done = new CountDownLatch(connections);
+		for (int i = 0; i < connections; i++) {
+			send(client, request, recorder, measureFrom, end, done);
+		}
+		done.await();
+		recorder.report(System.out, connections, durationSeconds);
+		System.exit(0);
+	}
+
+	private static void send(HttpClient client, HttpRequest request, Recorder recorder, long measureFrom, long end,
+							 CountDownLatch done) {
+		long sentAt = System.nanoTime();
+		if (sentAt >= end) {
+			done.countDown();
+			return;
+		}
+		client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+			if (sentAt >= measureFrom) {
+				recorder.record(System.nanoTime() - sentAt, failure == null ? response.statusCode() : -1,
+						failure == null ? null : failure.getClass().getSimpleName());
+			}
+			send(client, request, recorder, measureFrom, end, done);
+		});
+	}
+
+	/**
+	 * Latencies in a histogram of 1 microsecond buckets up to 10 seconds (the slower ones in the last bucket).
+	 */
+	static final class Recorder {
+
+		private static final int MAX_MICROS = 10_000_000;
+
+		private final long[] counts = new long[MAX_MICROS + 1];
+		private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+		private long requests;
+		private long maxNanos;
+
+		synchronized void record(long nanos, int status, String failure) {
+			counts[(int) Math.min(MAX_MICROS, nanos / 1000)]++;
+			requests++;
+			maxNanos = Math.max(maxNanos, nanos);
+			outcomes.computeIfAbsent(failure != null ? failure : Integer.toString(status), key -> new LongAdder()).increment();
+		}
+
+		synchronized void report(PrintStream out, int connections, int durationSeconds) {
+			long good = outcomes.entrySet().stream().filter(e -> e.getKey().startsWith("2")).mapToLong(e -> e.getValue().sum()).sum();
+			Map<String, Long> sorted = new TreeMap<>();
+			outcomes.forEach((key, count) -> sorted.put(key, count.sum()));
+			out.printf("connections=%d requests=%d throughput=%.0f/s goodput=%.0f/s outcomes=%s%n", connections, requests,
+					(double) requests / durationSeconds, (double) good / durationSeconds, sorted);
+			out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n", percentile(0.5), percentile(0.9),
+					percentile(0.99), percentile(0.999), maxNanos / 1e6);
+		}
+
+		private double percentile(double quantile) {
+			long rank = (long) Math.ceil(quantile * requests);
+			long seen = 0;
+			for (int micros = 0; micros < counts.length; micros++) {
+				seen += counts[micros];
+				if (seen >= rank && seen > 0) {
+					return micros / 1000.0;
+				}
+			}
+			return 0;
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package com.eazybytes.loans;
 
+import com.eazybytes.loans.cache.CacheProperties;
 import com.eazybytes.loans.dto.LoansContactInfoDto;
+import com.eazybytes.loans.eligibility.EligibilityProperties;
+import com.eazybytes.loans.replica.ReplicaProperties;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
@@ -20,7 +23,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  */
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {LoansContactInfoDto.class})
+@EnableConfigurationProperties(value = {LoansContactInfoDto.class, ReplicaProperties.class, CacheProperties.class,
+		EligibilityProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Loans Microservice API Documentation",
@@ -0,0 +1,13 @@
+package com.eazybytes.loans.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Author: ldeepak
+ *
+ * One entry of the audit trail: who changed what, when, and the state of the entity before and after the change.
+ * The states are JSON documents, null before a create and after a delete.
+ */
+public record AuditEvent(String entityType, String entityId, String action, String changedBy, LocalDateTime changedAt,
+						 String beforeState, String afterState) {
+}
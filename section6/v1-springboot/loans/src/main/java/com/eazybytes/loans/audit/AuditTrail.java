@@ -0,0 +1,294 @@
+package com.eazybytes.loans.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * Append-only audit trail of the changes made by the service, stored in the audit_trail table.
+ * BaseEntity only keeps the latest created/updated stamp of a row, the audit trail keeps every change with its before and after state.
+ *
+ * Writing the audit row in the request would add a database round trip to every write, so it is done asynchronously:
+ * - record() puts the event in a bounded in-memory queue once the transaction of the change committed, and returns.
+ *   A rolled back change leaves no audit row.
+ * - A background writer drains the queue and inserts the events in batches (one JDBC batch per up to batch-size events).
+ * - Backpressure: when the queue is full record() waits up to enqueue-timeout for room, slowing the writers down a bit.
+ * - If the queue is still full, or the batch insert fails, the events are appended to a local spill file (one JSON document per line)
+ *   and forced to disk. The writer replays the spill file into the table once it is idle again.
+ *   Lines which cannot be read back (e.g. torn by a crash while spilling) are moved to a quarantine file for manual inspection.
+ *
+ * Delivery is at-least-once: an event is never dropped, but a crash during a replay can insert it twice.
+ */
+@Component
+public class AuditTrail {
+
+	private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+	private static final String INSERT_SQL = "INSERT INTO audit_trail "
+			+ "(entity_type, entity_id, action, changed_by, changed_at, before_state, after_state) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	public static final String CREATE = "CREATE";
+	public static final String UPDATE = "UPDATE";
+	public static final String DELETE = "DELETE";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+	private final AuditorAware<String> auditorAware;
+	private final BlockingQueue<AuditEvent> queue;
+	private final int batchSize;
+	private final Duration flushInterval;
+	private final Duration enqueueTimeout;
+	private final Path spillFile;
+	private final Path replayFile;
+	private final Path quarantineFile;
+	private final Object spillLock = new Object();
+	private final Counter writtenEvents;
+	private final Counter spilledEvents;
+
+	private volatile boolean running;
+	private Thread writer;
+
+	public AuditTrail(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, AuditorAware<String> auditorAware,
+					  MeterRegistry meterRegistry,
+					  @Value("${audit.queue-capacity:10000}") int queueCapacity,
+					  @Value("${audit.batch-size:500}") int batchSize,
+					  @Value("${audit.flush-interval:200ms}") Duration flushInterval,
+					  @Value("${audit.enqueue-timeout:50ms}") Duration enqueueTimeout,
+					  @Value("${audit.spill-file:audit/loans-audit-spill.jsonl}") String spillFile) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.objectMapper = objectMapper;
+		this.auditorAware = auditorAware;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.enqueueTimeout = enqueueTimeout;
+		this.spillFile = Path.of(spillFile).toAbsolutePath();
+		this.replayFile = this.spillFile.resolveSibling(this.spillFile.getFileName() + ".replay");
+		this.quarantineFile = this.spillFile.resolveSibling(this.spillFile.getFileName() + ".quarantine");
+		meterRegistry.gaugeCollectionSize("audit.queue.size", List.of(), queue);
+		this.writtenEvents = Counter.builder("audit.events.written").register(meterRegistry);
+		this.spilledEvents = Counter.builder("audit.events.spilled").register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		running = true;
+		writer = new Thread(this::runWriter, "audit-trail-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Records a change once the current transaction commits, right away without a transaction.
+	 * The caller is only blocked when the queue is full.
+	 *
+	 * @param entityType - Changed entity, e.g. Loans
+	 * @param entityId - Primary key of the changed entity
+	 * @param action - CREATE, UPDATE or DELETE
+	 * @param before - State before the change (a DTO), null for a create
+	 * @param after - State after the change (a DTO), null for a delete
+	 */
+	public void record(String entityType, Object entityId, String action, Object before, Object after) {
+		// The states are serialized now, the DTOs may still change before the commit
+		AuditEvent event = new AuditEvent(entityType, String.valueOf(entityId), action,
+				auditorAware.getCurrentAuditor().orElse(null), LocalDateTime.now(), toJson(before), toJson(after));
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					enqueue(event);
+				}
+			});
+		} else {
+			enqueue(event);
+		}
+	}
+
+	private void enqueue(AuditEvent event) {
+		try {
+			if (queue.offer(event, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				return;
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		log.warn("Audit queue is full, spilling the event to {}", spillFile);
+		spill(List.of(event));
+	}
+
+	private void runWriter() {
+		List<AuditEvent> batch = new ArrayList<>(batchSize);
+		replaySpillFile();
+		while (running) {
+			try {
+				AuditEvent first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+				if (first == null) {
+					// Idle, a good time to bring the spilled events back into the table
+					replaySpillFile();
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+				batch.clear();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException ex) {
+				log.error("Audit trail writer failed", ex);
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<AuditEvent> batch) {
+		try {
+			jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (preparedStatement, event) -> {
+				preparedStatement.setString(1, event.entityType());
+				preparedStatement.setString(2, event.entityId());
+				preparedStatement.setString(3, event.action());
+				preparedStatement.setString(4, event.changedBy());
+				preparedStatement.setTimestamp(5, Timestamp.valueOf(event.changedAt()));
+				preparedStatement.setString(6, event.beforeState());
+				preparedStatement.setString(7, event.afterState());
+			});
+			writtenEvents.increment(batch.size());
+		} catch (DataAccessException ex) {
+			log.warn("Could not write {} audit events, spilling them to {}", batch.size(), spillFile, ex);
+			spill(batch);
+		}
+	}
+
+	private void spill(List<AuditEvent> events) {
+		StringBuilder lines = new StringBuilder();
+		for (AuditEvent event : events) {
+			try {
+				lines.append(objectMapper.writeValueAsString(event)).append('\n');
+			} catch (JsonProcessingException ex) {
+				throw new IllegalStateException("Could not serialize audit event", ex);
+			}
+		}
+		synchronized (spillLock) {
+			try {
+				append(spillFile, lines);
+			} catch (IOException ex) {
+				throw new UncheckedIOException("Could not spill audit events to " + spillFile, ex);
+			}
+		}
+		spilledEvents.increment(events.size());
+	}
+
+	private static void append(Path file, CharSequence lines) throws IOException {
+		Files.createDirectories(file.getParent());
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			// These files are the last resort, make sure the events survive a crash
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Moves the spill file aside and inserts its events. Events failing again are spilled to a new spill file.
+	 * A leftover replay file (crash during a previous replay) is replayed first.
+	 * The whole file is read before anything is written, so that an unreadable line cannot leave the file in place
+	 * and have its other events inserted again on every replay: such lines go to the quarantine file instead.
+	 */
+	void replaySpillFile() {
+		try {
+			synchronized (spillLock) {
+				if (!Files.exists(replayFile)) {
+					if (!Files.exists(spillFile)) {
+						return;
+					}
+					Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+				}
+			}
+			List<AuditEvent> events = new ArrayList<>();
+			StringBuilder unreadable = new StringBuilder();
+			// Decoded leniently, a line torn in the middle of a character must not make the whole file unreadable
+			String content = new String(Files.readAllBytes(replayFile), StandardCharsets.UTF_8);
+			for (String line : (Iterable<String>) content.lines()::iterator) {
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					events.add(objectMapper.readValue(line, AuditEvent.class));
+				} catch (JsonProcessingException ex) {
+					unreadable.append(line).append('\n');
+				}
+			}
+			if (!unreadable.isEmpty()) {
+				log.warn("Moving unreadable spilled audit events to {}", quarantineFile);
+				append(quarantineFile, unreadable);
+			}
+			for (int from = 0; from < events.size(); from += batchSize) {
+				write(events.subList(from, Math.min(from + batchSize, events.size())));
+			}
+			Files.delete(replayFile);
+			log.info("Replayed {} spilled audit events from {}", events.size(), replayFile);
+		} catch (IOException ex) {
+			log.warn("Could not replay spilled audit events from {}", replayFile, ex);
+		}
+	}
+
+	private String toJson(Object state) {
+		if (state == null) {
+			return null;
+		}
+		try {
+			return objectMapper.writeValueAsString(state);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Could not serialize audit state", ex);
+		}
+	}
+
+	/**
+	 * Stops the writer and flushes what is left in the queue, to the table or else to the spill file.
+	 */
+	@PreDestroy
+	void stop() throws InterruptedException {
+		running = false;
+		writer.join(flushInterval.toMillis() * 2 + 5000);
+		List<AuditEvent> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		for (int from = 0; from < remaining.size(); from += batchSize) {
+			write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+		}
+	}
+}
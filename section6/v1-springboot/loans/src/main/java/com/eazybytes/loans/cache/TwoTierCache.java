@@ -0,0 +1,360 @@
+package com.eazybytes.loans.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Author: ldeepak
+ *
+ * Two-tier cache of the fetched DTOs, keyed by mobile number: a small in-process near tier in front of a SharedCache
+ * (Redis) common to all the instances of the service.
+ * - get() answers from the near tier, then from the shared tier, and only then calls the loader. Both tiers are filled on the way back.
+ * - invalidate() evicts the key from both tiers and broadcasts an invalidation message, on which every other instance evicts it
+ *   from its near tier. Inside a transaction this happens after the commit, so that nobody reloads the row before it changed.
+ * - A value loaded or read from the shared tier while its key was being invalidated is returned but not cached, it may predate the change.
+ *   An instance receiving an invalidation also evicts the key from the shared tier, in case one of its own loads has just put it back.
+ *
+ * The values of the near tier are shared by the callers, which must not modify them.
+ * A failing shared tier is skipped (counted as result=error): the fetches go to the database and the near tiers rely on their ttl.
+ *
+ * Published meters:
+ * - <name>.cache.requests{tier=near|shared, result=hit|miss|error}, the hit rate of a tier is hit / (hit + miss)
+ * - <name>.cache.invalidations{direction=sent|received}
+ * - <name>.cache.invalidation.latency, from the publication of an invalidation to its application by another instance,
+ *   measured with the wall clocks of both instances
+ * - <name>.cache.near.size
+ */
+public class TwoTierCache<V> {
+
+	private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+	record InvalidationMessage(String origin, String key, long publishedAt) {
+	}
+
+	private record NearEntry<V>(V value, long expiresAtNanos) {
+	}
+
+	public record Stats(double nearHitRate, long nearHits, long nearMisses,
+						double sharedHitRate, long sharedHits, long sharedMisses, long sharedErrors,
+						long invalidationsSent, long invalidationsReceived,
+						double invalidationLatencyMeanMs, double invalidationLatencyMaxMs, int nearSize) {
+	}
+
+	private final String name;
+	private final Class<V> type;
+	private final boolean enabled;
+	private final int nearMaxEntries;
+	private final long nearTtlNanos;
+	private final Duration sharedTtl;
+	private final SharedCache sharedCache;
+	private final ObjectMapper objectMapper;
+	private final String channel;
+	private final String origin = UUID.randomUUID().toString();
+
+	private final Map<String, NearEntry<V>> near = new ConcurrentHashMap<>();
+	// Last invalidation of every key (System.nanoTime()), a load which started before it is not cached
+	private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+	private final List<Consumer<String>> remoteInvalidationListeners = new CopyOnWriteArrayList<>();
+	private final List<Consumer<String>> accessListeners = new CopyOnWriteArrayList<>();
+
+	private final Counter nearHits;
+	private final Counter nearMisses;
+	private final Counter sharedHits;
+	private final Counter sharedMisses;
+	private final Counter sharedErrors;
+	private final Counter invalidationsSent;
+	private final Counter invalidationsReceived;
+	private final Timer invalidationLatency;
+
+	public TwoTierCache(String name, Class<V> type, CacheProperties cacheProperties, SharedCache sharedCache,
+						ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.type = type;
+		this.enabled = cacheProperties.enabled();
+		this.nearMaxEntries = cacheProperties.near().maxEntries();
+		this.nearTtlNanos = cacheProperties.near().ttl().toNanos();
+		this.sharedTtl = cacheProperties.shared().ttl();
+		this.sharedCache = sharedCache;
+		this.objectMapper = cacheCodec(objectMapper);
+		this.channel = name + ".cache.invalidation";
+
+		this.nearHits = requests(meterRegistry, "near", "hit");
+		this.nearMisses = requests(meterRegistry, "near", "miss");
+		this.sharedHits = requests(meterRegistry, "shared", "hit");
+		this.sharedMisses = requests(meterRegistry, "shared", "miss");
+		this.sharedErrors = requests(meterRegistry, "shared", "error");
+		this.invalidationsSent = Counter.builder(name + ".cache.invalidations").tag("direction", "sent")
+				.description("Invalidations broadcast by this instance").register(meterRegistry);
+		this.invalidationsReceived = Counter.builder(name + ".cache.invalidations").tag("direction", "received")
+				.description("Invalidations received from the other instances").register(meterRegistry);
+		this.invalidationLatency = Timer.builder(name + ".cache.invalidation.latency")
+				.description("Time from the publication of an invalidation to its application by this instance")
+				.register(meterRegistry);
+		Gauge.builder(name + ".cache.near.size", near, Map::size).register(meterRegistry);
+
+		if (enabled) {
+			sharedCache.subscribe(channel, this::receive);
+		}
+	}
+
+	private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+		return Counter.builder(name + ".cache.requests").tag("tier", tier).tag("result", result)
+				.description("Lookups of the cache tier").register(meterRegistry);
+	}
+
+	/**
+	 * The version of the DTOs is not sent to the clients (@JsonIgnore) but is kept in the shared tier, it makes the ETag of the fetch API.
+	 */
+	private static ObjectMapper cacheCodec(ObjectMapper objectMapper) {
+		return objectMapper.copy().setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+			@Override
+			public boolean hasIgnoreMarker(AnnotatedMember member) {
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * @param key - Mobile number
+	 * @param loader - Loads the value from the database on a miss of both tiers, may throw (nothing is cached then)
+	 * @return the cached or loaded value, to be treated as read-only
+	 */
+	public V get(String key, Supplier<V> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		accessListeners.forEach(listener -> listener.accept(key));
+		long start = System.nanoTime();
+		NearEntry<V> nearEntry = near.get(key);
+		if (nearEntry != null) {
+			if (start - nearEntry.expiresAtNanos() < 0) {
+				nearHits.increment();
+				return nearEntry.value();
+			}
+			near.remove(key, nearEntry);
+		}
+		nearMisses.increment();
+
+		V value = getShared(key);
+		if (value == null) {
+			value = loader.get();
+			putShared(key, value, start);
+		}
+		putNear(key, value, start);
+		return value;
+	}
+
+	/**
+	 * Loads the keys with one batch and puts the values found in both tiers, used to warm the cache up.
+	 *
+	 * @param batchLoader - Loads the values of the keys, keyed by key, the keys not found are left out
+	 * @return the number of values put in the cache
+	 */
+	public int warm(List<String> keys, Function<List<String>, Map<String, V>> batchLoader) {
+		if (!enabled) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		Map<String, V> values = batchLoader.apply(keys);
+		values.forEach((key, value) -> {
+			putShared(key, value, start);
+			putNear(key, value, start);
+		});
+		return values.size();
+	}
+
+	/**
+	 * Evicts the key from both tiers and tells the other instances, after the commit of the current transaction if there is one.
+	 */
+	public void invalidate(String key) {
+		if (!enabled || key == null) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					invalidateNow(key);
+				}
+			});
+		} else {
+			invalidateNow(key);
+		}
+	}
+
+	/**
+	 * Called with the key of every get().
+	 */
+	public void onAccess(Consumer<String> listener) {
+		accessListeners.add(listener);
+	}
+
+	/**
+	 * Called with the key of every invalidation received from another instance.
+	 */
+	public void onRemoteInvalidation(Consumer<String> listener) {
+		remoteInvalidationListeners.add(listener);
+	}
+
+	private void invalidateNow(String key) {
+		evictNear(key);
+		try {
+			sharedCache.evict(sharedKey(key));
+			sharedCache.publish(channel, objectMapper.writeValueAsString(
+					new InvalidationMessage(origin, key, System.currentTimeMillis())));
+			invalidationsSent.increment();
+		} catch (JsonProcessingException | RuntimeException ex) {
+			sharedErrors.increment();
+			log.warn("Invalidation of {} in the {} cache not broadcast, other instances keep it until it expires", key, name, ex);
+		}
+	}
+
+	void receive(String payload) {
+		InvalidationMessage message;
+		try {
+			message = objectMapper.readValue(payload, InvalidationMessage.class);
+		} catch (JsonProcessingException ex) {
+			log.warn("Malformed invalidation message on {}: {}", channel, payload);
+			return;
+		}
+		if (origin.equals(message.origin())) {
+			return;
+		}
+		evictNear(message.key());
+		try {
+			sharedCache.evict(sharedKey(message.key()));
+		} catch (RuntimeException ex) {
+			sharedErrors.increment();
+		}
+		invalidationsReceived.increment();
+		invalidationLatency.record(Math.max(0, System.currentTimeMillis() - message.publishedAt()), TimeUnit.MILLISECONDS);
+		remoteInvalidationListeners.forEach(listener -> listener.accept(message.key()));
+	}
+
+	private void evictNear(String key) {
+		long now = System.nanoTime();
+		invalidatedAt.put(key, now);
+		near.remove(key);
+		if (invalidatedAt.size() > nearMaxEntries) {
+			// Only loads still running are compared with the invalidations, none is expected to take longer than the near ttl
+			invalidatedAt.values().removeIf(at -> now - at > nearTtlNanos);
+		}
+	}
+
+	private boolean invalidatedSince(String key, long start) {
+		Long at = invalidatedAt.get(key);
+		return at != null && at - start >= 0;
+	}
+
+	private V getShared(String key) {
+		try {
+			String json = sharedCache.get(sharedKey(key));
+			if (json == null) {
+				sharedMisses.increment();
+				return null;
+			}
+			V value = objectMapper.readValue(json, type);
+			sharedHits.increment();
+			return value;
+		} catch (JsonProcessingException | RuntimeException ex) {
+			sharedErrors.increment();
+			log.debug("Shared tier of the {} cache failed on get", name, ex);
+			return null;
+		}
+	}
+
+	private void putShared(String key, V value, long start) {
+		if (invalidatedSince(key, start)) {
+			return;
+		}
+		try {
+			sharedCache.put(sharedKey(key), objectMapper.writeValueAsString(value), sharedTtl);
+			// An invalidation may have evicted the key between the check and the put
+			if (invalidatedSince(key, start)) {
+				sharedCache.evict(sharedKey(key));
+			}
+		} catch (JsonProcessingException | RuntimeException ex) {
+			sharedErrors.increment();
+			log.debug("Shared tier of the {} cache failed on put", name, ex);
+		}
+	}
+
+	private void putNear(String key, V value, long start) {
+		if (invalidatedSince(key, start)) {
+			return;
+		}
+		if (near.size() >= nearMaxEntries) {
+			evictExpired();
+			if (near.size() >= nearMaxEntries) {
+				return;
+			}
+		}
+		NearEntry<V> entry = new NearEntry<>(value, System.nanoTime() + nearTtlNanos);
+		near.put(key, entry);
+		if (invalidatedSince(key, start)) {
+			near.remove(key, entry);
+		}
+	}
+
+	/**
+	 * Removes the expired entries of the near tier, only one thread sweeps at a time.
+	 */
+	private void evictExpired() {
+		if (!sweeping.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long now = System.nanoTime();
+			near.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	private String sharedKey(String key) {
+		return name + ":" + key;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public Stats stats() {
+		return new Stats(hitRate(nearHits, nearMisses), (long) nearHits.count(), (long) nearMisses.count(),
+				hitRate(sharedHits, sharedMisses), (long) sharedHits.count(), (long) sharedMisses.count(), (long) sharedErrors.count(),
+				(long) invalidationsSent.count(), (long) invalidationsReceived.count(),
+				invalidationLatency.mean(TimeUnit.MILLISECONDS), invalidationLatency.max(TimeUnit.MILLISECONDS), near.size());
+	}
+
+	private static double hitRate(Counter hits, Counter misses) {
+		double total = hits.count() + misses.count();
+		return total == 0 ? 0 : hits.count() / total;
+	}
+}
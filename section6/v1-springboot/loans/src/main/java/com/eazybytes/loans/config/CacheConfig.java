@@ -0,0 +1,66 @@
+package com.eazybytes.loans.config;
+
+import com.eazybytes.loans.cache.CacheProperties;
+import com.eazybytes.loans.cache.HotKeyTracker;
+import com.eazybytes.loans.cache.LocalSharedCache;
+import com.eazybytes.loans.cache.RedisSharedCache;
+import com.eazybytes.loans.cache.SharedCache;
+import com.eazybytes.loans.cache.TwoTierCache;
+import com.eazybytes.loans.dto.CustomerLoansDto;
+import com.eazybytes.loans.membership.MembershipFilter;
+import com.eazybytes.loans.replica.ReadYourWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Author: ldeepak
+ *
+ * Two-tier cache of the fetch API, its shared tier is chosen by cache.shared.type.
+ */
+@Configuration
+public class CacheConfig {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "cache.shared", name = "type", havingValue = "local", matchIfMissing = true)
+	public SharedCache localSharedCache() {
+		return new LocalSharedCache();
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "cache.shared", name = "type", havingValue = "redis")
+	public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+		RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+		listenerContainer.setConnectionFactory(redisConnectionFactory);
+		return listenerContainer;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "cache.shared", name = "type", havingValue = "redis")
+	public SharedCache redisSharedCache(StringRedisTemplate redisTemplate, RedisMessageListenerContainer cacheInvalidationListenerContainer) {
+		return new RedisSharedCache(redisTemplate, cacheInvalidationListenerContainer);
+	}
+
+	/**
+	 * All the loans of a mobile number, published as loans.cache.*.
+	 * A loan changed on another instance may also be behind on the replicas: it is read from the primary for a while, as after a local write.
+	 * A loan created on another instance is added to the MembershipFilter, which would otherwise answer 404 for it until its next rebuild here.
+	 * Every fetch is counted by the HotKeyTracker, whose snapshot warms the cache up at the next start.
+	 */
+	@Bean
+	public TwoTierCache<CustomerLoansDto> loansCache(CacheProperties cacheProperties, SharedCache sharedCache, ObjectMapper objectMapper,
+											 MeterRegistry meterRegistry, ReadYourWrites readYourWrites,
+											 MembershipFilter membershipFilter, HotKeyTracker hotKeyTracker) {
+		TwoTierCache<CustomerLoansDto> loansCache = new TwoTierCache<>("loans", CustomerLoansDto.class, cacheProperties, sharedCache,
+				objectMapper, meterRegistry);
+		loansCache.onRemoteInvalidation(readYourWrites::recordWrite);
+		loansCache.onRemoteInvalidation(membershipFilter::added);
+		loansCache.onAccess(hotKeyTracker::recordAccess);
+		return loansCache;
+	}
+}
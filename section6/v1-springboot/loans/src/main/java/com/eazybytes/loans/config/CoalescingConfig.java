@@ -0,0 +1,25 @@
+package com.eazybytes.loans.config;
+
+import com.eazybytes.loans.dto.CustomerLoansDto;
+import com.eazybytes.loans.service.support.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: ldeepak
+ *
+ * Beans used to coalesce concurrent identical reads in the service layer.
+ */
+@Configuration
+public class CoalescingConfig {
+
+	/**
+	 * Concurrent fetches of the same mobile number share one database load and one mapped CustomerLoansDto.
+	 * The coalescing ratio is published as loans.fetch.coalescing.leaders / loans.fetch.coalescing.followers.
+	 */
+	@Bean
+	public RequestCoalescer<String, CustomerLoansDto> fetchLoanCoalescer(MeterRegistry meterRegistry) {
+		return new RequestCoalescer<>("loans.fetch", meterRegistry);
+	}
+}
@@ -0,0 +1,50 @@
+package com.eazybytes.loans.config;
+
+import com.eazybytes.loans.filter.AdaptiveConcurrencyLimiter;
+import com.eazybytes.loans.filter.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Author: ldeepak
+ *
+ * Registers the adaptive concurrency limiter in front of the /api/** handlers.
+ * It can be switched off with concurrency-limit.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+	@Bean
+	public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+			@Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+			@Value("${concurrency-limit.min-limit:4}") int minLimit,
+			@Value("${concurrency-limit.max-limit:200}") int maxLimit,
+			@Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+			@Value("${concurrency-limit.write-share:0.9}") double writeShare,
+			@Value("${concurrency-limit.bulk-share:0.5}") double bulkShare,
+			@Value("${concurrency-limit.probe-interval:30s}") Duration probeInterval) {
+		return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, writeShare, bulkShare,
+				probeInterval);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+			AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+		FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+				new ConcurrencyLimitFilter(adaptiveConcurrencyLimiter, objectMapper, retryAfterSeconds, meterRegistry));
+		registration.addUrlPatterns("/api/*");
+		// Run before the other filters, a shed request should cost as little as possible
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
@@ -0,0 +1,23 @@
+package com.eazybytes.loans.config;
+
+import com.eazybytes.loans.eligibility.ApplicantSource;
+import com.eazybytes.loans.eligibility.DecisionTable;
+import com.eazybytes.loans.eligibility.EligibilityEngine;
+import com.eazybytes.loans.eligibility.EligibilityProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Author: ldeepak
+ *
+ * The eligibility rule table is compiled once at startup, an invalid table fails the startup.
+ */
+@Configuration
+public class EligibilityConfig {
+
+	@Bean
+	public EligibilityEngine eligibilityEngine(EligibilityProperties eligibilityProperties, ApplicantSource applicantSource) {
+		return new EligibilityEngine(DecisionTable.compile(eligibilityProperties.rules()), applicantSource,
+				eligibilityProperties.batch().threads(), eligibilityProperties.batch().chunkSize());
+	}
+}
@@ -0,0 +1,77 @@
+package com.eazybytes.loans.config;
+
+import com.eazybytes.loans.replica.ReplicaProperties;
+import com.eazybytes.loans.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Read/write splitting: the @Transactional(readOnly = true) service methods read from the replicas under read-replicas,
+ * everything else goes to spring.datasource, the primary.
+ *
+ * The DataSource used by JPA is a LazyConnectionDataSourceProxy: a transaction only takes a real connection at its first
+ * statement, once it is known to be read-only, and then from the read-only DataSource (ReplicaRoutingDataSource).
+ * It is also used when there are no replicas, so that a read-only transaction waiting in the request coalescer holds no connection.
+ */
+@Configuration
+public class ReplicaConfig {
+
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	/**
+	 * One connection pool per replica, every replica gets the tables of schema.sql.
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "read-replicas", name = "enabled", havingValue = "true")
+	public ReplicaRoutingDataSource replicaDataSource(ReplicaProperties replicaProperties, HikariDataSource primaryDataSource) {
+		Map<String, DataSource> replicaDataSources = new LinkedHashMap<>();
+		if (replicaProperties.replicas() != null) {
+			replicaProperties.replicas().forEach((name, replica) -> {
+				HikariDataSource dataSource = DataSourceBuilder.create()
+						.type(HikariDataSource.class)
+						.url(replica.url())
+						.username(replica.username())
+						.password(replica.password())
+						.build();
+				dataSource.setPoolName("replica-" + name);
+				dataSource.setMaximumPoolSize(replica.maxPoolSize());
+				dataSource.setConnectionTimeout(replica.connectionTimeout().toMillis());
+				DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")), dataSource);
+				replicaDataSources.put(name, dataSource);
+			});
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSources);
+	}
+
+	@Bean
+	@Primary
+	public LazyConnectionDataSourceProxy dataSource(HikariDataSource primaryDataSource,
+													ObjectProvider<ReplicaRoutingDataSource> replicaDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+		replicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+		return dataSource;
+	}
+}
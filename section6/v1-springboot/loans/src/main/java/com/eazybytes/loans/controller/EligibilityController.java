@@ -0,0 +1,91 @@
+package com.eazybytes.loans.controller;
+
+import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.dto.EligibilityBatchRequestDto;
+import com.eazybytes.loans.dto.EligibilityDto;
+import com.eazybytes.loans.dto.ErrorResponseDto;
+import com.eazybytes.loans.service.IEligibilityService;
+import com.eazybytes.loans.validation.DigitString;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Tag(
+		name = "Loan eligibility REST APIs in EazyBank",
+		description = "REST APIs in EazyBank to CHECK the loan eligibility of customers from their existing loans and cards"
+)
+@RestController
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, LoansConstants.APPLICATION_SMILE_VALUE})
+@Validated
+public class EligibilityController {
+
+	private final IEligibilityService iEligibilityService;
+
+	public EligibilityController(IEligibilityService iEligibilityService) {
+		this.iEligibilityService = iEligibilityService;
+	}
+
+	@Operation(
+			summary = "Check Loan Eligibility REST API",
+			description = "REST API to check the loan eligibility of a customer based on a mobile number"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/eligibility")
+	public ResponseEntity<EligibilityDto> checkEligibility(@RequestParam
+														   @DigitString(length = 10, message = "Mobile number must be 10 digits")
+														   String mobileNumber) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(iEligibilityService.checkEligibility(mobileNumber));
+	}
+
+	@Operation(
+			summary = "Check Loan Eligibility in batch REST API",
+			description = "REST API to check the loan eligibility of up to " + LoansConstants.ELIGIBILITY_BATCH_MAX_SIZE + " customers in one request"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@PostMapping("/eligibility/batch")
+	public ResponseEntity<List<EligibilityDto>> checkEligibilityBatch(@Valid @RequestBody EligibilityBatchRequestDto request) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(iEligibilityService.checkEligibility(request.getMobileNumbers()));
+	}
+}
@@ -1,11 +1,20 @@
 package com.eazybytes.loans.controller;
 
 import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.dto.BatchFetchRequestDto;
+import com.eazybytes.loans.dto.BatchFetchResultDto;
+import com.eazybytes.loans.dto.CustomerLoansDto;
 import com.eazybytes.loans.dto.ErrorResponseDto;
+import com.eazybytes.loans.dto.LoanPortfolioDto;
 import com.eazybytes.loans.dto.LoansContactInfoDto;
 import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.dto.LoansPageDto;
 import com.eazybytes.loans.dto.ResponseDto;
+import com.eazybytes.loans.idempotency.IdempotencyStore;
+import com.eazybytes.loans.mapper.LoansMapper;
+import com.eazybytes.loans.ratelimit.RateLimiter;
 import com.eazybytes.loans.service.ILoansService;
+import com.eazybytes.loans.validation.DigitString;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,7 +22,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +34,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Author: ldeepak
@@ -34,14 +49,20 @@ import org.springframework.web.bind.annotation.*;
 		description = "REST API for managing loans"
 )
 @RestController
-@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, LoansConstants.APPLICATION_SMILE_VALUE})
 @Validated
 public class LoansController {
 
 	private ILoansService iLoansService;
 
-	public LoansController(ILoansService iLoansService) {
+	private IdempotencyStore idempotencyStore;
+
+	private RateLimiter rateLimiter;
+
+	public LoansController(ILoansService iLoansService, IdempotencyStore idempotencyStore, RateLimiter rateLimiter) {
 		this.iLoansService = iLoansService;
+		this.idempotencyStore = idempotencyStore;
+		this.rateLimiter = rateLimiter;
 	}
 
 	@Value("${build.version}")
@@ -73,17 +94,25 @@ public class LoansController {
 	)
 	@PostMapping("/create")
 	public ResponseEntity<ResponseDto> createLoan(@RequestParam
-												  @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-												  String mobileNumber) {
-		iLoansService.createLoan(mobileNumber);
-		return ResponseEntity
-				.status(HttpStatus.CREATED)
-				.body(new ResponseDto(LoansConstants.STATUS_201, LoansConstants.MESSAGE_201));
+												  @DigitString(length = 10, message = "Mobile number must be 10 digits")
+												  String mobileNumber,
+												  @RequestHeader(value = LoansConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+												  String idempotencyKey,
+												  @RequestHeader(value = LoansConstants.API_KEY_HEADER, required = false)
+												  String apiKey) {
+		return idempotencyStore.execute("create", idempotencyKey, apiKey, mobileNumber, () -> {
+			// Replays of an idempotent request do not touch the database, so only executed writes consume a token
+			rateLimiter.checkWrite(apiKey, mobileNumber);
+			iLoansService.createLoan(mobileNumber);
+			return ResponseEntity
+					.status(HttpStatus.CREATED)
+					.body(new ResponseDto(LoansConstants.STATUS_201, LoansConstants.MESSAGE_201));
+		});
 	}
 
 	@Operation(
 			summary = "Fetch Loan Details",
-			description = "REST API to fetch loan details based on a mobile number"
+			description = "REST API to fetch a page of the loans of a mobile number, with the totals of all of them"
 	)
 	@ApiResponses({
 			@ApiResponse(
@@ -100,11 +129,65 @@ public class LoansController {
 	}
 	)
 	@GetMapping("/fetch")
-	public ResponseEntity<LoansDto> fetchLoanDetails(@RequestParam
-													 @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-													 String mobileNumber) {
-		LoansDto loansDto = iLoansService.fetchLoan(mobileNumber);
-		return ResponseEntity.status(HttpStatus.OK).body(loansDto);
+	public ResponseEntity<LoansPageDto> fetchLoanDetails(@RequestParam
+														 @DigitString(length = 10, message = "Mobile number must be 10 digits")
+														 String mobileNumber,
+														 @RequestParam(defaultValue = "0")
+														 @PositiveOrZero(message = "page should be equal or greater than zero")
+														 int page,
+														 @RequestParam(defaultValue = "" + LoansConstants.FETCH_PAGE_DEFAULT_SIZE)
+														 @Min(value = 1, message = "size should be greater than zero")
+														 @Max(value = LoansConstants.FETCH_PAGE_MAX_SIZE, message = "size should be at most " + LoansConstants.FETCH_PAGE_MAX_SIZE)
+														 int size,
+														 WebRequest webRequest) {
+		// Every page is cut from the same cached list of all the loans, so the totals never cost another query
+		LoansPageDto loansPageDto = LoansMapper.mapToLoansPageDto(iLoansService.fetchLoans(mobileNumber), page, size);
+		// Conditional GET: when the client already holds this version (If-None-Match), answer 304 without serializing the body
+		String eTag = eTagOf(loansPageDto);
+		if (webRequest.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(loansPageDto);
+	}
+
+	/**
+	 * Strong ETag built from the numbers and versions of all the loans of the mobile number, the totals depend on all of them.
+	 */
+	private static String eTagOf(LoansPageDto loansPageDto) {
+		return "\"" + loansPageDto.getVersion() + "\"";
+	}
+
+	@Operation(
+			summary = "Fetch loan details of many mobile numbers",
+			description = "Fetch all the loans of up to " + LoansConstants.BATCH_FETCH_MAX_SIZE + " mobile numbers in one request, not found mobile numbers are reported inline with status code 404"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@PostMapping("/fetch/batch")
+	public ResponseEntity<Map<String, BatchFetchResultDto<CustomerLoansDto>>> fetchLoanDetailsBatch(@Valid @RequestBody BatchFetchRequestDto batchFetchRequestDto) {
+		Map<String, CustomerLoansDto> found = iLoansService.fetchLoans(batchFetchRequestDto.getMobileNumbers());
+
+		Map<String, BatchFetchResultDto<CustomerLoansDto>> results = new LinkedHashMap<>();
+		for (String mobileNumber : batchFetchRequestDto.getMobileNumbers()) {
+			CustomerLoansDto customerLoansDto = found.get(mobileNumber);
+			results.put(mobileNumber, customerLoansDto != null
+					? new BatchFetchResultDto<>(LoansConstants.STATUS_200, LoansConstants.MESSAGE_200, customerLoansDto)
+					: new BatchFetchResultDto<>(LoansConstants.STATUS_404, LoansConstants.MESSAGE_404, null));
+		}
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(results);
 	}
 
 	@Operation(
@@ -130,17 +213,24 @@ public class LoansController {
 	}
 	)
 	@PutMapping("/update")
-	public ResponseEntity<ResponseDto> updateLoanDetails(@Valid @RequestBody LoansDto loansDto) {
-		boolean isUpdated = iLoansService.updateLoan(loansDto);
-		if(isUpdated) {
-			return ResponseEntity
-					.status(HttpStatus.OK)
-					.body(new ResponseDto(LoansConstants.STATUS_200, LoansConstants.MESSAGE_200));
-		} else{
-			return ResponseEntity
-					.status(HttpStatus.EXPECTATION_FAILED)
-					.body(new ResponseDto(LoansConstants.STATUS_417, LoansConstants.MESSAGE_417_UPDATE));
-		}
+	public ResponseEntity<ResponseDto> updateLoanDetails(@Valid @RequestBody LoansDto loansDto,
+														 @RequestHeader(value = LoansConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+														 String idempotencyKey,
+														 @RequestHeader(value = LoansConstants.API_KEY_HEADER, required = false)
+														 String apiKey) {
+		return idempotencyStore.execute("update", idempotencyKey, apiKey, loansDto, () -> {
+			rateLimiter.checkWrite(apiKey, loansDto.getMobileNumber());
+			boolean isUpdated = iLoansService.updateLoan(loansDto);
+			if(isUpdated) {
+				return ResponseEntity
+						.status(HttpStatus.OK)
+						.body(new ResponseDto(LoansConstants.STATUS_200, LoansConstants.MESSAGE_200));
+			} else{
+				return ResponseEntity
+						.status(HttpStatus.EXPECTATION_FAILED)
+						.body(new ResponseDto(LoansConstants.STATUS_417, LoansConstants.MESSAGE_417_UPDATE));
+			}
+		});
 	}
 
 	@Operation(
@@ -167,9 +257,12 @@ public class LoansController {
 	)
 	@DeleteMapping("/delete")
 	public ResponseEntity<ResponseDto> deleteLoanDetails(@RequestParam
-														 @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
-														 String mobileNumber) {
-		boolean isDeleted = iLoansService.deleteLoan(mobileNumber);
+														 @DigitString(length = 10, message = "Mobile number must be 10 digits")
+														 String mobileNumber,
+														 @RequestParam(required = false)
+														 @DigitString(length = 12, message = "LoanNumber must be 12 digits")
+														 String loanNumber) {
+		boolean isDeleted = iLoansService.deleteLoan(mobileNumber, loanNumber);
 		if(isDeleted) {
 			return ResponseEntity
 					.status(HttpStatus.OK)
@@ -181,6 +274,33 @@ public class LoansController {
 		}
 	}
 
+	@Operation(
+			summary = "Fetch Loan Portfolio REST API",
+			description = "REST API to fetch the totals and delinquency per loan type, and the concentration of the outstanding amount over the borrowers"
+	)
+	@ApiResponses({
+			@ApiResponse(
+					responseCode = "200",
+					description = "HTTP Status OK"
+			),
+			@ApiResponse(
+					responseCode = "500",
+					description = "HTTP Status Internal Server Error",
+					content = @Content(
+							schema = @Schema(implementation = ErrorResponseDto.class)
+					)
+			)
+	})
+	@GetMapping("/loans/portfolio")
+	public ResponseEntity<LoanPortfolioDto> fetchPortfolio(@RequestParam(defaultValue = "" + LoansConstants.PORTFOLIO_TOP_BORROWERS_DEFAULT)
+														   @Min(value = 0, message = "top should be equal or greater than zero")
+														   @Max(value = LoansConstants.PORTFOLIO_TOP_BORROWERS_MAX, message = "top should be at most " + LoansConstants.PORTFOLIO_TOP_BORROWERS_MAX)
+														   int top) {
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(iLoansService.fetchPortfolio(top));
+	}
+
 	@Operation(
 			summary = "Get Build information",
 			description = "Get Build information that is deployed into loans microservice"
@@ -0,0 +1,29 @@
+package com.eazybytes.loans.dto;
+
+import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.validation.DigitString;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "BatchFetchRequest",
+		description = "Schema to hold the mobile numbers of a batch fetch"
+)
+public class BatchFetchRequestDto {
+
+	@Schema(
+			description = "Mobile numbers to look up, at most " + LoansConstants.BATCH_FETCH_MAX_SIZE + " per request",
+			example = "[\"4365327698\"]"
+	)
+	@NotEmpty(message = "Mobile numbers cannot be null or empty")
+	@Size(max = LoansConstants.BATCH_FETCH_MAX_SIZE, message = "At most " + LoansConstants.BATCH_FETCH_MAX_SIZE + " mobile numbers can be fetched in one request")
+	private List<@DigitString(length = 10, message = "Mobile number must be 10 digits") String> mobileNumbers;
+}
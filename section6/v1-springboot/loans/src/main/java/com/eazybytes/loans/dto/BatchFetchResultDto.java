@@ -0,0 +1,36 @@
+package com.eazybytes.loans.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Author: ldeepak
+ *
+ * Result of a single mobile number inside a batch fetch.
+ * Not found mobile numbers are reported inline with a 404 status code instead of failing the whole batch.
+ */
+@Data @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(
+		name = "BatchFetchResult",
+		description = "Schema to hold the result of one mobile number of a batch fetch"
+)
+public class BatchFetchResultDto<T> {
+
+	@Schema(
+			description = "Status code of this entry"
+	)
+	private String statusCode;
+
+	@Schema(
+			description = "Status message of this entry"
+	)
+	private String statusMsg;
+
+	@Schema(
+			description = "Details found for the mobile number, absent when not found"
+	)
+	private T details;
+}
@@ -0,0 +1,45 @@
+package com.eazybytes.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ *
+ * All the loans of a mobile number with their totals, loaded by one query.
+ * It is the value of the loans cache and the details of a batch fetch entry.
+ */
+@Data
+@Schema(
+		name = "CustomerLoans",
+		description = "Schema to hold all the loans of a customer and their totals"
+)
+public class CustomerLoansDto {
+
+	@Schema(
+			description = "Mobile Number of Customer", example = "4365327698"
+	)
+	private String mobileNumber;
+
+	@Schema(
+			description = "Loans of the customer, oldest first"
+	)
+	private List<LoansDto> loans;
+
+	@Schema(
+			description = "Total amount of all the loans", example = "200000"
+	)
+	private long totalLoan;
+
+	@Schema(
+			description = "Amount paid on all the loans", example = "1000"
+	)
+	private long amountPaid;
+
+	@Schema(
+			description = "Amount outstanding on all the loans", example = "199000"
+	)
+	private long outstandingAmount;
+}
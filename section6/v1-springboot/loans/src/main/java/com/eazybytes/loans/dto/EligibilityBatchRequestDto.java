@@ -0,0 +1,29 @@
+package com.eazybytes.loans.dto;
+
+import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.validation.DigitString;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "EligibilityBatchRequest",
+		description = "Schema to hold the mobile numbers of a batch eligibility check"
+)
+public class EligibilityBatchRequestDto {
+
+	@Schema(
+			description = "Mobile numbers of the applicants, at most " + LoansConstants.ELIGIBILITY_BATCH_MAX_SIZE + " per request",
+			example = "[\"4354437687\"]"
+	)
+	@NotEmpty(message = "Mobile numbers cannot be null or empty")
+	@Size(max = LoansConstants.ELIGIBILITY_BATCH_MAX_SIZE, message = "At most " + LoansConstants.ELIGIBILITY_BATCH_MAX_SIZE + " applicants can be checked in one request")
+	private List<@DigitString(length = 10, message = "Mobile number must be 10 digits") String> mobileNumbers;
+}
@@ -0,0 +1,49 @@
+package com.eazybytes.loans.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(
+		name = "Eligibility",
+		description = "Schema to hold the loan eligibility of a customer"
+)
+public class EligibilityDto {
+
+	@Schema(
+			description = "Mobile Number of Customer", example = "4354437687"
+	)
+	private String mobileNumber;
+
+	@Schema(
+			description = "Whether a loan can be offered to the customer", example = "true"
+	)
+	private boolean eligible;
+
+	@Schema(
+			description = "Score of the customer", example = "800"
+	)
+	private int score;
+
+	@Schema(
+			description = "Type of the loan offered, absent when not eligible", example = "Home Loan"
+	)
+	private String loanType;
+
+	@Schema(
+			description = "Amount offered", example = "200000"
+	)
+	private int limit;
+
+	@Schema(
+			description = "Name of the eligibility rule that decided", example = "prime"
+	)
+	private String rule;
+}
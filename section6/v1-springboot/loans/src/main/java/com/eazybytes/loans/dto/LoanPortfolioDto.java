@@ -0,0 +1,60 @@
+package com.eazybytes.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@Schema(
+		name = "LoanPortfolio",
+		description = "Schema to hold the totals, delinquency and concentration of the loan portfolio"
+)
+public class LoanPortfolioDto {
+
+	@Schema(
+			description = "Number of loans", example = "1000000"
+	)
+	private long loans;
+
+	@Schema(
+			description = "Totals keyed by loan type"
+	)
+	private Map<String, LoanTypePortfolioDto> loanTypes;
+
+	@Schema(
+			description = "Number of borrowers (mobile numbers) with an outstanding amount", example = "950000"
+	)
+	private long borrowers;
+
+	@Schema(
+			description = "Herfindahl-Hirschman index of the outstanding amount over the borrowers, close to 0 when evenly spread", example = "0.000001"
+	)
+	private double herfindahlIndex;
+
+	@Schema(
+			description = "Share of the outstanding amount owed by the top borrowers", example = "0.0001"
+	)
+	private double topBorrowersShare;
+
+	@Schema(
+			description = "Borrowers with the largest outstanding amounts, largest first"
+	)
+	private List<Borrower> topBorrowers;
+
+	@Schema(
+			description = "Last time the portfolio was rebuilt from the loans table, changes are applied in between"
+	)
+	private LocalDateTime rebuiltAt;
+
+	@Schema(name = "LoanPortfolioBorrower")
+	public record Borrower(String mobileNumber, long outstandingAmount, double share) {
+	}
+}
@@ -0,0 +1,48 @@
+package com.eazybytes.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@AllArgsConstructor
+@Schema(
+		name = "LoanTypePortfolio",
+		description = "Schema to hold the totals of the loans of one loan type"
+)
+public class LoanTypePortfolioDto {
+
+	@Schema(
+			description = "Number of loans", example = "1200"
+	)
+	private long loans;
+
+	@Schema(
+			description = "Sum of the total loans", example = "120000000"
+	)
+	private long totalLoan;
+
+	@Schema(
+			description = "Sum of the amounts paid", example = "30000000"
+	)
+	private long amountPaid;
+
+	@Schema(
+			description = "Sum of the outstanding amounts", example = "90000000"
+	)
+	private long outstandingAmount;
+
+	@Schema(
+			description = "Loans with an outstanding amount, by days since their last payment or change"
+	)
+	private List<DelinquencyBucket> delinquencyBuckets;
+
+	@Schema(name = "LoanTypePortfolioDelinquencyBucket")
+	public record DelinquencyBucket(String days, long loans, long outstandingAmount) {
+	}
+}
@@ -1,8 +1,9 @@
 package com.eazybytes.loans.dto;
 
+import com.eazybytes.loans.validation.DigitString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
@@ -18,14 +19,14 @@ import lombok.Data;
 public class LoansDto {
 
 	@NotEmpty(message = "Mobile Number can not be a null or empty")
-	@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile Number must be 10 digits")
+	@DigitString(length = 10, message = "Mobile Number must be 10 digits")
 	@Schema(
 			description = "Mobile Number of Customer", example = "4365327698"
 	)
 	private String mobileNumber;
 
 	@NotEmpty(message = "Loan Number can not be a null or empty")
-	@Pattern(regexp="(^$|[0-9]{12})",message = "LoanNumber must be 12 digits")
+	@DigitString(length = 12, message = "LoanNumber must be 12 digits")
 	@Schema(
 			description = "Loan Number of the customer", example = "548732457654"
 	)
@@ -55,4 +56,8 @@ public class LoansDto {
 	)
 	private int outstandingAmount;
 
+	// Version of the loan row, only used to build the ETag header and never sent to or accepted from clients
+	@JsonIgnore
+	@Schema(hidden = true)
+	private Long version;
 }
\ No newline at end of file
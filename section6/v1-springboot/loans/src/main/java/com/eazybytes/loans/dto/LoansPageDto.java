@@ -0,0 +1,68 @@
+package com.eazybytes.loans.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+@Data
+@Schema(
+		name = "LoansPage",
+		description = "Schema to hold a page of the loans of a customer, with the totals of all of them"
+)
+public class LoansPageDto {
+
+	@Schema(
+			description = "Mobile Number of Customer", example = "4365327698"
+	)
+	private String mobileNumber;
+
+	@Schema(
+			description = "Loans of the page, oldest first"
+	)
+	private List<LoansDto> loans;
+
+	@Schema(
+			description = "Page number, from 0", example = "0"
+	)
+	private int page;
+
+	@Schema(
+			description = "Page size", example = "20"
+	)
+	private int size;
+
+	@Schema(
+			description = "Number of pages", example = "1"
+	)
+	private int totalPages;
+
+	@Schema(
+			description = "Number of loans of the customer, on all the pages", example = "2"
+	)
+	private int loanCount;
+
+	@Schema(
+			description = "Total amount of all the loans, on all the pages", example = "200000"
+	)
+	private long totalLoan;
+
+	@Schema(
+			description = "Amount paid on all the loans, on all the pages", example = "1000"
+	)
+	private long amountPaid;
+
+	@Schema(
+			description = "Amount outstanding on all the loans, on all the pages", example = "199000"
+	)
+	private long outstandingAmount;
+
+	// Page, size and checksum of the numbers and versions of all the loans, only used to build the ETag header
+	@JsonIgnore
+	@Schema(hidden = true)
+	private String version;
+}
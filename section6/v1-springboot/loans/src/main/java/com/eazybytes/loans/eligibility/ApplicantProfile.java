@@ -0,0 +1,33 @@
+package com.eazybytes.loans.eligibility;
+
+import com.eazybytes.loans.entity.Loans;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ *
+ * Features of an applicant, computed from their existing loans and cards.
+ */
+public record ApplicantProfile(int loans, long outstandingAmount, int cards, double cardUtilization) {
+
+	/**
+	 * Applicant without loans nor cards
+	 */
+	public static final ApplicantProfile NONE = new ApplicantProfile(0, 0, 0, 0);
+
+	public static ApplicantProfile of(List<Loans> loans, List<CardSummary> cards) {
+		long outstandingAmount = 0;
+		for (Loans loan : loans) {
+			outstandingAmount += loan.getOutstandingAmount();
+		}
+		long totalLimit = 0;
+		long amountUsed = 0;
+		for (CardSummary card : cards) {
+			totalLimit += card.totalLimit();
+			amountUsed += card.amountUsed();
+		}
+		return new ApplicantProfile(loans.size(), outstandingAmount, cards.size(),
+				totalLimit == 0 ? 0 : (double) amountUsed / totalLimit);
+	}
+}
@@ -0,0 +1,64 @@
+package com.eazybytes.loans.eligibility;
+
+import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.entity.Loans;
+import com.eazybytes.loans.membership.MembershipFilter;
+import com.eazybytes.loans.repository.LoansRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * ApplicantSource reading the loans from the loans table and the cards from the cards microservice.
+ */
+@Component
+public class ApplicantProfiles implements ApplicantSource {
+
+	private final LoansRepository loansRepository;
+
+	private final MembershipFilter membershipFilter;
+
+	private final CardsClient cardsClient;
+
+	public ApplicantProfiles(LoansRepository loansRepository, MembershipFilter membershipFilter, CardsClient cardsClient) {
+		this.loansRepository = loansRepository;
+		this.membershipFilter = membershipFilter;
+		this.cardsClient = cardsClient;
+	}
+
+	@Override
+	public Map<String, ApplicantProfile> profiles(List<String> mobileNumbers) {
+		Map<String, List<Loans>> loans = loansOf(mobileNumbers);
+		Map<String, List<CardSummary>> cards = cardsClient.fetchCards(mobileNumbers);
+		Map<String, ApplicantProfile> profiles = new HashMap<>();
+		for (String mobileNumber : mobileNumbers) {
+			List<Loans> applicantLoans = loans.getOrDefault(mobileNumber, List.of());
+			List<CardSummary> applicantCards = cards.getOrDefault(mobileNumber, List.of());
+			if (!applicantLoans.isEmpty() || !applicantCards.isEmpty()) {
+				profiles.put(mobileNumber, ApplicantProfile.of(applicantLoans, applicantCards));
+			}
+		}
+		return profiles;
+	}
+
+	/**
+	 * One "WHERE mobile_number IN (...)" query per chunk, for the mobile numbers the membership filter cannot rule out.
+	 */
+	private Map<String, List<Loans>> loansOf(List<String> mobileNumbers) {
+		List<String> candidates = new ArrayList<>(mobileNumbers);
+		candidates.removeIf(mobileNumber -> !membershipFilter.mightExist(mobileNumber));
+		Map<String, List<Loans>> loans = new HashMap<>();
+		for (int from = 0; from < candidates.size(); from += LoansConstants.BATCH_FETCH_CHUNK_SIZE) {
+			List<String> chunk = candidates.subList(from, Math.min(from + LoansConstants.BATCH_FETCH_CHUNK_SIZE, candidates.size()));
+			for (Loans loan : loansRepository.findByMobileNumberInOrderByLoanIdAsc(chunk)) {
+				loans.computeIfAbsent(loan.getMobileNumber(), mobileNumber -> new ArrayList<>()).add(loan);
+			}
+		}
+		return loans;
+	}
+}
@@ -0,0 +1,18 @@
+package com.eazybytes.loans.eligibility;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Where the eligibility engine gets the profiles of the applicants from.
+ */
+public interface ApplicantSource {
+
+	/**
+	 * @param mobileNumbers - Distinct mobile numbers of the applicants
+	 * @return the profiles keyed by mobile number, applicants without loans nor cards may be absent
+	 */
+	Map<String, ApplicantProfile> profiles(List<String> mobileNumbers);
+}
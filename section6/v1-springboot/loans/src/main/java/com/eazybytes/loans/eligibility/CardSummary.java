@@ -0,0 +1,9 @@
+package com.eazybytes.loans.eligibility;
+
+/**
+ * Author: ldeepak
+ *
+ * What the eligibility engine needs of a card of the applicant.
+ */
+public record CardSummary(int totalLimit, int amountUsed) {
+}
@@ -0,0 +1,18 @@
+package com.eazybytes.loans.eligibility;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Cards of the applicants, owned by the cards microservice.
+ */
+public interface CardsClient {
+
+	/**
+	 * @param mobileNumbers - At most 1000 mobile numbers
+	 * @return the cards keyed by mobile number, mobile numbers without a card are absent
+	 */
+	Map<String, List<CardSummary>> fetchCards(List<String> mobileNumbers);
+}
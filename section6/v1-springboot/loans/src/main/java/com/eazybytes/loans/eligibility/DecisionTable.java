@@ -0,0 +1,130 @@
+package com.eazybytes.loans.eligibility;
+
+import com.eazybytes.loans.eligibility.EligibilityProperties.Range;
+import com.eazybytes.loans.eligibility.EligibilityProperties.Rule;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Author: ldeepak
+ *
+ * Rule table compiled into a lookup array. Evaluating the rules one by one costs a comparison per condition per rule,
+ * the compiled table costs one binary search per feature and one array read, whatever the number of rules.
+ */
+
+/**
+ * - The bounds of all the rules cut the values of each feature into bins, e.g. the bounds 0.3 and 0.9 of card-utilization
+ *   make the bins below 0.3, from 0.3 to 0.9 and from 0.9. Every rule matches either all or none of the values of a bin.
+ * - Every combination of bins is a cell of the table, the first rule matching the cell is worked out once, at compile time.
+ * - The table has as many cells as the product of the bins of the features, compile() refuses a table above MAX_CELLS.
+ */
+public final class DecisionTable {
+
+	private static final Feature[] FEATURES = Feature.values();
+
+	static final int MAX_CELLS = 1 << 22;
+
+	private final double[][] bounds;
+	private final int[] strides;
+	private final EligibilityDecision[] decisions;
+	private final int[] cells;
+
+	private DecisionTable(double[][] bounds, int[] strides, EligibilityDecision[] decisions, int[] cells) {
+		this.bounds = bounds;
+		this.strides = strides;
+		this.decisions = decisions;
+		this.cells = cells;
+	}
+
+	public static DecisionTable compile(List<Rule> rules) {
+		double[][] bounds = new double[FEATURES.length][];
+		int[] strides = new int[FEATURES.length];
+		long cellCount = 1;
+		for (Feature feature : FEATURES) {
+			TreeSet<Double> featureBounds = new TreeSet<>();
+			for (Rule rule : rules) {
+				Range range = rule.when().get(feature);
+				if (range != null) {
+					if (range.min() != null && range.max() != null && range.min() >= range.max()) {
+						throw new IllegalArgumentException("Eligibility rule " + rule.name() + ": min of " + feature + " must be below its max");
+					}
+					if (range.min() != null) {
+						featureBounds.add(range.min());
+					}
+					if (range.max() != null) {
+						featureBounds.add(range.max());
+					}
+				}
+			}
+			bounds[feature.ordinal()] = featureBounds.stream().mapToDouble(Double::doubleValue).toArray();
+			strides[feature.ordinal()] = (int) cellCount;
+			cellCount *= featureBounds.size() + 1;
+			if (cellCount > MAX_CELLS) {
+				throw new IllegalArgumentException("Eligibility rule table has too many distinct bounds, more than " + MAX_CELLS + " cells");
+			}
+		}
+
+		EligibilityDecision[] decisions = new EligibilityDecision[rules.size()];
+		for (int index = 0; index < rules.size(); index++) {
+			Rule rule = rules.get(index);
+			decisions[index] = new EligibilityDecision(rule.name(), rule.eligible(), rule.score(), rule.loanType(), rule.limit());
+		}
+
+		int[] cells = new int[(int) cellCount];
+		int[] bins = new int[FEATURES.length];
+		for (int cell = 0; cell < cells.length; cell++) {
+			for (Feature feature : FEATURES) {
+				bins[feature.ordinal()] = cell / strides[feature.ordinal()] % (bounds[feature.ordinal()].length + 1);
+			}
+			cells[cell] = firstMatchingRule(rules, bounds, bins);
+		}
+		return new DecisionTable(bounds, strides, decisions, cells);
+	}
+
+	private static int firstMatchingRule(List<Rule> rules, double[][] bounds, int[] bins) {
+		for (int index = 0; index < rules.size(); index++) {
+			if (matches(rules.get(index), bounds, bins)) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(Rule rule, double[][] bounds, int[] bins) {
+		for (Feature feature : FEATURES) {
+			Range range = rule.when().get(feature);
+			if (range == null) {
+				continue;
+			}
+			double[] featureBounds = bounds[feature.ordinal()];
+			int bin = bins[feature.ordinal()];
+			// Bins of a rule: from the bin starting at min, up to the bin ending at max
+			if (range.min() != null && bin < bin(featureBounds, range.min())) {
+				return false;
+			}
+			if (range.max() != null && bin >= bin(featureBounds, range.max())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the bin of the value, i.e. the number of bounds at or below it
+	 */
+	private static int bin(double[] featureBounds, double value) {
+		int index = Arrays.binarySearch(featureBounds, value);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	public EligibilityDecision evaluate(ApplicantProfile profile) {
+		int cell = 0;
+		for (Feature feature : FEATURES) {
+			cell += bin(bounds[feature.ordinal()], feature.valueOf(profile)) * strides[feature.ordinal()];
+		}
+		int rule = cells[cell];
+		return rule < 0 ? EligibilityDecision.NO_MATCHING_RULE : decisions[rule];
+	}
+}
@@ -0,0 +1,13 @@
+package com.eazybytes.loans.eligibility;
+
+/**
+ * Author: ldeepak
+ *
+ * Outcome of the eligibility rules for an applicant.
+ *
+ * @param rule - Name of the rule that decided, "none" when no rule matched
+ */
+public record EligibilityDecision(String rule, boolean eligible, int score, String loanType, int limit) {
+
+	static final EligibilityDecision NO_MATCHING_RULE = new EligibilityDecision("none", false, 0, null, 0);
+}
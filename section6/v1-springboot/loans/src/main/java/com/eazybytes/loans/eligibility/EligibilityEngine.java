@@ -0,0 +1,83 @@
+package com.eazybytes.loans.eligibility;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: ldeepak
+ *
+ * Scores applicants with the DecisionTable. A batch is cut into chunks evaluated in parallel:
+ * each chunk is one round of lookups in the ApplicantSource (a few IN queries and one call to the cards microservice)
+ * followed by a table lookup per applicant.
+ */
+public class EligibilityEngine implements AutoCloseable {
+
+	private final DecisionTable decisionTable;
+	private final ApplicantSource applicantSource;
+	private final int chunkSize;
+	private final ExecutorService executor;
+
+	public EligibilityEngine(DecisionTable decisionTable, ApplicantSource applicantSource, int threads, int chunkSize) {
+		this.decisionTable = decisionTable;
+		this.applicantSource = applicantSource;
+		this.chunkSize = chunkSize;
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "eligibility-batch-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public EligibilityDecision evaluate(String mobileNumber) {
+		ApplicantProfile profile = applicantSource.profiles(List.of(mobileNumber)).getOrDefault(mobileNumber, ApplicantProfile.NONE);
+		return decisionTable.evaluate(profile);
+	}
+
+	/**
+	 * @return the decisions keyed by mobile number, in the order of the request
+	 */
+	public Map<String, EligibilityDecision> evaluateBatch(List<String> mobileNumbers) {
+		List<String> distinctMobileNumbers = new ArrayList<>(new LinkedHashSet<>(mobileNumbers));
+		List<CompletableFuture<Map<String, EligibilityDecision>>> chunks = new ArrayList<>();
+		for (int from = 0; from < distinctMobileNumbers.size(); from += chunkSize) {
+			List<String> chunk = distinctMobileNumbers.subList(from, Math.min(from + chunkSize, distinctMobileNumbers.size()));
+			chunks.add(CompletableFuture.supplyAsync(() -> evaluateChunk(chunk), executor));
+		}
+		Map<String, EligibilityDecision> decisions = new LinkedHashMap<>();
+		try {
+			for (CompletableFuture<Map<String, EligibilityDecision>> chunk : chunks) {
+				decisions.putAll(chunk.join());
+			}
+		} catch (CompletionException ex) {
+			chunks.forEach(chunk -> chunk.cancel(false));
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+		return decisions;
+	}
+
+	private Map<String, EligibilityDecision> evaluateChunk(List<String> mobileNumbers) {
+		Map<String, ApplicantProfile> profiles = applicantSource.profiles(mobileNumbers);
+		Map<String, EligibilityDecision> decisions = new LinkedHashMap<>();
+		for (String mobileNumber : mobileNumbers) {
+			decisions.put(mobileNumber, decisionTable.evaluate(profiles.getOrDefault(mobileNumber, ApplicantProfile.NONE)));
+		}
+		return decisions;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
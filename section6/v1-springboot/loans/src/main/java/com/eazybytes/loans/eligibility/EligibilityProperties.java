@@ -0,0 +1,44 @@
+package com.eazybytes.loans.eligibility;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Settings of the loan eligibility engine, bound from the "eligibility" prefix.
+ *
+ * @param cardsUrl - Base URL of the cards microservice, the cards of the applicants are fetched from its batch API
+ * @param batch - Parallelism of the batch evaluation
+ * @param rules - Rule table, the first rule matching the applicant decides. No matching rule means not eligible
+ */
+@ConfigurationProperties(prefix = "eligibility")
+public record EligibilityProperties(@DefaultValue("http://localhost:9000") String cardsUrl, @DefaultValue Batch batch,
+									@DefaultValue List<Rule> rules) {
+
+	/**
+	 * @param threads - Chunks evaluated at the same time, mostly waiting on the database and the cards microservice
+	 * @param chunkSize - Applicants per chunk, at most the batch size accepted by the cards microservice (1000)
+	 */
+	public record Batch(@DefaultValue("8") int threads, @DefaultValue("1000") int chunkSize) {
+	}
+
+	/**
+	 * @param when - Conditions on the applicant, all of them must hold. A feature without condition matches any value
+	 * @param score - Score given to the matching applicants
+	 * @param loanType - Loan type offered to the eligible applicants
+	 * @param limit - Amount offered to the eligible applicants
+	 */
+	public record Rule(String name, @DefaultValue Map<Feature, Range> when, boolean eligible, int score, String loanType, int limit) {
+	}
+
+	/**
+	 * @param min - Lowest value (inclusive), none when null
+	 * @param max - Highest value (exclusive), none when null
+	 */
+	public record Range(Double min, Double max) {
+	}
+}
@@ -0,0 +1,41 @@
+package com.eazybytes.loans.eligibility;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Author: ldeepak
+ *
+ * Facts about an applicant the eligibility rules can test, e.g. card-utilization in the rule table.
+ */
+public enum Feature {
+
+	/**
+	 * Number of loans of the applicant
+	 */
+	LOANS(ApplicantProfile::loans),
+
+	/**
+	 * Sum of the outstanding amounts of the loans of the applicant
+	 */
+	OUTSTANDING_AMOUNT(ApplicantProfile::outstandingAmount),
+
+	/**
+	 * Number of cards of the applicant
+	 */
+	CARDS(ApplicantProfile::cards),
+
+	/**
+	 * Amount used over total limit of all the cards of the applicant, 0 without cards
+	 */
+	CARD_UTILIZATION(ApplicantProfile::cardUtilization);
+
+	private final ToDoubleFunction<ApplicantProfile> value;
+
+	Feature(ToDoubleFunction<ApplicantProfile> value) {
+		this.value = value;
+	}
+
+	double valueOf(ApplicantProfile profile) {
+		return value.applyAsDouble(profile);
+	}
+}
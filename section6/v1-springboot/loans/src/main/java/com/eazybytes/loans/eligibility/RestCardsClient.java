@@ -0,0 +1,58 @@
+package com.eazybytes.loans.eligibility;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * CardsClient calling the batch fetch API of the cards microservice (POST /api/fetch/batch), one call per chunk of applicants.
+ * Every entry of the response holds all the cards of the mobile number.
+ * The RestClient.Builder of Spring Boot propagates the trace and applies the spring.http.client timeouts.
+ */
+@Component
+public class RestCardsClient implements CardsClient {
+
+	private static final String FOUND = "200";
+
+	private final RestClient restClient;
+
+	public RestCardsClient(RestClient.Builder restClientBuilder, EligibilityProperties eligibilityProperties) {
+		this.restClient = restClientBuilder.baseUrl(eligibilityProperties.cardsUrl()).build();
+	}
+
+	@Override
+	public Map<String, List<CardSummary>> fetchCards(List<String> mobileNumbers) {
+		Map<String, BatchFetchResult> results = restClient.post()
+				.uri("/api/fetch/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.body(Map.of("mobileNumbers", mobileNumbers))
+				.retrieve()
+				.body(new ParameterizedTypeReference<>() {});
+		Map<String, List<CardSummary>> cards = new HashMap<>();
+		if (results != null) {
+			results.forEach((mobileNumber, result) -> {
+				if (FOUND.equals(result.statusCode()) && result.details() != null && result.details().cards() != null) {
+					cards.put(mobileNumber, result.details().cards());
+				}
+			});
+		}
+		return cards;
+	}
+
+	/**
+	 * Entry of the batch fetch response of the cards microservice, only the fields read here.
+	 */
+	private record BatchFetchResult(String statusCode, CustomerCards details) {
+	}
+
+	private record CustomerCards(List<CardSummary> cards) {
+	}
+}
@@ -3,6 +3,7 @@ package com.eazybytes.loans.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -62,4 +63,11 @@ public class BaseEntity {
 	@LastModifiedBy
 	@Column(insertable = false)
 	private String updatedBy;
+
+	/**
+	 *  @Version: Optimistic locking version, incremented by JPA on every update of the row.
+	 *  It is also used to build the ETag of the fetch APIs, a changed version means a changed representation.
+	 */
+	@Version
+	private Long version;
 }
\ No newline at end of file
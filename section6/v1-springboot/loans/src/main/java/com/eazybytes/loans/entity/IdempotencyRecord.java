@@ -0,0 +1,35 @@
+package com.eazybytes.loans.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Author: ldeepak
+ *
+ * Response remembered for an Idempotency-Key, only used when idempotency.persist is enabled.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+	@Id
+	private String idempotencyKey;
+
+	// SHA-256 of the API key and of the request, a replay must match it
+	private String requestHash;
+
+	private int httpStatus;
+
+	private String statusCode;
+
+	private String statusMsg;
+
+	private LocalDateTime createdAt;
+}
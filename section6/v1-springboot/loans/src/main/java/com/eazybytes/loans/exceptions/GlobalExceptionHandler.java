@@ -62,16 +62,30 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
 	}
 
-	@ExceptionHandler(LoanAlreadyExistsException.class)
-	public ResponseEntity<ErrorResponseDto> handleLoanAlreadyExistsException(LoanAlreadyExistsException exception,
+	@ExceptionHandler(RateLimitExceededException.class)
+	public ResponseEntity<ErrorResponseDto> handleRateLimitExceededException(RateLimitExceededException exception,
 																			 WebRequest webRequest){
 		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
 				webRequest.getDescription(false),
-				HttpStatus.BAD_REQUEST,
+				HttpStatus.TOO_MANY_REQUESTS,
 				exception.getMessage(),
 				LocalDateTime.now()
 		);
-		return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+				.body(errorResponseDTO);
 	}
 
-}
\ No newline at end of file
+	@ExceptionHandler(IdempotencyKeyMismatchException.class)
+	public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException exception,
+																				  WebRequest webRequest){
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				webRequest.getDescription(false),
+				HttpStatus.UNPROCESSABLE_ENTITY,
+				exception.getMessage(),
+				LocalDateTime.now()
+		);
+		return new ResponseEntity<>(errorResponseDTO, HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+}
@@ -1,16 +0,0 @@
-package com.eazybytes.loans.exceptions;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
-/**
- * Author: ldeepak
- */
-@ResponseStatus(value = HttpStatus.BAD_REQUEST)
-public class LoanAlreadyExistsException extends RuntimeException {
-
-	public LoanAlreadyExistsException(String message){
-		super(message);
-	}
-
-}
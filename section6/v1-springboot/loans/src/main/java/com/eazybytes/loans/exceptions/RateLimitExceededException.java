@@ -0,0 +1,24 @@
+package com.eazybytes.loans.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Author: ldeepak
+ *
+ * Thrown on the expected rejection path of the rate limiter, hence without a stack trace.
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+	// Seconds after which the client may retry, sent in the Retry-After header
+	private final long retryAfterSeconds;
+
+	public RateLimitExceededException(String message, long retryAfterSeconds) {
+		super(message, null, false, false);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+}
@@ -5,11 +5,32 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Author: ldeepak
+ *
+ * Thrown for lookups of data that does not exist, which clients do all the time (probing /api/fetch),
+ * so it is cheap to create: no stack trace is captured (the handler never logs it) and the message is only
+ * built when it is asked for.
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
 
+	private final String resourceName;
+	private final String fieldName;
+	private final String fieldValue;
+	private String message;
+
 	public ResourceNotFoundException(String resourceName, String fieldName, String fieldValue){
-		super(String.format("%s not found with the given input data %s : '%s'", resourceName, fieldName, fieldValue));
+		// message and cause are null, suppression and the writable stack trace are disabled
+		super(null, null, false, false);
+		this.resourceName = resourceName;
+		this.fieldName = fieldName;
+		this.fieldValue = fieldValue;
+	}
+
+	@Override
+	public String getMessage() {
+		if (message == null) {
+			message = resourceName + " not found with the given input data " + fieldName + " : '" + fieldValue + "'";
+		}
+		return message;
 	}
-}
\ No newline at end of file
+}
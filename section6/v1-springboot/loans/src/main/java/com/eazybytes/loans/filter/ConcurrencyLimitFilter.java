@@ -0,0 +1,99 @@
+package com.eazybytes.loans.filter;
+
+import com.eazybytes.loans.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Servlet filter in front of the /api/** handlers, letting a request through only when the AdaptiveConcurrencyLimiter
+ * has room for it. Shed requests get a 503 with a Retry-After header right away, so the client can back off
+ * instead of waiting in the Tomcat queue until it times out.
+ *
+ * Priority of a request:
+ * - READ: GET requests
+ * - BULK: batch endpoints (/fetch/batch), served from a smaller share of the limit
+ * - WRITE: everything else (create, update, delete)
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final AdaptiveConcurrencyLimiter limiter;
+	private final ObjectMapper objectMapper;
+	private final String retryAfterSeconds;
+	private final Map<AdaptiveConcurrencyLimiter.Priority, Counter> rejectedCounters =
+			new EnumMap<>(AdaptiveConcurrencyLimiter.Priority.class);
+
+	public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ObjectMapper objectMapper,
+								  long retryAfterSeconds, MeterRegistry meterRegistry) {
+		this.limiter = limiter;
+		this.objectMapper = objectMapper;
+		this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+		meterRegistry.gauge("http.server.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit);
+		meterRegistry.gauge("http.server.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight);
+		for (AdaptiveConcurrencyLimiter.Priority priority : AdaptiveConcurrencyLimiter.Priority.values()) {
+			rejectedCounters.put(priority, Counter.builder("http.server.concurrency.rejected")
+					.description("Requests shed by the adaptive concurrency limiter")
+					.tag("priority", priority.name().toLowerCase())
+					.register(meterRegistry));
+		}
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		AdaptiveConcurrencyLimiter.Priority priority = priorityOf(request);
+		if (!limiter.tryAcquire(priority)) {
+			rejectedCounters.get(priority).increment();
+			reject(request, response);
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			filterChain.doFilter(request, response);
+			failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+		} finally {
+			limiter.onComplete(System.nanoTime() - start, failed);
+		}
+	}
+
+	private AdaptiveConcurrencyLimiter.Priority priorityOf(HttpServletRequest request) {
+		if (request.getRequestURI().endsWith("/batch")) {
+			return AdaptiveConcurrencyLimiter.Priority.BULK;
+		}
+		if (HttpMethod.GET.matches(request.getMethod())) {
+			return AdaptiveConcurrencyLimiter.Priority.READ;
+		}
+		return AdaptiveConcurrencyLimiter.Priority.WRITE;
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		ErrorResponseDto errorResponseDTO = new ErrorResponseDto(
+				request.getRequestURI(),
+				HttpStatus.SERVICE_UNAVAILABLE,
+				"Service is overloaded, please retry later",
+				LocalDateTime.now()
+		);
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), errorResponseDTO);
+	}
+}
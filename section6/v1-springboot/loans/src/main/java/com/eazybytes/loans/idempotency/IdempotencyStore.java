@@ -0,0 +1,263 @@
+package com.eazybytes.loans.idempotency;
+
+import com.eazybytes.loans.dto.ResponseDto;
+import com.eazybytes.loans.entity.IdempotencyRecord;
+import com.eazybytes.loans.exceptions.IdempotencyKeyMismatchException;
+import com.eazybytes.loans.replica.ReadYourWrites;
+import com.eazybytes.loans.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Author: ldeepak
+ *
+ * IdempotencyStore remembers the response of a write request for a given Idempotency-Key header,
+ * so that a client (or the gateway) can safely retry the same request after a timeout.
+ * A replayed request gets the remembered response back without the service or repository being called again.
+ * Keys are scoped to the caller: the stored key is made of the operation, a hash of the API key and the Idempotency-Key,
+ * so two clients choosing the same key get their own responses. A hash of the API key and of the request is remembered
+ * with the response, a key reused with another payload is rejected with 422.
+ *
+ * The in-memory store is bounded (max-entries) and every entry expires after the configured ttl.
+ * A LinkedHashMap in insertion order keeps the oldest entry first, which makes both size and TTL eviction cheap.
+ * Concurrent requests carrying the same key are collapsed: only the first one executes, the others wait for its result.
+ * When idempotency.persist is true the responses are also written to the idempotency_record table, so that they survive a restart.
+ * The table is read on the primary: it is not replicated, and a replica lagging behind would let a retry execute again.
+ */
+@Component
+public class IdempotencyStore {
+
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	private final IdempotencyRecordRepository idempotencyRecordRepository;
+	private final ReadYourWrites readYourWrites;
+	private final ObjectMapper objectMapper;
+	private final int maxEntries;
+	private final Duration ttl;
+	private final boolean persist;
+
+	private final Map<String, StoredResponse> responses = new LinkedHashMap<>();
+	private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+	public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository, ReadYourWrites readYourWrites,
+							ObjectMapper objectMapper,
+							@Value("${idempotency.max-entries:10000}") int maxEntries,
+							@Value("${idempotency.ttl:PT24H}") Duration ttl,
+							@Value("${idempotency.persist:false}") boolean persist) {
+		this.idempotencyRecordRepository = idempotencyRecordRepository;
+		this.readYourWrites = readYourWrites;
+		this.objectMapper = objectMapper;
+		this.maxEntries = maxEntries;
+		this.ttl = ttl;
+		this.persist = persist;
+	}
+
+	/**
+	 * Executes the given action at most once for the given operation and idempotency key.
+	 * Requests without a key are executed as usual.
+	 *
+	 * @param operation - Name of the operation (create, update...), so that the same key can be reused across operations
+	 * @param idempotencyKey - Value of the Idempotency-Key header, may be null
+	 * @param apiKey - Value of the X-API-Key header, may be null
+	 * @param request - Parameters or body of the request, serialized to JSON for the request hash
+	 * @param action - The actual request handling
+	 * @return the response of the action, or the remembered response if the key was seen before
+	 * @throws IdempotencyKeyMismatchException when the key was seen before from the same caller with another request
+	 */
+	public ResponseEntity<ResponseDto> execute(String operation, String idempotencyKey, String apiKey, Object request,
+											   Supplier<ResponseEntity<ResponseDto>> action) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return action.get();
+		}
+		String key = operation + ":" + callerId(apiKey) + ":" + idempotencyKey;
+		String requestHash = requestHash(apiKey, request);
+
+		Optional<StoredResponse> stored = lookup(key);
+		if (stored.isPresent()) {
+			return replay(stored.get(), idempotencyKey, requestHash);
+		}
+
+		CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+		CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, pending);
+		if (existing != null) {
+			// Same key is being processed right now, wait for it instead of executing the request twice
+			return replay(awaitResult(existing), idempotencyKey, requestHash);
+		}
+
+		try {
+			// Another request may have completed between the lookup and claiming the key
+			stored = lookup(key);
+			if (stored.isPresent()) {
+				pending.complete(stored.get());
+				return replay(stored.get(), idempotencyKey, requestHash);
+			}
+			ResponseEntity<ResponseDto> response = action.get();
+			StoredResponse storedResponse = new StoredResponse(requestHash, response.getStatusCode().value(),
+					response.getBody(), System.currentTimeMillis());
+			remember(key, storedResponse);
+			pending.complete(storedResponse);
+			return response;
+		} catch (RuntimeException ex) {
+			// Failures are not remembered, a retry with the same key executes the request again
+			pending.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(key, pending);
+		}
+	}
+
+	private static ResponseEntity<ResponseDto> replay(StoredResponse storedResponse, String idempotencyKey,
+													  String requestHash) {
+		if (!storedResponse.requestHash().equals(requestHash)) {
+			throw new IdempotencyKeyMismatchException(idempotencyKey);
+		}
+		return storedResponse.toReplayedResponse();
+	}
+
+	/**
+	 * First 16 hex digits of the SHA-256 of the API key, the API key itself is never stored. "-" for the callers without one.
+	 * A collision of two callers is still caught by the request hash, which covers the whole API key.
+	 */
+	private static String callerId(String apiKey) {
+		if (apiKey == null) {
+			return "-";
+		}
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(hash, 0, 8);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("Cannot hash the API key of an idempotent operation", ex);
+		}
+	}
+
+	/**
+	 * SHA-256 of the API key and of the JSON of the request, only the hash is kept in memory and in the table.
+	 */
+	private String requestHash(String apiKey, Object request) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			if (apiKey != null) {
+				digest.update(apiKey.getBytes(StandardCharsets.UTF_8));
+			}
+			// Separator, so that the API key and the request cannot be shifted into each other
+			digest.update((byte) 0);
+			digest.update(objectMapper.writeValueAsBytes(request));
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+			throw new IllegalStateException("Cannot hash the request of an idempotent operation", ex);
+		}
+	}
+
+	private StoredResponse awaitResult(CompletableFuture<StoredResponse> future) {
+		try {
+			return future.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw ex;
+		}
+	}
+
+	private Optional<StoredResponse> lookup(String key) {
+		long now = System.currentTimeMillis();
+		synchronized (responses) {
+			StoredResponse storedResponse = responses.get(key);
+			if (storedResponse != null) {
+				if (!storedResponse.isExpired(now, ttl)) {
+					return Optional.of(storedResponse);
+				}
+				responses.remove(key);
+			}
+		}
+		if (!persist) {
+			return Optional.empty();
+		}
+		Optional<IdempotencyRecord> idempotencyRecord = readYourWrites.onPrimary(() -> idempotencyRecordRepository.findById(key));
+		if (idempotencyRecord.isEmpty()) {
+			return Optional.empty();
+		}
+		StoredResponse storedResponse = StoredResponse.fromRecord(idempotencyRecord.get());
+		if (storedResponse.isExpired(now, ttl)) {
+			idempotencyRecordRepository.deleteById(key);
+			return Optional.empty();
+		}
+		synchronized (responses) {
+			put(key, storedResponse, now);
+		}
+		return Optional.of(storedResponse);
+	}
+
+	private void remember(String key, StoredResponse storedResponse) {
+		synchronized (responses) {
+			put(key, storedResponse, storedResponse.createdAt());
+		}
+		if (persist) {
+			idempotencyRecordRepository.save(storedResponse.toRecord(key));
+		}
+	}
+
+	// Must be called while holding the lock on responses
+	private void put(String key, StoredResponse storedResponse, long now) {
+		responses.remove(key);
+		responses.put(key, storedResponse);
+		Iterator<StoredResponse> iterator = responses.values().iterator();
+		while (iterator.hasNext()) {
+			StoredResponse eldest = iterator.next();
+			if (responses.size() > maxEntries || eldest.isExpired(now, ttl)) {
+				iterator.remove();
+			} else {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Response remembered for an idempotency key.
+	 */
+	record StoredResponse(String requestHash, int httpStatus, ResponseDto body, long createdAt) {
+
+		boolean isExpired(long now, Duration ttl) {
+			return now - createdAt > ttl.toMillis();
+		}
+
+		ResponseEntity<ResponseDto> toReplayedResponse() {
+			return ResponseEntity
+					.status(HttpStatus.valueOf(httpStatus))
+					.header(REPLAYED_HEADER, "true")
+					.body(body);
+		}
+
+		IdempotencyRecord toRecord(String key) {
+			LocalDateTime created = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault());
+			return new IdempotencyRecord(key, requestHash, httpStatus, body.getStatusCode(), body.getStatusMsg(), created);
+		}
+
+		static StoredResponse fromRecord(IdempotencyRecord idempotencyRecord) {
+			long created = idempotencyRecord.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+			return new StoredResponse(idempotencyRecord.getRequestHash(), idempotencyRecord.getHttpStatus(),
+					new ResponseDto(idempotencyRecord.getStatusCode(), idempotencyRecord.getStatusMsg()), created);
+		}
+	}
+}
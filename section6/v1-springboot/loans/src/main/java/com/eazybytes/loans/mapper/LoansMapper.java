@@ -1,8 +1,15 @@
 package com.eazybytes.loans.mapper;
 
+import com.eazybytes.loans.dto.CustomerLoansDto;
 import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.dto.LoansPageDto;
 import com.eazybytes.loans.entity.Loans;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
 /**
  * Author: ldeepak
  */
@@ -15,6 +22,7 @@ public class LoansMapper {
 		loansDto.setTotalLoan(loans.getTotalLoan());
 		loansDto.setAmountPaid(loans.getAmountPaid());
 		loansDto.setOutstandingAmount(loans.getOutstandingAmount());
+		loansDto.setVersion(loans.getVersion());
 		return loansDto;
 	}
 
@@ -28,4 +36,43 @@ public class LoansMapper {
 		return loans;
 	}
 
-}
+	public static CustomerLoansDto mapToCustomerLoansDto(String mobileNumber, List<Loans> loans) {
+		CustomerLoansDto customerLoansDto = new CustomerLoansDto();
+		List<LoansDto> loansDtos = new ArrayList<>(loans.size());
+		for (Loans loan : loans) {
+			loansDtos.add(mapToLoansDto(loan, new LoansDto()));
+			customerLoansDto.setTotalLoan(customerLoansDto.getTotalLoan() + loan.getTotalLoan());
+			customerLoansDto.setAmountPaid(customerLoansDto.getAmountPaid() + loan.getAmountPaid());
+			customerLoansDto.setOutstandingAmount(customerLoansDto.getOutstandingAmount() + loan.getOutstandingAmount());
+		}
+		customerLoansDto.setMobileNumber(mobileNumber);
+		customerLoansDto.setLoans(loansDtos);
+		return customerLoansDto;
+	}
+
+	/**
+	 * @param page - Page number from 0, a page after the last one has no loans
+	 */
+	public static LoansPageDto mapToLoansPageDto(CustomerLoansDto customerLoansDto, int page, int size) {
+		List<LoansDto> loans = customerLoansDto.getLoans();
+		int from = (int) Math.min((long) page * size, loans.size());
+		CRC32 checksum = new CRC32();
+		for (LoansDto loan : loans) {
+			checksum.update((loan.getLoanNumber() + "-" + loan.getVersion() + ";").getBytes(StandardCharsets.US_ASCII));
+		}
+		LoansPageDto loansPageDto = new LoansPageDto();
+		loansPageDto.setMobileNumber(customerLoansDto.getMobileNumber());
+		loansPageDto.setLoans(List.copyOf(loans.subList(from, Math.min(from + size, loans.size()))));
+		loansPageDto.setPage(page);
+		loansPageDto.setSize(size);
+		loansPageDto.setTotalPages((loans.size() + size - 1) / size);
+		loansPageDto.setLoanCount(loans.size());
+		loansPageDto.setTotalLoan(customerLoansDto.getTotalLoan());
+		loansPageDto.setAmountPaid(customerLoansDto.getAmountPaid());
+		loansPageDto.setOutstandingAmount(customerLoansDto.getOutstandingAmount());
+		// The page and size are part of it, two pages of the same loans are different representations
+		loansPageDto.setVersion(page + "-" + size + "-" + loans.size() + "-" + Long.toHexString(checksum.getValue()));
+		return loansPageDto;
+	}
+
+}
\ No newline at end of file
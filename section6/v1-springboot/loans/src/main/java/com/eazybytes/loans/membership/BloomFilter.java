@@ -0,0 +1,141 @@
+package com.eazybytes.loans.membership;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Author: ldeepak
+ *
+ * Thread safe Bloom filter of strings. mightContain() never answers false for a value that was put,
+ * it answers true for a value that was not put with a probability close to the false positive rate it was sized for.
+ * Values cannot be removed, a removed value remains a false positive until the filter is rebuilt.
+ */
+
+/**
+ * The bits live in an AtomicLongArray, so put() and mightContain() can run concurrently without a lock.
+ * The k bit positions are derived from two 64 bit hashes as h1 + i * h2 (Kirsch and Mitzenmacher),
+ * which is as good as k independent hash functions for a Bloom filter.
+ */
+public class BloomFilter {
+
+	private static final double LN2 = Math.log(2);
+	private static final int MAX_HASH_FUNCTIONS = 30;
+	private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashFunctions;
+	private final AtomicLong entries = new AtomicLong();
+
+	private BloomFilter(long bitCount, int hashFunctions) {
+		this.bits = new AtomicLongArray(Math.toIntExact(bitCount / Long.SIZE));
+		this.bitCount = bitCount;
+		this.hashFunctions = hashFunctions;
+	}
+
+	/**
+	 * Sizes the filter for the expected number of entries and false positive rate.
+	 * When that needs more than maxBytes, the filter gets maxBytes and its false positive rate is higher than requested.
+	 *
+	 * @param expectedEntries - Number of entries the filter is sized for
+	 * @param falsePositiveRate - Wanted probability of a false positive, e.g. 0.01
+	 * @param maxBytes - Memory budget of the bit array
+	 */
+	public static BloomFilter create(long expectedEntries, double falsePositiveRate, long maxBytes) {
+		long entries = Math.max(1, expectedEntries);
+		double optimalBits = -entries * Math.log(falsePositiveRate) / (LN2 * LN2);
+		long maxBits = Math.max(Long.SIZE, maxBytes * Byte.SIZE);
+		long bitCount = Math.min((long) Math.ceil(optimalBits), maxBits);
+		// Whole longs, and an int index into the AtomicLongArray
+		bitCount = Math.min(Math.max(Long.SIZE, (bitCount + Long.SIZE - 1) / Long.SIZE * Long.SIZE),
+				(long) Integer.MAX_VALUE * Long.SIZE);
+		int hashFunctions = (int) Math.max(1, Math.min(MAX_HASH_FUNCTIONS, Math.round((double) bitCount / entries * LN2)));
+		return new BloomFilter(bitCount, hashFunctions);
+	}
+
+	/**
+	 * @return true if the value was not in the filter yet (at least one bit changed)
+	 */
+	public boolean put(CharSequence value) {
+		long h1 = hash(value);
+		long h2 = mix(h1 ^ SECOND_HASH_SEED);
+		boolean changed = false;
+		for (int i = 1; i <= hashFunctions; i++) {
+			changed |= setBit(index(h1, h2, i));
+		}
+		if (changed) {
+			entries.incrementAndGet();
+		}
+		return changed;
+	}
+
+	/**
+	 * @return false if the value was definitely never put, true if it probably was
+	 */
+	public boolean mightContain(CharSequence value) {
+		long h1 = hash(value);
+		long h2 = mix(h1 ^ SECOND_HASH_SEED);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long index = index(h1, h2, i);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the false positive rate for the entries put so far, (1 - e^(-k * n / m))^k
+	 */
+	public double expectedFalsePositiveRate() {
+		return Math.pow(1 - Math.exp(-(double) hashFunctions * entries.get() / bitCount), hashFunctions);
+	}
+
+	public long getEntries() {
+		return entries.get();
+	}
+
+	public long getBitCount() {
+		return bitCount;
+	}
+
+	public int getHashFunctions() {
+		return hashFunctions;
+	}
+
+	private long index(long h1, long h2, int i) {
+		return ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+	}
+
+	private boolean setBit(long index) {
+		int word = (int) (index >>> 6);
+		long mask = 1L << index;
+		long current = bits.get(word);
+		while ((current & mask) == 0) {
+			if (bits.compareAndSet(word, current, current | mask)) {
+				return true;
+			}
+			current = bits.get(word);
+		}
+		return false;
+	}
+
+	// FNV-1a over the characters, finished with the MurmurHash3 mix so that all the bits are well distributed
+	private static long hash(CharSequence value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,221 @@
+package com.eazybytes.loans.membership;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: ldeepak
+ *
+ * Answers "this mobile number definitely has no loan" without a database query.
+ * Loans are optional, so most of the fetch calls are for mobile numbers without a loan,
+ * each of them used to cost a query that found nothing.
+ *
+ * - A BloomFilter of the distinct mobile numbers of the loans table, built in the background at startup.
+ *   Until it is built every mobile number may exist, so the service simply queries the database as before.
+ * - A created loan is added once its transaction commits, and by the other instances when they receive the
+ *   invalidation of its cache entry (see CacheConfig), so none of them keeps answering 404 until its own rebuild.
+ *   Only the redis shared cache reaches the other instances: with cache.enabled=false or cache.shared.type=local
+ *   the filter stays off, unless membership-filter.single-instance says there are no other instances.
+ *   A Bloom filter cannot remove, a deleted loan stays in the filter
+ *   as a false positive (a query finding nothing, like before) until the next rebuild.
+ * - The filter is rebuilt every rebuild-interval, and sooner when it holds more entries than it was sized for.
+ *   During a rebuild new loans go to both the old and the new filter, so none is missed.
+ * - It is sized for the false-positive-rate, for twice the number of mobile numbers with a loan so that it can grow, but never uses more than max-memory.
+ */
+@Component
+public class MembershipFilter {
+
+	private static final Logger log = LoggerFactory.getLogger(MembershipFilter.class);
+
+	private static final String MOBILE_NUMBERS_SQL = "SELECT DISTINCT mobile_number FROM loans";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean enabled;
+	private final long minExpectedEntries;
+	private final double falsePositiveRate;
+	private final long maxBytes;
+	private final Duration rebuildInterval;
+	private final ScheduledExecutorService rebuildScheduler;
+	private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+	private final AtomicLong staleEntries = new AtomicLong();
+	private final Counter absent;
+	private final Counter mightExist;
+	private final Counter falsePositives;
+	private final Counter rebuilds;
+
+	private volatile BloomFilter filter;
+	private volatile BloomFilter building;
+	private volatile long expectedEntries;
+
+	public MembershipFilter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+							@Value("${membership-filter.enabled:true}") boolean enabled,
+							@Value("${membership-filter.expected-entries:100000}") long minExpectedEntries,
+							@Value("${membership-filter.false-positive-rate:0.01}") double falsePositiveRate,
+							@Value("${membership-filter.max-memory:16MB}") DataSize maxMemory,
+							@Value("${membership-filter.rebuild-interval:1h}") Duration rebuildInterval,
+							@Value("${membership-filter.single-instance:false}") boolean singleInstance,
+							@Value("${cache.enabled:true}") boolean cacheEnabled,
+							@Value("${cache.shared.type:local}") String sharedCacheType) {
+		this.jdbcTemplate = jdbcTemplate;
+		// Without the invalidations of the other instances, their new entries would be answered 404 here until the next rebuild
+		boolean propagated = singleInstance || (cacheEnabled && "redis".equals(sharedCacheType));
+		if (enabled && !propagated) {
+			log.info("Membership filter disabled: the entries created on other instances only reach it through the redis shared cache, "
+					+ "set cache.shared.type=redis or membership-filter.single-instance=true");
+		}
+		this.enabled = enabled && propagated;
+		this.minExpectedEntries = minExpectedEntries;
+		this.falsePositiveRate = falsePositiveRate;
+		this.maxBytes = maxMemory.toBytes();
+		this.rebuildInterval = rebuildInterval;
+		this.rebuildScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "membership-filter-rebuild");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.absent = Counter.builder("membership.filter.checks").tag("result", "absent").register(meterRegistry);
+		this.mightExist = Counter.builder("membership.filter.checks").tag("result", "might_exist").register(meterRegistry);
+		this.falsePositives = Counter.builder("membership.filter.false.positives").register(meterRegistry);
+		this.rebuilds = Counter.builder("membership.filter.rebuilds").register(meterRegistry);
+		Gauge.builder("membership.filter.entries", this, m -> m.filter == null ? 0 : m.filter.getEntries()).register(meterRegistry);
+		Gauge.builder("membership.filter.stale.entries", staleEntries, AtomicLong::get).register(meterRegistry);
+		Gauge.builder("membership.filter.size", this, m -> m.filter == null ? 0 : m.filter.getBitCount() / Byte.SIZE)
+				.baseUnit("bytes").register(meterRegistry);
+		Gauge.builder("membership.filter.expected.fpp", this, m -> m.filter == null ? 1 : m.filter.expectedFalsePositiveRate())
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		if (enabled) {
+			rebuildScheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildInterval.toNanos(), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * @return false if the mobile number definitely has no loan, true if it may have one and the database must be asked
+	 */
+	public boolean mightExist(String mobileNumber) {
+		BloomFilter current = filter;
+		if (current == null || mobileNumber == null) {
+			return true;
+		}
+		if (current.mightContain(mobileNumber)) {
+			mightExist.increment();
+			return true;
+		}
+		absent.increment();
+		return false;
+	}
+
+	/**
+	 * To be called after a loan was saved for the mobile number,
+	 * it is added after the commit of the current transaction if there is one.
+	 * Also called with every key invalidated by another instance, a key already in the filter is left as is.
+	 */
+	public void added(String mobileNumber) {
+		if (mobileNumber == null) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					addNow(mobileNumber);
+				}
+			});
+		} else {
+			addNow(mobileNumber);
+		}
+	}
+
+	private void addNow(String mobileNumber) {
+		BloomFilter next = building;
+		if (next != null) {
+			next.put(mobileNumber);
+		}
+		BloomFilter current = filter;
+		if (current != null) {
+			current.put(mobileNumber);
+			if (current.getEntries() > expectedEntries) {
+				scheduleRebuild();
+			}
+		}
+	}
+
+	/**
+	 * To be called after the last loan of the mobile number was deleted, it stays in the filter until the next rebuild.
+	 */
+	public void removed(String mobileNumber) {
+		if (filter != null) {
+			staleEntries.incrementAndGet();
+		}
+	}
+
+	/**
+	 * To be called when the filter answered mightExist but the database had nothing, the observed false positives.
+	 */
+	public void falsePositive() {
+		falsePositives.increment();
+	}
+
+	/**
+	 * Builds a new filter from the table and swaps it in.
+	 */
+	public synchronized void rebuild() {
+		try {
+			long start = System.nanoTime();
+			Long mobileNumbers = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT mobile_number) FROM loans", Long.class);
+			long expected = Math.max(minExpectedEntries, 2 * (mobileNumbers == null ? 0 : mobileNumbers));
+			BloomFilter next = BloomFilter.create(expected, falsePositiveRate, maxBytes);
+			// Loans created from now on are also put in the new filter by added()
+			building = next;
+			long staleBeforeScan = staleEntries.get();
+			jdbcTemplate.query(MOBILE_NUMBERS_SQL, resultSet -> {
+				next.put(resultSet.getString(1));
+			});
+			expectedEntries = expected;
+			filter = next;
+			staleEntries.addAndGet(-staleBeforeScan);
+			rebuilds.increment();
+			log.info("Membership filter rebuilt with {} mobile numbers in {} ms: {} bytes, {} hash functions, expected false positive rate {}",
+					next.getEntries(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), next.getBitCount() / Byte.SIZE,
+					next.getHashFunctions(), next.expectedFalsePositiveRate());
+		} catch (RuntimeException ex) {
+			// The previous filter (or none, every mobile number may exist) is kept until the next attempt
+			log.warn("Membership filter rebuild failed", ex);
+		} finally {
+			building = null;
+			rebuildScheduled.set(false);
+		}
+	}
+
+	private void scheduleRebuild() {
+		if (rebuildScheduled.compareAndSet(false, true)) {
+			rebuildScheduler.execute(this::rebuild);
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		rebuildScheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,349 @@
+package com.eazybytes.loans.portfolio;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Author: ldeepak
+ *
+ * Column store of the loans: one primitive array per column, the loan of slot i is at index i of every array.
+ * An aggregation reads a few int arrays front to back instead of millions of objects scattered over the heap,
+ * and the arrays split into ranges that are aggregated in parallel on a ForkJoinPool.
+ */
+
+/**
+ * - Loan types and borrowers (mobile numbers) are dictionary encoded, the arrays hold their int codes.
+ * - The slot of a deleted loan is marked FREE and reused by the next new loan.
+ * - The outstanding amount of every borrower is kept up to date on each change, for the concentration metrics.
+ * - Not thread-safe, the LoanPortfolio guards it with a read/write lock.
+ */
+final class LoanColumns {
+
+	private static final int FREE = -1;
+
+	// Leaf size of the fork-join tasks, big enough for the split overhead to be negligible
+	private static final int SPLIT_THRESHOLD = 1 << 15;
+
+	// Upper bounds (exclusive, in days since the last activity) of the delinquency buckets, the last bucket is unbounded
+	static final int[] DELINQUENCY_BOUNDS = {30, 60, 90};
+	static final int DELINQUENCY_BUCKETS = DELINQUENCY_BOUNDS.length + 1;
+
+	private final Map<Long, Integer> slotsByLoanId = new HashMap<>();
+	private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+	private final Map<String, Integer> loanTypeCodes = new HashMap<>();
+	private final List<String> loanTypes = new ArrayList<>();
+	private final Map<String, Integer> borrowerCodes = new HashMap<>();
+	private final List<String> borrowers = new ArrayList<>();
+
+	private int[] loanType;
+	private int[] borrower;
+	private int[] totalLoan;
+	private int[] amountPaid;
+	private int[] outstandingAmount;
+	private int[] lastActivityDay;
+	private long[] borrowerOutstanding;
+	private int slotCount;
+
+	LoanColumns(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 16);
+		loanType = new int[capacity];
+		borrower = new int[capacity];
+		totalLoan = new int[capacity];
+		amountPaid = new int[capacity];
+		outstandingAmount = new int[capacity];
+		lastActivityDay = new int[capacity];
+		borrowerOutstanding = new long[capacity];
+	}
+
+	int loanCount() {
+		return slotsByLoanId.size();
+	}
+
+	String loanTypeName(int code) {
+		return loanTypes.get(code);
+	}
+
+	String borrowerMobileNumber(int code) {
+		return borrowers.get(code);
+	}
+
+	/**
+	 * Adds the loan, or replaces its previous state. Applying the same state twice leaves the columns unchanged.
+	 */
+	void upsert(LoanRow row) {
+		Integer slot = slotsByLoanId.get(row.loanId());
+		if (slot == null) {
+			slot = freeSlots.isEmpty() ? nextSlot() : freeSlots.pop();
+			slotsByLoanId.put(row.loanId(), slot);
+		} else {
+			borrowerOutstanding[borrower[slot]] -= outstandingAmount[slot];
+		}
+		int borrowerCode = borrowerCode(row.mobileNumber());
+		loanType[slot] = loanTypeCode(row.loanType());
+		borrower[slot] = borrowerCode;
+		totalLoan[slot] = row.totalLoan();
+		amountPaid[slot] = row.amountPaid();
+		outstandingAmount[slot] = row.outstandingAmount();
+		lastActivityDay[slot] = (int) row.lastActivity().toEpochDay();
+		borrowerOutstanding[borrowerCode] += row.outstandingAmount();
+	}
+
+	void remove(long loanId) {
+		Integer slot = slotsByLoanId.remove(loanId);
+		if (slot == null) {
+			return;
+		}
+		borrowerOutstanding[borrower[slot]] -= outstandingAmount[slot];
+		loanType[slot] = FREE;
+		freeSlots.push(slot);
+	}
+
+	private int nextSlot() {
+		if (slotCount == loanType.length) {
+			int capacity = loanType.length * 2;
+			loanType = Arrays.copyOf(loanType, capacity);
+			borrower = Arrays.copyOf(borrower, capacity);
+			totalLoan = Arrays.copyOf(totalLoan, capacity);
+			amountPaid = Arrays.copyOf(amountPaid, capacity);
+			outstandingAmount = Arrays.copyOf(outstandingAmount, capacity);
+			lastActivityDay = Arrays.copyOf(lastActivityDay, capacity);
+		}
+		return slotCount++;
+	}
+
+	private int loanTypeCode(String name) {
+		return loanTypeCodes.computeIfAbsent(name, key -> {
+			loanTypes.add(key);
+			return loanTypes.size() - 1;
+		});
+	}
+
+	private int borrowerCode(String mobileNumber) {
+		return borrowerCodes.computeIfAbsent(mobileNumber, key -> {
+			borrowers.add(key);
+			if (borrowers.size() > borrowerOutstanding.length) {
+				borrowerOutstanding = Arrays.copyOf(borrowerOutstanding, borrowerOutstanding.length * 2);
+			}
+			return borrowers.size() - 1;
+		});
+	}
+
+	/**
+	 * @param today - Epoch day the delinquency is measured at
+	 * @return the totals per loan type code
+	 */
+	Totals totals(ForkJoinPool pool, int today) {
+		return pool.invoke(new TotalsTask(this, loanTypes.size(), today, 0, slotCount));
+	}
+
+	/**
+	 * @param top - Number of largest borrowers returned
+	 */
+	Borrowers borrowers(ForkJoinPool pool, int top) {
+		return pool.invoke(new BorrowersTask(borrowerOutstanding, top, 0, borrowers.size()));
+	}
+
+	static int delinquencyBucket(int daysSinceLastActivity) {
+		for (int bucket = 0; bucket < DELINQUENCY_BOUNDS.length; bucket++) {
+			if (daysSinceLastActivity < DELINQUENCY_BOUNDS[bucket]) {
+				return bucket;
+			}
+		}
+		return DELINQUENCY_BOUNDS.length;
+	}
+
+	/**
+	 * Sums per loan type code. The delinquency arrays are indexed by loan type code * DELINQUENCY_BUCKETS + bucket
+	 * and only count the loans with an outstanding amount.
+	 */
+	static final class Totals {
+
+		final long[] loans;
+		final long[] totalLoan;
+		final long[] amountPaid;
+		final long[] outstandingAmount;
+		final long[] delinquentLoans;
+		final long[] delinquentOutstandingAmount;
+
+		Totals(int loanTypes) {
+			loans = new long[loanTypes];
+			totalLoan = new long[loanTypes];
+			amountPaid = new long[loanTypes];
+			outstandingAmount = new long[loanTypes];
+			delinquentLoans = new long[loanTypes * DELINQUENCY_BUCKETS];
+			delinquentOutstandingAmount = new long[loanTypes * DELINQUENCY_BUCKETS];
+		}
+
+		Totals merge(Totals other) {
+			add(loans, other.loans);
+			add(totalLoan, other.totalLoan);
+			add(amountPaid, other.amountPaid);
+			add(outstandingAmount, other.outstandingAmount);
+			add(delinquentLoans, other.delinquentLoans);
+			add(delinquentOutstandingAmount, other.delinquentOutstandingAmount);
+			return this;
+		}
+
+		private static void add(long[] into, long[] values) {
+			for (int i = 0; i < into.length; i++) {
+				into[i] += values[i];
+			}
+		}
+	}
+
+	private static final class TotalsTask extends RecursiveTask<Totals> {
+
+		private final LoanColumns columns;
+		private final int loanTypes;
+		private final int today;
+		private final int from;
+		private final int to;
+
+		private TotalsTask(LoanColumns columns, int loanTypes, int today, int from, int to) {
+			this.columns = columns;
+			this.loanTypes = loanTypes;
+			this.today = today;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Totals compute() {
+			if (to - from > SPLIT_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				TotalsTask left = new TotalsTask(columns, loanTypes, today, from, middle);
+				left.fork();
+				Totals right = new TotalsTask(columns, loanTypes, today, middle, to).compute();
+				return left.join().merge(right);
+			}
+			Totals totals = new Totals(loanTypes);
+			for (int slot = from; slot < to; slot++) {
+				int type = columns.loanType[slot];
+				if (type == FREE) {
+					continue;
+				}
+				int outstanding = columns.outstandingAmount[slot];
+				totals.loans[type]++;
+				totals.totalLoan[type] += columns.totalLoan[slot];
+				totals.amountPaid[type] += columns.amountPaid[slot];
+				totals.outstandingAmount[type] += outstanding;
+				if (outstanding > 0) {
+					int bucket = type * DELINQUENCY_BUCKETS + delinquencyBucket(today - columns.lastActivityDay[slot]);
+					totals.delinquentLoans[bucket]++;
+					totals.delinquentOutstandingAmount[bucket] += outstanding;
+				}
+			}
+			return totals;
+		}
+	}
+
+	/**
+	 * Concentration of the outstanding amount over the borrowers.
+	 *
+	 * @param top - Borrower codes with the largest outstanding amounts, largest first
+	 */
+	record Borrowers(int count, long outstandingAmount, double sumOfSquares, int[] top, long[] topOutstandingAmount) {
+
+		/**
+		 * @return the Herfindahl-Hirschman index, from 1/count (evenly spread) to 1 (a single borrower)
+		 */
+		double herfindahlIndex() {
+			return outstandingAmount == 0 ? 0 : sumOfSquares / ((double) outstandingAmount * outstandingAmount);
+		}
+	}
+
+	private static final class BorrowersTask extends RecursiveTask<Borrowers> {
+
+		private final long[] borrowerOutstanding;
+		private final int top;
+		private final int from;
+		private final int to;
+
+		private BorrowersTask(long[] borrowerOutstanding, int top, int from, int to) {
+			this.borrowerOutstanding = borrowerOutstanding;
+			this.top = top;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Borrowers compute() {
+			if (to - from > SPLIT_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				BorrowersTask left = new BorrowersTask(borrowerOutstanding, top, from, middle);
+				left.fork();
+				Borrowers right = new BorrowersTask(borrowerOutstanding, top, middle, to).compute();
+				Borrowers leftResult = left.join();
+				TopBorrowers merged = new TopBorrowers(top);
+				merged.offerAll(leftResult);
+				merged.offerAll(right);
+				return new Borrowers(leftResult.count() + right.count(), leftResult.outstandingAmount() + right.outstandingAmount(),
+						leftResult.sumOfSquares() + right.sumOfSquares(), merged.codes(), merged.amounts());
+			}
+			TopBorrowers topBorrowers = new TopBorrowers(top);
+			int count = 0;
+			long outstanding = 0;
+			double sumOfSquares = 0;
+			for (int code = from; code < to; code++) {
+				long amount = borrowerOutstanding[code];
+				if (amount <= 0) {
+					continue;
+				}
+				count++;
+				outstanding += amount;
+				sumOfSquares += (double) amount * amount;
+				topBorrowers.offer(code, amount);
+			}
+			return new Borrowers(count, outstanding, sumOfSquares, topBorrowers.codes(), topBorrowers.amounts());
+		}
+	}
+
+	/**
+	 * The largest amounts seen, kept sorted largest first. top is small, an insertion is a shift of a few entries.
+	 */
+	private static final class TopBorrowers {
+
+		private final int[] codes;
+		private final long[] amounts;
+		private int size;
+
+		private TopBorrowers(int top) {
+			codes = new int[top];
+			amounts = new long[top];
+		}
+
+		private void offer(int code, long amount) {
+			if (codes.length == 0 || (size == codes.length && amount <= amounts[size - 1])) {
+				return;
+			}
+			int position = size < codes.length ? size++ : size - 1;
+			while (position > 0 && amounts[position - 1] < amount) {
+				codes[position] = codes[position - 1];
+				amounts[position] = amounts[position - 1];
+				position--;
+			}
+			codes[position] = code;
+			amounts[position] = amount;
+		}
+
+		private void offerAll(Borrowers borrowers) {
+			for (int i = 0; i < borrowers.top().length; i++) {
+				offer(borrowers.top()[i], borrowers.topOutstandingAmount()[i]);
+			}
+		}
+
+		private int[] codes() {
+			return Arrays.copyOf(codes, size);
+		}
+
+		private long[] amounts() {
+			return Arrays.copyOf(amounts, size);
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package com.eazybytes.loans.portfolio;
+
+import com.eazybytes.loans.dto.LoanPortfolioDto;
+import com.eazybytes.loans.dto.LoanTypePortfolioDto;
+import com.eazybytes.loans.entity.Loans;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Author: ldeepak
+ *
+ * In-memory copy of the loans table for the portfolio risk queries (/api/loans/portfolio):
+ * totals and delinquency per loan type, and the concentration of the outstanding amount over the borrowers.
+ * The queries run over the LoanColumns on a ForkJoinPool, in milliseconds and without touching the database.
+ */
+
+/**
+ * - Built from the loans table in the background at startup, and rebuilt every rebuild-interval,
+ *   which also brings in the writes of the other instances.
+ * - Every create, update and delete queues the new state of the loan after its transaction commits.
+ *   The queue is applied every refresh-interval, all at once under the write lock, so the queries wait at most for one batch.
+ * - Both run on the same thread: changes queued while a rebuild reads the table are applied to the rebuilt columns.
+ *   Changes are full states, applying one the rebuild already read changes nothing.
+ */
+@Component
+public class LoanPortfolio {
+
+	private static final Logger log = LoggerFactory.getLogger(LoanPortfolio.class);
+
+	private static final String LOANS_SQL = "SELECT loan_id, mobile_number, loan_type, total_loan, amount_paid, outstanding_amount, "
+			+ "COALESCE(updated_at, created_at) AS last_activity FROM loans";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Duration refreshInterval;
+	private final Duration rebuildInterval;
+	private final ForkJoinPool pool;
+	private final ScheduledExecutorService scheduler;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Queue<LoanChange> changes = new ConcurrentLinkedQueue<>();
+	private final Timer queryTimer;
+
+	private LoanColumns columns = new LoanColumns(0);
+	private volatile LocalDateTime rebuiltAt;
+
+	public LoanPortfolio(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+						 @Value("${portfolio.refresh-interval:1s}") Duration refreshInterval,
+						 @Value("${portfolio.rebuild-interval:30m}") Duration rebuildInterval,
+						 @Value("${portfolio.parallelism:0}") int parallelism) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.refreshInterval = refreshInterval;
+		this.rebuildInterval = rebuildInterval;
+		this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "loan-portfolio-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.queryTimer = Timer.builder("loans.portfolio.query.duration").register(meterRegistry);
+		Gauge.builder("loans.portfolio.changes.pending", changes, Queue::size).register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		scheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildInterval.toNanos(), TimeUnit.NANOSECONDS);
+		scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval.toNanos(), refreshInterval.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * To be called when a loan was created or updated.
+	 */
+	public void saved(Loans loans) {
+		LoanChange change = new LoanChange(loans.getLoanId(), LoanRow.of(loans, LocalDate.now()));
+		afterCommit(() -> changes.add(change));
+	}
+
+	/**
+	 * To be called when a loan was deleted.
+	 */
+	public void deleted(Long loanId) {
+		LoanChange change = new LoanChange(loanId, null);
+		afterCommit(() -> changes.add(change));
+	}
+
+	/**
+	 * @param top - Number of largest borrowers returned
+	 * @return the portfolio as of the last applied changes, empty until the first build completed
+	 */
+	public LoanPortfolioDto query(int top) {
+		long started = System.nanoTime();
+		lock.readLock().lock();
+		try {
+			LoanColumns current = columns;
+			LoanColumns.Totals totals = current.totals(pool, (int) LocalDate.now().toEpochDay());
+			LoanColumns.Borrowers borrowers = current.borrowers(pool, top);
+
+			Map<String, LoanTypePortfolioDto> loanTypes = new TreeMap<>();
+			for (int type = 0; type < totals.loans.length; type++) {
+				if (totals.loans[type] == 0) {
+					continue;
+				}
+				List<LoanTypePortfolioDto.DelinquencyBucket> buckets = new ArrayList<>(LoanColumns.DELINQUENCY_BUCKETS);
+				for (int bucket = 0; bucket < LoanColumns.DELINQUENCY_BUCKETS; bucket++) {
+					int index = type * LoanColumns.DELINQUENCY_BUCKETS + bucket;
+					buckets.add(new LoanTypePortfolioDto.DelinquencyBucket(delinquencyRange(bucket),
+							totals.delinquentLoans[index], totals.delinquentOutstandingAmount[index]));
+				}
+				loanTypes.put(current.loanTypeName(type), new LoanTypePortfolioDto(totals.loans[type], totals.totalLoan[type],
+						totals.amountPaid[type], totals.outstandingAmount[type], buckets));
+			}
+
+			List<LoanPortfolioDto.Borrower> topBorrowers = new ArrayList<>(borrowers.top().length);
+			long topOutstanding = 0;
+			for (int i = 0; i < borrowers.top().length; i++) {
+				long amount = borrowers.topOutstandingAmount()[i];
+				topOutstanding += amount;
+				topBorrowers.add(new LoanPortfolioDto.Borrower(current.borrowerMobileNumber(borrowers.top()[i]), amount,
+						share(amount, borrowers.outstandingAmount())));
+			}
+			return new LoanPortfolioDto(current.loanCount(), loanTypes, borrowers.count(), borrowers.herfindahlIndex(),
+					share(topOutstanding, borrowers.outstandingAmount()), topBorrowers, rebuiltAt);
+		} finally {
+			lock.readLock().unlock();
+			queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private static double share(long amount, long total) {
+		return total == 0 ? 0 : (double) amount / total;
+	}
+
+	private static String delinquencyRange(int bucket) {
+		int[] bounds = LoanColumns.DELINQUENCY_BOUNDS;
+		if (bucket == bounds.length) {
+			return bounds[bucket - 1] + "+";
+		}
+		return (bucket == 0 ? 0 : bounds[bucket - 1]) + "-" + (bounds[bucket] - 1);
+	}
+
+	private void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+
+	private void refresh() {
+		if (changes.isEmpty()) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			LoanChange change;
+			while ((change = changes.poll()) != null) {
+				change.applyTo(columns);
+			}
+		} catch (RuntimeException ex) {
+			log.warn("Could not apply the loan changes to the portfolio", ex);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void rebuild() {
+		try {
+			long started = System.nanoTime();
+			Long loans = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loans", Long.class);
+			LoanColumns next = new LoanColumns((int) Math.min(Integer.MAX_VALUE - 8, loans == null ? 0 : loans + loans / 4));
+			jdbcTemplate.query(LOANS_SQL, resultSet -> {
+				next.upsert(new LoanRow(resultSet.getLong("loan_id"), resultSet.getString("mobile_number"),
+						resultSet.getString("loan_type"), resultSet.getInt("total_loan"), resultSet.getInt("amount_paid"),
+						resultSet.getInt("outstanding_amount"), resultSet.getDate("last_activity").toLocalDate()));
+			});
+			lock.writeLock().lock();
+			try {
+				columns = next;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			rebuiltAt = LocalDateTime.now();
+			log.info("Loan portfolio of {} loans rebuilt in {} ms", next.loanCount(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+		} catch (RuntimeException ex) {
+			log.warn("Could not rebuild the loan portfolio", ex);
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		scheduler.shutdownNow();
+		pool.shutdownNow();
+	}
+
+	/**
+	 * @param row - New state of the loan, null for a deleted loan
+	 */
+	private record LoanChange(long loanId, LoanRow row) {
+
+		private void applyTo(LoanColumns columns) {
+			if (row == null) {
+				columns.remove(loanId);
+			} else {
+				columns.upsert(row);
+			}
+		}
+	}
+}
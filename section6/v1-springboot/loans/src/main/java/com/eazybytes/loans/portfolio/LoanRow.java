@@ -0,0 +1,21 @@
+package com.eazybytes.loans.portfolio;
+
+import com.eazybytes.loans.entity.Loans;
+
+import java.time.LocalDate;
+
+/**
+ * Author: ldeepak
+ *
+ * State of a loan as held by the LoanPortfolio.
+ *
+ * @param lastActivity - Day of the last change of the loan (a payment updates it), the base of the delinquency buckets
+ */
+record LoanRow(long loanId, String mobileNumber, String loanType, int totalLoan, int amountPaid, int outstandingAmount,
+			   LocalDate lastActivity) {
+
+	static LoanRow of(Loans loans, LocalDate lastActivity) {
+		return new LoanRow(loans.getLoanId(), loans.getMobileNumber(), loans.getLoanType(), loans.getTotalLoan(),
+				loans.getAmountPaid(), loans.getOutstandingAmount(), lastActivity);
+	}
+}
@@ -0,0 +1,90 @@
+package com.eazybytes.loans.profiling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Author: ldeepak
+ *
+ * Always-on Java Flight Recorder recording, so that a latency spike can be analysed after the fact
+ * without attaching a profiler. It uses the JDK "default" settings (about 1% overhead) plus the ServiceOperationEvent,
+ * and keeps the last max-age (bounded by max-size) of data on disk.
+ * The events carrying the environment variables, system properties, JVM arguments and processes of the host are disabled,
+ * the recording may hold credentials otherwise.
+ */
+@Component
+public class ContinuousRecording {
+
+	private static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+			"jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+	private final Duration maxAge;
+	private final long maxSizeBytes;
+	private final Duration operationThreshold;
+	private Recording recording;
+
+	public ContinuousRecording(@Value("${profiling.max-age:30m}") Duration maxAge,
+							   @Value("${profiling.max-size-mb:100}") long maxSizeMb,
+							   @Value("${profiling.operation-threshold:0ms}") Duration operationThreshold) {
+		this.maxAge = maxAge;
+		this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+		this.operationThreshold = operationThreshold;
+	}
+
+	@PostConstruct
+	void start() throws IOException, ParseException {
+		Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+		SENSITIVE_EVENTS.forEach(event -> settings.put(event + "#enabled", "false"));
+		recording = new Recording(settings);
+		recording.setName("loans-continuous");
+		recording.setToDisk(true);
+		recording.setMaxAge(maxAge);
+		recording.setMaxSize(maxSizeBytes);
+		recording.enable(ServiceOperationEvent.class).withThreshold(operationThreshold);
+		recording.start();
+	}
+
+	/**
+	 * Writes the data recorded during the last window to a temporary .jfr file.
+	 *
+	 * @param window - How far back to go, capped at max-age
+	 * @return the file, empty if nothing was recorded in the window
+	 */
+	public Optional<Path> dump(Duration window) throws IOException {
+		Duration effectiveWindow = window.compareTo(maxAge) > 0 ? maxAge : window;
+		Instant end = Instant.now();
+		// A snapshot flushes what the running recording still holds in memory, so the last seconds are included
+		try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot();
+			 InputStream stream = snapshot.getStream(end.minus(effectiveWindow), end)) {
+			if (stream == null) {
+				return Optional.empty();
+			}
+			Path file = Files.createTempFile("loans-", ".jfr");
+			Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+			return Optional.of(file);
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		recording.close();
+	}
+}
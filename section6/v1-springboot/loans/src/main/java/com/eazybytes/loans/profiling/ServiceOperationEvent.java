@@ -0,0 +1,37 @@
+package com.eazybytes.loans.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Author: ldeepak
+ *
+ * Java Flight Recorder event emitted for every call of a service operation (createLoan, fetchLoans...).
+ * The duration is recorded by JFR itself between begin() and end().
+ * Open a recording in JDK Mission Control and look for EazyBank > Loans > Service Operation.
+ */
+@Name("com.eazybytes.loans.ServiceOperation")
+@Label("Service Operation")
+@Category({"EazyBank", "Loans"})
+@Description("Call of a method of the loans service layer")
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Mobile Number Hash")
+	@Description("Truncated SHA-256 of the mobile number, correlates the calls of one customer without recording the number")
+	String mobileNumberHash;
+
+	@Label("Statement Count")
+	@Description("SQL statements prepared by Hibernate during the operation")
+	long statementCount;
+
+	@Label("Failed")
+	boolean failed;
+}
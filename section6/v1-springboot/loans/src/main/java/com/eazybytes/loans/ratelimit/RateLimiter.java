@@ -0,0 +1,84 @@
+package com.eazybytes.loans.ratelimit;
+
+import com.eazybytes.loans.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * Per client rate limits of the create and update endpoints, protecting the database from abusive clients.
+ * A write has to get a token from the bucket of its API key (X-API-Key header, requests without it share the anonymous bucket)
+ * and from the bucket of the mobile number it changes. Both buckets are checked before any token is taken,
+ * so a write rejected by one limit does not use up the other one.
+ * Rejected writes are counted in ratelimit.rejected, tagged by the limit which rejected them.
+ */
+@Component
+public class RateLimiter {
+
+	private static final String ANONYMOUS = "anonymous";
+
+	private final boolean enabled;
+	private final TokenBucketStore apiKeyBuckets;
+	private final TokenBucketStore mobileNumberBuckets;
+	private final Counter apiKeyRejections;
+	private final Counter mobileNumberRejections;
+
+	public RateLimiter(@Value("${rate-limit.enabled:true}") boolean enabled,
+					   @Value("${rate-limit.api-key.permits-per-second:50}") double apiKeyPermitsPerSecond,
+					   @Value("${rate-limit.api-key.burst:100}") int apiKeyBurst,
+					   @Value("${rate-limit.mobile-number.permits-per-second:1}") double mobileNumberPermitsPerSecond,
+					   @Value("${rate-limit.mobile-number.burst:5}") int mobileNumberBurst,
+					   @Value("${rate-limit.max-entries:100000}") int maxEntries,
+					   MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.apiKeyBuckets = new TokenBucketStore(apiKeyPermitsPerSecond, apiKeyBurst, maxEntries);
+		this.mobileNumberBuckets = new TokenBucketStore(mobileNumberPermitsPerSecond, mobileNumberBurst, maxEntries);
+		this.apiKeyRejections = Counter.builder("ratelimit.rejected").tag("limit", "api-key").register(meterRegistry);
+		this.mobileNumberRejections = Counter.builder("ratelimit.rejected").tag("limit", "mobile-number").register(meterRegistry);
+	}
+
+	/**
+	 * @param apiKey - Value of the X-API-Key header, may be null
+	 * @param mobileNumber - Mobile number changed by the write
+	 * @throws RateLimitExceededException when one of the limits is exceeded
+	 */
+	public void checkWrite(String apiKey, String mobileNumber) {
+		if (!enabled) {
+			return;
+		}
+		String apiKeyBucket = apiKey == null || apiKey.isBlank() ? ANONYMOUS : apiKey;
+		checkApiKey(apiKeyBuckets.waitNanos(apiKeyBucket));
+		if (mobileNumber != null) {
+			checkMobileNumber(mobileNumberBuckets.waitNanos(mobileNumber), mobileNumber);
+		}
+		// Both limits allow the write, only now are the tokens taken.
+		// A concurrent write may still take the last token in between, the write is then rejected as usual
+		checkApiKey(apiKeyBuckets.tryAcquire(apiKeyBucket));
+		if (mobileNumber != null) {
+			checkMobileNumber(mobileNumberBuckets.tryAcquire(mobileNumber), mobileNumber);
+		}
+	}
+
+	private void checkApiKey(long waitNanos) {
+		if (waitNanos > 0) {
+			apiKeyRejections.increment();
+			throw new RateLimitExceededException("Too many requests for this API key", retryAfterSeconds(waitNanos));
+		}
+	}
+
+	private void checkMobileNumber(long waitNanos, String mobileNumber) {
+		if (waitNanos > 0) {
+			mobileNumberRejections.increment();
+			throw new RateLimitExceededException("Too many requests for mobile number " + mobileNumber, retryAfterSeconds(waitNanos));
+		}
+	}
+
+	private static long retryAfterSeconds(long waitNanos) {
+		return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+	}
+}
@@ -0,0 +1,45 @@
+package com.eazybytes.loans.replica;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ *
+ * Settings of the read replicas, bound from the "read-replicas" prefix.
+ *
+ * @param enabled - When false every query goes to spring.datasource as before
+ * @param readYourWritesWindow - After a write, the reads of the same mobile number go to the primary for this long.
+ *                               Must be longer than the replication lag of the replicas
+ * @param replicas - Replica databases keyed by replica name
+ * @param simulatedReplication - Copies the primary to the replicas, for local testing with H2 which has no replication
+ */
+@ConfigurationProperties(prefix = "read-replicas")
+public record ReplicaProperties(@DefaultValue("false") boolean enabled, @DefaultValue("5s") Duration readYourWritesWindow,
+								Map<String, Replica> replicas, @DefaultValue SimulatedReplication simulatedReplication) {
+
+	/**
+	 * @param url - JDBC URL of the replica database
+	 * @param username - Database user
+	 * @param password - Database password
+	 * @param maxPoolSize - Connections of the pool of this replica
+	 * @param connectionTimeout - Longest wait for a connection of this replica, the read then goes to the primary
+	 */
+	public record Replica(String url, String username, @DefaultValue("") String password,
+						  @DefaultValue("10") int maxPoolSize, @DefaultValue("2s") Duration connectionTimeout) {
+	}
+
+	/**
+	 * @param enabled - Copy the tables of the primary to every replica
+	 * @param tables - Tables copied
+	 * @param interval - A copy of the tables is taken this often
+	 * @param delay - Artificial replication lag: a copy is applied to the replicas only this long after it was taken
+	 */
+	public record SimulatedReplication(@DefaultValue("false") boolean enabled, List<String> tables,
+									   @DefaultValue("500ms") Duration interval, @DefaultValue("2s") Duration delay) {
+	}
+}
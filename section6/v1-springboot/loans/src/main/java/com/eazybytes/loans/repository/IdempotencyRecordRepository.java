@@ -0,0 +1,14 @@
+package com.eazybytes.loans.repository;
+
+import com.eazybytes.loans.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Author: ldeepak
+ *
+ * Repository interface for IdempotencyRecord entity operations.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+}
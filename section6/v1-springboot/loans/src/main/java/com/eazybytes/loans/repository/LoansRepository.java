@@ -4,6 +4,8 @@ import com.eazybytes.loans.entity.Loans;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,7 +14,12 @@ import java.util.Optional;
 @Repository
 public interface LoansRepository extends JpaRepository<Loans, Long> {
 
-	Optional<Loans> findByMobileNumber(String mobileNumber);
+	// Both served by the (mobile_number, loan_id) index of schema.sql
+	List<Loans> findByMobileNumberOrderByLoanIdAsc(String mobileNumber);
+
+	List<Loans> findByMobileNumberInOrderByLoanIdAsc(Collection<String> mobileNumbers);
+
+	boolean existsByMobileNumber(String mobileNumber);
 
 	Optional<Loans> findByLoanNumber(String loanNumber);
 
@@ -0,0 +1,25 @@
+package com.eazybytes.loans.service;
+
+import com.eazybytes.loans.dto.EligibilityDto;
+
+import java.util.List;
+
+/**
+ * Author: ldeepak
+ */
+public interface IEligibilityService {
+
+	/**
+	 *
+	 * @param mobileNumber - Mobile Number of the applicant
+	 * @return Loan eligibility of the applicant
+	 */
+	EligibilityDto checkEligibility(String mobileNumber);
+
+	/**
+	 *
+	 * @param mobileNumbers - Mobile Numbers of the applicants
+	 * @return Loan eligibility of each distinct applicant, in the order of the request
+	 */
+	List<EligibilityDto> checkEligibility(List<String> mobileNumbers);
+}
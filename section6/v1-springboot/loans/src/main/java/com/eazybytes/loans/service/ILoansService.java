@@ -1,7 +1,12 @@
 package com.eazybytes.loans.service;
 
+import com.eazybytes.loans.dto.CustomerLoansDto;
+import com.eazybytes.loans.dto.LoanPortfolioDto;
 import com.eazybytes.loans.dto.LoansDto;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Author: ldeepak
  */
@@ -9,16 +14,23 @@ public interface ILoansService {
 
 	/**
 	 *
-	 * @param mobileNumber - Mobile Number of the Customer
+	 * @param mobileNumber - Mobile Number of the Customer, who may already hold other loans
 	 */
 	void createLoan(String mobileNumber);
 
 	/**
 	 *
 	 * @param mobileNumber - Input mobile Number
-	 *  @return Loan Details based on a given mobileNumber
+	 *  @return All the loans of the given mobileNumber with their totals
+	 */
+	CustomerLoansDto fetchLoans(String mobileNumber);
+
+	/**
+	 *
+	 * @param mobileNumbers - Input mobile Numbers
+	 * @return All the loans of each mobileNumber with their totals, mobile numbers without a loan are absent
 	 */
-	LoansDto fetchLoan(String mobileNumber);
+	Map<String, CustomerLoansDto> fetchLoans(List<String> mobileNumbers);
 
 	/**
 	 *
@@ -30,7 +42,15 @@ public interface ILoansService {
 	/**
 	 *
 	 * @param mobileNumber - Input Mobile Number
+	 * @param loanNumber - Loan to delete, all the loans of the mobile number when null
 	 * @return boolean indicating if the delete of loan details is successful or not
 	 */
-	boolean deleteLoan(String mobileNumber);
+	boolean deleteLoan(String mobileNumber, String loanNumber);
+
+	/**
+	 *
+	 * @param top - Number of largest borrowers returned
+	 * @return Totals, delinquency and concentration of the loans
+	 */
+	LoanPortfolioDto fetchPortfolio(int top);
 }
@@ -0,0 +1,50 @@
+package com.eazybytes.loans.service.impl;
+
+import com.eazybytes.loans.dto.EligibilityDto;
+import com.eazybytes.loans.eligibility.EligibilityDecision;
+import com.eazybytes.loans.eligibility.EligibilityEngine;
+import com.eazybytes.loans.service.IEligibilityService;
+import io.micrometer.observation.annotation.Observed;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: ldeepak
+ */
+@Service
+@AllArgsConstructor
+@Observed(name = "loans.eligibility")
+public class EligibilityServiceImpl implements IEligibilityService {
+
+	private EligibilityEngine eligibilityEngine;
+
+	/**
+	 * @param mobileNumber - Mobile Number of the applicant
+	 * @return Loan eligibility of the applicant
+	 */
+	@Override
+	public EligibilityDto checkEligibility(String mobileNumber) {
+		return toDto(mobileNumber, eligibilityEngine.evaluate(mobileNumber));
+	}
+
+	/**
+	 * @param mobileNumbers - Mobile Numbers of the applicants
+	 * @return Loan eligibility of each distinct applicant, in the order of the request
+	 */
+	@Override
+	public List<EligibilityDto> checkEligibility(List<String> mobileNumbers) {
+		Map<String, EligibilityDecision> decisions = eligibilityEngine.evaluateBatch(mobileNumbers);
+		List<EligibilityDto> eligibilityDtos = new ArrayList<>(decisions.size());
+		decisions.forEach((mobileNumber, decision) -> eligibilityDtos.add(toDto(mobileNumber, decision)));
+		return eligibilityDtos;
+	}
+
+	private static EligibilityDto toDto(String mobileNumber, EligibilityDecision decision) {
+		return new EligibilityDto(mobileNumber, decision.eligible(), decision.score(),
+				decision.eligible() ? decision.loanType() : null, decision.eligible() ? decision.limit() : 0, decision.rule());
+	}
+}
@@ -1,17 +1,30 @@
 package com.eazybytes.loans.service.impl;
 
+import com.eazybytes.loans.audit.AuditTrail;
+import com.eazybytes.loans.cache.TwoTierCache;
 import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.dto.CustomerLoansDto;
+import com.eazybytes.loans.dto.LoanPortfolioDto;
 import com.eazybytes.loans.dto.LoansDto;
 import com.eazybytes.loans.entity.Loans;
-import com.eazybytes.loans.exceptions.LoanAlreadyExistsException;
 import com.eazybytes.loans.exceptions.ResourceNotFoundException;
 import com.eazybytes.loans.mapper.LoansMapper;
+import com.eazybytes.loans.membership.MembershipFilter;
+import com.eazybytes.loans.portfolio.LoanPortfolio;
+import com.eazybytes.loans.replica.ReadYourWrites;
 import com.eazybytes.loans.repository.LoansRepository;
 import com.eazybytes.loans.service.ILoansService;
+import com.eazybytes.loans.service.support.RequestCoalescer;
+import io.micrometer.observation.annotation.Observed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -19,20 +32,37 @@ import java.util.Random;
  */
 @Service
 @AllArgsConstructor
+@Observed(name = "loans.service")
 public class LoansServiceImpl implements ILoansService {
 
 	private LoansRepository loansRepository;
 
+	private RequestCoalescer<String, CustomerLoansDto> fetchLoanCoalescer;
+
+	private AuditTrail auditTrail;
+
+	private MembershipFilter membershipFilter;
+
+	private ReadYourWrites readYourWrites;
+
+	private TwoTierCache<CustomerLoansDto> loansCache;
+
+	private LoanPortfolio loanPortfolio;
+
 	/**
+	 * A customer may hold any number of loans, every call opens a new one.
+	 *
 	 * @param mobileNumber - Mobile Number of the Customer
 	 */
 	@Override
+	@Transactional
 	public void createLoan(String mobileNumber) {
-		Optional<Loans> optionalLoans= loansRepository.findByMobileNumber(mobileNumber);
-		if(optionalLoans.isPresent()){
-			throw new LoanAlreadyExistsException("Loan already registered with given mobileNumber "+mobileNumber);
-		}
-		loansRepository.save(createNewLoan(mobileNumber));
+		Loans savedLoans = loansRepository.save(createNewLoan(mobileNumber));
+		membershipFilter.added(mobileNumber);
+		readYourWrites.recordWrite(mobileNumber);
+		loansCache.invalidate(mobileNumber);
+		loanPortfolio.saved(savedLoans);
+		auditTrail.record("Loans", savedLoans.getLoanId(), AuditTrail.CREATE, null, LoansMapper.mapToLoansDto(savedLoans, new LoansDto()));
 	}
 
 	/**
@@ -54,14 +84,61 @@ public class LoansServiceImpl implements ILoansService {
 	/**
 	 *
 	 * @param mobileNumber - Input mobile Number
-	 * @return Loan Details based on a given mobileNumber
+	 * @return All the loans of the given mobileNumber with their totals
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CustomerLoansDto fetchLoans(String mobileNumber) {
+		if (!membershipFilter.mightExist(mobileNumber)) {
+			throw new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber);
+		}
+		// A loan written moments ago may not be on the replicas yet, it is read from the primary,
+		// without joining a fetch that may have started before the write
+		if (readYourWrites.isRecentlyWritten(mobileNumber)) {
+			return readYourWrites.onPrimary(() -> loadLoan(mobileNumber));
+		}
+		// Served by the near cache, then the shared cache. On a miss of both, concurrent fetches of the same mobile number
+		// share one query and one CustomerLoansDto, callers must not modify it
+		return loansCache.get(mobileNumber, () -> fetchLoanCoalescer.execute(mobileNumber, () -> loadLoan(mobileNumber)));
+	}
+
+	// One indexed query returns every loan of the customer, however many there are
+	private CustomerLoansDto loadLoan(String mobileNumber) {
+		List<Loans> loans = loansRepository.findByMobileNumberOrderByLoanIdAsc(mobileNumber);
+		if (loans.isEmpty()) {
+			membershipFilter.falsePositive();
+			throw new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber);
+		}
+		return LoansMapper.mapToCustomerLoansDto(mobileNumber, loans);
+	}
+
+	/**
+	 * Resolves the mobile numbers in chunks with one "WHERE mobile_number IN (...)" query per chunk.
+	 *
+	 * @param mobileNumbers - Input mobile Numbers
+	 * @return All the loans of each mobileNumber with their totals, keyed by mobileNumber
 	 */
 	@Override
-	public LoansDto fetchLoan(String mobileNumber) {
-		Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
-				() -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
-		);
-		return LoansMapper.mapToLoansDto(loans, new LoansDto());
+	@Transactional(readOnly = true)
+	public Map<String, CustomerLoansDto> fetchLoans(List<String> mobileNumbers) {
+		List<String> distinctMobileNumbers = new ArrayList<>(new LinkedHashSet<>(mobileNumbers));
+		distinctMobileNumbers.removeIf(mobileNumber -> !membershipFilter.mightExist(mobileNumber));
+		return readYourWrites.read(distinctMobileNumbers, () -> loadLoans(distinctMobileNumbers));
+	}
+
+	private Map<String, CustomerLoansDto> loadLoans(List<String> distinctMobileNumbers) {
+		Map<String, List<Loans>> loansByMobileNumber = new HashMap<>();
+		for (int from = 0; from < distinctMobileNumbers.size(); from += LoansConstants.BATCH_FETCH_CHUNK_SIZE) {
+			List<String> chunk = distinctMobileNumbers.subList(from,
+					Math.min(from + LoansConstants.BATCH_FETCH_CHUNK_SIZE, distinctMobileNumbers.size()));
+			for (Loans loans : loansRepository.findByMobileNumberInOrderByLoanIdAsc(chunk)) {
+				loansByMobileNumber.computeIfAbsent(loans.getMobileNumber(), mobileNumber -> new ArrayList<>()).add(loans);
+			}
+		}
+		Map<String, CustomerLoansDto> customerLoansDtos = new HashMap<>();
+		loansByMobileNumber.forEach((mobileNumber, loans) ->
+				customerLoansDtos.put(mobileNumber, LoansMapper.mapToCustomerLoansDto(mobileNumber, loans)));
+		return customerLoansDtos;
 	}
 
 	/**
@@ -70,24 +147,67 @@ public class LoansServiceImpl implements ILoansService {
 	 * @return boolean indicating if the update of loan details is successful or not
 	 */
 	@Override
+	@Transactional
 	public boolean updateLoan(LoansDto loansDto) {
 		Loans loans = loansRepository.findByLoanNumber(loansDto.getLoanNumber()).orElseThrow(
 				() -> new ResourceNotFoundException("Loan", "LoanNumber", loansDto.getLoanNumber()));
+		// The mapper modifies the entity in place, so the before state is taken first
+		LoansDto before = LoansMapper.mapToLoansDto(loans, new LoansDto());
 		LoansMapper.mapToLoans(loansDto, loans);
-		loansRepository.save(loans);
+		Loans updatedLoans = loansRepository.save(loans);
+		if (!before.getMobileNumber().equals(updatedLoans.getMobileNumber())) {
+			membershipFilter.added(updatedLoans.getMobileNumber());
+			// The previous customer may still hold other loans
+			if (!loansRepository.existsByMobileNumber(before.getMobileNumber())) {
+				membershipFilter.removed(before.getMobileNumber());
+			}
+			readYourWrites.recordWrite(before.getMobileNumber());
+			loansCache.invalidate(before.getMobileNumber());
+		}
+		readYourWrites.recordWrite(updatedLoans.getMobileNumber());
+		loansCache.invalidate(updatedLoans.getMobileNumber());
+		loanPortfolio.saved(updatedLoans);
+		auditTrail.record("Loans", updatedLoans.getLoanId(), AuditTrail.UPDATE, before, LoansMapper.mapToLoansDto(updatedLoans, new LoansDto()));
 		return  true;
 	}
 
 	/**
 	 * @param mobileNumber - Input MobileNumber
+	 * @param loanNumber - Loan to delete, all the loans of the mobile number when null
 	 * @return boolean indicating if the delete of loan details is successful or not
 	 */
 	@Override
-	public boolean deleteLoan(String mobileNumber) {
-		Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
-				() -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
-		);
-		loansRepository.deleteById(loans.getLoanId());
+	@Transactional
+	public boolean deleteLoan(String mobileNumber, String loanNumber) {
+		List<Loans> loans = loansRepository.findByMobileNumberOrderByLoanIdAsc(mobileNumber);
+		List<Loans> deletedLoans = loanNumber == null ? loans
+				: loans.stream().filter(loan -> loan.getLoanNumber().equals(loanNumber)).toList();
+		if (deletedLoans.isEmpty()) {
+			throw loanNumber == null ? new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
+					: new ResourceNotFoundException("Loan", "LoanNumber", loanNumber);
+		}
+		// One DELETE statement, whatever the number of loans
+		loansRepository.deleteAllInBatch(deletedLoans);
+		if (deletedLoans.size() == loans.size()) {
+			membershipFilter.removed(mobileNumber);
+		}
+		readYourWrites.recordWrite(mobileNumber);
+		loansCache.invalidate(mobileNumber);
+		for (Loans loan : deletedLoans) {
+			loanPortfolio.deleted(loan.getLoanId());
+			auditTrail.record("Loans", loan.getLoanId(), AuditTrail.DELETE, LoansMapper.mapToLoansDto(loan, new LoansDto()), null);
+		}
 		return true;
 	}
+
+	/**
+	 * Answered from the in-memory LoanPortfolio, no query.
+	 *
+	 * @param top - Number of largest borrowers returned
+	 * @return Totals, delinquency and concentration of the loans
+	 */
+	@Override
+	public LoanPortfolioDto fetchPortfolio(int top) {
+		return loanPortfolio.query(top);
+	}
 }
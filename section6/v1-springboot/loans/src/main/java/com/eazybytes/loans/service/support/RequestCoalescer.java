@@ -0,0 +1,69 @@
+package com.eazybytes.loans.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Author: ldeepak
+ *
+ * RequestCoalescer (single-flight) makes concurrent calls for the same key share one execution.
+ * The first caller for a key (the leader) runs the loader, every caller arriving while it is still running (a follower)
+ * waits for the leader and receives the very same result, or the very same exception.
+ * Nothing is cached: as soon as the leader finishes the key is released and the next call loads again.
+ *
+ * Two counters are published, "<name>.coalescing.leaders" and "<name>.coalescing.followers".
+ * followers / (leaders + followers) is the share of calls that did not hit the database.
+ */
+public class RequestCoalescer<K, V> {
+
+	private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final Counter leaders;
+	private final Counter followers;
+
+	public RequestCoalescer(String name, MeterRegistry meterRegistry) {
+		this.leaders = Counter.builder(name + ".coalescing.leaders")
+				.description("Calls that executed the load")
+				.register(meterRegistry);
+		this.followers = Counter.builder(name + ".coalescing.followers")
+				.description("Calls that joined an in-flight load instead of executing it")
+				.register(meterRegistry);
+	}
+
+	public V execute(K key, Supplier<V> loader) {
+		CompletableFuture<V> pending = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, pending);
+		if (existing != null) {
+			followers.increment();
+			return await(existing);
+		}
+
+		leaders.increment();
+		try {
+			V value = loader.get();
+			pending.complete(value);
+			return value;
+		} catch (RuntimeException ex) {
+			pending.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(key, pending);
+		}
+	}
+
+	private V await(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw ex;
+		}
+	}
+}
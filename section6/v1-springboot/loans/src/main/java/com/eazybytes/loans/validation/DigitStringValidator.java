@@ -0,0 +1,49 @@
+package com.eazybytes.loans.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Author: ldeepak
+ *
+ * Validates @DigitString on strings with a character loop, no regex and no allocation.
+ */
+public class DigitStringValidator implements ConstraintValidator<DigitString, CharSequence> {
+
+	private int length;
+	private boolean allowEmpty;
+
+	@Override
+	public void initialize(DigitString digitString) {
+		this.length = digitString.length();
+		this.allowEmpty = digitString.allowEmpty();
+	}
+
+	@Override
+	public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+		if (value == null) {
+			return true;
+		}
+		return isDigits(value, length, allowEmpty);
+	}
+
+	/**
+	 * @return true if value has exactly length ASCII digits, or is empty and allowEmpty is true
+	 */
+	public static boolean isDigits(CharSequence value, int length, boolean allowEmpty) {
+		int valueLength = value.length();
+		if (valueLength == 0) {
+			return allowEmpty;
+		}
+		if (valueLength != length) {
+			return false;
+		}
+		for (int i = 0; i < valueLength; i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -6,9 +6,34 @@ CREATE TABLE IF NOT EXISTS `loans` (
   `total_loan` int NOT NULL,
   `amount_paid` int NOT NULL,
   `outstanding_amount` int NOT NULL,
+  `version` int NOT NULL DEFAULT 0,
   `created_at` date NOT NULL,
   `created_by` varchar(20) NOT NULL,
   `updated_at` date DEFAULT NULL,
   `updated_by` varchar(20) DEFAULT NULL,
   PRIMARY KEY (`loan_id`)
+);
+
+-- A customer holds any number of loans, all of them are read with one range scan of this index, oldest first
+CREATE INDEX IF NOT EXISTS `idx_loans_mobile_number` ON `loans` (`mobile_number`, `loan_id`);
+
+CREATE TABLE IF NOT EXISTS `idempotency_record` (
+  `idempotency_key` varchar(300) NOT NULL,
+  `request_hash` char(64) NOT NULL,
+  `http_status` int NOT NULL,
+  `status_code` varchar(10) NOT NULL,
+  `status_msg` varchar(200) NOT NULL,
+  `created_at` timestamp NOT NULL,
+  PRIMARY KEY (`idempotency_key`)
+);
+
+CREATE TABLE IF NOT EXISTS `audit_trail` (
+  `audit_id` bigint AUTO_INCREMENT PRIMARY KEY,
+  `entity_type` varchar(50) NOT NULL,
+  `entity_id` varchar(50) NOT NULL,
+  `action` varchar(10) NOT NULL,
+  `changed_by` varchar(20) DEFAULT NULL,
+  `changed_at` timestamp NOT NULL,
+  `before_state` clob DEFAULT NULL,
+  `after_state` clob DEFAULT NULL
 );
\ No newline at end of file
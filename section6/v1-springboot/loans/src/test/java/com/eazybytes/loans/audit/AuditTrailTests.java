@@ -0,0 +1,63 @@
+package com.eazybytes.loans.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Author: ldeepak
+ */
+class AuditTrailTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final List<AuditEvent> written = new ArrayList<>();
+
+	// Collects the inserted events instead of writing them to a database
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+									   ParameterizedPreparedStatementSetter<T> pss) {
+			batchArgs.forEach(event -> written.add((AuditEvent) event));
+			return new int[0][];
+		}
+	};
+
+	@Test
+	void tornLastLineIsQuarantinedAndTheOtherEventsAreReplayedOnce() throws Exception {
+		Path spillFile = Files.createTempDirectory("audit").resolve("loans-audit-spill.jsonl");
+		AuditEvent created = event("1", AuditTrail.CREATE);
+		AuditEvent updated = event("1", AuditTrail.UPDATE);
+		String torn = objectMapper.writeValueAsString(event("2", AuditTrail.CREATE));
+		torn = torn.substring(0, torn.length() / 2);
+		Files.writeString(spillFile, objectMapper.writeValueAsString(created) + "\n"
+				+ objectMapper.writeValueAsString(updated) + "\n" + torn);
+
+		AuditTrail auditTrail = new AuditTrail(jdbcTemplate, objectMapper, Optional::empty, new SimpleMeterRegistry(),
+				100, 10, Duration.ofMillis(200), Duration.ofMillis(50), spillFile.toString());
+		auditTrail.replaySpillFile();
+		// The next idle poll has nothing left to replay
+		auditTrail.replaySpillFile();
+
+		assertEquals(List.of(created, updated), written);
+		assertFalse(Files.exists(spillFile.resolveSibling("loans-audit-spill.jsonl.replay")));
+		assertEquals(List.of(torn), Files.readAllLines(spillFile.resolveSibling("loans-audit-spill.jsonl.quarantine")));
+	}
+
+	private static AuditEvent event(String entityId, String action) {
+		return new AuditEvent("Loans", entityId, action, "LOANS_MS", LocalDateTime.of(2024, 1, 1, 12, 0), null, "{}");
+	}
+}
@@ -0,0 +1,89 @@
+package com.eazybytes.loans.cache;
+
+import com.eazybytes.loans.dto.LoansDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Author: ldeepak
+ *
+ * Two instances of the loans microservice, modelled by two TwoTierCache over the same LocalSharedCache.
+ */
+class TwoTierCacheTests {
+
+	private static final String MOBILE_NUMBER = "4354437687";
+
+	private final SharedCache sharedCache = new LocalSharedCache();
+	private final TwoTierCache<LoansDto> instanceA = newInstance();
+	private final TwoTierCache<LoansDto> instanceB = newInstance();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void tiersAreFilledOnTheWayBackAndInvalidatedOnEveryInstance() {
+		List<String> remoteInvalidations = new ArrayList<>();
+		instanceB.onRemoteInvalidation(remoteInvalidations::add);
+
+		LoansDto loaded = instanceA.get(MOBILE_NUMBER, () -> load(7L));
+		assertSame(loaded, instanceA.get(MOBILE_NUMBER, () -> load(8L)));
+		// Instance B gets a copy from the shared tier, version included, then keeps it in its near tier
+		LoansDto shared = instanceB.get(MOBILE_NUMBER, () -> load(8L));
+		assertNotSame(loaded, shared);
+		assertEquals(7L, shared.getVersion());
+		assertSame(shared, instanceB.get(MOBILE_NUMBER, () -> load(8L)));
+		assertEquals(1, loads.get());
+
+		instanceA.invalidate(MOBILE_NUMBER);
+
+		assertEquals(List.of(MOBILE_NUMBER), remoteInvalidations);
+		assertEquals(8L, instanceB.get(MOBILE_NUMBER, () -> load(8L)).getVersion());
+		assertEquals(2, loads.get());
+
+		TwoTierCache.Stats statsA = instanceA.stats();
+		assertEquals(1, statsA.nearHits());
+		assertEquals(1, statsA.nearMisses());
+		assertEquals(1, statsA.invalidationsSent());
+		TwoTierCache.Stats statsB = instanceB.stats();
+		assertEquals(1, statsB.nearHits());
+		assertEquals(1, statsB.sharedHits());
+		assertEquals(1, statsB.sharedMisses());
+		assertEquals(1, statsB.invalidationsReceived());
+	}
+
+	@Test
+	void valueLoadedWhileItsKeyIsInvalidatedIsNotCached() {
+		instanceA.get(MOBILE_NUMBER, () -> {
+			LoansDto stale = load(7L);
+			instanceB.invalidate(MOBILE_NUMBER);
+			return stale;
+		});
+
+		assertEquals(8L, instanceA.get(MOBILE_NUMBER, () -> load(8L)).getVersion());
+		assertEquals(8L, instanceB.get(MOBILE_NUMBER, () -> load(9L)).getVersion());
+		assertEquals(2, loads.get());
+	}
+
+	private LoansDto load(long version) {
+		loads.incrementAndGet();
+		LoansDto loansDto = new LoansDto();
+		loansDto.setMobileNumber(MOBILE_NUMBER);
+		loansDto.setLoanNumber("548732457654");
+		loansDto.setVersion(version);
+		return loansDto;
+	}
+
+	private TwoTierCache<LoansDto> newInstance() {
+		CacheProperties cacheProperties = new CacheProperties(true, new CacheProperties.Near(100, Duration.ofSeconds(30)),
+				new CacheProperties.Shared("local", Duration.ofMinutes(10)));
+		return new TwoTierCache<>("loans", LoansDto.class, cacheProperties, sharedCache, new ObjectMapper(), new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,79 @@
+package com.eazybytes.loans.eligibility;
+
+import com.eazybytes.loans.eligibility.EligibilityProperties.Range;
+import com.eazybytes.loans.eligibility.EligibilityProperties.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class DecisionTableTests {
+
+	private static final List<Rule> RULES = List.of(
+			new Rule("over-indebted", Map.of(Feature.OUTSTANDING_AMOUNT, new Range(200000d, null)), false, 300, null, 0),
+			new Rule("prime", Map.of(Feature.LOANS, new Range(null, 1d), Feature.CARD_UTILIZATION, new Range(null, 0.3)),
+					true, 800, "Home Loan", 200000),
+			new Rule("standard", Map.of(Feature.LOANS, new Range(null, 3d), Feature.CARD_UTILIZATION, new Range(null, 0.7)),
+					true, 650, "Personal Loan", 50000));
+
+	@Test
+	void firstMatchingRuleDecides() {
+		DecisionTable table = DecisionTable.compile(RULES);
+
+		assertEquals("prime", table.evaluate(new ApplicantProfile(0, 0, 1, 0.1)).rule());
+		// Bounds: min inclusive, max exclusive
+		assertEquals("standard", table.evaluate(new ApplicantProfile(0, 0, 1, 0.3)).rule());
+		assertEquals("standard", table.evaluate(new ApplicantProfile(2, 150000, 0, 0)).rule());
+		// over-indebted comes first, although standard matches too
+		EligibilityDecision decision = table.evaluate(new ApplicantProfile(1, 200000, 0, 0));
+		assertEquals("over-indebted", decision.rule());
+		assertFalse(decision.eligible());
+	}
+
+	@Test
+	void noMatchingRuleIsNotEligible() {
+		DecisionTable table = DecisionTable.compile(RULES);
+
+		EligibilityDecision decision = table.evaluate(new ApplicantProfile(5, 10000, 2, 0.95));
+
+		assertEquals("none", decision.rule());
+		assertFalse(decision.eligible());
+	}
+
+	@Test
+	void emptyRangeIsRejected() {
+		List<Rule> rules = List.of(new Rule("empty", Map.of(Feature.LOANS, new Range(3d, 1d)), true, 0, null, 0));
+
+		assertThrows(IllegalArgumentException.class, () -> DecisionTable.compile(rules));
+	}
+
+	@Test
+	void batchKeepsRequestOrderAcrossChunks() {
+		ApplicantSource source = mobileNumbers -> {
+			Map<String, ApplicantProfile> profiles = new HashMap<>();
+			mobileNumbers.forEach(mobileNumber -> profiles.put(mobileNumber,
+					new ApplicantProfile(Integer.parseInt(mobileNumber) % 4, 0, 1, 0.1)));
+			return profiles;
+		};
+		try (EligibilityEngine engine = new EligibilityEngine(DecisionTable.compile(RULES), source, 4, 3)) {
+			List<String> mobileNumbers = List.of("8", "1", "2", "3", "4", "5", "6", "1");
+
+			Map<String, EligibilityDecision> decisions = engine.evaluateBatch(mobileNumbers);
+
+			assertEquals(List.of("8", "1", "2", "3", "4", "5", "6"), List.copyOf(decisions.keySet()));
+			assertEquals("prime", decisions.get("8").rule());
+			assertEquals("standard", decisions.get("2").rule());
+			assertTrue(decisions.get("6").eligible());
+			assertEquals("none", decisions.get("3").rule());
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.eazybytes.loans.eligibility;
+
+import com.eazybytes.loans.eligibility.EligibilityProperties.Range;
+import com.eazybytes.loans.eligibility.EligibilityProperties.Rule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * JMH benchmark of the eligibility engine, against an in-memory ApplicantSource so that only the rules and the batching are measured.
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.loans.eligibility.EligibilityBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EligibilityBenchmark {
+
+	private static final int BATCH_SIZE = 100_000;
+
+	private final List<Rule> rules = List.of(
+			new Rule("over-indebted", Map.of(Feature.OUTSTANDING_AMOUNT, new Range(200000d, null)), false, 300, null, 0),
+			new Rule("maxed-out-cards", Map.of(Feature.CARD_UTILIZATION, new Range(0.9, null)), false, 400, null, 0),
+			new Rule("prime", Map.of(Feature.LOANS, new Range(null, 1d), Feature.CARD_UTILIZATION, new Range(null, 0.3)),
+					true, 800, "Home Loan", 200000),
+			new Rule("standard", Map.of(Feature.LOANS, new Range(null, 3d), Feature.CARD_UTILIZATION, new Range(null, 0.7)),
+					true, 650, "Personal Loan", 50000),
+			new Rule("fallback", Map.of(), false, 500, null, 0));
+
+	private DecisionTable decisionTable;
+	private ApplicantProfile[] profiles;
+	private List<String> mobileNumbers;
+	private EligibilityEngine engine;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		decisionTable = DecisionTable.compile(rules);
+		SplittableRandom random = new SplittableRandom(42);
+		Map<String, ApplicantProfile> profilesByMobileNumber = new HashMap<>();
+		profiles = new ApplicantProfile[BATCH_SIZE];
+		mobileNumbers = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			String mobileNumber = Long.toString(1_000_000_000L + i);
+			profiles[i] = new ApplicantProfile(random.nextInt(5), random.nextLong(300000), random.nextInt(3), random.nextDouble());
+			profilesByMobileNumber.put(mobileNumber, profiles[i]);
+			mobileNumbers.add(mobileNumber);
+		}
+		ApplicantSource source = chunk -> {
+			Map<String, ApplicantProfile> found = new HashMap<>();
+			chunk.forEach(mobileNumber -> found.put(mobileNumber, profilesByMobileNumber.get(mobileNumber)));
+			return found;
+		};
+		engine = new EligibilityEngine(decisionTable, source, Runtime.getRuntime().availableProcessors(), 1000);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public EligibilityDecision single() {
+		next = (next + 1) % BATCH_SIZE;
+		return decisionTable.evaluate(profiles[next]);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Map<String, EligibilityDecision> batch() {
+		return engine.evaluateBatch(mobileNumbers);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(EligibilityBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,102 @@
+package com.eazybytes.loans.exceptions;
+
+import com.eazybytes.loans.dto.ErrorResponseDto;
+import com.eazybytes.loans.validation.DigitStringValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Author: ldeepak
+ *
+ * JMH benchmark of the 404 path of GET /api/fetch without the HTTP layer: the mobile number is validated, the lookup
+ * throws not-found STACK_DEPTH frames below the handler (about the depth of the Spring MVC stack) and the error body is built.
+ * - validation: the former @Pattern(regexp = "(^$|[0-9]{10})") with a new Matcher per check, or the @DigitString loop
+ * - exception: the former ResourceNotFoundException (stack trace, String.format message), or the stackless one
+ * regex/stackTrace is the path before the change, loop/stackless the path now.
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.loans.exceptions.NotFoundPathBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NotFoundPathBenchmark {
+
+	private static final Pattern MOBILE_NUMBER = Pattern.compile("(^$|[0-9]{10})");
+	private static final int STACK_DEPTH = 100;
+
+	@Param({"regex", "loop"})
+	private String validation;
+
+	@Param({"stackTrace", "stackless"})
+	private String exception;
+
+	// Not final, so that the JIT cannot fold the validation
+	private String mobileNumber = "4354437687";
+
+	/**
+	 * The validation alone, its share of the path is small next to the exception and hard to see in notFound.
+	 * It does not depend on the exception parameter.
+	 */
+	@Benchmark
+	public boolean validate() {
+		return validation.equals("regex")
+				? MOBILE_NUMBER.matcher(mobileNumber).matches()
+				: DigitStringValidator.isDigits(mobileNumber, 10, true);
+	}
+
+	@Benchmark
+	public ErrorResponseDto notFound() {
+		if (!validate()) {
+			throw new IllegalStateException(mobileNumber);
+		}
+		try {
+			fetch(STACK_DEPTH);
+			throw new IllegalStateException("not thrown");
+		} catch (RuntimeException ex) {
+			return new ErrorResponseDto("uri=/api/fetch", HttpStatus.NOT_FOUND, ex.getMessage(), LocalDateTime.now());
+		}
+	}
+
+	private void fetch(int depth) {
+		if (depth > 0) {
+			fetch(depth - 1);
+			return;
+		}
+		throw exception.equals("stackTrace")
+				? new StackTraceNotFoundException("Loan", "mobileNumber", mobileNumber)
+				: new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber);
+	}
+
+	/**
+	 * ResourceNotFoundException as it was before it was made stackless.
+	 */
+	private static class StackTraceNotFoundException extends RuntimeException {
+
+		StackTraceNotFoundException(String resourceName, String fieldName, String fieldValue) {
+			super(String.format("%s not found with the given input data %s : '%s'", resourceName, fieldName, fieldValue));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NotFoundPathBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,63 @@
+package com.eazybytes.loans.exceptions;
+
+import com.eazybytes.loans.dto.ErrorResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Author: ldeepak
+ *
+ * Checks that ResourceNotFoundException stays cheap on the 404 path (no stack trace, message built on demand)
+ * and that it is still answered the same way.
+ */
+class ResourceNotFoundExceptionTests {
+
+	private static final String MESSAGE = "Loan not found with the given input data mobileNumber : '4354437687'";
+
+	@Test
+	void noStackTraceIsCaptured() {
+		ResourceNotFoundException exception = new ResourceNotFoundException("Loan", "mobileNumber", "4354437687");
+
+		assertEquals(0, exception.getStackTrace().length);
+		assertEquals(0, exception.getSuppressed().length);
+		assertNull(exception.getCause());
+	}
+
+	@Test
+	void messageIsOnlyBuiltWhenAskedFor() throws Exception {
+		ResourceNotFoundException exception = new ResourceNotFoundException("Loan", "mobileNumber", "4354437687");
+		Field message = ResourceNotFoundException.class.getDeclaredField("message");
+		message.setAccessible(true);
+
+		assertNull(message.get(exception));
+		String first = exception.getMessage();
+		assertEquals(MESSAGE, first);
+		assertSame(first, message.get(exception));
+		assertSame(first, exception.getMessage());
+	}
+
+	@Test
+	void handlerAnswersNotFound() {
+		ResourceNotFoundException exception = new ResourceNotFoundException("Loan", "mobileNumber", "4354437687");
+		ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/fetch"));
+
+		ResponseEntity<ErrorResponseDto> response =
+				new GlobalExceptionHandler().handleResourceNotFoundException(exception, webRequest);
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, response.getBody().getErrorCode());
+		assertEquals(MESSAGE, response.getBody().getErrorMessage());
+		assertEquals("uri=/api/fetch", response.getBody().getApiPath());
+		assertEquals(HttpStatus.NOT_FOUND, ResourceNotFoundException.class.getAnnotation(ResponseStatus.class).value());
+	}
+}
@@ -0,0 +1,61 @@
+package com.eazybytes.loans.portfolio;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Author: ldeepak
+ */
+class LoanColumnsTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+	@Test
+	void aggregatesFollowUpdatesAndDeletes() {
+		LoanColumns columns = new LoanColumns(0);
+		columns.upsert(new LoanRow(1, "1111111111", "Home Loan", 100000, 0, 100000, TODAY));
+		columns.upsert(new LoanRow(2, "2222222222", "Home Loan", 100000, 40000, 60000, TODAY.minusDays(45)));
+		columns.upsert(new LoanRow(3, "2222222222", "Car Loan", 20000, 20000, 0, TODAY.minusDays(200)));
+		// Payment on loan 1, then loan 2 is deleted and its slot reused
+		columns.upsert(new LoanRow(1, "1111111111", "Home Loan", 100000, 10000, 90000, TODAY));
+		columns.remove(2);
+		columns.upsert(new LoanRow(4, "3333333333", "Home Loan", 50000, 0, 50000, TODAY.minusDays(95)));
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		LoanColumns.Totals totals = columns.totals(pool, (int) TODAY.toEpochDay());
+		LoanColumns.Borrowers borrowers = columns.borrowers(pool, 2);
+
+		assertEquals(3, columns.loanCount());
+		assertArrayEquals(new long[]{2, 1}, totals.loans);
+		assertArrayEquals(new long[]{140000, 0}, totals.outstandingAmount);
+		// Home Loan buckets 0-29, 30-59, 60-89, 90+ then Car Loan, a paid off loan is in none
+		assertArrayEquals(new long[]{1, 0, 0, 1, 0, 0, 0, 0}, totals.delinquentLoans);
+		assertEquals(2, borrowers.count());
+		assertArrayEquals(new long[]{90000, 50000}, borrowers.topOutstandingAmount());
+		assertEquals("1111111111", columns.borrowerMobileNumber(borrowers.top()[0]));
+		assertEquals((90000.0 * 90000 + 50000.0 * 50000) / (140000.0 * 140000), borrowers.herfindahlIndex(), 1e-12);
+	}
+
+	@Test
+	void parallelAggregationMatchesTheSums() {
+		LoanColumns columns = new LoanColumns(0);
+		long outstanding = 0;
+		for (int loan = 1; loan <= 200_000; loan++) {
+			columns.upsert(new LoanRow(loan, Long.toString(1_000_000_000L + loan), loan % 2 == 0 ? "Home Loan" : "Car Loan",
+					10000, 0, loan, TODAY));
+			outstanding += loan;
+		}
+
+		LoanColumns.Totals totals = columns.totals(new ForkJoinPool(4), (int) TODAY.toEpochDay());
+		LoanColumns.Borrowers borrowers = columns.borrowers(new ForkJoinPool(4), 3);
+
+		assertEquals(outstanding, totals.outstandingAmount[0] + totals.outstandingAmount[1]);
+		assertEquals(outstanding, borrowers.outstandingAmount());
+		assertArrayEquals(new long[]{200_000, 199_999, 199_998}, borrowers.topOutstandingAmount());
+	}
+}
@@ -0,0 +1,28 @@
+package com.eazybytes.loans.ratelimit;
+
+import com.eazybytes.loans.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Author: ldeepak
+ */
+class RateLimiterTests {
+
+	@Test
+	void writeRejectedByTheMobileNumberLimitKeepsTheApiKeyToken() {
+		// 2 writes per API key, 1 write per mobile number
+		RateLimiter rateLimiter = new RateLimiter(true, 0.001, 2, 0.001, 1, 100, new SimpleMeterRegistry());
+		rateLimiter.checkWrite("api-key-a", "4354437687");
+
+		for (int i = 0; i < 10; i++) {
+			assertThrows(RateLimitExceededException.class, () -> rateLimiter.checkWrite("api-key-a", "4354437687"));
+		}
+
+		// The rejected writes did not spend the second token of the API key
+		rateLimiter.checkWrite("api-key-a", "9999999999");
+		assertThrows(RateLimitExceededException.class, () -> rateLimiter.checkWrite("api-key-a", "8888888888"));
+	}
+}
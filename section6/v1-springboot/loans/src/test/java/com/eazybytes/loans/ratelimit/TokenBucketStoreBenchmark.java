@@ -0,0 +1,74 @@
+package com.eazybytes.loans.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author: ldeepak
+ *
+ * JMH benchmark of TokenBucketStore under contention: 64 threads acquire from 16 hot keys, so that 4 threads
+ * fight over the compareAndSet of every bucket. The limits are high enough for every acquire to succeed.
+ * Not a test (surefire only runs the *Tests classes), run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eazybytes.loans.ratelimit.TokenBucketStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenBucketStoreBenchmark {
+
+	private static final int HOT_KEYS = 16;
+
+	private TokenBucketStore store;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		store = new TokenBucketStore(1_000_000_000, 1_000_000, 1000);
+	}
+
+	@State(Scope.Thread)
+	public static class Client {
+		private String hotKey;
+		private String ownKey;
+
+		@Setup(Level.Trial)
+		public void setUp(ThreadParams threadParams) {
+			hotKey = "api-key-" + (threadParams.getThreadIndex() % HOT_KEYS);
+			ownKey = "own-key-" + threadParams.getThreadIndex();
+		}
+	}
+
+	@Benchmark
+	public long hotKeys(Client client) {
+		return store.tryAcquire(client.hotKey);
+	}
+
+	@Benchmark
+	public long distinctKeys(Client client) {
+		// Every thread on its own key, the baseline without contention on a bucket
+		return store.tryAcquire(client.ownKey);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TokenBucketStoreBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,63 @@
+package com.eazybytes.loans.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class TokenBucketStoreTests {
+
+	@Test
+	void allowsTheBurstThenRejectsUntilRefilled() throws InterruptedException {
+		TokenBucketStore store = new TokenBucketStore(10, 5, 100);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, store.tryAcquire("key-1"));
+		}
+		long waitNanos = store.tryAcquire("key-1");
+		assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.MILLISECONDS.toNanos(100), "One token comes back every 100ms");
+		// Other keys have their own bucket
+		assertEquals(0, store.tryAcquire("key-2"));
+
+		TimeUnit.NANOSECONDS.sleep(waitNanos);
+		assertEquals(0, store.tryAcquire("key-1"));
+	}
+
+	@Test
+	void staysBoundedAndSendsUnknownKeysToTheOverflowBucket() {
+		TokenBucketStore store = new TokenBucketStore(1, 3, 10);
+		for (int i = 0; i < 1000; i++) {
+			store.tryAcquire("key-" + i);
+		}
+		assertTrue(store.size() <= 10);
+		// Keys beyond the bound share the overflow bucket, cycling through keys does not escape the limit
+		assertTrue(store.tryAcquire("yet-another-key") > 0);
+	}
+
+	@Test
+	void overflowBucketStartsWithItsFullBurst() {
+		TokenBucketStore store = new TokenBucketStore(1, 3, 1);
+		assertEquals(0, store.tryAcquire("key-1"));
+		// The store is full, the other keys share the overflow bucket, which starts full like any new bucket
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, store.tryAcquire("other-key-" + i));
+		}
+		assertTrue(store.tryAcquire("yet-another-key") > 0);
+	}
+
+	@Test
+	void waitNanosDoesNotTakeAToken() {
+		TokenBucketStore store = new TokenBucketStore(1, 2, 100);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, store.waitNanos("key-1"));
+		}
+		assertEquals(0, store.tryAcquire("key-1"));
+		assertEquals(0, store.tryAcquire("key-1"));
+		assertTrue(store.waitNanos("key-1") > 0);
+		assertTrue(store.tryAcquire("key-1") > 0);
+	}
+}
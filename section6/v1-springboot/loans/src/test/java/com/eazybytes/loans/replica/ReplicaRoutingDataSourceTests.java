@@ -0,0 +1,104 @@
+package com.eazybytes.loans.replica;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Author: ldeepak
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private final List<String> borrowedFrom = new ArrayList<>();
+
+	@Test
+	void readsGoToTheReplicaWithTheLeastOutstandingConnections() throws SQLException {
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(dataSource("primary"),
+				replicas(dataSource("replica1"), dataSource("replica2")));
+
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertEquals(List.of("replica1", "replica2"), borrowedFrom);
+
+		// replica1 is slow, its connection is still out: the next reads go to replica2 as its connections come back
+		second.close();
+		dataSource.getConnection().close();
+		dataSource.getConnection().close();
+		assertEquals(List.of("replica1", "replica2", "replica2", "replica2"), borrowedFrom);
+		assertEquals(1, dataSource.getOutstanding("replica1"));
+		assertEquals(0, dataSource.getOutstanding("replica2"));
+
+		// A connection closed twice is only given back once
+		first.close();
+		first.close();
+		assertEquals(0, dataSource.getOutstanding("replica1"));
+	}
+
+	@Test
+	void recentlyWrittenMobileNumbersAreReadFromThePrimary() throws SQLException {
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(dataSource("primary"),
+				replicas(dataSource("replica1"), dataSource("replica2")));
+		ReadYourWrites readYourWrites = new ReadYourWrites(new ReplicaProperties(true, Duration.ofSeconds(5), null, null));
+		readYourWrites.recordWrite("4354437687");
+
+		assertTrue(readYourWrites.isRecentlyWritten("4354437687"));
+		assertFalse(readYourWrites.isRecentlyWritten("9876543210"));
+		readYourWrites.read(List.of("9876543210", "4354437687"), () -> connectionFrom(dataSource));
+		readYourWrites.read(List.of("9876543210"), () -> connectionFrom(dataSource));
+		assertEquals(List.of("primary", "replica1"), borrowedFrom);
+		assertFalse(ReadYourWrites.isPrimaryRequired());
+	}
+
+	@Test
+	void readsGoToThePrimaryWhenAReplicaHasNoConnection() throws SQLException {
+		DataSource broken = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+				(proxy, method, args) -> {
+					throw new SQLException("Connection is not available, request timed out");
+				});
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(dataSource("primary"), replicas(broken));
+
+		dataSource.getConnection();
+		assertEquals(List.of("primary"), borrowedFrom);
+		assertEquals(0, dataSource.getOutstanding("replica1"));
+	}
+
+	private static Map<String, DataSource> replicas(DataSource... dataSources) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < dataSources.length; i++) {
+			replicas.put("replica" + (i + 1), dataSources[i]);
+		}
+		return replicas;
+	}
+
+	private static Connection connectionFrom(DataSource dataSource) {
+		try {
+			return dataSource.getConnection();
+		} catch (SQLException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private DataSource dataSource(String name) {
+		return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+				(proxy, method, args) -> {
+					if (!method.getName().equals("getConnection")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					borrowedFrom.add(name);
+					return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+							(connection, connectionMethod, connectionArgs) -> null);
+				});
+	}
+}